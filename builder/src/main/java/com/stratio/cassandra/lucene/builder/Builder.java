@@ -24,6 +24,7 @@ import com.stratio.cassandra.lucene.builder.index.schema.analysis.ClasspathAnaly
 import com.stratio.cassandra.lucene.builder.index.schema.analysis.SnowballAnalyzer;
 import com.stratio.cassandra.lucene.builder.index.schema.mapping.*;
 import com.stratio.cassandra.lucene.builder.search.Search;
+import com.stratio.cassandra.lucene.builder.search.aggregation.*;
 import com.stratio.cassandra.lucene.builder.search.condition.*;
 import com.stratio.cassandra.lucene.builder.search.sort.GeoDistanceSortField;
 import com.stratio.cassandra.lucene.builder.search.sort.SimpleSortField;
@@ -502,6 +503,51 @@ public abstract class Builder {
         return new SimpleSortField(field);
     }
 
+    /**
+     * Returns a new {@link TermsAggregation} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new terms aggregation
+     */
+    public static TermsAggregation termsAggregation(String name, String field) {
+        return new TermsAggregation(name, field);
+    }
+
+    /**
+     * Returns a new {@link HistogramAggregation} for the specified name, field and interval.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param interval the size of the bucket intervals
+     * @return a new histogram aggregation
+     */
+    public static HistogramAggregation histogramAggregation(String name, String field, double interval) {
+        return new HistogramAggregation(name, field, interval);
+    }
+
+    /**
+     * Returns a new {@link RangeAggregation} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new range aggregation
+     */
+    public static RangeAggregation rangeAggregation(String name, String field) {
+        return new RangeAggregation(name, field);
+    }
+
+    /**
+     * Returns a new {@link StatsAggregation} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new stats aggregation
+     */
+    public static StatsAggregation statsAggregation(String name, String field) {
+        return new StatsAggregation(name, field);
+    }
+
     /**
      * Returns a new {@link GeoDistanceSortField} for the specified field.
      *
@@ -28,6 +28,22 @@ public class StringMapper extends SingleColumnMapper<StringMapper> {
     @JsonProperty("case_sensitive")
     Boolean caseSensitive;
 
+    /** If the prefixes of the terms must be indexed. */
+    @JsonProperty("prefix_index")
+    Boolean prefixIndex;
+
+    /** The min length of the indexed prefixes. */
+    @JsonProperty("prefix_min_length")
+    Integer prefixMinLength;
+
+    /** The max length of the indexed prefixes. */
+    @JsonProperty("prefix_max_length")
+    Integer prefixMaxLength;
+
+    /** If the reversed terms must be indexed. */
+    @JsonProperty("reverse_index")
+    Boolean reverseIndex;
+
     /**
      * Sets if the mapping must be case sensitive.
      *
@@ -38,4 +54,48 @@ public class StringMapper extends SingleColumnMapper<StringMapper> {
         this.caseSensitive = caseSensitive;
         return this;
     }
+
+    /**
+     * Sets if the prefixes of the terms must be indexed, to speed up prefix searches.
+     *
+     * @param prefixIndex if the prefixes of the terms must be indexed
+     * @return this with the specified prefix index option
+     */
+    public StringMapper prefixIndex(Boolean prefixIndex) {
+        this.prefixIndex = prefixIndex;
+        return this;
+    }
+
+    /**
+     * Sets the min length of the indexed prefixes.
+     *
+     * @param prefixMinLength the min length of the indexed prefixes
+     * @return this with the specified min prefix length
+     */
+    public StringMapper prefixMinLength(Integer prefixMinLength) {
+        this.prefixMinLength = prefixMinLength;
+        return this;
+    }
+
+    /**
+     * Sets the max length of the indexed prefixes.
+     *
+     * @param prefixMaxLength the max length of the indexed prefixes
+     * @return this with the specified max prefix length
+     */
+    public StringMapper prefixMaxLength(Integer prefixMaxLength) {
+        this.prefixMaxLength = prefixMaxLength;
+        return this;
+    }
+
+    /**
+     * Sets if the reversed terms must be indexed, to speed up searches with leading wildcards.
+     *
+     * @param reverseIndex if the reversed terms must be indexed
+     * @return this with the specified reverse index option
+     */
+    public StringMapper reverseIndex(Boolean reverseIndex) {
+        this.reverseIndex = reverseIndex;
+        return this;
+    }
 }
@@ -28,6 +28,26 @@ public class TextMapper extends SingleColumnMapper<TextMapper> {
     @JsonProperty("analyzer")
     String analyzer;
 
+    /** If the prefixes of the terms must be indexed. */
+    @JsonProperty("prefix_index")
+    Boolean prefixIndex;
+
+    /** The min length of the indexed prefixes. */
+    @JsonProperty("prefix_min_length")
+    Integer prefixMinLength;
+
+    /** The max length of the indexed prefixes. */
+    @JsonProperty("prefix_max_length")
+    Integer prefixMaxLength;
+
+    /** If the reversed terms must be indexed. */
+    @JsonProperty("reverse_index")
+    Boolean reverseIndex;
+
+    /** The max number of words of the indexed shingles. */
+    @JsonProperty("shingles")
+    Integer shingles;
+
     /**
      * Sets the name of the {@code Analyzer} to be used.
      *
@@ -38,4 +58,59 @@ public class TextMapper extends SingleColumnMapper<TextMapper> {
         this.analyzer = analyzer;
         return this;
     }
+
+    /**
+     * Sets if the prefixes of the terms must be indexed, to speed up prefix searches.
+     *
+     * @param prefixIndex if the prefixes of the terms must be indexed
+     * @return this with the specified prefix index option
+     */
+    public TextMapper prefixIndex(Boolean prefixIndex) {
+        this.prefixIndex = prefixIndex;
+        return this;
+    }
+
+    /**
+     * Sets the min length of the indexed prefixes.
+     *
+     * @param prefixMinLength the min length of the indexed prefixes
+     * @return this with the specified min prefix length
+     */
+    public TextMapper prefixMinLength(Integer prefixMinLength) {
+        this.prefixMinLength = prefixMinLength;
+        return this;
+    }
+
+    /**
+     * Sets the max length of the indexed prefixes.
+     *
+     * @param prefixMaxLength the max length of the indexed prefixes
+     * @return this with the specified max prefix length
+     */
+    public TextMapper prefixMaxLength(Integer prefixMaxLength) {
+        this.prefixMaxLength = prefixMaxLength;
+        return this;
+    }
+
+    /**
+     * Sets if the reversed terms must be indexed, to speed up searches with leading wildcards.
+     *
+     * @param reverseIndex if the reversed terms must be indexed
+     * @return this with the specified reverse index option
+     */
+    public TextMapper reverseIndex(Boolean reverseIndex) {
+        this.reverseIndex = reverseIndex;
+        return this;
+    }
+
+    /**
+     * Sets the max number of words of the shingles to be indexed, to speed up phrase searches.
+     *
+     * @param shingles the max number of words of the indexed shingles
+     * @return this with the specified shingles option
+     */
+    public TextMapper shingles(Integer shingles) {
+        this.shingles = shingles;
+        return this;
+    }
 }
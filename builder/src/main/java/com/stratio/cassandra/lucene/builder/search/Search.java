@@ -16,6 +16,7 @@
 package com.stratio.cassandra.lucene.builder.search;
 
 import com.stratio.cassandra.lucene.builder.JSONBuilder;
+import com.stratio.cassandra.lucene.builder.search.aggregation.Aggregation;
 import com.stratio.cassandra.lucene.builder.search.condition.Condition;
 import com.stratio.cassandra.lucene.builder.search.sort.Sort;
 import com.stratio.cassandra.lucene.builder.search.sort.SortField;
@@ -48,6 +49,18 @@ public class Search extends JSONBuilder {
     @JsonProperty("refresh")
     private Boolean refresh;
 
+    /** If this search is only used to count the matching rows. */
+    @JsonProperty("count")
+    private Boolean count;
+
+    /** If the count can be approximated using only the index. */
+    @JsonProperty("approximate")
+    private Boolean approximate;
+
+    /** The aggregations to be computed over the matching rows. */
+    @JsonProperty("aggregations")
+    private List<Aggregation> aggregations;
+
     /** Default constructor. */
     public Search() {
     }
@@ -97,4 +110,42 @@ public class Search extends JSONBuilder {
         return this;
     }
 
+    /**
+     * Sets if the {@link Search} is only used to count the matching rows, ignoring relevance and sorting.
+     *
+     * @param count if the {@link Search} is only used for counting
+     * @return this with the specified count option
+     */
+    public Search count(Boolean count) {
+        this.count = count;
+        return this;
+    }
+
+    /**
+     * Sets if the rows matched by the counting {@link Search} can be counted using only the index, without reading them.
+     * Approximate counts might include rows that have expired or have been deleted, and they can only be used with
+     * consistency level {@code ONE} or {@code LOCAL_ONE}.
+     *
+     * @param approximate if the count can be approximated using only the index
+     * @return this with the specified approximate option
+     */
+    public Search approximate(Boolean approximate) {
+        this.approximate = approximate;
+        return this;
+    }
+
+    /**
+     * Adds the specified aggregations to be computed over all the matching rows. The aggregation results are computed
+     * only in the first page, and they are returned as JSON both in the {@code lucene_aggregations} custom payload and
+     * in the index target column of the first returned row. Aggregations can't be combined with other filtering
+     * expressions.
+     *
+     * @param aggregations the aggregations to be added
+     * @return this with the specified aggregations
+     */
+    public Search aggregations(Aggregation... aggregations) {
+        this.aggregations = add(this.aggregations, aggregations);
+        return this;
+    }
+
 }
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.builder.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.stratio.cassandra.lucene.builder.JSONBuilder;
+
+/**
+ * An aggregation of the values of a field of the rows matched by a search.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+@JsonSubTypes({@JsonSubTypes.Type(value = TermsAggregation.class, name = "terms"),
+               @JsonSubTypes.Type(value = HistogramAggregation.class, name = "histogram"),
+               @JsonSubTypes.Type(value = RangeAggregation.class, name = "range"),
+               @JsonSubTypes.Type(value = StatsAggregation.class, name = "stats")})
+public abstract class Aggregation extends JSONBuilder {
+
+    /** The name identifying the aggregation in the results. */
+    @JsonProperty("name")
+    final String name;
+
+    /** The name of the field to be aggregated. */
+    @JsonProperty("field")
+    final String field;
+
+    /**
+     * Constructor using the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    Aggregation(String name, String field) {
+        this.name = name;
+        this.field = field;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.builder.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stratio.cassandra.lucene.builder.JSONBuilder;
+
+import java.util.List;
+
+/**
+ * An aggregation counting the rows per user-defined range of a numeric or date field. Each range includes its lower
+ * bound and excludes its upper bound.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class RangeAggregation extends Aggregation {
+
+    /** The ranges. */
+    @JsonProperty("ranges")
+    List<Range> ranges;
+
+    /**
+     * Creates a new {@link RangeAggregation} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    @JsonCreator
+    public RangeAggregation(@JsonProperty("name") String name, @JsonProperty("field") String field) {
+        super(name, field);
+    }
+
+    /**
+     * Returns this with the specified range.
+     *
+     * @param from the inclusive lower bound, {@code null} means unbounded
+     * @param to the exclusive upper bound, {@code null} means unbounded
+     * @return this with the specified range
+     */
+    public RangeAggregation range(Double from, Double to) {
+        return range(from, to, null);
+    }
+
+    /**
+     * Returns this with the specified range.
+     *
+     * @param from the inclusive lower bound, {@code null} means unbounded
+     * @param to the exclusive upper bound, {@code null} means unbounded
+     * @param key the key identifying the range in the results
+     * @return this with the specified range
+     */
+    public RangeAggregation range(Double from, Double to, String key) {
+        ranges = add(ranges, new Range(from, to, key));
+        return this;
+    }
+
+    /** A range of values, with optional bounds. */
+    static class Range extends JSONBuilder {
+
+        /** The inclusive lower bound. */
+        @JsonProperty("from")
+        final Double from;
+
+        /** The exclusive upper bound. */
+        @JsonProperty("to")
+        final Double to;
+
+        /** The key identifying the range in the results. */
+        @JsonProperty("key")
+        final String key;
+
+        Range(Double from, Double to, String key) {
+            this.from = from;
+            this.to = to;
+            this.key = key;
+        }
+    }
+}
@@ -37,6 +37,10 @@ public class ContainsCondition extends Condition<ContainsCondition> {
     @JsonProperty("doc_values")
     Boolean docValues;
 
+    /** The max number of values to be searched with a boolean query instead of a terms set query. */
+    @JsonProperty("terms_threshold")
+    Integer termsThreshold;
+
     /**
      * Creates a new {@link ContainsCondition} for the specified field and value.
      *
@@ -60,4 +64,16 @@ public class ContainsCondition extends Condition<ContainsCondition> {
         this.docValues = docValues;
         return this;
     }
+
+    /**
+     * Sets the max number of values to be searched with a boolean query. Above this threshold the values are searched
+     * with a single constant score query over the set of terms, or doc values, which is much cheaper for long lists.
+     *
+     * @param termsThreshold the max number of values to be searched with a boolean query
+     * @return this builder with the specified terms threshold
+     */
+    public ContainsCondition termsThreshold(Integer termsThreshold) {
+        this.termsThreshold = termsThreshold;
+        return this;
+    }
 }
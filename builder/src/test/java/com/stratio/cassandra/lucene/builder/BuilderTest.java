@@ -351,6 +351,20 @@ public class BuilderTest {
         assertEquals("string mapper serialization is wrong", expected, actual);
     }
 
+    @Test
+    public void testStringMapperPrefixIndex() {
+        String actual = stringMapper().prefixIndex(true).prefixMinLength(1).prefixMaxLength(3).build();
+        String expected = "{\"type\":\"string\",\"prefix_index\":true,\"prefix_min_length\":1,\"prefix_max_length\":3}";
+        assertEquals("string mapper serialization is wrong", expected, actual);
+    }
+
+    @Test
+    public void testStringMapperReverseIndex() {
+        String actual = stringMapper().reverseIndex(true).build();
+        String expected = "{\"type\":\"string\",\"reverse_index\":true}";
+        assertEquals("string mapper serialization is wrong", expected, actual);
+    }
+
     @Test
     public void testTextMapperDefaults() {
         String actual = textMapper().build();
@@ -365,6 +379,27 @@ public class BuilderTest {
         assertEquals("text mapper serialization is wrong", expected, actual);
     }
 
+    @Test
+    public void testTextMapperPrefixIndex() {
+        String actual = textMapper().prefixIndex(true).prefixMinLength(1).prefixMaxLength(3).build();
+        String expected = "{\"type\":\"text\",\"prefix_index\":true,\"prefix_min_length\":1,\"prefix_max_length\":3}";
+        assertEquals("text mapper serialization is wrong", expected, actual);
+    }
+
+    @Test
+    public void testTextMapperReverseIndex() {
+        String actual = textMapper().reverseIndex(true).build();
+        String expected = "{\"type\":\"text\",\"reverse_index\":true}";
+        assertEquals("text mapper serialization is wrong", expected, actual);
+    }
+
+    @Test
+    public void testTextMapperShingles() {
+        String actual = textMapper().shingles(3).build();
+        String expected = "{\"type\":\"text\",\"shingles\":3}";
+        assertEquals("text mapper serialization is wrong", expected, actual);
+    }
+
     @Test
     public void testUUIDMapperDefaults() {
         String actual = uuidMapper().build();
@@ -873,6 +908,29 @@ public class BuilderTest {
         assertEquals("search serialization is wrong", expected, actual);
     }
 
+    @Test
+    public void testSearchCount() {
+        String actual = search().filter(match("f1", 1)).count(true).approximate(true).build();
+        String expected = "{\"filter\":[{\"type\":\"match\",\"field\":\"f1\",\"value\":1}]," +
+                          "\"count\":true,\"approximate\":true}";
+        assertEquals("search serialization is wrong", expected, actual);
+    }
+
+    @Test
+    public void testSearchAggregations() {
+        String actual = search().aggregations(termsAggregation("a", "f1").size(5),
+                                              histogramAggregation("b", "f2", 10),
+                                              rangeAggregation("c", "f3").range(null, 10.0).range(10.0, null, "high"),
+                                              statsAggregation("d", "f4")).build();
+        String expected = "{\"aggregations\":[" +
+                          "{\"type\":\"terms\",\"name\":\"a\",\"field\":\"f1\",\"size\":5}," +
+                          "{\"type\":\"histogram\",\"name\":\"b\",\"field\":\"f2\",\"interval\":10.0}," +
+                          "{\"type\":\"range\",\"name\":\"c\",\"field\":\"f3\",\"ranges\":[" +
+                          "{\"to\":10.0},{\"from\":10.0,\"key\":\"high\"}]}," +
+                          "{\"type\":\"stats\",\"name\":\"d\",\"field\":\"f4\"}]}";
+        assertEquals("search serialization is wrong", expected, actual);
+    }
+
     @Test
     public void testSearchNestedBool() {
         String actual = search().filter(must(match("f1", 1)).should(match("f2", 2)).not(match("f3", 3)))
@@ -54,11 +54,14 @@ public class SchemaAnalyzer extends DelegatingAnalyzerWrapper {
             String name = entry.getKey();
             Mapper mapper = entry.getValue();
             String analyzerName = mapper.analyzer;
+            Analyzer analyzer = defaultAnalyzer;
             if (analyzerName != null) {
-                Analyzer analyzer = getAnalyzer(analyzers, analyzerName);
+                analyzer = getAnalyzer(analyzers, analyzerName);
                 TokenLengthAnalyzer fieldAnalyzer = new TokenLengthAnalyzer(analyzer);
                 fieldAnalyzers.put(name, fieldAnalyzer);
             }
+            mapper.derivedAnalyzers(analyzer)
+                  .forEach((suffix, derived) -> fieldAnalyzers.put(name + suffix, new TokenLengthAnalyzer(derived)));
         }
     }
 
@@ -108,13 +111,23 @@ public class SchemaAnalyzer extends DelegatingAnalyzerWrapper {
         if (StringUtils.isBlank(fieldName)) {
             throw new IllegalArgumentException("Not empty analyzer name required");
         }
-        String name = Column.parseMapperName(fieldName);
-        TokenLengthAnalyzer analyzer = fieldAnalyzers.get(name);
+        // Split the suffix of derived fields
+        String suffix = "";
+        String baseName = fieldName;
+        int separator = fieldName.indexOf(Mapper.DERIVED_FIELD_SEPARATOR);
+        if (separator >= 0) {
+            suffix = fieldName.substring(separator);
+            baseName = fieldName.substring(0, separator);
+        }
+
+        String name = Column.parseMapperName(baseName);
+        TokenLengthAnalyzer analyzer = fieldAnalyzers.get(name + suffix);
         if (analyzer != null) {
             return analyzer;
         } else {
             for (Map.Entry<String, TokenLengthAnalyzer> entry : fieldAnalyzers.entrySet()) {
-                if (name.startsWith(entry.getKey() + ".")) {
+                String key = entry.getKey();
+                if (key.endsWith(suffix) && name.startsWith(key.substring(0, key.length() - suffix.length()) + ".")) {
                     return entry.getValue();
                 }
             }
@@ -21,6 +21,7 @@ import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.column.Columns;
 import com.stratio.cassandra.lucene.common.GeospatialUtils;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.document.DoubleDocValuesField;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.spatial.composite.CompositeSpatialStrategy;
@@ -29,6 +30,7 @@ import org.apache.lucene.spatial.prefix.tree.GeohashPrefixTree;
 import org.apache.lucene.spatial.prefix.tree.SpatialPrefixTree;
 import org.apache.lucene.spatial.serialized.SerializedDVStrategy;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +47,12 @@ public class GeoPointMapper extends MultipleColumnMapper {
     /** The default max number of levels for geohash search trees. */
     public static final int DEFAULT_MAX_LEVELS = 11;
 
+    /** The suffix of the name of the doc values field containing the latitude. */
+    public static final String LATITUDE_SUFFIX = DERIVED_FIELD_SEPARATOR + "latitude";
+
+    /** The suffix of the name of the doc values field containing the longitude. */
+    public static final String LONGITUDE_SUFFIX = DERIVED_FIELD_SEPARATOR + "longitude";
+
     /** The name of the latitude column. */
     public final String latitude;
 
@@ -57,6 +65,12 @@ public class GeoPointMapper extends MultipleColumnMapper {
     /** The spatial strategy. */
     public final CompositeSpatialStrategy strategy;
 
+    /** The name of the doc values field containing the latitude. */
+    public final String latitudeField;
+
+    /** The name of the doc values field containing the longitude. */
+    public final String longitudeField;
+
     /**
      * Builds a new {@link GeoPointMapper}.
      *
@@ -87,6 +101,8 @@ public class GeoPointMapper extends MultipleColumnMapper {
         RecursivePrefixTreeStrategy indexStrategy = new RecursivePrefixTreeStrategy(grid, field);
         SerializedDVStrategy geometryStrategy = new SerializedDVStrategy(CONTEXT, field);
         strategy = new CompositeSpatialStrategy(field, indexStrategy, geometryStrategy);
+        latitudeField = field + LATITUDE_SUFFIX;
+        longitudeField = field + LONGITUDE_SUFFIX;
     }
 
     /** {@inheritDoc} */
@@ -106,7 +122,10 @@ public class GeoPointMapper extends MultipleColumnMapper {
 
         Point point = CONTEXT.makePoint(lon, lat);
 
-        return Arrays.asList(strategy.createIndexableFields(point));
+        List<IndexableField> fields = new ArrayList<>(Arrays.asList(strategy.createIndexableFields(point)));
+        fields.add(new DoubleDocValuesField(latitudeField, lat));
+        fields.add(new DoubleDocValuesField(longitudeField, lon));
+        return fields;
     }
 
     /** {@inheritDoc} */
@@ -21,6 +21,7 @@ import com.stratio.cassandra.lucene.column.Column;
 import com.stratio.cassandra.lucene.column.Columns;
 import com.stratio.cassandra.lucene.schema.analysis.StandardAnalyzers;
 import org.apache.commons.lang3.StringUtils;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Field.Store;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
@@ -71,6 +72,9 @@ public abstract class Mapper {
     /** If the field must be validated when no specified. */
     static final boolean DEFAULT_VALIDATED = false;
 
+    /** The separator between the name of a field and the suffix of its derived fields. */
+    public static final String DERIVED_FIELD_SEPARATOR = "#";
+
     /** The name of the Lucene field. */
     public final String field;
 
@@ -193,6 +197,17 @@ public abstract class Mapper {
         return mappedCells.stream().anyMatch(x -> x.equals(cell));
     }
 
+    /**
+     * Returns the analyzers of the additional fields indexed by this mapper for each field, such as prefix indexes,
+     * indexed by the suffix of their names.
+     *
+     * @param analyzer the analyzer of the field
+     * @return the analyzers of the derived fields by name suffix
+     */
+    public Map<String, Analyzer> derivedAnalyzers(Analyzer analyzer) {
+        return Collections.emptyMap();
+    }
+
     void validateTerm(String name, BytesRef term) {
         int maxSize = IndexWriter.MAX_TERM_LENGTH;
         int size = term.length;
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+/**
+ * Edge n-gram index of the terms of a string field, indexed in a sibling field, to search prefixes with a single term
+ * lookup instead of enumerating all the terms starting with the prefix.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class PrefixIndex {
+
+    /** The suffix of the name of the sibling field containing the edge n-grams. */
+    public static final String SUFFIX = Mapper.DERIVED_FIELD_SEPARATOR + "prefix";
+
+    /** The default min indexed prefix length. */
+    public static final int DEFAULT_MIN_LENGTH = 1;
+
+    /** The default max indexed prefix length. */
+    public static final int DEFAULT_MAX_LENGTH = 8;
+
+    /** The min indexed prefix length. */
+    public final int minLength;
+
+    /** The max indexed prefix length. */
+    public final int maxLength;
+
+    /**
+     * Builds a new {@link PrefixIndex} for prefixes with the specified length.
+     *
+     * @param minLength the min indexed prefix length
+     * @param maxLength the max indexed prefix length
+     */
+    public PrefixIndex(Integer minLength, Integer maxLength) {
+        this.minLength = minLength == null ? DEFAULT_MIN_LENGTH : minLength;
+        this.maxLength = maxLength == null ? DEFAULT_MAX_LENGTH : maxLength;
+        if (this.minLength <= 0) {
+            throw new IndexException("Prefix min length must be strictly positive, found {}", this.minLength);
+        }
+        if (this.maxLength < this.minLength) {
+            throw new IndexException("Prefix max length must be greater or equal than min length {}, found {}",
+                                     this.minLength,
+                                     this.maxLength);
+        }
+    }
+
+    /**
+     * Returns the {@link PrefixIndex} represented by the specified mapper options, if any.
+     *
+     * @param enabled if the prefix index is enabled
+     * @param minLength the min indexed prefix length
+     * @param maxLength the max indexed prefix length
+     * @return a prefix index, or {@code null} if it is not enabled
+     */
+    public static PrefixIndex build(Boolean enabled, Integer minLength, Integer maxLength) {
+        return enabled != null && enabled ? new PrefixIndex(minLength, maxLength) : null;
+    }
+
+    /**
+     * Returns the name of the sibling field containing the prefixes of the specified field.
+     *
+     * @param field the name of the indexed field
+     * @return the name of the prefixes field
+     */
+    public static String field(String field) {
+        return field + SUFFIX;
+    }
+
+    /**
+     * Returns the {@link Field} to index the prefixes of the specified value.
+     *
+     * @param name the name of the indexed field
+     * @param value the value to be indexed
+     * @return the field containing the value, to be split in prefixes by the analyzer
+     */
+    public Field indexableField(String name, String value) {
+        return new Field(field(name), value, KeywordMapper.FIELD_TYPE);
+    }
+
+    /**
+     * Returns an {@link Analyzer} producing the indexed prefixes of the tokens produced by the specified analyzer.
+     *
+     * @param analyzer the analyzer of the indexed field
+     * @return the analyzer of the prefixes field
+     */
+    public Analyzer analyzer(Analyzer analyzer) {
+        return new AnalyzerWrapper(analyzer.getReuseStrategy()) {
+
+            /** {@inheritDoc} */
+            @Override
+            protected Analyzer getWrappedAnalyzer(String fieldName) {
+                return analyzer;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+                return new TokenStreamComponents(components.getTokenizer(),
+                                                 new EdgeNGramTokenFilter(components.getTokenStream(),
+                                                                          minLength,
+                                                                          maxLength));
+            }
+        };
+    }
+
+    /**
+     * Returns if the specified prefix can be searched in the index.
+     *
+     * @param prefix a prefix
+     * @return {@code true} if {@code prefix} has an indexed length, {@code false} otherwise
+     */
+    public boolean supports(String prefix) {
+        int length = prefix.codePointCount(0, prefix.length());
+        return length >= minLength && length <= maxLength;
+    }
+
+    /**
+     * Returns a constant score {@link Query} matching the documents with any term starting with the specified prefix.
+     *
+     * @param field the name of the indexed field
+     * @param prefix a prefix with an indexed length
+     * @return the prefix query
+     */
+    public Query query(String field, String prefix) {
+        return new ConstantScoreQuery(new TermQuery(new Term(field(field), prefix)));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("minLength", minLength).add("maxLength", maxLength).toString();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.reverse.ReverseStringFilter;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.automaton.RegExp;
+
+import java.util.regex.Pattern;
+
+/**
+ * Index of the reversed terms of a string field, indexed in a sibling field, to search suffixes as prefixes of the
+ * reversed terms instead of visiting all the terms of the field.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public final class ReverseIndex {
+
+    /** The suffix of the name of the sibling field containing the reversed terms. */
+    public static final String SUFFIX = Mapper.DERIVED_FIELD_SEPARATOR + "reverse";
+
+    /** The default reverse index option. */
+    public static final boolean DEFAULT_ENABLED = false;
+
+    /** The characters with special meaning in wildcard expressions. */
+    private static final Pattern WILDCARDS = Pattern.compile("[*?\\\\]");
+
+    /** The characters with special meaning in regular expressions. */
+    private static final Pattern REGEXP_OPERATORS = Pattern.compile("[.?+*|{}\\[\\]()\"\\\\#@&<>~]");
+
+    /** Private constructor to hide the implicit public one. */
+    private ReverseIndex() {
+    }
+
+    /**
+     * Returns if the specified mapper indexes the reversed terms.
+     *
+     * @param mapper a mapper
+     * @return {@code true} if {@code mapper} indexes the reversed terms, {@code false} otherwise
+     */
+    public static boolean isEnabled(Mapper mapper) {
+        if (mapper instanceof StringMapper) {
+            return ((StringMapper) mapper).reverseIndex;
+        } else if (mapper instanceof TextMapper) {
+            return ((TextMapper) mapper).reverseIndex;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the name of the sibling field containing the reversed terms of the specified field.
+     *
+     * @param field the name of the indexed field
+     * @return the name of the reversed terms field
+     */
+    public static String field(String field) {
+        return field + SUFFIX;
+    }
+
+    /**
+     * Returns the {@link Field} to index the reversed terms of the specified value.
+     *
+     * @param name the name of the indexed field
+     * @param value the value to be indexed
+     * @return the field containing the value, to be reversed by the analyzer
+     */
+    public static Field indexableField(String name, String value) {
+        return new Field(field(name), value, KeywordMapper.FIELD_TYPE);
+    }
+
+    /**
+     * Returns an {@link Analyzer} producing the reversed tokens produced by the specified analyzer.
+     *
+     * @param analyzer the analyzer of the indexed field
+     * @return the analyzer of the reversed terms field
+     */
+    public static Analyzer analyzer(Analyzer analyzer) {
+        return new AnalyzerWrapper(analyzer.getReuseStrategy()) {
+
+            /** {@inheritDoc} */
+            @Override
+            protected Analyzer getWrappedAnalyzer(String fieldName) {
+                return analyzer;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+                return new TokenStreamComponents(components.getTokenizer(),
+                                                 new ReverseStringFilter(components.getTokenStream()));
+            }
+        };
+    }
+
+    /**
+     * Returns the specified string reversed, keeping surrogate pairs as the {@link ReverseStringFilter} does.
+     *
+     * @param string the string to be reversed
+     * @return the reversed string
+     */
+    public static String reverse(String string) {
+        return new StringBuilder(string).reverse().toString();
+    }
+
+    /**
+     * Returns a {@link Query} on the reversed terms field equivalent to the specified wildcard expression, if it starts
+     * with a wildcard and ends with a literal.
+     *
+     * @param field the name of the indexed field
+     * @param value a wildcard expression
+     * @return a query on the reversed terms, or {@code null} if the expression doesn't benefit from reversing
+     */
+    public static Query wildcardQuery(String field, String value) {
+        if (value.isEmpty() || value.contains("\\")) {
+            return null;
+        }
+        char first = value.charAt(0);
+        char last = value.charAt(value.length() - 1);
+        if ((first != '*' && first != '?') || last == '*' || last == '?') {
+            return null;
+        }
+        String reversed = reverse(value);
+        String prefix = reversed.substring(0, reversed.length() - 1);
+        if (first == '*' && !WILDCARDS.matcher(prefix).find()) {
+            return new PrefixQuery(new Term(field(field), prefix));
+        }
+        return new WildcardQuery(new Term(field(field), reversed));
+    }
+
+    /**
+     * Returns a {@link Query} on the reversed terms field equivalent to the specified regular expression, if it is a
+     * leading {@code .*} followed by a literal.
+     *
+     * @param field the name of the indexed field
+     * @param value a regular expression in {@link RegExp} syntax
+     * @return a query on the reversed terms, or {@code null} if the expression can't be reversed
+     */
+    public static Query regexpQuery(String field, String value) {
+        if (!value.startsWith(".*")) {
+            return null;
+        }
+        String suffix = value.substring(2);
+        if (suffix.isEmpty() || REGEXP_OPERATORS.matcher(suffix).find()) {
+            return null;
+        }
+        return new PrefixQuery(new Term(field(field), reverse(suffix)));
+    }
+}
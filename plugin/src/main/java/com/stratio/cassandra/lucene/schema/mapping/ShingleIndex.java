@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.AnalyzerWrapper;
+import org.apache.lucene.analysis.TokenFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.shingle.ShingleFilter;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.tokenattributes.PositionIncrementAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.io.IOException;
+
+import static org.apache.lucene.search.BooleanClause.Occur.FILTER;
+import static org.apache.lucene.search.BooleanClause.Occur.MUST;
+import static org.apache.lucene.search.BooleanClause.Occur.SHOULD;
+
+/**
+ * Index of the word n-grams (shingles) of an analyzed text field, indexed in a sibling field, to search exact phrases
+ * with term lookups instead of reading the positions of every document containing the phrase terms.
+ *
+ * Shingles can't represent stacked tokens, such as the ones produced by synonyms or word delimiter filters, so the
+ * tokens at the same position as a previous one are not shingled, and the documents containing them are marked with a
+ * special term. Phrases are searched with the positions of the phrase terms for the marked documents.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class ShingleIndex {
+
+    /** The suffix of the name of the sibling field containing the shingles. */
+    public static final String SUFFIX = Mapper.DERIVED_FIELD_SEPARATOR + "shingle";
+
+    /** The min number of words of the indexed shingles. */
+    public static final int MIN_SIZE = ShingleFilter.DEFAULT_MIN_SHINGLE_SIZE;
+
+    /** The term marking the documents with stacked tokens, which is never a shingle because it has a single word. */
+    public static final String STACKED_MARKER = "\u0000stacked";
+
+    private static final FieldType FIELD_TYPE = new FieldType();
+
+    static {
+        FIELD_TYPE.setOmitNorms(true);
+        FIELD_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS);
+        FIELD_TYPE.setTokenized(true);
+        FIELD_TYPE.freeze();
+    }
+
+    /** The max number of words of the indexed shingles. */
+    public final int maxSize;
+
+    /**
+     * Builds a new {@link ShingleIndex} for shingles with the specified max number of words.
+     *
+     * @param maxSize the max number of words of the indexed shingles
+     */
+    public ShingleIndex(int maxSize) {
+        if (maxSize < MIN_SIZE) {
+            throw new IndexException("Shingles size must be at least {}, found {}", MIN_SIZE, maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the {@link ShingleIndex} represented by the specified mapper option, if any.
+     *
+     * @param shingles the max number of words of the indexed shingles
+     * @return a shingle index, or {@code null} if {@code shingles} is {@code null}
+     */
+    public static ShingleIndex build(Integer shingles) {
+        return shingles == null ? null : new ShingleIndex(shingles);
+    }
+
+    /**
+     * Returns the name of the sibling field containing the shingles of the specified field.
+     *
+     * @param field the name of the indexed field
+     * @return the name of the shingles field
+     */
+    public static String field(String field) {
+        return field + SUFFIX;
+    }
+
+    /**
+     * Returns the {@link Field} to index the shingles of the specified value.
+     *
+     * @param name the name of the indexed field
+     * @param value the value to be indexed
+     * @return the field containing the value, to be split in shingles by the analyzer
+     */
+    public Field indexableField(String name, String value) {
+        return new Field(field(name), value, FIELD_TYPE);
+    }
+
+    /**
+     * Returns an {@link Analyzer} producing the shingles of the tokens produced by the specified analyzer.
+     *
+     * @param analyzer the analyzer of the indexed field
+     * @return the analyzer of the shingles field
+     */
+    public Analyzer analyzer(Analyzer analyzer) {
+        return new AnalyzerWrapper(analyzer.getReuseStrategy()) {
+
+            /** {@inheritDoc} */
+            @Override
+            protected Analyzer getWrappedAnalyzer(String fieldName) {
+                return analyzer;
+            }
+
+            /** {@inheritDoc} */
+            @Override
+            protected TokenStreamComponents wrapComponents(String fieldName, TokenStreamComponents components) {
+                UnstackFilter unstack = new UnstackFilter(components.getTokenStream());
+                ShingleFilter shingles = new ShingleFilter(unstack, MIN_SIZE, maxSize);
+                shingles.setOutputUnigrams(false);
+                return new TokenStreamComponents(components.getTokenizer(), new MarkerFilter(shingles, unstack));
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link Query} equivalent to the specified exact {@link PhraseQuery} using the shingles field. Phrases
+     * not longer than the max shingle size are searched with a single term lookup. Longer phrases are searched with the
+     * conjunction of the shingles covering the phrase, verified with the phrase query only for the documents containing
+     * all of them. The documents with stacked tokens, whose shingles are incomplete, are searched with the phrase query.
+     *
+     * @param field the name of the indexed field
+     * @param phrase the phrase query over the indexed field
+     * @return a query on the shingles, or {@code null} if the phrase is not exact or has position gaps
+     */
+    public Query query(String field, PhraseQuery phrase) {
+        Term[] terms = phrase.getTerms();
+        int[] positions = phrase.getPositions();
+        if (phrase.getSlop() != 0 || terms.length < MIN_SIZE) {
+            return null;
+        }
+        for (int i = 1; i < positions.length; i++) {
+            if (positions[i] != positions[0] + i) {
+                return null;
+            }
+        }
+        Query marker = new TermQuery(new Term(field(field), STACKED_MARKER));
+        Query stacked = new BooleanQuery.Builder().add(marker, FILTER).add(phrase, MUST).build();
+        return new BooleanQuery.Builder().add(shingles(field, phrase), SHOULD).add(stacked, SHOULD).build();
+    }
+
+    private Query shingles(String field, PhraseQuery phrase) {
+        Term[] terms = phrase.getTerms();
+        int size = Math.min(maxSize, terms.length);
+        if (size == terms.length) {
+            return shingle(field, terms, 0, size);
+        }
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (int start = 0; start < terms.length; start += size) {
+            builder.add(shingle(field, terms, Math.min(start, terms.length - size), size), MUST);
+        }
+        builder.add(phrase, FILTER);
+        return builder.build();
+    }
+
+    private static Query shingle(String field, Term[] terms, int start, int size) {
+        StringBuilder sb = new StringBuilder(terms[start].text());
+        for (int i = start + 1; i < start + size; i++) {
+            sb.append(ShingleFilter.DEFAULT_TOKEN_SEPARATOR).append(terms[i].text());
+        }
+        return new TermQuery(new Term(field(field), sb.toString()));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("maxSize", maxSize).toString();
+    }
+
+    /** {@link TokenFilter} removing the tokens stacked at the position of a previous token, remembering if any. */
+    private static final class UnstackFilter extends TokenFilter {
+
+        private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+        private boolean stacked;
+
+        UnstackFilter(TokenStream input) {
+            super(input);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean incrementToken() throws IOException {
+            while (input.incrementToken()) {
+                if (posIncAtt.getPositionIncrement() > 0) {
+                    return true;
+                }
+                stacked = true;
+            }
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() throws IOException {
+            super.reset();
+            stacked = false;
+        }
+    }
+
+    /** {@link TokenFilter} adding the stacked tokens marker at the end of the shingles if any token was unstacked. */
+    private static final class MarkerFilter extends TokenFilter {
+
+        private final CharTermAttribute termAtt = addAttribute(CharTermAttribute.class);
+        private final PositionIncrementAttribute posIncAtt = addAttribute(PositionIncrementAttribute.class);
+        private final UnstackFilter unstack;
+        private boolean exhausted;
+
+        MarkerFilter(TokenStream input, UnstackFilter unstack) {
+            super(input);
+            this.unstack = unstack;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public boolean incrementToken() throws IOException {
+            if (exhausted) {
+                return false;
+            }
+            if (input.incrementToken()) {
+                return true;
+            }
+            exhausted = true;
+            if (unstack.stacked) {
+                clearAttributes();
+                termAtt.setEmpty().append(STACKED_MARKER);
+                posIncAtt.setPositionIncrement(1);
+                return true;
+            }
+            return false;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void reset() throws IOException {
+            super.reset();
+            exhausted = false;
+        }
+    }
+}
@@ -15,6 +15,13 @@
  */
 package com.stratio.cassandra.lucene.schema.mapping;
 
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.index.IndexableField;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * A {@link Mapper} to map a string, not tokenized field.
  *
@@ -28,6 +35,12 @@ public class StringMapper extends KeywordMapper {
     /** If it must be case sensitive. */
     public final boolean caseSensitive;
 
+    /** The index of prefixes, if any. */
+    public final PrefixIndex prefixIndex;
+
+    /** If the reversed terms must be indexed. */
+    public final boolean reverseIndex;
+
     /**
      * Builds a new {@link StringMapper}.
      *
@@ -35,10 +48,19 @@ public class StringMapper extends KeywordMapper {
      * @param column the name of the column to be mapped
      * @param validated if the field must be validated
      * @param caseSensitive if the analyzer must be case sensitive
+     * @param prefixIndex the index of prefixes, if any
+     * @param reverseIndex if the reversed terms must be indexed
      */
-    public StringMapper(String field, String column, Boolean validated, Boolean caseSensitive) {
+    public StringMapper(String field,
+                        String column,
+                        Boolean validated,
+                        Boolean caseSensitive,
+                        PrefixIndex prefixIndex,
+                        Boolean reverseIndex) {
         super(field, column, validated, PRINTABLE_TYPES);
         this.caseSensitive = caseSensitive == null ? DEFAULT_CASE_SENSITIVE : caseSensitive;
+        this.prefixIndex = prefixIndex;
+        this.reverseIndex = reverseIndex == null ? ReverseIndex.DEFAULT_ENABLED : reverseIndex;
     }
 
     /** {@inheritDoc} */
@@ -48,6 +70,32 @@ public class StringMapper extends KeywordMapper {
         return caseSensitive ? string : string.toLowerCase();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public List<IndexableField> indexableFields(String name, String value) {
+        List<IndexableField> fields = super.indexableFields(name, value);
+        if (prefixIndex != null) {
+            fields.add(prefixIndex.indexableField(name, value));
+        }
+        if (reverseIndex) {
+            fields.add(ReverseIndex.indexableField(name, value));
+        }
+        return fields;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Analyzer> derivedAnalyzers(Analyzer analyzer) {
+        Map<String, Analyzer> analyzers = new HashMap<>();
+        if (prefixIndex != null) {
+            analyzers.put(PrefixIndex.SUFFIX, prefixIndex.analyzer(analyzer));
+        }
+        if (reverseIndex) {
+            analyzers.put(ReverseIndex.SUFFIX, ReverseIndex.analyzer(analyzer));
+        }
+        return analyzers;
+    }
+
     /** {@inheritDoc} */
     @Override
     public String toString() {
@@ -16,10 +16,15 @@
 package com.stratio.cassandra.lucene.schema.mapping;
 
 import com.stratio.cassandra.lucene.IndexException;
+import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Field;
 import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.search.SortField;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -29,6 +34,15 @@ import java.util.Optional;
  */
 public class TextMapper extends SingleColumnMapper.SingleFieldMapper<String> {
 
+    /** The index of prefixes of the analyzed terms, if any. */
+    public final PrefixIndex prefixIndex;
+
+    /** If the reversed analyzed terms must be indexed. */
+    public final boolean reverseIndex;
+
+    /** The index of shingles of the analyzed terms, if any. */
+    public final ShingleIndex shingleIndex;
+
     /**
      * Builds a new {@link TextMapper} using the specified Lucene {@link org.apache.lucene.analysis.Analyzer}.
      *
@@ -36,9 +50,21 @@ public class TextMapper extends SingleColumnMapper.SingleFieldMapper<String> {
      * @param column the name of the column to be mapped
      * @param validated if the field must be validated
      * @param analyzer the name of the Lucene {@link org.apache.lucene.analysis.Analyzer} to be used
+     * @param prefixIndex the index of prefixes of the analyzed terms, if any
+     * @param reverseIndex if the reversed analyzed terms must be indexed
+     * @param shingleIndex the index of shingles of the analyzed terms, if any
      */
-    public TextMapper(String field, String column, Boolean validated, String analyzer) {
+    public TextMapper(String field,
+                      String column,
+                      Boolean validated,
+                      String analyzer,
+                      PrefixIndex prefixIndex,
+                      Boolean reverseIndex,
+                      ShingleIndex shingleIndex) {
         super(field, column, false, validated, analyzer, String.class, PRINTABLE_TYPES);
+        this.prefixIndex = prefixIndex;
+        this.reverseIndex = reverseIndex == null ? ReverseIndex.DEFAULT_ENABLED : reverseIndex;
+        this.shingleIndex = shingleIndex;
     }
 
     /** {@inheritDoc} */
@@ -59,6 +85,38 @@ public class TextMapper extends SingleColumnMapper.SingleFieldMapper<String> {
         return Optional.empty();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public List<IndexableField> indexableFields(String name, String value) {
+        List<IndexableField> fields = super.indexableFields(name, value);
+        if (prefixIndex != null) {
+            fields.add(prefixIndex.indexableField(name, value));
+        }
+        if (reverseIndex) {
+            fields.add(ReverseIndex.indexableField(name, value));
+        }
+        if (shingleIndex != null) {
+            fields.add(shingleIndex.indexableField(name, value));
+        }
+        return fields;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Map<String, Analyzer> derivedAnalyzers(Analyzer analyzer) {
+        Map<String, Analyzer> analyzers = new HashMap<>();
+        if (prefixIndex != null) {
+            analyzers.put(PrefixIndex.SUFFIX, prefixIndex.analyzer(analyzer));
+        }
+        if (reverseIndex) {
+            analyzers.put(ReverseIndex.SUFFIX, ReverseIndex.analyzer(analyzer));
+        }
+        if (shingleIndex != null) {
+            analyzers.put(ShingleIndex.SUFFIX, shingleIndex.analyzer(analyzer));
+        }
+        return analyzers;
+    }
+
     /** {@inheritDoc} */
     @Override
     public SortField sortField(String name, boolean reverse) {
@@ -16,6 +16,7 @@
 package com.stratio.cassandra.lucene.schema.mapping.builder;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stratio.cassandra.lucene.schema.mapping.PrefixIndex;
 import com.stratio.cassandra.lucene.schema.mapping.StringMapper;
 
 /**
@@ -28,6 +29,18 @@ public class StringMapperBuilder extends SingleColumnMapperBuilder<StringMapper,
     @JsonProperty("case_sensitive")
     private Boolean caseSensitive;
 
+    @JsonProperty("prefix_index")
+    private Boolean prefixIndex;
+
+    @JsonProperty("prefix_min_length")
+    private Integer prefixMinLength;
+
+    @JsonProperty("prefix_max_length")
+    private Integer prefixMaxLength;
+
+    @JsonProperty("reverse_index")
+    private Boolean reverseIndex;
+
     /**
      * Sets if the {@link StringMapper} to be built must be case sensitive.
      *
@@ -39,6 +52,50 @@ public class StringMapperBuilder extends SingleColumnMapperBuilder<StringMapper,
         return this;
     }
 
+    /**
+     * Sets if the {@link StringMapper} to be built must index the prefixes of its terms in a sibling field.
+     *
+     * @param prefixIndex if the prefixes must be indexed
+     * @return this
+     */
+    public StringMapperBuilder prefixIndex(Boolean prefixIndex) {
+        this.prefixIndex = prefixIndex;
+        return this;
+    }
+
+    /**
+     * Sets the min length of the prefixes to be indexed.
+     *
+     * @param prefixMinLength the min length of the indexed prefixes
+     * @return this
+     */
+    public StringMapperBuilder prefixMinLength(Integer prefixMinLength) {
+        this.prefixMinLength = prefixMinLength;
+        return this;
+    }
+
+    /**
+     * Sets the max length of the prefixes to be indexed.
+     *
+     * @param prefixMaxLength the max length of the indexed prefixes
+     * @return this
+     */
+    public StringMapperBuilder prefixMaxLength(Integer prefixMaxLength) {
+        this.prefixMaxLength = prefixMaxLength;
+        return this;
+    }
+
+    /**
+     * Sets if the {@link StringMapper} to be built must index the reversed terms in a sibling field.
+     *
+     * @param reverseIndex if the reversed terms must be indexed
+     * @return this
+     */
+    public StringMapperBuilder reverseIndex(Boolean reverseIndex) {
+        this.reverseIndex = reverseIndex;
+        return this;
+    }
+
     /**
      * Returns the {@link StringMapper} represented by this {@link MapperBuilder}.
      *
@@ -47,6 +104,7 @@ public class StringMapperBuilder extends SingleColumnMapperBuilder<StringMapper,
      */
     @Override
     public StringMapper build(String field) {
-        return new StringMapper(field, column, validated, caseSensitive);
+        PrefixIndex prefix = PrefixIndex.build(prefixIndex, prefixMinLength, prefixMaxLength);
+        return new StringMapper(field, column, validated, caseSensitive, prefix, reverseIndex);
     }
 }
@@ -16,6 +16,8 @@
 package com.stratio.cassandra.lucene.schema.mapping.builder;
 
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stratio.cassandra.lucene.schema.mapping.PrefixIndex;
+import com.stratio.cassandra.lucene.schema.mapping.ShingleIndex;
 import com.stratio.cassandra.lucene.schema.mapping.TextMapper;
 
 /**
@@ -28,6 +30,21 @@ public class TextMapperBuilder extends SingleColumnMapperBuilder<TextMapper, Tex
     @JsonProperty("analyzer")
     private String analyzer;
 
+    @JsonProperty("prefix_index")
+    private Boolean prefixIndex;
+
+    @JsonProperty("prefix_min_length")
+    private Integer prefixMinLength;
+
+    @JsonProperty("prefix_max_length")
+    private Integer prefixMaxLength;
+
+    @JsonProperty("reverse_index")
+    private Boolean reverseIndex;
+
+    @JsonProperty("shingles")
+    private Integer shingles;
+
     /**
      * Sets the name of the {@link org.apache.lucene.analysis.Analyzer} to be used.
      *
@@ -39,6 +56,61 @@ public class TextMapperBuilder extends SingleColumnMapperBuilder<TextMapper, Tex
         return this;
     }
 
+    /**
+     * Sets if the {@link TextMapper} to be built must index the prefixes of its terms in a sibling field.
+     *
+     * @param prefixIndex if the prefixes must be indexed
+     * @return this
+     */
+    public TextMapperBuilder prefixIndex(Boolean prefixIndex) {
+        this.prefixIndex = prefixIndex;
+        return this;
+    }
+
+    /**
+     * Sets the min length of the prefixes to be indexed.
+     *
+     * @param prefixMinLength the min length of the indexed prefixes
+     * @return this
+     */
+    public TextMapperBuilder prefixMinLength(Integer prefixMinLength) {
+        this.prefixMinLength = prefixMinLength;
+        return this;
+    }
+
+    /**
+     * Sets the max length of the prefixes to be indexed.
+     *
+     * @param prefixMaxLength the max length of the indexed prefixes
+     * @return this
+     */
+    public TextMapperBuilder prefixMaxLength(Integer prefixMaxLength) {
+        this.prefixMaxLength = prefixMaxLength;
+        return this;
+    }
+
+    /**
+     * Sets if the {@link TextMapper} to be built must index the reversed terms in a sibling field.
+     *
+     * @param reverseIndex if the reversed terms must be indexed
+     * @return this
+     */
+    public TextMapperBuilder reverseIndex(Boolean reverseIndex) {
+        this.reverseIndex = reverseIndex;
+        return this;
+    }
+
+    /**
+     * Sets the max number of words of the shingles to be indexed in a sibling field by the {@link TextMapper}.
+     *
+     * @param shingles the max number of words of the indexed shingles
+     * @return this
+     */
+    public TextMapperBuilder shingles(Integer shingles) {
+        this.shingles = shingles;
+        return this;
+    }
+
     /**
      * Returns the {@link TextMapper} represented by this {@link MapperBuilder}.
      *
@@ -47,6 +119,13 @@ public class TextMapperBuilder extends SingleColumnMapperBuilder<TextMapper, Tex
      */
     @Override
     public TextMapper build(String field) {
-        return new TextMapper(field, column, validated, analyzer);
+        PrefixIndex prefix = PrefixIndex.build(prefixIndex, prefixMinLength, prefixMaxLength);
+        return new TextMapper(field,
+                              column,
+                              validated,
+                              analyzer,
+                              prefix,
+                              reverseIndex,
+                              ShingleIndex.build(shingles));
     }
 }
@@ -0,0 +1,328 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search;
+
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.NumericRangeQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermRangeQuery;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.apache.lucene.search.BooleanClause.Occur.*;
+
+/**
+ * Rule-based rewriter of the Lucene {@link Query}s built from a {@link Search}, producing equivalent queries that are
+ * cheaper to execute. The applied rules are:
+ * <ul>
+ * <li>boosts and constant scores are removed where scores are not used</li>
+ * <li>scoring clauses are turned into filters where scores are not used</li>
+ * <li>mandatory clauses with zero boost are turned into filters</li>
+ * <li>nested conjunctions are flattened into their parent</li>
+ * <li>optional clauses are removed where scores are not used and there are mandatory clauses</li>
+ * <li>duplicated filter and negation clauses are removed</li>
+ * <li>filters on the same field numeric or term range are merged into a single range</li>
+ * <li>match all filters are removed when there are other mandatory clauses</li>
+ * </ul>
+ * Flattening and filter conversion are only done in scoring boolean queries without optional clauses, so they don't
+ * change the coordination factor, and thus the scores are preserved.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public final class QueryOptimizer {
+
+    /** Private constructor to hide the implicit public one. */
+    private QueryOptimizer() {
+    }
+
+    /**
+     * Returns an optimized version of the specified {@link Query}.
+     *
+     * @param query the query to be optimized
+     * @param scoring if the scores of the matched documents are used
+     * @return an equivalent query
+     */
+    public static Query optimize(Query query, boolean scoring) {
+        if (query instanceof BoostQuery) {
+            BoostQuery boostQuery = (BoostQuery) query;
+            Query inner = optimize(boostQuery.getQuery(), scoring);
+            return scoring ? new BoostQuery(inner, boostQuery.getBoost()) : inner;
+        } else if (query instanceof ConstantScoreQuery && !scoring) {
+            return optimize(((ConstantScoreQuery) query).getQuery(), false);
+        } else if (query instanceof BooleanQuery) {
+            return optimize((BooleanQuery) query, scoring);
+        }
+        return query;
+    }
+
+    private static Query optimize(BooleanQuery query, boolean scoring) {
+        if (query.getMinimumNumberShouldMatch() > 0 || query.getBoost() != 1f) {
+            return query;
+        }
+        List<BooleanClause> clauses = query.clauses();
+        boolean hasShould = clauses.stream().anyMatch(clause -> clause.getOccur() == SHOULD);
+        boolean hasRequired = clauses.stream().anyMatch(BooleanClause::isRequired);
+        boolean canFlatten = !scoring || !hasShould;
+
+        List<Query> must = new ArrayList<>();
+        Set<Query> filter = new LinkedHashSet<>();
+        List<Query> should = new ArrayList<>();
+        Set<Query> mustNot = new LinkedHashSet<>();
+
+        for (BooleanClause clause : clauses) {
+            BooleanClause.Occur occur = clause.getOccur();
+            boolean clauseScoring = scoring && (occur == MUST || occur == SHOULD);
+            Query child = optimize(clause.getQuery(), clauseScoring);
+            if (occur == SHOULD) {
+                if (scoring || !hasRequired) {
+                    should.add(child);
+                }
+            } else if (occur == MUST_NOT) {
+                mustNot.add(unwrapSingleClause(child));
+            } else if (occur == MUST && scoring) {
+                if (canFlatten && isZeroBoosted(child)) {
+                    filter.add(optimize(((BoostQuery) child).getQuery(), false));
+                } else if (canFlatten && isConjunction(child)) {
+                    for (BooleanClause inner : ((BooleanQuery) child).clauses()) {
+                        add(inner.getOccur(), inner.getQuery(), must, filter, mustNot);
+                    }
+                } else {
+                    must.add(child);
+                }
+            } else if (canFlatten && isConjunction(child)) {
+                for (BooleanClause inner : ((BooleanQuery) child).clauses()) {
+                    add(inner.getOccur() == MUST_NOT ? MUST_NOT : FILTER, inner.getQuery(), must, filter, mustNot);
+                }
+            } else {
+                filter.add(child);
+            }
+        }
+
+        // Remove redundant filters
+        filter.removeAll(must);
+        Set<Query> filters = mergeRanges(filter);
+        if (filters.contains(new MatchAllDocsQuery()) && (!must.isEmpty() || filters.size() > 1)) {
+            filters.remove(new MatchAllDocsQuery());
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.setDisableCoord(query.isCoordDisabled());
+        must.forEach(q -> builder.add(q, MUST));
+        filters.forEach(q -> builder.add(q, FILTER));
+        should.forEach(q -> builder.add(q, SHOULD));
+        mustNot.forEach(q -> builder.add(q, MUST_NOT));
+        return builder.build();
+    }
+
+    private static void add(BooleanClause.Occur occur,
+                            Query query,
+                            List<Query> must,
+                            Set<Query> filter,
+                            Set<Query> mustNot) {
+        if (occur == MUST) {
+            must.add(query);
+        } else if (occur == FILTER) {
+            filter.add(query);
+        } else {
+            mustNot.add(query);
+        }
+    }
+
+    private static boolean isZeroBoosted(Query query) {
+        return query instanceof BoostQuery && ((BoostQuery) query).getBoost() == 0f;
+    }
+
+    /**
+     * Returns if the specified query is a plain conjunction, which can be flattened into its parent.
+     *
+     * @param query a query
+     * @return {@code true} if {@code query} is a boolean query without optional clauses and with at least one mandatory
+     * clause, {@code false} otherwise
+     */
+    private static boolean isConjunction(Query query) {
+        if (!(query instanceof BooleanQuery)) {
+            return false;
+        }
+        BooleanQuery booleanQuery = (BooleanQuery) query;
+        return booleanQuery.getBoost() == 1f &&
+               booleanQuery.getMinimumNumberShouldMatch() == 0 &&
+               booleanQuery.clauses().stream().noneMatch(clause -> clause.getOccur() == SHOULD) &&
+               booleanQuery.clauses().stream().anyMatch(BooleanClause::isRequired);
+    }
+
+    private static Query unwrapSingleClause(Query query) {
+        if (query instanceof BooleanQuery) {
+            List<BooleanClause> clauses = ((BooleanQuery) query).clauses();
+            if (isConjunction(query) && clauses.size() == 1) {
+                return clauses.get(0).getQuery();
+            }
+        }
+        return query;
+    }
+
+    /**
+     * Returns the specified filters with the numeric and term ranges on the same field merged into a single range.
+     *
+     * @param filters a set of filtering queries
+     * @return an equivalent set of filtering queries
+     */
+    static Set<Query> mergeRanges(Set<Query> filters) {
+        List<Query> merged = new ArrayList<>(filters.size());
+        for (Query query : filters) {
+            boolean done = false;
+            for (int i = 0; i < merged.size() && !done; i++) {
+                Query intersection = intersection(merged.get(i), query);
+                if (intersection != null) {
+                    merged.set(i, intersection);
+                    done = true;
+                }
+            }
+            if (!done) {
+                merged.add(query);
+            }
+        }
+        return new LinkedHashSet<>(merged);
+    }
+
+    /**
+     * Returns a range query matching the documents matched by both the specified queries, if they are mergeable.
+     *
+     * @param a a query
+     * @param b another query
+     * @return the intersection of {@code a} and {@code b}, or {@code null} if they can't be merged
+     */
+    static Query intersection(Query a, Query b) {
+        if (a instanceof NumericRangeQuery && b instanceof NumericRangeQuery) {
+            return intersection((NumericRangeQuery<?>) a, (NumericRangeQuery<?>) b);
+        } else if (a instanceof TermRangeQuery && b instanceof TermRangeQuery) {
+            return intersection((TermRangeQuery) a, (TermRangeQuery) b);
+        }
+        return null;
+    }
+
+    private static Query intersection(NumericRangeQuery<?> a, NumericRangeQuery<?> b) {
+        Class<?> type = numericType(a);
+        if (!a.getField().equals(b.getField()) ||
+            a.getPrecisionStep() != b.getPrecisionStep() ||
+            type == null ||
+            type != numericType(b)) {
+            return null;
+        }
+        Bound lower = lower(new Bound(a.getMin(), a.includesMin()), new Bound(b.getMin(), b.includesMin()));
+        Bound upper = upper(new Bound(a.getMax(), a.includesMax()), new Bound(b.getMax(), b.includesMax()));
+        String field = a.getField();
+        int step = a.getPrecisionStep();
+        if (type == Integer.class) {
+            return NumericRangeQuery.newIntRange(field,
+                                                 step,
+                                                 (Integer) lower.value,
+                                                 (Integer) upper.value,
+                                                 lower.inclusive,
+                                                 upper.inclusive);
+        } else if (type == Long.class) {
+            return NumericRangeQuery.newLongRange(field,
+                                                  step,
+                                                  (Long) lower.value,
+                                                  (Long) upper.value,
+                                                  lower.inclusive,
+                                                  upper.inclusive);
+        } else if (type == Float.class) {
+            return NumericRangeQuery.newFloatRange(field,
+                                                   step,
+                                                   (Float) lower.value,
+                                                   (Float) upper.value,
+                                                   lower.inclusive,
+                                                   upper.inclusive);
+        } else if (type == Double.class) {
+            return NumericRangeQuery.newDoubleRange(field,
+                                                    step,
+                                                    (Double) lower.value,
+                                                    (Double) upper.value,
+                                                    lower.inclusive,
+                                                    upper.inclusive);
+        }
+        return null;
+    }
+
+    private static Class<?> numericType(NumericRangeQuery<?> query) {
+        Number value = query.getMin() == null ? query.getMax() : query.getMin();
+        return value == null ? null : value.getClass();
+    }
+
+    private static Query intersection(TermRangeQuery a, TermRangeQuery b) {
+        if (!a.getField().equals(b.getField())) {
+            return null;
+        }
+        Bound lower = lower(new Bound(a.getLowerTerm(), a.includesLower()),
+                            new Bound(b.getLowerTerm(), b.includesLower()));
+        Bound upper = upper(new Bound(a.getUpperTerm(), a.includesUpper()),
+                            new Bound(b.getUpperTerm(), b.includesUpper()));
+        return new TermRangeQuery(a.getField(),
+                                  (BytesRef) lower.value,
+                                  (BytesRef) upper.value,
+                                  lower.inclusive,
+                                  upper.inclusive);
+    }
+
+    private static Bound lower(Bound a, Bound b) {
+        int comparison = compare(a, b, -1);
+        return comparison == 0 ? new Bound(a.value, a.inclusive && b.inclusive) : comparison > 0 ? a : b;
+    }
+
+    private static Bound upper(Bound a, Bound b) {
+        int comparison = compare(a, b, 1);
+        return comparison == 0 ? new Bound(a.value, a.inclusive && b.inclusive) : comparison < 0 ? a : b;
+    }
+
+    /**
+     * Compares the values of the specified bounds, where a {@code null} value is an open bound.
+     *
+     * @param a a bound
+     * @param b another bound
+     * @param open the sign of the comparison result for open bounds
+     * @return a negative integer, zero, or a positive integer as {@code a} is less than, equal to, or greater than
+     * {@code b}
+     */
+    @SuppressWarnings("unchecked")
+    private static int compare(Bound a, Bound b, int open) {
+        if (a.value == null) {
+            return b.value == null ? 0 : open;
+        } else if (b.value == null) {
+            return -open;
+        }
+        return ((Comparable<Object>) a.value).compareTo(b.value);
+    }
+
+    /** A range bound, where a {@code null} value means unbounded. */
+    private static class Bound {
+
+        final Object value;
+        final boolean inclusive;
+
+        Bound(Object value, boolean inclusive) {
+            this.value = value;
+            this.inclusive = inclusive;
+        }
+    }
+}
@@ -16,8 +16,10 @@
 package com.stratio.cassandra.lucene.search;
 
 import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.IndexPagingState;
 import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.search.aggregation.Aggregation;
 import com.stratio.cassandra.lucene.search.condition.Condition;
 import com.stratio.cassandra.lucene.search.sort.SortField;
 import org.apache.lucene.search.BooleanQuery;
@@ -27,6 +29,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
@@ -46,6 +49,10 @@ public class Search {
 
     private static final boolean DEFAULT_FORCE_REFRESH = false;
 
+    private static final boolean DEFAULT_COUNT = false;
+
+    private static final boolean DEFAULT_APPROXIMATE = false;
+
     /** The mandatory conditions not participating in scoring. */
     public final List<Condition> filter;
 
@@ -61,6 +68,15 @@ public class Search {
     /** The paging state. */
     private final IndexPagingState paging;
 
+    /** If this search is only used to count the matching rows. */
+    private final boolean count;
+
+    /** If the count can be approximated using only the index. */
+    private final boolean approximate;
+
+    /** The aggregations to be computed over the matching rows. */
+    private final List<Aggregation> aggregations;
+
     /**
      * Constructor using the specified querying, filtering, sorting and refresh options.
      *
@@ -75,11 +91,67 @@ public class Search {
                   List<SortField> sort,
                   IndexPagingState paging,
                   Boolean refresh) {
+        this(filter, query, sort, paging, refresh, null, null);
+    }
+
+    /**
+     * Constructor using the specified querying, filtering, sorting, refresh and counting options.
+     *
+     * @param filter the filtering {@link Condition}s not involved in scoring
+     * @param query the querying {@link Condition}s participating in scoring
+     * @param sort the sort fields for the query
+     * @param paging the paging state
+     * @param refresh if this search must refresh the index before reading it
+     * @param count if this search is only used to count the matching rows
+     * @param approximate if the count can be approximated using only the index
+     */
+    public Search(List<Condition> filter,
+                  List<Condition> query,
+                  List<SortField> sort,
+                  IndexPagingState paging,
+                  Boolean refresh,
+                  Boolean count,
+                  Boolean approximate) {
+        this(filter, query, sort, paging, refresh, count, approximate, null);
+    }
+
+    /**
+     * Constructor using the specified querying, filtering, sorting, refresh, counting and aggregation options.
+     *
+     * @param filter the filtering {@link Condition}s not involved in scoring
+     * @param query the querying {@link Condition}s participating in scoring
+     * @param sort the sort fields for the query
+     * @param paging the paging state
+     * @param refresh if this search must refresh the index before reading it
+     * @param count if this search is only used to count the matching rows
+     * @param approximate if the count can be approximated using only the index
+     * @param aggregations the aggregations to be computed over the matching rows
+     */
+    public Search(List<Condition> filter,
+                  List<Condition> query,
+                  List<SortField> sort,
+                  IndexPagingState paging,
+                  Boolean refresh,
+                  Boolean count,
+                  Boolean approximate,
+                  List<Aggregation> aggregations) {
         this.filter = filter == null ? Collections.EMPTY_LIST : filter;
         this.query = query == null ? Collections.EMPTY_LIST : query;
         this.sort = sort == null ? Collections.EMPTY_LIST : sort;
         this.paging = paging;
         this.refresh = refresh == null ? DEFAULT_FORCE_REFRESH : refresh;
+        this.count = count == null ? DEFAULT_COUNT : count;
+        this.approximate = approximate == null ? DEFAULT_APPROXIMATE : approximate;
+        if (this.approximate && !this.count) {
+            throw new IndexException("Approximate searches are only allowed for counting");
+        }
+        this.aggregations = aggregations == null ? Collections.EMPTY_LIST : aggregations;
+        Set<String> names = new HashSet<>();
+        this.aggregations.forEach(aggregation -> {
+            if (!names.add(aggregation.name)) {
+                throw new IndexException("Duplicated aggregation name '{}'", aggregation.name);
+            }
+        });
     }
 
     /**
@@ -97,7 +169,7 @@ public class Search {
      * @return {@code true} if this search requires full ranges scan, {code null} otherwise
      */
     public boolean requiresFullScan() {
-        return usesRelevance() || usesSorting() || refresh && isEmpty();
+        return usesRelevance() || usesSorting() || usesAggregations() || refresh && isEmpty();
     }
 
     /**
@@ -106,7 +178,7 @@ public class Search {
      * @return {@code true} if this search uses Lucene relevance formula, {@code false} otherwise
      */
     public boolean usesRelevance() {
-        return !query.isEmpty();
+        return !count && !query.isEmpty();
     }
 
     /**
@@ -115,7 +187,16 @@ public class Search {
      * @return {@code true} if this search uses field sorting, {@code false} otherwise
      */
     public boolean usesSorting() {
-        return !sort.isEmpty();
+        return !count && !sort.isEmpty();
+    }
+
+    /**
+     * Returns if this search computes aggregations over the matching rows.
+     *
+     * @return {@code true} if this search computes aggregations, {@code false} otherwise
+     */
+    public boolean usesAggregations() {
+        return !aggregations.isEmpty();
     }
 
     /**
@@ -128,7 +209,8 @@ public class Search {
     }
 
     /**
-     * Returns the Lucene {@link Query} represented by this search, with the additional optional data range filter.
+     * Returns the Lucene {@link Query} represented by this search, with the additional optional data range filter. The
+     * query is rewritten by the {@link QueryOptimizer}.
      *
      * @param schema the indexing schema
      * @param range the additional data range filter, maybe {@code null}
@@ -142,10 +224,13 @@ public class Search {
         }
 
         filter.forEach(condition -> builder.add(condition.query(schema), FILTER));
-        query.forEach(condition -> builder.add(condition.query(schema), MUST));
+        query.forEach(condition -> builder.add(condition.query(schema), count ? FILTER : MUST));
 
         BooleanQuery booleanQuery = builder.build();
-        return booleanQuery.clauses().isEmpty() ? new MatchAllDocsQuery() : booleanQuery;
+        if (booleanQuery.clauses().isEmpty()) {
+            return new MatchAllDocsQuery();
+        }
+        return QueryOptimizer.optimize(booleanQuery, !count && !query.isEmpty());
     }
 
     public Query postProcessingQuery(Schema schema) {
@@ -167,6 +252,34 @@ public class Search {
         return refresh;
     }
 
+    /**
+     * Returns if this search is only used to count the matching rows, so their relevance and sorting are ignored.
+     *
+     * @return {@code true} if this search is only used for counting, {@code false} otherwise
+     */
+    public boolean count() {
+        return count;
+    }
+
+    /**
+     * Returns if the rows matched by this counting search can be counted using only the index, without reading them.
+     * Approximate counts might include rows that have expired or have been deleted.
+     *
+     * @return {@code true} if this search can be answered using only the index, {@code false} otherwise
+     */
+    public boolean approximate() {
+        return approximate;
+    }
+
+    /**
+     * Returns the aggregations to be computed over the rows matching this search.
+     *
+     * @return the aggregations
+     */
+    public List<Aggregation> aggregations() {
+        return aggregations;
+    }
+
     /**
      * Returns the Lucene {@link org.apache.lucene.search.SortField}s represented by this using the specified schema.
      *
@@ -203,6 +316,7 @@ public class Search {
         filter.forEach(condition -> condition.query(schema));
         query.forEach(condition -> condition.query(schema));
         sort.forEach(field -> field.sortField(schema));
+        aggregations.forEach(aggregation -> aggregation.collector(schema));
         return this;
     }
 
@@ -215,6 +329,9 @@ public class Search {
                           .add("sort", sort)
                           .add("refresh", refresh)
                           .add("paging", paging)
+                          .add("count", count)
+                          .add("approximate", approximate)
+                          .add("aggregations", aggregations)
                           .toString();
     }
 }
@@ -20,6 +20,7 @@ import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.IndexPagingState;
 import com.stratio.cassandra.lucene.common.Builder;
 import com.stratio.cassandra.lucene.common.JsonSerializer;
+import com.stratio.cassandra.lucene.search.aggregation.builder.AggregationBuilder;
 import com.stratio.cassandra.lucene.search.condition.builder.ConditionBuilder;
 import com.stratio.cassandra.lucene.search.sort.builder.SortFieldBuilder;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
@@ -28,6 +29,7 @@ import java.io.IOException;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import static java.util.stream.Collectors.toList;
 
@@ -57,6 +59,26 @@ public class SearchBuilder implements Builder<Search> {
     @JsonProperty("paging")
     private String paging;
 
+    /** If this search is only used to count the matching rows. */
+    @JsonProperty("count")
+    private Boolean count;
+
+    /** If the count can be approximated using only the index. */
+    @JsonProperty("approximate")
+    private Boolean approximate;
+
+    /** The {@link AggregationBuilder}s for the aggregations to be computed over the matching rows. */
+    @JsonProperty("aggregations")
+    private List<AggregationBuilder<?>> aggregations;
+
+    /** The name of the index {@link SearchTemplate} to be used instead of the search conditions. */
+    @JsonProperty("template")
+    private String template;
+
+    /** The values of the parameters of the {@link SearchTemplate}. */
+    @JsonProperty("params")
+    private Map<String, Object> params;
+
     /** Default constructor. */
     SearchBuilder() {
     }
@@ -107,6 +129,53 @@ public class SearchBuilder implements Builder<Search> {
         return this;
     }
 
+    /**
+     * Sets if the {@link Search} to be built is only used to count the matching rows, ignoring relevance and sorting.
+     *
+     * @param count {@code true} if the {@link Search} to be built is only used for counting, {@code false} otherwise
+     * @return this builder with the specified count option
+     */
+    public SearchBuilder count(boolean count) {
+        this.count = count;
+        return this;
+    }
+
+    /**
+     * Sets if the rows matched by the counting {@link Search} to be built can be counted using only the index, without
+     * reading them. Approximate counts might include rows that have expired or have been deleted.
+     *
+     * @param approximate {@code true} if the count can be approximated using only the index, {@code false} otherwise
+     * @return this builder with the specified approximate option
+     */
+    public SearchBuilder approximate(boolean approximate) {
+        this.approximate = approximate;
+        return this;
+    }
+
+    /**
+     * Adds the specified aggregations to be computed over the rows matching the {@link Search} to be built.
+     *
+     * @param builders the aggregations to be added
+     * @return this builder with the specified aggregations
+     */
+    public SearchBuilder aggregations(AggregationBuilder<?>... builders) {
+        if (aggregations == null) {
+            aggregations = new LinkedList<>();
+        }
+        aggregations.addAll(Arrays.asList(builders));
+        return this;
+    }
+
+    /**
+     * Removes the aggregations to be computed over the rows matching the {@link Search} to be built.
+     *
+     * @return this builder without aggregations
+     */
+    public SearchBuilder withoutAggregations() {
+        aggregations = null;
+        return this;
+    }
+
     /**
      * Sets the specified starting partition key.
      *
@@ -118,6 +187,45 @@ public class SearchBuilder implements Builder<Search> {
         return this;
     }
 
+    /**
+     * Sets the {@link SearchTemplate} to be used by the {@link Search} to be built, which will be resolved by the
+     * index. The template can't be combined with any other search option but paging.
+     *
+     * @param template the name of the search template
+     * @param params the values of the template parameters
+     * @return this builder with the specified template
+     */
+    public SearchBuilder template(String template, Map<String, Object> params) {
+        this.template = template;
+        this.params = params;
+        return this;
+    }
+
+    /**
+     * Returns a builder with the {@link SearchTemplate} of this builder replaced by its parameterized search, keeping
+     * the paging state. If this builder doesn't use any template, then this is returned. Templates can't be combined
+     * with any other search option but paging.
+     *
+     * @param templates the available search templates indexed by name
+     * @return a builder without template
+     */
+    public SearchBuilder resolve(Map<String, SearchTemplate> templates) {
+        if (template == null) {
+            return this;
+        }
+        if (!filter.isEmpty() || !query.isEmpty() || !sort.isEmpty() || refresh
+            || count != null || approximate != null || aggregations != null) {
+            throw new IndexException("Search template '{}' can't be combined with other search options", template);
+        }
+        SearchTemplate searchTemplate = templates.get(template);
+        if (searchTemplate == null) {
+            throw new IndexException("Unknown search template '{}'", template);
+        }
+        SearchBuilder builder = searchTemplate.builder(params);
+        builder.paging = paging;
+        return builder;
+    }
+
     /**
      * Returns the {@link Search} represented by this builder.
      *
@@ -125,11 +233,19 @@ public class SearchBuilder implements Builder<Search> {
      */
     @Override
     public Search build() {
+        if (template != null) {
+            throw new IndexException("Search template '{}' should be resolved before building", template);
+        }
         return new Search(filter.stream().map(ConditionBuilder::build).collect(toList()),
                           query.stream().map(ConditionBuilder::build).collect(toList()),
                           sort.stream().map(SortFieldBuilder::build).collect(toList()),
                           paging == null ? null : IndexPagingState.fromByteBuffer(ByteBufferUtils.byteBuffer(paging)),
-                          refresh);
+                          refresh,
+                          count,
+                          approximate,
+                          aggregations == null
+                          ? null
+                          : aggregations.stream().map(AggregationBuilder::build).collect(toList()));
     }
 
     /**
@@ -138,7 +254,9 @@ public class SearchBuilder implements Builder<Search> {
      * @return a JSON representation of this object
      */
     public String toJson() {
-        build();
+        if (template == null) {
+            build();
+        }
         try {
             return JsonSerializer.toString(this);
         } catch (IOException e) {
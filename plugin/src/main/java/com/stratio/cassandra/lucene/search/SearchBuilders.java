@@ -16,6 +16,7 @@
 package com.stratio.cassandra.lucene.search;
 
 import com.stratio.cassandra.lucene.common.GeoShape;
+import com.stratio.cassandra.lucene.search.aggregation.builder.*;
 import com.stratio.cassandra.lucene.search.condition.builder.*;
 import com.stratio.cassandra.lucene.search.sort.builder.GeoDistanceSortFieldBuilder;
 import com.stratio.cassandra.lucene.search.sort.builder.SimpleSortFieldBuilder;
@@ -82,6 +83,16 @@ public final class SearchBuilders {
         return search().refresh(refresh);
     }
 
+    /**
+     * Returns a new {@link SearchBuilder} using the specified count option.
+     *
+     * @param count if the search to be built is only used to count the matching rows
+     * @return a new {@link SearchBuilder} with the specified count option
+     */
+    public static SearchBuilder count(boolean count) {
+        return search().count(count);
+    }
+
     /**
      * Returns a new {@link BooleanConditionBuilder}.
      *
@@ -307,4 +318,49 @@ public final class SearchBuilders {
     public static BitemporalConditionBuilder bitemporal(String field) {
         return new BitemporalConditionBuilder(field);
     }
+
+    /**
+     * Returns a new {@link TermsAggregationBuilder} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new terms aggregation builder
+     */
+    public static TermsAggregationBuilder termsAggregation(String name, String field) {
+        return new TermsAggregationBuilder(name, field);
+    }
+
+    /**
+     * Returns a new {@link HistogramAggregationBuilder} for the specified name, field and interval.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param interval the size of the bucket intervals
+     * @return a new histogram aggregation builder
+     */
+    public static HistogramAggregationBuilder histogramAggregation(String name, String field, double interval) {
+        return new HistogramAggregationBuilder(name, field, interval);
+    }
+
+    /**
+     * Returns a new {@link RangeAggregationBuilder} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new range aggregation builder
+     */
+    public static RangeAggregationBuilder rangeAggregation(String name, String field) {
+        return new RangeAggregationBuilder(name, field);
+    }
+
+    /**
+     * Returns a new {@link StatsAggregationBuilder} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @return a new stats aggregation builder
+     */
+    public static StatsAggregationBuilder statsAggregation(String name, String field) {
+        return new StatsAggregationBuilder(name, field);
+    }
 }
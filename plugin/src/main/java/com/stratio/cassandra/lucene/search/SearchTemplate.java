@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.common.JsonSerializer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A parameterized {@link Search} registered in the index options. Any JSON string value of the form
+ * {@code "${name}"} in the template is a parameter to be replaced by the JSON value of the same name given in the
+ * search, so the replacement keeps its JSON type.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class SearchTemplate {
+
+    /** The pattern of the parameter placeholders. */
+    public static final Pattern PARAMETER = Pattern.compile("^\\$\\{(\\w+)}$");
+
+    private static final ObjectMapper MAPPER = JsonSerializer.INSTANCE.mapper;
+
+    /** The name of the template. */
+    public final String name;
+
+    /** The parsed JSON search containing the parameter placeholders. */
+    private final JsonNode tree;
+
+    /** The names of the parameters. */
+    private final Set<String> parameters = new LinkedHashSet<>();
+
+    /**
+     * Builds a new {@link SearchTemplate} from the specified parsed JSON search.
+     *
+     * @param name the name of the template
+     * @param tree the parsed JSON search containing the parameter placeholders
+     */
+    public SearchTemplate(String name, JsonNode tree) {
+        if (!tree.isObject()) {
+            throw new IndexException("Search template '{}' must be a JSON object", name);
+        }
+        if (tree.has("template") || tree.has("paging")) {
+            throw new IndexException("Search template '{}' can't contain template nor paging", name);
+        }
+        this.name = name;
+        this.tree = tree;
+        collectParameters(tree);
+    }
+
+    private void collectParameters(JsonNode node) {
+        String parameter = parameter(node);
+        if (parameter != null) {
+            parameters.add(parameter);
+        }
+        node.forEach(this::collectParameters);
+    }
+
+    private static String parameter(JsonNode node) {
+        if (node.isTextual()) {
+            Matcher matcher = PARAMETER.matcher(node.textValue());
+            if (matcher.matches()) {
+                return matcher.group(1);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the names of the parameters of this template.
+     *
+     * @return the parameter names
+     */
+    public Set<String> parameters() {
+        return Collections.unmodifiableSet(parameters);
+    }
+
+    /**
+     * Returns a new {@link SearchBuilder} for this template with the specified parameter values.
+     *
+     * @param params the parameter values
+     * @return a search builder with the parameters replaced by {@code params}
+     */
+    public SearchBuilder builder(Map<String, Object> params) {
+        Map<String, Object> values = params == null ? Collections.emptyMap() : params;
+        for (String parameter : parameters) {
+            if (!values.containsKey(parameter)) {
+                throw new IndexException("Missing parameter '{}' of search template '{}'", parameter, name);
+            }
+        }
+        for (String param : values.keySet()) {
+            if (!parameters.contains(param)) {
+                throw new IndexException("Unknown parameter '{}' of search template '{}'", param, name);
+            }
+        }
+        try {
+            return MAPPER.treeToValue(replace(tree, values), SearchBuilder.class);
+        } catch (IOException e) {
+            throw new IndexException(e, "Unparseable search template '{}': {}", name, e.getMessage());
+        }
+    }
+
+    private static JsonNode replace(JsonNode node, Map<String, Object> values) {
+        String parameter = parameter(node);
+        if (parameter != null) {
+            return MAPPER.valueToTree(values.get(parameter));
+        } else if (node.isObject()) {
+            ObjectNode copy = MAPPER.createObjectNode();
+            node.fields().forEachRemaining(e -> copy.set(e.getKey(), replace(e.getValue(), values)));
+            return copy;
+        } else if (node.isArray()) {
+            ArrayNode copy = MAPPER.createArrayNode();
+            node.forEach(e -> copy.add(replace(e, values)));
+            return copy;
+        }
+        return node;
+    }
+
+    /**
+     * Returns the {@link SearchTemplate}s represented by the specified JSON object, which maps template names to
+     * parameterized JSON searches.
+     *
+     * @param json a JSON object mapping names to JSON searches
+     * @return the search templates indexed by name
+     */
+    public static Map<String, SearchTemplate> fromJson(String json) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(json);
+        } catch (IOException e) {
+            throw new IndexException(e, "Unparseable JSON search templates: {}", e.getMessage());
+        }
+        if (root == null || !root.isObject()) {
+            throw new IndexException("Search templates must be a JSON object");
+        }
+        Map<String, SearchTemplate> templates = new LinkedHashMap<>();
+        root.fields().forEachRemaining(e -> templates.put(e.getKey(), new SearchTemplate(e.getKey(), e.getValue())));
+        return templates;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("name", name).add("parameters", parameters).toString();
+    }
+}
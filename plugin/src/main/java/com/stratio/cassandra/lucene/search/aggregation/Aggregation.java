@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.Mapper;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * An aggregation of the values of a field of the documents matched by a search, computed from the field doc values.
+ *
+ * Aggregations are computed locally in each node and their partial {@link AggregationResult}s are merged in the
+ * coordinator node.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public abstract class Aggregation {
+
+    /** The name identifying the aggregation in the results. */
+    public final String name;
+
+    /** The name of the field to be aggregated. */
+    public final String field;
+
+    /**
+     * Constructor using the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    protected Aggregation(String name, String field) {
+        if (StringUtils.isBlank(name)) {
+            throw new IndexException("Aggregation name required");
+        }
+        if (StringUtils.isBlank(field)) {
+            throw new IndexException("Field name required");
+        }
+        this.name = name;
+        this.field = field;
+    }
+
+    /**
+     * Returns the {@link Mapper} of the aggregated field, checking that it supports doc values.
+     *
+     * @param schema the indexing schema
+     * @return the mapper of the aggregated field
+     */
+    protected Mapper mapper(Schema schema) {
+        Mapper mapper = schema.mapper(field);
+        if (mapper == null) {
+            throw new IndexException("No mapper found for aggregation field '{}'", field);
+        } else if (!mapper.docValues) {
+            throw new IndexException("Field '{}' does not support aggregations", field);
+        }
+        return mapper;
+    }
+
+    /**
+     * Returns a new Lucene collector computing this aggregation over the collected documents.
+     *
+     * @param schema the indexing schema
+     * @return a new collector for this aggregation
+     */
+    public abstract AggregationCollector collector(Schema schema);
+
+    /**
+     * Returns the final form of the specified merged result, for example keeping only the most frequent buckets.
+     *
+     * @param result a merged result of this aggregation
+     * @return the final result
+     */
+    public AggregationResult finish(AggregationResult result) {
+        return result;
+    }
+}
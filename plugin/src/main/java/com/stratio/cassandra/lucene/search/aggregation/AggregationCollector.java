@@ -0,0 +1,39 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import org.apache.lucene.search.SimpleCollector;
+
+/**
+ * Lucene collector computing an {@link Aggregation} over the doc values of the collected documents.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public abstract class AggregationCollector extends SimpleCollector {
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    /**
+     * Returns the result of the aggregation over all the collected documents.
+     *
+     * @return the aggregation result
+     */
+    public abstract AggregationResult result();
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonSubTypes;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+
+/**
+ * The result of an {@link Aggregation}, which can be merged with the results of the same aggregation in other nodes.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+@JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
+@JsonSubTypes({@JsonSubTypes.Type(value = BucketsResult.class, name = "buckets"),
+               @JsonSubTypes.Type(value = StatsResult.class, name = "stats")})
+public abstract class AggregationResult {
+
+    /**
+     * Returns the result of merging this with the specified result of the same aggregation.
+     *
+     * @param other the result to be merged with this
+     * @return a new merged result
+     */
+    public abstract AggregationResult merge(AggregationResult other);
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonAnyGetter;
+import com.fasterxml.jackson.annotation.JsonAnySetter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.common.JsonSerializer;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The {@link AggregationResult}s of the {@link Aggregation}s of a search, identified by aggregation name.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class AggregationResults {
+
+    /** The aggregation results by aggregation name. */
+    private final Map<String, AggregationResult> results = new LinkedHashMap<>();
+
+    /**
+     * Adds the specified aggregation result.
+     *
+     * @param name the aggregation name
+     * @param result the aggregation result
+     */
+    @JsonAnySetter
+    public void put(String name, AggregationResult result) {
+        results.put(name, result);
+    }
+
+    /**
+     * Returns the aggregation results by aggregation name.
+     *
+     * @return the aggregation results
+     */
+    @JsonAnyGetter
+    public Map<String, AggregationResult> results() {
+        return results;
+    }
+
+    /**
+     * Returns the result of the aggregation with the specified name.
+     *
+     * @param name an aggregation name
+     * @return the result of the aggregation, or {@code null} if there is no such aggregation
+     */
+    public AggregationResult result(String name) {
+        return results.get(name);
+    }
+
+    /**
+     * Returns the result of merging this with the specified results of the same aggregations.
+     *
+     * @param other the results to be merged with this
+     * @return new merged results
+     */
+    public AggregationResults merge(AggregationResults other) {
+        AggregationResults merged = new AggregationResults();
+        merged.results.putAll(results);
+        other.results.forEach((name, result) -> merged.results.merge(name, result, AggregationResult::merge));
+        return merged;
+    }
+
+    /**
+     * Returns the final form of these merged results of the specified aggregations.
+     *
+     * @param aggregations the aggregations
+     * @return the final results
+     */
+    public AggregationResults finish(List<Aggregation> aggregations) {
+        AggregationResults finished = new AggregationResults();
+        aggregations.forEach(aggregation -> {
+            AggregationResult result = results.get(aggregation.name);
+            if (result != null) {
+                finished.put(aggregation.name, aggregation.finish(result));
+            }
+        });
+        return finished;
+    }
+
+    /**
+     * Returns the JSON representation of these results.
+     *
+     * @return a JSON representation of these results
+     */
+    public String toJson() {
+        try {
+            return JsonSerializer.INSTANCE.mapper.writer()
+                                                 .with(JsonGenerator.Feature.QUOTE_FIELD_NAMES)
+                                                 .writeValueAsString(this);
+        } catch (IOException e) {
+            throw new IndexException(e, "Unformateable JSON aggregation results: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the {@link AggregationResults} represented by the specified JSON {@code String}.
+     *
+     * @param json the JSON {@code String} representing the results
+     * @return the results represented by {@code json}
+     */
+    public static AggregationResults fromJson(String json) {
+        try {
+            return JsonSerializer.fromString(json, AggregationResults.class);
+        } catch (IOException e) {
+            throw new IndexException(e, "Unparseable JSON aggregation results: {}", e.getMessage());
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("results", results).toString();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link AggregationResult} consisting of document counts per bucket key.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class BucketsResult extends AggregationResult {
+
+    /** The number of documents per bucket key. */
+    @JsonProperty("buckets")
+    public final Map<String, Long> buckets;
+
+    /**
+     * Constructor using the specified document counts per bucket key.
+     *
+     * @param buckets the number of documents per bucket key
+     */
+    @JsonCreator
+    public BucketsResult(@JsonProperty("buckets") Map<String, Long> buckets) {
+        this.buckets = buckets == null ? new LinkedHashMap<>() : new LinkedHashMap<>(buckets);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public BucketsResult merge(AggregationResult other) {
+        if (!(other instanceof BucketsResult)) {
+            throw new IndexException("Buckets result can't be merged with {}", other);
+        }
+        Map<String, Long> merged = new LinkedHashMap<>(buckets);
+        ((BucketsResult) other).buckets.forEach((key, count) -> merged.merge(key, count, Long::sum));
+        return new BucketsResult(merged);
+    }
+
+    /**
+     * Returns a copy of this with at most the specified number of buckets in the specified order.
+     *
+     * @param comparator the buckets order
+     * @param size the max number of buckets to be kept
+     * @return a sorted copy of this
+     */
+    public BucketsResult sorted(Comparator<Map.Entry<String, Long>> comparator, int size) {
+        Map<String, Long> sorted = new LinkedHashMap<>();
+        buckets.entrySet()
+               .stream()
+               .sorted(comparator)
+               .limit(size)
+               .forEach(entry -> sorted.put(entry.getKey(), entry.getValue()));
+        return new BucketsResult(sorted);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return buckets.equals(((BucketsResult) o).buckets);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return buckets.hashCode();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("buckets", buckets).toString();
+    }
+}
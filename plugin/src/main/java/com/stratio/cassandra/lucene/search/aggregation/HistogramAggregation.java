@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * {@link NumericAggregation} counting the documents per fixed size interval of a numeric or date field. Each bucket is
+ * identified by the lower bound of its interval. Integral fields with integral intervals are bucketed with long
+ * arithmetic, so big values such as timestamps don't lose precision.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class HistogramAggregation extends NumericAggregation {
+
+    /** The order of the returned buckets, by interval lower bound. */
+    static final Comparator<Map.Entry<String, Long>> ORDER =
+            Comparator.comparing(entry -> new BigDecimal(entry.getKey()));
+
+    /** The size of the bucket intervals. */
+    public final double interval;
+
+    /**
+     * Constructor using the specified name, field and interval.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param interval the size of the bucket intervals
+     */
+    public HistogramAggregation(String name, String field, Double interval) {
+        super(name, field);
+        if (interval == null) {
+            throw new IndexException("Histogram aggregation interval required");
+        } else if (interval <= 0 || interval.isInfinite() || interval.isNaN()) {
+            throw new IndexException("Histogram aggregation interval must be strictly positive, found {}", interval);
+        }
+        this.interval = interval;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationCollector collector(Schema schema) {
+        boolean integralInterval = interval == Math.rint(interval) && interval < Long.MAX_VALUE;
+        long longInterval = (long) interval;
+        return new NumericCollector(schema) {
+
+            private final Map<Double, Long> counts = new TreeMap<>();
+            private final Map<Long, Long> longCounts = new TreeMap<>();
+
+            @Override
+            void aggregate(double value) {
+                counts.merge(Math.floor(value / interval) * interval, 1L, Long::sum);
+            }
+
+            @Override
+            void aggregate(long value) {
+                if (integralInterval) {
+                    longCounts.merge(Math.floorDiv(value, longInterval) * longInterval, 1L, Long::sum);
+                } else {
+                    aggregate((double) value);
+                }
+            }
+
+            @Override
+            public AggregationResult result() {
+                Map<String, Long> buckets = new LinkedHashMap<>();
+                counts.forEach((bucket, count) -> buckets.put(format(bucket), count));
+                longCounts.forEach((bucket, count) -> buckets.put(format(bucket), count));
+                return new BucketsResult(buckets);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationResult finish(AggregationResult result) {
+        BucketsResult buckets = (BucketsResult) result;
+        return buckets.sorted(ORDER, buckets.buckets.size());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("name", name)
+                          .add("field", field)
+                          .add("interval", interval)
+                          .toString();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.*;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.util.NumericUtils;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.function.LongToDoubleFunction;
+
+/**
+ * {@link Aggregation} over the sorted numeric doc values of a numeric or date field. Date values are aggregated as
+ * milliseconds since epoch. The values of integer, long and date fields are aggregated with long arithmetic, so they
+ * don't lose precision.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public abstract class NumericAggregation extends Aggregation {
+
+    /**
+     * Constructor using the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    protected NumericAggregation(String name, String field) {
+        super(name, field);
+    }
+
+    /**
+     * Returns the function decoding the doc values of the aggregated field.
+     *
+     * @param schema the indexing schema
+     * @return the doc values decoding function
+     */
+    protected LongToDoubleFunction decoder(Schema schema) {
+        Mapper mapper = mapper(schema);
+        if (mapper instanceof DoubleMapper) {
+            return NumericUtils::sortableLongToDouble;
+        } else if (mapper instanceof FloatMapper) {
+            return value -> NumericUtils.sortableIntToFloat((int) value);
+        } else if (mapper instanceof IntegerMapper || mapper instanceof LongMapper || mapper instanceof DateMapper) {
+            return value -> value;
+        }
+        throw new IndexException("Numeric aggregation requires a numeric or date field but '{}' is mapped by {}",
+                                 field,
+                                 mapper.getClass().getSimpleName());
+    }
+
+    /**
+     * Returns if the values of the aggregated field are integral, so they can be aggregated as longs.
+     *
+     * @param schema the indexing schema
+     * @return {@code true} if the field values are integral, {@code false} otherwise
+     */
+    protected boolean integral(Schema schema) {
+        Mapper mapper = mapper(schema);
+        return mapper instanceof IntegerMapper || mapper instanceof LongMapper || mapper instanceof DateMapper;
+    }
+
+    /**
+     * Returns the shortest text representation of the specified number, to be used as bucket key.
+     *
+     * @param value a number
+     * @return the text representation of {@code value}
+     */
+    static String format(double value) {
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    /**
+     * Returns the text representation of the specified number, to be used as bucket key.
+     *
+     * @param value a number
+     * @return the text representation of {@code value}
+     */
+    static String format(long value) {
+        return Long.toString(value);
+    }
+
+    /** {@link AggregationCollector} for the decoded values of the aggregated field. */
+    abstract class NumericCollector extends AggregationCollector {
+
+        private final LongToDoubleFunction decoder;
+        private final boolean integral;
+        private SortedNumericDocValues values;
+
+        /**
+         * Constructor using the specified indexing schema to decode the doc values.
+         *
+         * @param schema the indexing schema
+         */
+        NumericCollector(Schema schema) {
+            this.decoder = decoder(schema);
+            this.integral = integral(schema);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            values = DocValues.getSortedNumeric(context.reader(), field);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void collect(int doc) throws IOException {
+            values.setDocument(doc);
+            for (int i = 0; i < values.count(); i++) {
+                long value = values.valueAt(i);
+                if (integral) {
+                    aggregate(value);
+                } else {
+                    aggregate(decoder.applyAsDouble(value));
+                }
+            }
+        }
+
+        /**
+         * Aggregates the specified value of a floating point field.
+         *
+         * @param value a value of the aggregated field
+         */
+        abstract void aggregate(double value);
+
+        /**
+         * Aggregates the specified value of an integral field. By default it is aggregated as a double.
+         *
+         * @param value a value of the aggregated field
+         */
+        void aggregate(long value) {
+            aggregate((double) value);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+
+import java.util.*;
+
+/**
+ * {@link NumericAggregation} counting the documents per user-defined range of a numeric or date field. Each range
+ * includes its lower bound and excludes its upper bound.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class RangeAggregation extends NumericAggregation {
+
+    /** The ranges. */
+    public final List<Range> ranges;
+
+    /**
+     * Constructor using the specified name, field and ranges.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param ranges the ranges
+     */
+    public RangeAggregation(String name, String field, List<Range> ranges) {
+        super(name, field);
+        if (ranges == null || ranges.isEmpty()) {
+            throw new IndexException("Range aggregation requires at least one range");
+        }
+        Set<String> keys = new HashSet<>();
+        ranges.forEach(range -> {
+            if (!keys.add(range.key)) {
+                throw new IndexException("Range aggregation has duplicated range key '{}'", range.key);
+            }
+        });
+        this.ranges = ranges;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationCollector collector(Schema schema) {
+        return new NumericCollector(schema) {
+
+            private final long[] counts = new long[ranges.size()];
+
+            @Override
+            void aggregate(double value) {
+                for (int i = 0; i < counts.length; i++) {
+                    if (ranges.get(i).contains(value)) {
+                        counts[i]++;
+                    }
+                }
+            }
+
+            @Override
+            public AggregationResult result() {
+                Map<String, Long> buckets = new LinkedHashMap<>();
+                for (int i = 0; i < counts.length; i++) {
+                    buckets.put(ranges.get(i).key, counts[i]);
+                }
+                return new BucketsResult(buckets);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("name", name).add("field", field).add("ranges", ranges).toString();
+    }
+
+    /** A range of values, with optional bounds. */
+    public static class Range {
+
+        /** The inclusive lower bound, {@code null} means unbounded. */
+        public final Double from;
+
+        /** The exclusive upper bound, {@code null} means unbounded. */
+        public final Double to;
+
+        /** The key identifying the range in the results. */
+        public final String key;
+
+        /**
+         * Constructor using the specified bounds and key.
+         *
+         * @param from the inclusive lower bound, {@code null} means unbounded
+         * @param to the exclusive upper bound, {@code null} means unbounded
+         * @param key the key identifying the range in the results, {@code null} means using the bounds
+         */
+        public Range(Double from, Double to, String key) {
+            if (from != null && to != null && from > to) {
+                throw new IndexException("Range aggregation lower bound {} is greater than upper bound {}", from, to);
+            }
+            this.from = from;
+            this.to = to;
+            this.key = key != null ? key : (from == null ? "*" : format(from)) + ":" + (to == null ? "*" : format(to));
+        }
+
+        /**
+         * Returns if the specified value is inside this range.
+         *
+         * @param value a value
+         * @return {@code true} if {@code value} is inside this range, {@code false} otherwise
+         */
+        boolean contains(double value) {
+            return (from == null || value >= from) && (to == null || value < to);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public String toString() {
+            return MoreObjects.toStringHelper(this).add("from", from).add("to", to).add("key", key).toString();
+        }
+    }
+}
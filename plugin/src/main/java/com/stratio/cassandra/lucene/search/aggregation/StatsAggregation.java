@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.schema.Schema;
+
+/**
+ * {@link NumericAggregation} computing the count, min, max and sum of the values of a numeric or date field. The sum
+ * of integral values is computed as a long, unless it overflows.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class StatsAggregation extends NumericAggregation {
+
+    /**
+     * Constructor using the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    public StatsAggregation(String name, String field) {
+        super(name, field);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationCollector collector(Schema schema) {
+        return new NumericCollector(schema) {
+
+            private long count = 0;
+            private double min = Double.POSITIVE_INFINITY;
+            private double max = Double.NEGATIVE_INFINITY;
+            private double sum = 0;
+            private boolean integral = false;
+            private long longMin = Long.MAX_VALUE;
+            private long longMax = Long.MIN_VALUE;
+            private long longSum = 0;
+            private boolean overflow = false;
+
+            @Override
+            void aggregate(double value) {
+                count++;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+                sum += value;
+            }
+
+            @Override
+            void aggregate(long value) {
+                integral = true;
+                count++;
+                longMin = Math.min(longMin, value);
+                longMax = Math.max(longMax, value);
+                sum += value;
+                if (!overflow) {
+                    try {
+                        longSum = Math.addExact(longSum, value);
+                    } catch (ArithmeticException e) {
+                        overflow = true;
+                    }
+                }
+            }
+
+            @Override
+            public AggregationResult result() {
+                if (count == 0) {
+                    return new StatsResult(0, null, null, 0L);
+                } else if (integral) {
+                    return new StatsResult(count, longMin, longMax, overflow ? (Number) sum : (Number) longSum);
+                }
+                return new StatsResult(count, min, max, sum);
+            }
+        };
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("name", name).add("field", field).toString();
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+
+import java.util.Objects;
+
+/**
+ * {@link AggregationResult} consisting of the count, min, max and sum of a set of numeric values. The stats of
+ * integral values are kept as longs, and the ones of floating point values are kept as doubles.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class StatsResult extends AggregationResult {
+
+    /** The number of aggregated values. */
+    @JsonProperty("count")
+    public final long count;
+
+    /** The min aggregated value, {@code null} if there are no values. */
+    @JsonProperty("min")
+    public final Number min;
+
+    /** The max aggregated value, {@code null} if there are no values. */
+    @JsonProperty("max")
+    public final Number max;
+
+    /** The sum of the aggregated values. */
+    @JsonProperty("sum")
+    public final Number sum;
+
+    /**
+     * Constructor using the specified stats.
+     *
+     * @param count the number of aggregated values
+     * @param min the min aggregated value, {@code null} if there are no values
+     * @param max the max aggregated value, {@code null} if there are no values
+     * @param sum the sum of the aggregated values
+     */
+    @JsonCreator
+    public StatsResult(@JsonProperty("count") long count,
+                       @JsonProperty("min") Number min,
+                       @JsonProperty("max") Number max,
+                       @JsonProperty("sum") Number sum) {
+        this.count = count;
+        this.min = normalize(min);
+        this.max = normalize(max);
+        this.sum = sum == null ? Long.valueOf(0) : normalize(sum);
+    }
+
+    /**
+     * Returns the specified number as a {@link Long} if it is integral, or as a {@link Double} otherwise.
+     *
+     * @param number a number
+     * @return {@code number} as a long or a double
+     */
+    private static Number normalize(Number number) {
+        if (number == null) {
+            return null;
+        } else if (number instanceof Long || number instanceof Integer || number instanceof Short) {
+            return number.longValue();
+        }
+        return number.doubleValue();
+    }
+
+    private static Number min(Number a, Number b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        } else if (a instanceof Long && b instanceof Long) {
+            return Math.min(a.longValue(), b.longValue());
+        }
+        return Math.min(a.doubleValue(), b.doubleValue());
+    }
+
+    private static Number max(Number a, Number b) {
+        if (a == null || b == null) {
+            return a == null ? b : a;
+        } else if (a instanceof Long && b instanceof Long) {
+            return Math.max(a.longValue(), b.longValue());
+        }
+        return Math.max(a.doubleValue(), b.doubleValue());
+    }
+
+    private static Number sum(Number a, Number b) {
+        if (a instanceof Long && b instanceof Long) {
+            try {
+                return Math.addExact(a.longValue(), b.longValue());
+            } catch (ArithmeticException e) {
+                return a.doubleValue() + b.doubleValue();
+            }
+        }
+        return a.doubleValue() + b.doubleValue();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public StatsResult merge(AggregationResult other) {
+        if (!(other instanceof StatsResult)) {
+            throw new IndexException("Stats result can't be merged with {}", other);
+        }
+        StatsResult stats = (StatsResult) other;
+        if (count == 0 || stats.count == 0) {
+            return count == 0 ? stats : this;
+        }
+        return new StatsResult(count + stats.count,
+                               min(min, stats.min),
+                               max(max, stats.max),
+                               sum(sum, stats.sum));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        StatsResult that = (StatsResult) o;
+        return count == that.count &&
+               Objects.equals(sum, that.sum) &&
+               Objects.equals(min, that.min) &&
+               Objects.equals(max, that.max);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        return Objects.hash(count, min, max, sum);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("count", count)
+                          .add("min", min)
+                          .add("max", max)
+                          .add("sum", sum)
+                          .toString();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.base.MoreObjects;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.KeywordMapper;
+import com.stratio.cassandra.lucene.schema.mapping.Mapper;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedSetDocValues;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * {@link Aggregation} counting the documents per distinct value of a keyword field, such as the ones mapped by a {@link
+ * com.stratio.cassandra.lucene.schema.mapping.StringMapper}. Values are read from the field sorted doc values, so each
+ * segment is aggregated by term ordinal and ordinals are resolved to terms only once per segment.
+ *
+ * Each node returns only the counts of its {@link #shardSize()} most frequent values, and only the {@link #size} most
+ * frequent ones are kept after merging. As in other distributed terms aggregations, the returned counts might be
+ * approximate if the value distribution is very different between nodes.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class TermsAggregation extends Aggregation {
+
+    /** The default max number of returned buckets. */
+    public static final int DEFAULT_SIZE = 10;
+
+    /** The factor applied to the number of returned buckets to get the number of buckets returned by each node. */
+    static final double SHARD_SIZE_FACTOR = 1.5;
+
+    /** The number of buckets returned by each node in addition to the ones given by {@link #SHARD_SIZE_FACTOR}. */
+    static final int SHARD_SIZE_OFFSET = 10;
+
+    /** The order of the returned buckets, first by descending count and then by key. */
+    static final Comparator<Map.Entry<String, Long>> ORDER = Map.Entry.<String, Long>comparingByValue()
+            .reversed()
+            .thenComparing(Map.Entry.comparingByKey());
+
+    /** The max number of returned buckets. */
+    public final int size;
+
+    /**
+     * Constructor using the specified name, field and number of buckets.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param size the max number of returned buckets
+     */
+    public TermsAggregation(String name, String field, Integer size) {
+        super(name, field);
+        if (size != null && size <= 0) {
+            throw new IndexException("Terms aggregation size must be strictly positive, found {}", size);
+        }
+        this.size = size == null ? DEFAULT_SIZE : size;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationCollector collector(Schema schema) {
+        Mapper mapper = mapper(schema);
+        if (!(mapper instanceof KeywordMapper)) {
+            throw new IndexException("Terms aggregation requires a keyword field but '{}' is mapped by {}",
+                                     field,
+                                     mapper.getClass().getSimpleName());
+        }
+        return new TermsCollector();
+    }
+
+    /**
+     * Returns the max number of buckets returned by each node, which is bigger than {@link #size} to reduce the error
+     * of the merged counts.
+     *
+     * @return the max number of buckets per node
+     */
+    public int shardSize() {
+        return (int) Math.min(Integer.MAX_VALUE, (long) (size * SHARD_SIZE_FACTOR) + SHARD_SIZE_OFFSET);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public AggregationResult finish(AggregationResult result) {
+        return ((BucketsResult) result).sorted(ORDER, size);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this).add("name", name).add("field", field).add("size", size).toString();
+    }
+
+    /** {@link AggregationCollector} counting documents by term ordinal. */
+    private class TermsCollector extends AggregationCollector {
+
+        private final Map<String, Long> counts = new HashMap<>();
+        private SortedSetDocValues values;
+        private long[] ordCounts;
+
+        /** {@inheritDoc} */
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            flush();
+            values = DocValues.getSortedSet(context.reader(), field);
+            ordCounts = new long[(int) values.getValueCount()];
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void collect(int doc) throws IOException {
+            values.setDocument(doc);
+            for (long ord = values.nextOrd(); ord != SortedSetDocValues.NO_MORE_ORDS; ord = values.nextOrd()) {
+                ordCounts[(int) ord]++;
+            }
+        }
+
+        private void flush() {
+            if (values != null) {
+                for (int ord = 0; ord < ordCounts.length; ord++) {
+                    if (ordCounts[ord] > 0) {
+                        counts.merge(values.lookupOrd(ord).utf8ToString(), ordCounts[ord], Long::sum);
+                    }
+                }
+                values = null;
+            }
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public AggregationResult result() {
+            flush();
+            return new BucketsResult(counts).sorted(ORDER, shardSize());
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation.builder;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stratio.cassandra.lucene.search.aggregation.HistogramAggregation;
+
+/**
+ * {@link AggregationBuilder} for building a new {@link HistogramAggregation}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class HistogramAggregationBuilder extends AggregationBuilder<HistogramAggregation> {
+
+    /** The size of the bucket intervals. */
+    @JsonProperty("interval")
+    final Double interval;
+
+    /**
+     * Creates a new {@link HistogramAggregationBuilder} for the specified name, field and interval.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     * @param interval the size of the bucket intervals
+     */
+    @JsonCreator
+    public HistogramAggregationBuilder(@JsonProperty("name") String name,
+                                       @JsonProperty("field") String field,
+                                       @JsonProperty("interval") Double interval) {
+        super(name, field);
+        this.interval = interval;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public HistogramAggregation build() {
+        return new HistogramAggregation(name, field, interval);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation.builder;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.stratio.cassandra.lucene.search.aggregation.RangeAggregation;
+
+import java.util.Arrays;
+import java.util.LinkedList;
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * {@link AggregationBuilder} for building a new {@link RangeAggregation}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class RangeAggregationBuilder extends AggregationBuilder<RangeAggregation> {
+
+    /** The ranges. */
+    @JsonProperty("ranges")
+    final List<Range> ranges = new LinkedList<>();
+
+    /**
+     * Creates a new {@link RangeAggregationBuilder} for the specified name and field.
+     *
+     * @param name the name identifying the aggregation in the results
+     * @param field the name of the field to be aggregated
+     */
+    @JsonCreator
+    public RangeAggregationBuilder(@JsonProperty("name") String name, @JsonProperty("field") String field) {
+        super(name, field);
+    }
+
+    /**
+     * Returns this builder with the specified ranges.
+     *
+     * @param ranges the ranges to be added
+     * @return this builder with the specified ranges
+     */
+    public RangeAggregationBuilder ranges(Range... ranges) {
+        this.ranges.addAll(Arrays.asList(ranges));
+        return this;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public RangeAggregation build() {
+        return new RangeAggregation(name, field, ranges.stream().map(Range::build).collect(toList()));
+    }
+
+    /** A range of values, with optional bounds. */
+    public static class Range {
+
+        /** The inclusive lower bound. */
+        @JsonProperty("from")
+        final Double from;
+
+        /** The exclusive upper bound. */
+        @JsonProperty("to")
+        final Double to;
+
+        /** The key identifying the range in the results. */
+        @JsonProperty("key")
+        String key;
+
+        /**
+         * Creates a new range with the specified bounds.
+         *
+         * @param from the inclusive lower bound, {@code null} means unbounded
+         * @param to the exclusive upper bound, {@code null} means unbounded
+         */
+        @JsonCreator
+        public Range(@JsonProperty("from") Double from, @JsonProperty("to") Double to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Returns this range with the specified key.
+         *
+         * @param key the key identifying the range in the results
+         * @return this range with the specified key
+         */
+        public Range key(String key) {
+            this.key = key;
+            return this;
+        }
+
+        RangeAggregation.Range build() {
+            return new RangeAggregation.Range(from, to, key);
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.condition;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.FuzzyTermsEnum;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.util.AttributeSource;
+import org.apache.lucene.util.automaton.CompiledAutomaton;
+import org.apache.lucene.util.automaton.LevenshteinAutomata;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Node-wide cache of the automaton-based queries built by {@link WildcardCondition}, {@link RegexpCondition} and
+ * {@link FuzzyCondition}, so the automata of the most frequent patterns are compiled only once. Entries are keyed by
+ * query type, field, pattern and parameters. The cached queries are immutable and don't depend on the index schema, so
+ * they can be shared by all the indexes.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public final class AutomatonCache {
+
+    /** The max number of cached queries. */
+    public static final int MAX_SIZE = 1024;
+
+    private static final Cache<List<Object>, Entry> CACHE = CacheBuilder.newBuilder()
+                                                                        .maximumSize(MAX_SIZE)
+                                                                        .recordStats()
+                                                                        .build();
+
+    /** The accumulated compilation time of the automata found in the cache. */
+    private static final LongAdder SAVED_NANOS = new LongAdder();
+
+    /** Private constructor to hide the implicit public one. */
+    private AutomatonCache() {
+    }
+
+    /**
+     * Returns a {@link WildcardQuery} for the specified field and wildcard expression.
+     *
+     * @param field the name of the field
+     * @param value the wildcard expression
+     * @return a cached wildcard query
+     */
+    public static Query wildcard(String field, String value) {
+        return get(Arrays.asList("wildcard", field, value), () -> new WildcardQuery(new Term(field, value)));
+    }
+
+    /**
+     * Returns a {@link RegexpQuery} for the specified field and regular expression.
+     *
+     * @param field the name of the field
+     * @param value the regular expression
+     * @return a cached regexp query
+     */
+    public static Query regexp(String field, String value) {
+        return get(Arrays.asList("regexp", field, value), () -> new RegexpQuery(new Term(field, value)));
+    }
+
+    /**
+     * Returns a {@link FuzzyQuery} for the specified field and parameters, carrying its precompiled Levenshtein
+     * automata.
+     *
+     * @param field the name of the field
+     * @param value the term to be matched
+     * @param maxEdits the Damerau-Levenshtein max distance
+     * @param prefixLength the length of common (non-fuzzy) prefix
+     * @param maxExpansions the max number of terms to match
+     * @param transpositions if transpositions should be treated as a primitive edit operation
+     * @return a cached fuzzy query
+     */
+    public static Query fuzzy(String field,
+                              String value,
+                              int maxEdits,
+                              int prefixLength,
+                              int maxExpansions,
+                              boolean transpositions) {
+        return get(Arrays.asList("fuzzy", field, value, maxEdits, prefixLength, maxExpansions, transpositions), () -> {
+            Term term = new Term(field, value);
+            if (maxEdits == 0 || prefixLength >= value.length()) {
+                return new FuzzyQuery(term, maxEdits, prefixLength, maxExpansions, transpositions);
+            }
+            return new CompiledFuzzyQuery(term, maxEdits, prefixLength, maxExpansions, transpositions);
+        });
+    }
+
+    private static Query get(List<Object> key, Supplier<Query> loader) {
+        Entry entry = CACHE.getIfPresent(key);
+        if (entry != null) {
+            SAVED_NANOS.add(entry.nanos);
+            return entry.query;
+        }
+        long start = System.nanoTime();
+        Query query = loader.get();
+        CACHE.put(key, new Entry(query, System.nanoTime() - start));
+        return query;
+    }
+
+    /**
+     * Returns the number of lookups returning a cached query.
+     *
+     * @return the number of cache hits
+     */
+    public static long hitCount() {
+        return CACHE.stats().hitCount();
+    }
+
+    /**
+     * Returns the number of lookups compiling a new query.
+     *
+     * @return the number of cache misses
+     */
+    public static long missCount() {
+        return CACHE.stats().missCount();
+    }
+
+    /**
+     * Returns the number of cached queries.
+     *
+     * @return the number of cached queries
+     */
+    public static long size() {
+        return CACHE.size();
+    }
+
+    /**
+     * Returns the compilation time saved by the cache hits, estimated as the time taken to compile the reused queries.
+     *
+     * @return the saved compilation time in milliseconds
+     */
+    public static long savedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(SAVED_NANOS.sum());
+    }
+
+    /** Removes all the cached queries. */
+    static void clear() {
+        CACHE.invalidateAll();
+    }
+
+    /** A cached query with the time taken to build it. */
+    private static class Entry {
+
+        final Query query;
+        final long nanos;
+
+        Entry(Query query, long nanos) {
+            this.query = query;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * {@link FuzzyQuery} carrying its Levenshtein automata, which are otherwise built by each query rewrite. The
+     * automata are built the same way {@link FuzzyTermsEnum} builds them, and handed to it through its shared
+     * attribute.
+     */
+    private static class CompiledFuzzyQuery extends FuzzyQuery {
+
+        private final List<CompiledAutomaton> automata;
+
+        CompiledFuzzyQuery(Term term, int maxEdits, int prefixLength, int maxExpansions, boolean transpositions) {
+            super(term, maxEdits, prefixLength, maxExpansions, transpositions);
+            int[] codePoints = term.text().codePoints().toArray();
+            int realPrefixLength = Math.min(prefixLength, codePoints.length);
+            String prefix = new String(codePoints, 0, realPrefixLength);
+            String suffix = new String(codePoints, realPrefixLength, codePoints.length - realPrefixLength);
+            LevenshteinAutomata builder = new LevenshteinAutomata(suffix, transpositions);
+            List<CompiledAutomaton> compiled = new ArrayList<>(maxEdits + 1);
+            for (int i = 0; i <= maxEdits; i++) {
+                compiled.add(new CompiledAutomaton(builder.toAutomaton(i, prefix), true, false));
+            }
+            automata = Collections.unmodifiableList(compiled);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected TermsEnum getTermsEnum(Terms terms, AttributeSource atts) throws IOException {
+            List<CompiledAutomaton> attribute = atts.addAttribute(FuzzyTermsEnum.LevenshteinAutomataAttribute.class)
+                                                    .automata();
+            if (attribute.isEmpty()) {
+                attribute.addAll(automata);
+            }
+            return super.getTermsEnum(terms, atts);
+        }
+    }
+}
@@ -17,13 +17,20 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.google.common.base.MoreObjects;
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.mapping.KeywordMapper;
 import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.search.BooleanClause;
-import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.Query;
+import org.apache.lucene.queries.TermsQuery;
+import org.apache.lucene.search.*;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.NumericUtils;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
 
 /**
  * A {@link Condition} implementation that matches documents containing a value for a field.
@@ -35,6 +42,9 @@ public class ContainsCondition extends SingleColumnCondition {
     /** The default use doc values option. */
     public static final boolean DEFAULT_DOC_VALUES = false;
 
+    /** The default max number of values to be searched with a boolean query instead of a terms set query. */
+    public static final int DEFAULT_TERMS_THRESHOLD = 16;
+
     /** The name of the field to be matched. */
     public final String field;
 
@@ -44,6 +54,9 @@ public class ContainsCondition extends SingleColumnCondition {
     /** If the generated query should use doc values. */
     public final boolean docValues;
 
+    /** The max number of values to be searched with a boolean query instead of a terms set query. */
+    public final int termsThreshold;
+
     /**
      * Constructor using the field name and the value to be matched.
      *
@@ -54,20 +67,52 @@ public class ContainsCondition extends SingleColumnCondition {
      * @param docValues if the generated query should use doc values
      */
     public ContainsCondition(Float boost, String field, Boolean docValues, Object... values) {
+        this(boost, field, docValues, null, values);
+    }
+
+    /**
+     * Constructor using the field name and the value to be matched.
+     *
+     * @param boost The boost for this query clause. Documents matching this clause will (in addition to the normal
+     * weightings) have their score multiplied by {@code boost}.
+     * @param field the name of the field to be matched
+     * @param values the value of the field to be matched
+     * @param docValues if the generated query should use doc values
+     * @param termsThreshold the max number of values to be searched with a boolean query instead of a terms set query
+     */
+    public ContainsCondition(Float boost, String field, Boolean docValues, Integer termsThreshold, Object... values) {
         super(boost, field);
 
         if (values == null || values.length == 0) {
             throw new IndexException("Field values required");
         }
+        for (Object value : values) {
+            if (value == null) {
+                throw new IndexException("Field values must not be null");
+            }
+        }
+        if (termsThreshold != null && termsThreshold < 0) {
+            throw new IndexException("Terms threshold must not be negative, found: {}", termsThreshold);
+        }
 
         this.field = field;
         this.values = values;
         this.docValues = docValues == null ? DEFAULT_DOC_VALUES : docValues;
+        this.termsThreshold = termsThreshold == null ? DEFAULT_TERMS_THRESHOLD : termsThreshold;
     }
 
     /** {@inheritDoc} */
     @Override
     public Query doQuery(SingleColumnMapper<?> mapper, Analyzer analyzer) {
+
+        // Try with a set-based query for many values
+        if (values.length > termsThreshold) {
+            Query query = termsQuery(mapper);
+            if (query != null) {
+                return query;
+            }
+        }
+
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
         for (Object value : values) {
             MatchCondition condition = new MatchCondition(null, field, value, docValues);
@@ -76,6 +121,63 @@ public class ContainsCondition extends SingleColumnCondition {
         return builder.build();
     }
 
+    /**
+     * Returns a constant score query matching any of the values using a single terms set, if the mapper indexes each
+     * value as a single term or doc value.
+     *
+     * @param mapper the mapper of the field
+     * @return a terms set query, or {@code null} if the values can't be searched as a set
+     */
+    private Query termsQuery(SingleColumnMapper<?> mapper) {
+
+        // Check doc values
+        if (docValues && !mapper.docValues) {
+            throw new IndexException("Field '{}' does not support doc_values", mapper.field);
+        }
+
+        Class<?> clazz = mapper.base;
+        if (mapper instanceof KeywordMapper) {
+            List<BytesRef> terms = new ArrayList<>(values.length);
+            for (Object value : values) {
+                terms.add(new BytesRef((String) mapper.base(field, value)));
+            }
+            return docValues ? new DocValuesTermsQuery(field, terms) : new TermsQuery(field, terms);
+        } else if (docValues && Number.class.isAssignableFrom(clazz)) {
+            Set<Long> numbers = new LinkedHashSet<>(values.length);
+            for (Object value : values) {
+                numbers.add(docValue(mapper, value));
+            }
+            return new DocValuesNumbersQuery(field, numbers);
+        } else if (clazz == Integer.class || clazz == Long.class) {
+            List<BytesRef> terms = new ArrayList<>(values.length);
+            for (Object value : values) {
+                BytesRefBuilder ref = new BytesRefBuilder();
+                if (clazz == Integer.class) {
+                    NumericUtils.intToPrefixCoded((Integer) mapper.base(field, value), 0, ref);
+                } else {
+                    NumericUtils.longToPrefixCoded((Long) mapper.base(field, value), 0, ref);
+                }
+                terms.add(ref.toBytesRef());
+            }
+            return new TermsQuery(field, terms);
+        }
+        return null;
+    }
+
+    private Long docValue(SingleColumnMapper<?> mapper, Object value) {
+        Object base = mapper.base(field, value);
+        if (base instanceof Integer) {
+            return docValue((Integer) base);
+        } else if (base instanceof Long) {
+            return docValue((Long) base);
+        } else if (base instanceof Float) {
+            return docValue((Float) base);
+        } else if (base instanceof Double) {
+            return docValue((Double) base);
+        }
+        throw new IndexException("Contains queries are not supported by mapper '{}'", mapper);
+    }
+
     /** {@inheritDoc} */
     @Override
     public MoreObjects.ToStringHelper toStringHelper() {
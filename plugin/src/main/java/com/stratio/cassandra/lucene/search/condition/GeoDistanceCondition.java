@@ -18,10 +18,12 @@ package com.stratio.cassandra.lucene.search.condition;
 import com.google.common.base.MoreObjects;
 import com.spatial4j.core.distance.DistanceUtils;
 import com.spatial4j.core.shape.Circle;
+import com.spatial4j.core.shape.Rectangle;
 import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.common.GeoDistance;
 import com.stratio.cassandra.lucene.common.GeoDistanceUnit;
 import com.stratio.cassandra.lucene.common.GeospatialUtils;
+import com.stratio.cassandra.lucene.schema.mapping.GeoPointMapper;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.spatial.SpatialStrategy;
@@ -35,6 +37,9 @@ import static org.apache.lucene.search.BooleanClause.Occur.MUST_NOT;
 /**
  * A {@link Condition} that matches documents containing a shape contained between two certain circles.
  *
+ * Geographical points are searched with a {@link GeoDistanceQuery}, which finds the candidates with a coarse search of
+ * the bounding box of the max distance circle and then verifies the exact distance using the doc values coordinates.
+ *
  * @author Andres de la Pena {@literal <adelapena@stratio.com>}
  */
 public class GeoDistanceCondition extends GeospatialCondition {
@@ -96,12 +101,33 @@ public class GeoDistanceCondition extends GeospatialCondition {
         return builder.build();
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Query doQuery(GeoPointMapper mapper) {
+        Rectangle bbox = circle(maxGeoDistance).getBoundingBox();
+        SpatialArgs args = new SpatialArgs(SpatialOperation.Intersects, bbox);
+        args.setDistErrPct(GeoDistanceQuery.APPROXIMATION_DIST_ERR_PCT);
+        Query bboxQuery = mapper.strategy.getIndexStrategy().makeQuery(args);
+        return new GeoDistanceQuery(mapper.field,
+                                    mapper.latitudeField,
+                                    mapper.longitudeField,
+                                    latitude,
+                                    longitude,
+                                    minGeoDistance == null ? null : minGeoDistance.getValue(GeoDistanceUnit.KILOMETRES),
+                                    maxGeoDistance.getValue(GeoDistanceUnit.KILOMETRES),
+                                    bboxQuery,
+                                    doQuery(mapper.strategy));
+    }
+
     private Query query(GeoDistance geoDistance, SpatialStrategy spatialStrategy) {
+        SpatialArgs args = new SpatialArgs(SpatialOperation.Intersects, circle(geoDistance));
+        return spatialStrategy.makeQuery(args);
+    }
+
+    private Circle circle(GeoDistance geoDistance) {
         double kms = geoDistance.getValue(GeoDistanceUnit.KILOMETRES);
         double distance = DistanceUtils.dist2Degrees(kms, DistanceUtils.EARTH_MEAN_RADIUS_KM);
-        Circle circle = CONTEXT.makeCircle(longitude, latitude, distance);
-        SpatialArgs args = new SpatialArgs(SpatialOperation.Intersects, circle);
-        return spatialStrategy.makeQuery(args);
+        return CONTEXT.makeCircle(longitude, latitude, distance);
     }
 
     /** {@inheritDoc} */
@@ -0,0 +1,251 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.condition;
+
+import com.google.common.base.MoreObjects;
+import com.spatial4j.core.distance.DistanceUtils;
+import com.spatial4j.core.shape.Rectangle;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.ConstantScoreScorer;
+import org.apache.lucene.search.ConstantScoreWeight;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.TwoPhaseIterator;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.Objects;
+
+import static com.stratio.cassandra.lucene.common.GeospatialUtils.CONTEXT;
+
+/**
+ * {@link Query} matching the geographical points at a distance range from a reference point, executed in two phases.
+ * The candidates are found with a coarse index query on the bounding box of the max distance circle, and then they are
+ * verified with the point coordinates stored in doc values: first against the bounding box and then against the exact
+ * haversine distance. Documents without coordinates doc values, such as the ones indexed by previous versions, are
+ * verified with an exact spatial query instead.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class GeoDistanceQuery extends Query {
+
+    /** The precision of the bounding box approximation query, as a fraction of the size of the box. */
+    public static final double APPROXIMATION_DIST_ERR_PCT = 0.15;
+
+    /** The estimated cost of verifying a candidate. */
+    private static final float MATCH_COST = 20;
+
+    private final String field;
+    private final String latitudeField;
+    private final String longitudeField;
+    private final double latitude;
+    private final double longitude;
+    private final Double minKms;
+    private final double maxKms;
+    private final Query bboxQuery;
+    private final Query exactQuery;
+
+    private final double latitudeRadians;
+    private final double longitudeRadians;
+    private final double minRadians;
+    private final double maxRadians;
+    private final Rectangle bbox;
+
+    /**
+     * Builds a new {@link GeoDistanceQuery}.
+     *
+     * @param field the name of the geo point field
+     * @param latitudeField the name of the doc values field containing the latitudes
+     * @param longitudeField the name of the doc values field containing the longitudes
+     * @param latitude the latitude of the reference point
+     * @param longitude the longitude of the reference point
+     * @param minKms the min distance in kilometres, exclusive, or {@code null} if there is no min distance
+     * @param maxKms the max distance in kilometres, inclusive
+     * @param bboxQuery a query matching at least all the points inside the bounding box of the max distance
+     * @param exactQuery an exact query for the points without coordinates doc values
+     */
+    public GeoDistanceQuery(String field,
+                            String latitudeField,
+                            String longitudeField,
+                            double latitude,
+                            double longitude,
+                            Double minKms,
+                            double maxKms,
+                            Query bboxQuery,
+                            Query exactQuery) {
+        this.field = field;
+        this.latitudeField = latitudeField;
+        this.longitudeField = longitudeField;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.minKms = minKms;
+        this.maxKms = maxKms;
+        this.bboxQuery = bboxQuery;
+        this.exactQuery = exactQuery;
+        latitudeRadians = Math.toRadians(latitude);
+        longitudeRadians = Math.toRadians(longitude);
+        minRadians = minKms == null ? -1 : minKms / DistanceUtils.EARTH_MEAN_RADIUS_KM;
+        maxRadians = maxKms / DistanceUtils.EARTH_MEAN_RADIUS_KM;
+        bbox = CONTEXT.makeCircle(longitude, latitude, Math.toDegrees(maxRadians)).getBoundingBox();
+    }
+
+    /**
+     * Returns if the specified point is inside the distance range.
+     *
+     * @param lat the latitude of the point
+     * @param lon the longitude of the point
+     * @return {@code true} if the point is in the distance range, {@code false} otherwise
+     */
+    boolean matches(double lat, double lon) {
+        if (lat < bbox.getMinY() || lat > bbox.getMaxY()) {
+            return false;
+        }
+        if (bbox.getCrossesDateLine()
+            ? lon < bbox.getMinX() && lon > bbox.getMaxX()
+            : lon < bbox.getMinX() || lon > bbox.getMaxX()) {
+            return false;
+        }
+        double distance = DistanceUtils.distHaversineRAD(latitudeRadians,
+                                                         longitudeRadians,
+                                                         Math.toRadians(lat),
+                                                         Math.toRadians(lon));
+        return distance <= maxRadians && distance > minRadians;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Weight createWeight(IndexSearcher searcher, boolean needsScores) throws IOException {
+        Weight approximationWeight = searcher.createNormalizedWeight(bboxQuery, false);
+        Weight fallbackWeight = searcher.createNormalizedWeight(exactQuery, false);
+        return new ConstantScoreWeight(this) {
+
+            /** {@inheritDoc} */
+            @Override
+            public Scorer scorer(LeafReaderContext context) throws IOException {
+                LeafReader reader = context.reader();
+                NumericDocValues latitudes = reader.getNumericDocValues(latitudeField);
+                NumericDocValues longitudes = reader.getNumericDocValues(longitudeField);
+                Bits docsWithField = reader.getDocsWithField(latitudeField);
+                if (latitudes == null || longitudes == null || docsWithField == null) {
+                    return constantScore(fallbackWeight.scorer(context));
+                }
+                Scorer candidates = approximationWeight.scorer(context);
+                if (candidates == null) {
+                    return null;
+                }
+                return new ConstantScoreScorer(this, score(), new TwoPhaseIterator(candidates) {
+
+                    private TwoPhaseIterator fallbackTwoPhase;
+                    private DocIdSetIterator fallbackIterator;
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public boolean matches() throws IOException {
+                        int doc = approximation.docID();
+                        if (docsWithField.get(doc)) {
+                            return GeoDistanceQuery.this.matches(Double.longBitsToDouble(latitudes.get(doc)),
+                                                                 Double.longBitsToDouble(longitudes.get(doc)));
+                        }
+                        return matchesFallback(doc);
+                    }
+
+                    private boolean matchesFallback(int doc) throws IOException {
+                        if (fallbackIterator == null) {
+                            Scorer fallbackScorer = fallbackWeight.scorer(context);
+                            if (fallbackScorer == null) {
+                                fallbackIterator = DocIdSetIterator.empty();
+                            } else {
+                                fallbackTwoPhase = fallbackScorer.asTwoPhaseIterator();
+                                fallbackIterator = fallbackTwoPhase == null
+                                                   ? fallbackScorer
+                                                   : fallbackTwoPhase.approximation();
+                            }
+                        }
+                        if (fallbackIterator.docID() < doc) {
+                            fallbackIterator.advance(doc);
+                        }
+                        return fallbackIterator.docID() == doc && (fallbackTwoPhase == null ||
+                                                                   fallbackTwoPhase.matches());
+                    }
+
+                    /** {@inheritDoc} */
+                    @Override
+                    public float matchCost() {
+                        return MATCH_COST;
+                    }
+                });
+            }
+
+            private Scorer constantScore(Scorer scorer) {
+                if (scorer == null) {
+                    return null;
+                }
+                TwoPhaseIterator twoPhase = scorer.asTwoPhaseIterator();
+                return twoPhase == null
+                       ? new ConstantScoreScorer(this, score(), scorer)
+                       : new ConstantScoreScorer(this, score(), twoPhase);
+            }
+        };
+    }
+
+    /** Important to avoid collisions in Lucene's query cache. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        GeoDistanceQuery q = (GeoDistanceQuery) o;
+        return field.equals(q.field) &&
+               latitudeField.equals(q.latitudeField) &&
+               longitudeField.equals(q.longitudeField) &&
+               Double.compare(latitude, q.latitude) == 0 &&
+               Double.compare(longitude, q.longitude) == 0 &&
+               Objects.equals(minKms, q.minKms) &&
+               Double.compare(maxKms, q.maxKms) == 0 &&
+               bboxQuery.equals(q.bboxQuery) &&
+               exactQuery.equals(q.exactQuery);
+    }
+
+    /** Important to avoid collisions in Lucene's query cache. */
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Objects.hash(field, latitude, longitude, minKms, maxKms);
+        result = 31 * result + bboxQuery.hashCode();
+        result = 31 * result + exactQuery.hashCode();
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString(String field) {
+        return MoreObjects.toStringHelper(this)
+                          .add("field", this.field)
+                          .add("latitude", latitude)
+                          .add("longitude", longitude)
+                          .add("minKms", minKms)
+                          .add("maxKms", maxKms)
+                          .toString();
+    }
+}
@@ -57,7 +57,7 @@ public abstract class GeospatialCondition extends SingleFieldCondition {
         } else if (mapper instanceof GeoShapeMapper) {
             strategy = ((GeoShapeMapper) mapper).strategy;
         } else if (mapper instanceof GeoPointMapper) {
-            strategy = ((GeoPointMapper) mapper).strategy;
+            return doQuery((GeoPointMapper) mapper);
         } else {
             throw new IndexException("'{}' search requires a 'geo_point' or 'geo_shape' mapper but found {}:{}",
                                      queryTypeName, field, mapper);
@@ -74,4 +74,14 @@ public abstract class GeospatialCondition extends SingleFieldCondition {
      * @return a Lucene query
      */
     public abstract Query doQuery(SpatialStrategy strategy);
+
+    /**
+     * Returns the Lucene {@link Query} representation of this condition without boost for a geographical point field.
+     *
+     * @param mapper the geo point mapper of the field
+     * @return a Lucene query
+     */
+    public Query doQuery(GeoPointMapper mapper) {
+        return doQuery(mapper.strategy);
+    }
 }
@@ -17,15 +17,22 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.google.common.base.MoreObjects;
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.mapping.ShingleIndex;
 import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
+import com.stratio.cassandra.lucene.schema.mapping.TextMapper;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.util.QueryBuilder;
 
 /**
  * A {@link Condition} implementation that matches documents containing a particular sequence of terms.
  *
+ * If the mapper indexes the shingles of its terms and the slop is zero, the phrase is searched with term lookups in the
+ * shingles field. The shingles field has no norms, so the score of the rewritten query depends only on the number of
+ * occurrences of the phrase, and not on the length of the field as the score of a {@link PhraseQuery} does.
+ *
  * @author Andres de la Pena {@literal <adelapena@stratio.com>}
  */
 public class PhraseCondition extends SingleColumnCondition {
@@ -71,12 +78,23 @@ public class PhraseCondition extends SingleColumnCondition {
             if (query == null) {
                 query = new BooleanQuery.Builder().build();
             }
+            ShingleIndex shingleIndex = shingleIndex(mapper);
+            if (shingleIndex != null && query instanceof PhraseQuery) {
+                Query shingleQuery = shingleIndex.query(field, (PhraseQuery) query);
+                if (shingleQuery != null) {
+                    return shingleQuery;
+                }
+            }
             return query;
         } else {
             throw new IndexException("Phrase queries are not supported by mapper '{}'", mapper);
         }
     }
 
+    private static ShingleIndex shingleIndex(SingleColumnMapper<?> mapper) {
+        return mapper instanceof TextMapper ? ((TextMapper) mapper).shingleIndex : null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public MoreObjects.ToStringHelper toStringHelper() {
@@ -17,7 +17,10 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.google.common.base.MoreObjects;
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.mapping.PrefixIndex;
 import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
+import com.stratio.cassandra.lucene.schema.mapping.StringMapper;
+import com.stratio.cassandra.lucene.schema.mapping.TextMapper;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.search.PrefixQuery;
@@ -26,6 +29,9 @@ import org.apache.lucene.search.Query;
 /**
  * A {@link Condition} implementation that matches documents containing terms with a specified prefix.
  *
+ * If the mapper indexes the prefixes of its terms and the prefix has an indexed length, the search is done with a
+ * single term lookup in the prefixes field.
+ *
  * @author Andres de la Pena {@literal <adelapena@stratio.com>}
  */
 public class PrefixCondition extends SingleColumnCondition {
@@ -53,6 +59,10 @@ public class PrefixCondition extends SingleColumnCondition {
     @Override
     public Query doQuery(SingleColumnMapper<?> mapper, Analyzer analyzer) {
         if (mapper.base == String.class) {
+            PrefixIndex prefixIndex = prefixIndex(mapper);
+            if (prefixIndex != null && prefixIndex.supports(value)) {
+                return prefixIndex.query(field, value);
+            }
             Term term = new Term(field, value);
             return new PrefixQuery(term);
         } else {
@@ -60,6 +70,15 @@ public class PrefixCondition extends SingleColumnCondition {
         }
     }
 
+    private static PrefixIndex prefixIndex(SingleColumnMapper<?> mapper) {
+        if (mapper instanceof StringMapper) {
+            return ((StringMapper) mapper).prefixIndex;
+        } else if (mapper instanceof TextMapper) {
+            return ((TextMapper) mapper).prefixIndex;
+        }
+        return null;
+    }
+
     /** {@inheritDoc} */
     @Override
     public MoreObjects.ToStringHelper toStringHelper() {
@@ -17,11 +17,10 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.google.common.base.MoreObjects;
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.mapping.ReverseIndex;
 import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.RegexpQuery;
 
 /**
  * Implements the wildcard search query. Supported wildcards are {@code *}, which matches any character sequence
@@ -57,8 +56,13 @@ public class RegexpCondition extends SingleColumnCondition {
     @Override
     public Query doQuery(SingleColumnMapper<?> mapper, Analyzer analyzer) {
         if (mapper.base == String.class) {
-            Term term = new Term(field, value);
-            return new RegexpQuery(term);
+            if (ReverseIndex.isEnabled(mapper)) {
+                Query query = ReverseIndex.regexpQuery(field, value);
+                if (query != null) {
+                    return query;
+                }
+            }
+            return AutomatonCache.regexp(field, value);
         } else {
             throw new IndexException("Regexp queries are not supported by mapper '{}'", mapper);
         }
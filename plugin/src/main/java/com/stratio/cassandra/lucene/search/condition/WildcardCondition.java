@@ -17,18 +17,18 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.google.common.base.MoreObjects;
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.mapping.ReverseIndex;
 import com.stratio.cassandra.lucene.schema.mapping.SingleColumnMapper;
 import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.index.Term;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.WildcardQuery;
 
 /**
  * Implements the wildcard search query. Supported wildcards are {@code *}, which matches any character sequence
  * (including the empty one), and {@code ?}, which matches any single character. '\' is the escape character.
  *
  * Note this query can be slow, as it needs to iterate over many terms. In order to prevent extremely slow
- * WildcardQueries, a Wildcard term should not start with the wildcard {@code *}.
+ * WildcardQueries, a Wildcard term should not start with the wildcard {@code *}, unless the mapper has a reverse index,
+ * in which case leading wildcard expressions are searched as trailing wildcard expressions over the reversed terms.
  *
  * @author Andres de la Pena {@literal <adelapena@stratio.com>}
  */
@@ -57,8 +57,13 @@ public class WildcardCondition extends SingleColumnCondition {
     @Override
     public Query doQuery(SingleColumnMapper<?> mapper, Analyzer analyzer) {
         if (mapper.base == String.class) {
-            Term term = new Term(field, value);
-            return new WildcardQuery(term);
+            if (ReverseIndex.isEnabled(mapper)) {
+                Query query = ReverseIndex.wildcardQuery(field, value);
+                if (query != null) {
+                    return query;
+                }
+            }
+            return AutomatonCache.wildcard(field, value);
         } else {
             throw new IndexException("Wildcard queries are not supported by mapper '{}'", mapper);
         }
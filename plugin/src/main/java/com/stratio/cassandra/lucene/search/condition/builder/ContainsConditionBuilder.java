@@ -38,6 +38,10 @@ public class ContainsConditionBuilder extends ConditionBuilder<ContainsCondition
     @JsonProperty("doc_values")
     private Boolean docValues;
 
+    /** The max number of values to be searched with a boolean query instead of a terms set query. */
+    @JsonProperty("terms_threshold")
+    private Integer termsThreshold;
+
     /**
      * Creates a new {@link ContainsConditionBuilder} for the specified field and value.
      *
@@ -62,6 +66,18 @@ public class ContainsConditionBuilder extends ConditionBuilder<ContainsCondition
         return this;
     }
 
+    /**
+     * Sets the max number of values to be searched with a boolean query. Above this threshold the values are searched
+     * with a single constant score query over the set of terms, or doc values, which is much cheaper for long lists.
+     *
+     * @param termsThreshold the max number of values to be searched with a boolean query
+     * @return this builder with the specified terms threshold
+     */
+    public ContainsConditionBuilder termsThreshold(Integer termsThreshold) {
+        this.termsThreshold = termsThreshold;
+        return this;
+    }
+
     /**
      * Returns the {@link ContainsCondition} represented by this builder.
      *
@@ -69,6 +85,6 @@ public class ContainsConditionBuilder extends ConditionBuilder<ContainsCondition
      */
     @Override
     public ContainsCondition build() {
-        return new ContainsCondition(boost, field, docValues, values);
+        return new ContainsCondition(boost, field, docValues, termsThreshold, values);
     }
 }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.sort;
+
+import com.google.common.base.MoreObjects;
+import com.spatial4j.core.distance.DistanceUtils;
+import com.spatial4j.core.shape.Rectangle;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.queries.function.FunctionValues;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.FieldComparator;
+import org.apache.lucene.search.FieldComparatorSource;
+import org.apache.lucene.search.SimpleFieldComparator;
+import org.apache.lucene.util.Bits;
+
+import java.io.IOException;
+import java.util.HashMap;
+
+import static com.stratio.cassandra.lucene.common.GeospatialUtils.CONTEXT;
+
+/**
+ * {@link FieldComparatorSource} to sort geographical points by their haversine distance in kilometres to a reference
+ * point, reading the point coordinates stored in doc values. When sorting by ascending distance and the priority queue
+ * is full, the points outside the bounding box of the circle containing the current worst competitive point are
+ * discarded without computing their distance. Documents without coordinates doc values, such as the ones indexed by
+ * previous versions, get their distance from a fallback {@link ValueSource}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class GeoDistanceComparatorSource extends FieldComparatorSource {
+
+    /** The relative margin added to the cutoff bounding box to absorb floating point errors. */
+    private static final double CUTOFF_MARGIN = 1e-9;
+
+    private final String latitudeField;
+    private final String longitudeField;
+    private final double latitude;
+    private final double longitude;
+    private final ValueSource fallback;
+
+    private final double latitudeRadians;
+    private final double longitudeRadians;
+
+    /**
+     * Builds a new {@link GeoDistanceComparatorSource}.
+     *
+     * @param latitudeField the name of the doc values field containing the latitudes
+     * @param longitudeField the name of the doc values field containing the longitudes
+     * @param latitude the latitude of the reference point
+     * @param longitude the longitude of the reference point
+     * @param fallback the distance in kilometres for the points without coordinates doc values
+     */
+    public GeoDistanceComparatorSource(String latitudeField,
+                                       String longitudeField,
+                                       double latitude,
+                                       double longitude,
+                                       ValueSource fallback) {
+        this.latitudeField = latitudeField;
+        this.longitudeField = longitudeField;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.fallback = fallback;
+        latitudeRadians = Math.toRadians(latitude);
+        longitudeRadians = Math.toRadians(longitude);
+    }
+
+    /**
+     * Returns the haversine distance in kilometres between the reference point and the specified point.
+     *
+     * @param lat the latitude of the point
+     * @param lon the longitude of the point
+     * @return the distance in kilometres
+     */
+    double distance(double lat, double lon) {
+        double radians = DistanceUtils.distHaversineRAD(latitudeRadians,
+                                                        longitudeRadians,
+                                                        Math.toRadians(lat),
+                                                        Math.toRadians(lon));
+        return radians * DistanceUtils.EARTH_MEAN_RADIUS_KM;
+    }
+
+    /**
+     * Returns the bounding box of the circle around the reference point with the specified radius, slightly enlarged,
+     * so any point outside it is farther than the radius.
+     *
+     * @param kms the radius in kilometres
+     * @return the bounding box of the circle
+     */
+    Rectangle cutoff(double kms) {
+        double degrees = Math.toDegrees(kms * (1 + CUTOFF_MARGIN) / DistanceUtils.EARTH_MEAN_RADIUS_KM);
+        return CONTEXT.makeCircle(longitude, latitude, Math.min(degrees, 180)).getBoundingBox();
+    }
+
+    /**
+     * Returns if the specified point is outside the specified bounding box.
+     *
+     * @param box a bounding box
+     * @param lat the latitude of the point
+     * @param lon the longitude of the point
+     * @return {@code true} if the point is outside {@code box}, {@code false} otherwise
+     */
+    static boolean outside(Rectangle box, double lat, double lon) {
+        if (lat < box.getMinY() || lat > box.getMaxY()) {
+            return true;
+        }
+        return box.getCrossesDateLine()
+               ? lon < box.getMinX() && lon > box.getMaxX()
+               : lon < box.getMinX() || lon > box.getMaxX();
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public FieldComparator<?> newComparator(String fieldName, int numHits, int sortPos, boolean reversed) {
+        return new GeoDistanceComparator(numHits, reversed);
+    }
+
+    /** Important to avoid collisions in the searches cache. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        GeoDistanceComparatorSource other = (GeoDistanceComparatorSource) o;
+        return latitudeField.equals(other.latitudeField) &&
+               longitudeField.equals(other.longitudeField) &&
+               Double.compare(latitude, other.latitude) == 0 &&
+               Double.compare(longitude, other.longitude) == 0 &&
+               fallback.equals(other.fallback);
+    }
+
+    /** Important to avoid collisions in the searches cache. */
+    @Override
+    public int hashCode() {
+        int result = latitudeField.hashCode();
+        result = 31 * result + longitudeField.hashCode();
+        result = 31 * result + Double.hashCode(latitude);
+        result = 31 * result + Double.hashCode(longitude);
+        result = 31 * result + fallback.hashCode();
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                          .add("latitudeField", latitudeField)
+                          .add("longitudeField", longitudeField)
+                          .add("latitude", latitude)
+                          .add("longitude", longitude)
+                          .toString();
+    }
+
+    /** {@link FieldComparator} sorting documents by distance in kilometres to the reference point. */
+    class GeoDistanceComparator extends SimpleFieldComparator<Double> {
+
+        private final double[] values;
+        private final boolean reversed;
+        private double bottom;
+        private double top;
+        private Rectangle bottomBox;
+
+        private LeafReaderContext context;
+        private NumericDocValues latitudes;
+        private NumericDocValues longitudes;
+        private Bits docsWithField;
+        private FunctionValues fallbackValues;
+
+        /**
+         * Builds a new {@link GeoDistanceComparator}.
+         *
+         * @param numHits the number of hits to be collected
+         * @param reversed if the farthest points go first
+         */
+        GeoDistanceComparator(int numHits, boolean reversed) {
+            this.values = new double[numHits];
+            this.reversed = reversed;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        protected void doSetNextReader(LeafReaderContext context) throws IOException {
+            LeafReader reader = context.reader();
+            this.context = context;
+            latitudes = reader.getNumericDocValues(latitudeField);
+            longitudes = reader.getNumericDocValues(longitudeField);
+            docsWithField = latitudes == null || longitudes == null ? null : reader.getDocsWithField(latitudeField);
+            fallbackValues = null;
+        }
+
+        private boolean hasPoint(int doc) {
+            return docsWithField != null && docsWithField.get(doc);
+        }
+
+        private double latitude(int doc) {
+            return Double.longBitsToDouble(latitudes.get(doc));
+        }
+
+        private double longitude(int doc) {
+            return Double.longBitsToDouble(longitudes.get(doc));
+        }
+
+        private double distance(int doc) throws IOException {
+            if (hasPoint(doc)) {
+                return GeoDistanceComparatorSource.this.distance(latitude(doc), longitude(doc));
+            }
+            if (fallbackValues == null) {
+                fallbackValues = fallback.getValues(new HashMap<>(), context);
+            }
+            return fallbackValues.doubleVal(doc);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compare(int slot1, int slot2) {
+            return Double.compare(values[slot1], values[slot2]);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setBottom(int slot) {
+            bottom = values[slot];
+            bottomBox = reversed ? null : cutoff(bottom);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareBottom(int doc) throws IOException {
+            if (bottomBox != null && hasPoint(doc) && outside(bottomBox, latitude(doc), longitude(doc))) {
+                return -1;
+            }
+            return Double.compare(bottom, distance(doc));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void setTopValue(Double value) {
+            top = value;
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public int compareTop(int doc) throws IOException {
+            return Double.compare(top, distance(doc));
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public void copy(int slot, int doc) throws IOException {
+            values[slot] = distance(doc);
+        }
+
+        /** {@inheritDoc} */
+        @Override
+        public Double value(int slot) {
+            return values[slot];
+        }
+    }
+}
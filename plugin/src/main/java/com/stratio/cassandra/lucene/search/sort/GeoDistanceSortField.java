@@ -33,7 +33,8 @@ import java.util.Set;
 import static com.stratio.cassandra.lucene.common.GeospatialUtils.CONTEXT;
 
 /**
- * {@link SortField} to sort geo points by their distance to a fixed reference point.
+ * {@link SortField} to sort geo points by their distance to a fixed reference point, using the point coordinates
+ * stored in doc values.
  *
  * @author Eduardo Alonso {@literal <eduardoalonso@stratio.com>}
  */
@@ -79,10 +80,15 @@ public class GeoDistanceSortField extends SortField {
 
         Point point = CONTEXT.makePoint(longitude, latitude);
 
-        // Use the distance (in km) as source
+        // Use the distance (in km) as fallback for points without coordinates doc values
         SpatialStrategy strategy = geoPointMapper.strategy.getGeometryStrategy();
         ValueSource valueSource = strategy.makeDistanceValueSource(point, DistanceUtils.DEG_TO_KM);
-        return valueSource.getSortField(reverse);
+        GeoDistanceComparatorSource source = new GeoDistanceComparatorSource(geoPointMapper.latitudeField,
+                                                                             geoPointMapper.longitudeField,
+                                                                             latitude,
+                                                                             longitude,
+                                                                             valueSource);
+        return new org.apache.lucene.search.SortField(field, source, reverse);
     }
 
     /** {@inheritDoc} */
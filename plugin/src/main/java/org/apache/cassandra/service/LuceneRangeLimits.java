@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.cassandra.service;
+
+import com.google.common.primitives.UnsignedLong;
+import org.apache.cassandra.db.PartitionPosition;
+import org.apache.cassandra.db.filter.DataLimits;
+import org.apache.cassandra.dht.AbstractBounds;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+
+/**
+ * The limits of the token ranges queried concurrently by {@link LuceneStorageProxy} when limits reduction is enabled.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+final class LuceneRangeLimits {
+
+    /** Private constructor to hide the implicit public one. */
+    private LuceneRangeLimits() {
+    }
+
+    /**
+     * Returns the limits to be used for the specified token range, which are the specified limits reduced to the
+     * expected number of rows of the range in the global top-k, plus a safety margin of four standard deviations.
+     * The limits are not reduced for partitioners other than {@link Murmur3Partitioner}.
+     *
+     * @param limits the limits of the whole query
+     * @param range a token range
+     * @return the limits for {@code range}
+     */
+    static DataLimits reduce(DataLimits limits, AbstractBounds<PartitionPosition> range) {
+        Token left = range.left.getToken();
+        Token right = range.right.getToken();
+        if (!(left instanceof Murmur3Partitioner.LongToken) || limits.count() == DataLimits.NO_LIMIT) {
+            return limits;
+        }
+        if (range instanceof Range && left.equals(right)) {
+            return limits; // The range wraps around the whole ring
+        }
+        long leftValue = (long) left.getTokenValue();
+        long rightValue = right.isMinimum() ? Long.MAX_VALUE : (long) right.getTokenValue();
+        double share = UnsignedLong.fromLongBits(rightValue - leftValue).doubleValue() / Math.pow(2, 64);
+        double expected = limits.count() * share;
+        int limit = (int) Math.ceil(expected + 4 * Math.sqrt(expected) + 4);
+        return limit < limits.count() ? DataLimits.cqlLimits(limit, limits.perPartitionCount()) : limits;
+    }
+
+    /**
+     * Returns if a token range queried with reduced limits should be queried again with the full limits. That
+     * happens when the range returned as many rows as its reduced limit, so it could have more rows, and its worst
+     * returned row made it into the merged best rows, so the rows that it didn't return could be among them too.
+     *
+     * @param limit the row limit of the whole query
+     * @param rangeLimit the reduced row limit of the token range
+     * @param rowCount the number of rows returned by the token range
+     * @param lastRowSelected if the last row returned by the token range is among the merged best rows
+     * @return {@code true} if the token range should be queried again, {@code false} otherwise
+     */
+    static boolean requiresRetry(int limit, int rangeLimit, int rowCount, boolean lastRowSelected) {
+        return rangeLimit < limit && rowCount >= rangeLimit && lastRowSelected;
+    }
+}
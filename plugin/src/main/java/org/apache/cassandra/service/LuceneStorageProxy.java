@@ -18,23 +18,36 @@ package org.apache.cassandra.service;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.PeekingIterator;
 import com.stratio.cassandra.lucene.Index;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.util.ConcurrentTasks;
+import org.apache.cassandra.concurrent.JMXEnabledThreadPoolExecutor;
+import org.apache.cassandra.concurrent.NamedThreadFactory;
 import org.apache.cassandra.config.CFMetaData;
 import org.apache.cassandra.config.DatabaseDescriptor;
 import org.apache.cassandra.db.*;
+import org.apache.cassandra.db.filter.DataLimits;
+import org.apache.cassandra.db.partitions.FilteredPartition;
 import org.apache.cassandra.db.partitions.PartitionIterator;
+import org.apache.cassandra.db.rows.Row;
+import org.apache.cassandra.db.rows.RowIterator;
 import org.apache.cassandra.dht.AbstractBounds;
 import org.apache.cassandra.dht.RingPosition;
 import org.apache.cassandra.exceptions.*;
 import org.apache.cassandra.locator.LocalStrategy;
 import org.apache.cassandra.metrics.ClientRequestMetrics;
+import org.apache.cassandra.schema.IndexMetadata;
+import org.apache.cassandra.tracing.TraceState;
+import org.apache.cassandra.tracing.Tracing;
 import org.apache.cassandra.utils.AbstractIterator;
 
 import java.lang.reflect.Method;
 import java.net.InetAddress;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Optional;
+import java.util.concurrent.*;
 
 /**
  * Modified version of Apache Cassandra {@link StorageProxy} to be used with Lucene searches.
@@ -43,6 +56,25 @@ public class LuceneStorageProxy {
 
     private static final ClientRequestMetrics readMetrics = new ClientRequestMetrics("Read");
 
+    /**
+     * The node-wide pool of threads querying token ranges concurrently, sized as the Cassandra read stage so the
+     * total number of in-flight range reads doesn't grow with the number of concurrent searches. It is visible in
+     * {@code nodetool tpstats}. Its queue is bounded, and when it is full the range reads are run by the calling
+     * thread, which also stops that search from submitting more reads.
+     */
+    private static final ThreadPoolExecutor rangeExecutor = new JMXEnabledThreadPoolExecutor(
+            DatabaseDescriptor.getConcurrentReaders(),
+            DatabaseDescriptor.getConcurrentReaders(),
+            60,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(DatabaseDescriptor.getConcurrentReaders()),
+            new NamedThreadFactory("LuceneRangeReadStage"),
+            "request");
+
+    static {
+        rangeExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
     private static Method systemKeyspaceQuery;
     private static Method fetchRows;
 
@@ -126,6 +158,204 @@ public class LuceneStorageProxy {
         return new RangeMerger(rangeIterator, keyspace, consistency);
     }
 
+    /**
+     * Reads the specified partition range command querying all its merged token ranges concurrently, instead of
+     * sequentially querying batches of ranges until enough rows are found. This is intended for searches requiring
+     * full scan, such as sorted searches, which can't stop early. Each token range returns its own post processed
+     * best rows, which are kept in memory until all the ranges are finished, and then merged by the index post
+     * processor.
+     *
+     * If limits reduction is enabled, each token range is asked only for the number of rows that it would
+     * contribute to the global top-k with a high probability, according to the fraction of the token ring that it
+     * owns. After merging, the ranges that were truncated and whose worst returned row is among the merged best rows,
+     * so they could still hide better rows, are queried again with the full limit.
+     *
+     * @param command the partition range read command
+     * @param consistency the consistency level
+     * @param clientState the client state
+     * @param concurrency the max number of token ranges to be queried at the same time
+     * @param reduceLimits if the limit of each token range should be reduced according to its ownership
+     * @return the merged rows of all the token ranges
+     */
+    public static PartitionIterator readConcurrently(PartitionRangeReadCommand command,
+                                                     ConsistencyLevel consistency,
+                                                     ClientState clientState,
+                                                     int concurrency,
+                                                     boolean reduceLimits)
+    throws UnavailableException, ReadFailureException, ReadTimeoutException {
+
+        CFMetaData metadata = command.metadata();
+        ColumnFamilyStore cfs = Keyspace.open(metadata.ksName).getColumnFamilyStore(metadata.cfName);
+        Index index = (Index) command.getIndex(cfs);
+        Optional<IndexMetadata> indexMetadata = Optional.of(index.getIndexMetadata());
+
+        // Build a command per merged token range
+        List<AbstractBounds<PartitionPosition>> ranges = new ArrayList<>();
+        rangeMerger(command, consistency).forEachRemaining(range -> ranges.add(range.range));
+        List<PartitionRangeReadCommand> commands = new ArrayList<>(ranges.size());
+        for (AbstractBounds<PartitionPosition> range : ranges) {
+            DataLimits limits = reduceLimits ? LuceneRangeLimits.reduce(command.limits(), range) : command.limits();
+            commands.add(forSubRange(command, range, limits, indexMetadata));
+        }
+
+        List<List<FilteredPartition>> results = read(commands, consistency, clientState, concurrency);
+        List<FilteredPartition> merged = merge(index, command, results);
+        if (!reduceLimits) {
+            return new FilteredPartitionIterator(merged.iterator());
+        }
+
+        // Query again the truncated ranges that could contain more competitive rows
+        List<Integer> truncated = new ArrayList<>();
+        for (int i = 0; i < commands.size(); i++) {
+            int limit = commands.get(i).limits().count();
+            List<FilteredPartition> partitions = results.get(i);
+            int rowCount = rowCount(partitions);
+            boolean lastRowSelected = rowCount > 0 && isLastRowSelected(partitions, merged);
+            if (LuceneRangeLimits.requiresRetry(command.limits().count(), limit, rowCount, lastRowSelected)) {
+                truncated.add(i);
+            }
+        }
+        if (!truncated.isEmpty()) {
+            List<PartitionRangeReadCommand> retries = new ArrayList<>(truncated.size());
+            truncated.forEach(i -> retries.add(forSubRange(command, ranges.get(i), command.limits(), indexMetadata)));
+            List<List<FilteredPartition>> retried = read(retries, consistency, clientState, concurrency);
+            for (int i = 0; i < truncated.size(); i++) {
+                results.set(truncated.get(i), retried.get(i));
+            }
+            merged = merge(index, command, results);
+        }
+        Tracing.trace("Lucene queried {} token ranges, {} of them twice", ranges.size(), truncated.size());
+        return new FilteredPartitionIterator(merged.iterator());
+    }
+
+    private static PartitionRangeReadCommand forSubRange(PartitionRangeReadCommand command,
+                                                         AbstractBounds<PartitionPosition> range,
+                                                         DataLimits limits,
+                                                         Optional<IndexMetadata> indexMetadata) {
+        return new PartitionRangeReadCommand(command.metadata(),
+                                             command.nowInSec(),
+                                             command.columnFilter(),
+                                             command.rowFilter(),
+                                             limits,
+                                             command.dataRange().forSubRange(range),
+                                             indexMetadata);
+    }
+
+    /**
+     * Reads the specified partition range commands keeping at most the specified number of them in flight, and
+     * returns their rows in the same order as the commands. The wait for each finished command is bounded by the
+     * range RPC timeout, and the pending commands are cancelled if any of them fails or times out.
+     *
+     * @param commands the partition range read commands
+     * @param consistency the consistency level
+     * @param clientState the client state
+     * @param concurrency the max number of commands to be read at the same time
+     * @return the rows of each command
+     */
+    private static List<List<FilteredPartition>> read(List<PartitionRangeReadCommand> commands,
+                                                      ConsistencyLevel consistency,
+                                                      ClientState clientState,
+                                                      int concurrency) {
+        TraceState traceState = Tracing.instance.get();
+        List<Callable<List<FilteredPartition>>> tasks = new ArrayList<>(commands.size());
+        commands.forEach(command -> tasks.add(() -> read(command, consistency, clientState, traceState)));
+        try {
+            return ConcurrentTasks.execute(rangeExecutor, tasks, concurrency, DatabaseDescriptor.getRangeRpcTimeout());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+        } catch (TimeoutException e) {
+            readMetrics.timeouts.mark();
+            Keyspace keyspace = Keyspace.open(commands.get(0).metadata().ksName);
+            throw new ReadTimeoutException(consistency, 0, consistency.blockFor(keyspace), false);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexException("Interrupted while reading token ranges", e);
+        }
+    }
+
+    private static List<FilteredPartition> read(PartitionRangeReadCommand command,
+                                                ConsistencyLevel consistency,
+                                                ClientState clientState,
+                                                TraceState traceState) {
+        // Attach the thread to the tracing session of the search, if any, restoring the previous one afterwards,
+        // because the calling thread runs the read when the pool is saturated
+        TraceState previousTraceState = Tracing.instance.get();
+        Tracing.instance.set(traceState);
+        List<FilteredPartition> partitions = new ArrayList<>();
+        try (PartitionIterator iterator = command.execute(consistency, clientState)) {
+            while (iterator.hasNext()) {
+                try (RowIterator partition = iterator.next()) {
+                    partitions.add(FilteredPartition.create(partition));
+                }
+            }
+        } finally {
+            Tracing.instance.set(previousTraceState);
+        }
+        return partitions;
+    }
+
+    private static List<FilteredPartition> merge(Index index,
+                                                 PartitionRangeReadCommand command,
+                                                 List<List<FilteredPartition>> results) {
+        List<FilteredPartition> partitions = new ArrayList<>();
+        results.forEach(partitions::addAll);
+        PartitionIterator result = new FilteredPartitionIterator(partitions.iterator());
+        result = index.postProcessorFor(command).apply(result, command);
+        result = command.limits().filter(result, command.nowInSec());
+        List<FilteredPartition> merged = new ArrayList<>();
+        try {
+            while (result.hasNext()) {
+                try (RowIterator partition = result.next()) {
+                    merged.add(FilteredPartition.create(partition));
+                }
+            }
+        } finally {
+            result.close();
+        }
+        return merged;
+    }
+
+    private static int rowCount(List<FilteredPartition> partitions) {
+        return partitions.stream().mapToInt(FilteredPartition::rowCount).sum();
+    }
+
+    private static boolean contains(List<FilteredPartition> partitions, DecoratedKey key, Clustering clustering) {
+        return partitions.stream().anyMatch(p -> p.partitionKey().equals(key) && p.getRow(clustering) != null);
+    }
+
+    private static boolean isLastRowSelected(List<FilteredPartition> partitions, List<FilteredPartition> merged) {
+        FilteredPartition last = partitions.get(partitions.size() - 1);
+        Row lastRow = last.lastRow();
+        return lastRow == null || contains(merged, last.partitionKey(), lastRow.clustering());
+    }
+
+    /**
+     * {@link PartitionIterator} over partitions already read into memory.
+     */
+    private static class FilteredPartitionIterator implements PartitionIterator {
+
+        private final Iterator<FilteredPartition> partitions;
+
+        FilteredPartitionIterator(Iterator<FilteredPartition> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return partitions.hasNext();
+        }
+
+        @Override
+        public RowIterator next() {
+            return partitions.next().rowIterator();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
     public static <T extends RingPosition<T>> List<AbstractBounds<T>> getRestrictedRanges(final AbstractBounds<T> queryRange) {
         return StorageProxy.getRestrictedRanges(queryRange);
     }
@@ -18,8 +18,11 @@ package com.stratio.cassandra.lucene
 import java.nio.file.{Path, Paths}
 
 import com.stratio.cassandra.lucene.IndexOptions._
+import com.stratio.cassandra.lucene.index.FilterCache
+import com.stratio.cassandra.lucene.mapping.SortKeyMapper
 import com.stratio.cassandra.lucene.partitioning.{Partitioner, PartitionerOnNone}
 import com.stratio.cassandra.lucene.schema.{Schema, SchemaBuilder}
+import com.stratio.cassandra.lucene.search.SearchTemplate
 import com.stratio.cassandra.lucene.util.SchemaValidator
 import org.apache.cassandra.config.{CFMetaData, DatabaseDescriptor}
 import org.apache.cassandra.db.Directories
@@ -49,6 +52,24 @@ class IndexOptions(tableMetadata: CFMetaData, indexMetadata: IndexMetadata) {
   /** The Lucene's max cache size, in MB */
   val maxCachedMB = parseMaxCachedMB(options)
 
+  /** The max size of the filter cache, in MB, zero means using Lucene's node-wide default cache */
+  val filterCacheMB = parseFilterCacheMB(options)
+
+  /** The filter cache admission policy */
+  val filterCachePolicy = parseFilterCachePolicy(options)
+
+  /** The max number of documents in the search results cache, zero means no cache */
+  val searchCacheSize = parseSearchCacheSize(options)
+
+  /** The time to live of the search results cache entries, in seconds */
+  val searchCacheTTLSeconds = parseSearchCacheTTLSeconds(options)
+
+  /** The max number of token ranges queried concurrently by full scan searches, zero means none */
+  val rangeReadConcurrency = parseRangeReadConcurrency(options)
+
+  /** If sorted searches should ask each token range only for its expected share of the results */
+  val reduceRangeLimits = parseReduceRangeLimits(options)
+
   /** The number of asynchronous indexing threads */
   val indexingThreads = parseIndexingThreads(options)
 
@@ -74,6 +95,12 @@ class IndexOptions(tableMetadata: CFMetaData, indexMetadata: IndexMetadata) {
 
   /** If the index is sparse or not */
   val sparse = parseSparse(options, tableMetadata)
+
+  /** If primary keys are sorted using their byte-comparable representation */
+  val byteComparableKeys = parseByteComparableKeys(options, tableMetadata)
+
+  /** The parameterized searches that can be referenced by name */
+  val searchTemplates = parseSearchTemplates(options)
 }
 
 /** Companion object for [[IndexOptions]]. */
@@ -91,6 +118,24 @@ object IndexOptions {
   val MAX_CACHED_MB_OPTION = "max_cached_mb"
   val DEFAULT_MAX_CACHED_MB = 30
 
+  val FILTER_CACHE_MB_OPTION = "filter_cache_mb"
+  val DEFAULT_FILTER_CACHE_MB = 0
+
+  val FILTER_CACHE_POLICY_OPTION = "filter_cache_policy"
+  val DEFAULT_FILTER_CACHE_POLICY = FilterCache.FREQUENCY_POLICY
+
+  val SEARCH_CACHE_SIZE_OPTION = "search_cache_size"
+  val DEFAULT_SEARCH_CACHE_SIZE = 0
+
+  val SEARCH_CACHE_TTL_SECONDS_OPTION = "search_cache_ttl_seconds"
+  val DEFAULT_SEARCH_CACHE_TTL_SECONDS = 60
+
+  val RANGE_READ_CONCURRENCY_OPTION = "range_read_concurrency"
+  val DEFAULT_RANGE_READ_CONCURRENCY = 16
+
+  val REDUCE_RANGE_LIMITS_OPTION = "reduce_range_limits"
+  val DEFAULT_REDUCE_RANGE_LIMITS = false
+
   val INDEXING_THREADS_OPTION = "indexing_threads"
   val DEFAULT_INDEXING_THREADS = Runtime.getRuntime.availableProcessors
 
@@ -111,6 +156,12 @@ object IndexOptions {
   val SPARSE_OPTION = "sparse"
   val DEFAULT_SPARSE = false
 
+  val BYTE_COMPARABLE_KEYS_OPTION = "byte_comparable_keys"
+  val DEFAULT_BYTE_COMPARABLE_KEYS = false
+
+  val SEARCH_TEMPLATES_OPTION = "search_templates"
+  val DEFAULT_SEARCH_TEMPLATES = Map.empty[String, SearchTemplate]
+
   /** Validates the specified index options.
     *
     * @param options  the options to be validated
@@ -122,6 +173,12 @@ object IndexOptions {
     parseRamBufferMB(o)
     parseMaxMergeMB(o)
     parseMaxCachedMB(o)
+    parseFilterCacheMB(o)
+    parseFilterCachePolicy(o)
+    parseSearchCacheSize(o)
+    parseSearchCacheTTLSeconds(o)
+    parseRangeReadConcurrency(o)
+    parseReduceRangeLimits(o)
     parseIndexingThreads(o)
     parseIndexingQueuesSize(o)
     parseExcludedDataCenters(o)
@@ -130,6 +187,8 @@ object IndexOptions {
       metadata,
       DatabaseDescriptor.getAllDataFileLocations.map(Paths.get(_)),
       getBaseTablePath(metadata))
+    parseByteComparableKeys(o, metadata)
+    parseSearchTemplates(o)
   }
 
   def parseRefresh(options: Map[String, String]): Double = {
@@ -178,6 +237,54 @@ object IndexOptions {
       }).getOrElse(default)
   }
 
+  def parseFilterCacheMB(options: Map[String, String]): Int = {
+    parseNonNegativeInt(options, FILTER_CACHE_MB_OPTION, DEFAULT_FILTER_CACHE_MB)
+  }
+
+  private def parseNonNegativeInt(options: Map[String, String], name: String, default: Int): Int = {
+    options.get(name).map(
+      string => try string.toInt catch {
+        case e: NumberFormatException =>
+          throw new IndexException(s"'$name' must be a non-negative integer, found: $string")
+      }).map(
+      integer => if (integer >= 0) integer
+      else {
+        throw new IndexException(s"'$name' must not be negative, found: $integer")
+      }).getOrElse(default)
+  }
+
+  def parseFilterCachePolicy(options: Map[String, String]): String = {
+    options.get(FILTER_CACHE_POLICY_OPTION).map(_.trim.toLowerCase).map(
+      policy => if (FilterCache.POLICIES.contains(policy)) policy
+      else {
+        throw new IndexException(s"'$FILTER_CACHE_POLICY_OPTION' must be one of " +
+          s"${FilterCache.POLICIES.mkString(", ")}, found: $policy")
+      }).getOrElse(DEFAULT_FILTER_CACHE_POLICY)
+  }
+
+  def parseSearchCacheSize(options: Map[String, String]): Int = {
+    parseNonNegativeInt(options, SEARCH_CACHE_SIZE_OPTION, DEFAULT_SEARCH_CACHE_SIZE)
+  }
+
+  def parseSearchCacheTTLSeconds(options: Map[String, String]): Int = {
+    parseStrictlyPositiveInt(
+      options,
+      SEARCH_CACHE_TTL_SECONDS_OPTION,
+      DEFAULT_SEARCH_CACHE_TTL_SECONDS)
+  }
+
+  def parseRangeReadConcurrency(options: Map[String, String]): Int = {
+    parseNonNegativeInt(options, RANGE_READ_CONCURRENCY_OPTION, DEFAULT_RANGE_READ_CONCURRENCY)
+  }
+
+  def parseReduceRangeLimits(options: Map[String, String]): Boolean = {
+    options.get(REDUCE_RANGE_LIMITS_OPTION).map(
+      value => try value.toBoolean catch {
+        case e: Exception => throw new IndexException(e,
+          s"'$REDUCE_RANGE_LIMITS_OPTION' is invalid : ${e.getMessage}")
+      }).getOrElse(DEFAULT_REDUCE_RANGE_LIMITS)
+  }
+
   def parseIndexingThreads(options: Map[String, String]): Int = {
     parseInt(options, INDEXING_THREADS_OPTION, DEFAULT_INDEXING_THREADS)
   }
@@ -270,4 +377,24 @@ object IndexOptions {
           s"'$SPARSE_OPTION' is invalid : ${e.getMessage}")
       }).getOrElse(DEFAULT_SPARSE)
   }
+
+  def parseByteComparableKeys(options: Map[String, String], table: CFMetaData): Boolean = {
+    options.get(BYTE_COMPARABLE_KEYS_OPTION).map(
+      value => try value.toBoolean catch {
+        case e: Exception => throw new IndexException(e,
+          s"'$BYTE_COMPARABLE_KEYS_OPTION' is invalid : ${e.getMessage}")
+      }).map(
+      value => if (value && !SortKeyMapper.supports(table)) {
+        throw new IndexException(
+          s"'$BYTE_COMPARABLE_KEYS_OPTION' is not supported by the primary key types of $table")
+      } else value).getOrElse(DEFAULT_BYTE_COMPARABLE_KEYS)
+  }
+
+  def parseSearchTemplates(options: Map[String, String]): Map[String, SearchTemplate] = {
+    options.get(SEARCH_TEMPLATES_OPTION).map(
+      value => try SearchTemplate.fromJson(value).asScala.toMap catch {
+        case e: Exception => throw new IndexException(e,
+          s"'$SEARCH_TEMPLATES_OPTION' is invalid : ${e.getMessage}")
+      }).getOrElse(DEFAULT_SEARCH_TEMPLATES)
+  }
 }
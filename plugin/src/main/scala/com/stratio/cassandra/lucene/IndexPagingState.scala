@@ -16,19 +16,23 @@
 package com.stratio.cassandra.lucene
 
 import java.nio.ByteBuffer
+import java.util.TreeMap
 
 import com.google.common.base.MoreObjects
 import com.stratio.cassandra.lucene.IndexPagingState._
 import com.stratio.cassandra.lucene.partitioning.Partitioner
 import com.stratio.cassandra.lucene.search.SearchBuilder
-import com.stratio.cassandra.lucene.util.{ByteBufferUtils, SimplePartitionIterator, SingleRowIterator}
+import com.stratio.cassandra.lucene.util.{SimplePartitionIterator, SingleRowIterator}
 import org.apache.cassandra.config.DatabaseDescriptor
 import org.apache.cassandra.db._
 import org.apache.cassandra.db.filter.RowFilter
-import org.apache.cassandra.db.marshal.{Int32Type, UTF8Type}
+import org.apache.cassandra.db.marshal.UTF8Type
 import org.apache.cassandra.db.partitions.PartitionIterator
+import org.apache.cassandra.dht.{AbstractBounds, IPartitioner}
+import org.apache.cassandra.io.util.{DataInputBuffer, DataOutputBuffer}
 import org.apache.cassandra.service.LuceneStorageProxy
 import org.apache.cassandra.service.pager.PagingState
+import org.apache.cassandra.utils.ByteBufferUtil
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable
@@ -45,8 +49,18 @@ class IndexPagingState(var remaining: Int) {
   /** If there could be more results. */
   private var hasMorePages: Boolean = true
 
-  /** The last row positions */
-  private val entries = mutable.LinkedHashMap.empty[(Int, DecoratedKey), Clustering]
+  /** The last row positions, indexed by Lucene partition and partition key in ring order. */
+  private val entries = mutable.LinkedHashMap.empty[Int, TreeMap[PartitionPosition, Clustering]]
+
+  /** Sets the position of the last seen row in the specified Lucene partition and partition key.
+    *
+    * @param partition  the Lucene partition
+    * @param key        the partition key
+    * @param clustering the clustering key of the last seen row
+    */
+  private[lucene] def put(partition: Int, key: DecoratedKey, clustering: Clustering): Unit = {
+    entries.getOrElseUpdate(partition, new TreeMap).put(key, clustering)
+  }
 
   /** Returns the primary key of the last seen row for the specified read command.
     *
@@ -54,33 +68,44 @@ class IndexPagingState(var remaining: Int) {
     * @return the primary key of the last seen row for `command`
     */
   def forCommand(command: ReadCommand, partitioner: Partitioner)
+  : List[Option[((Int, DecoratedKey), Clustering)]] = command match {
+    case c: SinglePartitionReadCommand => forKey(c.partitionKey, partitioner)
+    case c: PartitionRangeReadCommand => forRange(c.dataRange.keyRange, partitioner)
+    case _ => throw new IndexException(s"Unsupported read command type: ${command.getClass}")
+  }
+
+  /** Returns the primary key of the last seen row for the specified partition key in each Lucene
+    * partition.
+    *
+    * @param key         a partition key
+    * @param partitioner the Lucene partitioner
+    * @return the primary key of the last seen row for `key`
+    */
+  private[lucene] def forKey(key: DecoratedKey, partitioner: Partitioner)
   : List[Option[((Int, DecoratedKey), Clustering)]] = {
     (0 until partitioner.numPartitions).map(i => {
-      command match {
-        case c: SinglePartitionReadCommand =>
-          entries.find { case ((partition, key), _) => c.partitionKey == key && partition == i }
-        case c: PartitionRangeReadCommand =>
-          entries.find { case ((partition, key), _) => c.dataRange.contains(key) && partition == i }
-        case _ => throw new IndexException(s"Unsupported read command type: ${command.getClass}")
-      }
+      entries.get(i).flatMap(positions => Option(positions.get(key))).map(((i, key), _))
     }).toList
   }
 
-  @throws[ReflectiveOperationException]
-  private def indexExpression(command: ReadCommand): RowFilter.Expression = {
-
-    // Try with custom expressions
-    command.rowFilter.getExpressions.asScala.find(_.isCustom).foreach(return _)
-
-    // Try with dummy column
-    val cfs = Keyspace.open(command.metadata.ksName).getColumnFamilyStore(command.metadata.cfName)
-    for (expr <- command.rowFilter.getExpressions.asScala) {
-      for (index <- cfs.indexManager.listIndexes.asScala) {
-        if (index.isInstanceOf[Index] && index.supportsExpression(expr.column, expr.operator))
-          return expr
-      }
-    }
-    throw new IndexException("Not found expression")
+  /** Returns the primary key of the last seen row for the specified key range in each Lucene
+    * partition. The positions are sorted in ring order, so the only candidates are the first
+    * position after the left bound and, if the range wraps around the ring, the first position.
+    *
+    * @param range       a key range
+    * @param partitioner the Lucene partitioner
+    * @return the primary key of the last seen row for `range`
+    */
+  private[lucene] def forRange(range: AbstractBounds[PartitionPosition], partitioner: Partitioner)
+  : List[Option[((Int, DecoratedKey), Clustering)]] = {
+    (0 until partitioner.numPartitions).map(i => {
+      entries.get(i).flatMap(positions => {
+        val ceiling = Option(positions.ceilingEntry(range.left))
+        val higher = ceiling.flatMap(entry => Option(positions.higherEntry(entry.getKey)))
+        val first = Option(positions.firstEntry)
+        (ceiling ++ higher ++ first).find(entry => range.contains(entry.getKey))
+      }).map(entry => ((i, entry.getKey.asInstanceOf[DecoratedKey]), entry.getValue))
+    }).toList
   }
 
   /** Adds this paging state to the specified read query.
@@ -89,17 +114,8 @@ class IndexPagingState(var remaining: Int) {
     * @throws ReflectiveOperationException if there is any problem with reflection
     */
   @throws[ReflectiveOperationException]
-  def rewrite(query: ReadQuery): Unit = query match {
-    case group: SinglePartitionReadCommand.Group =>
-      group.commands.forEach(rewrite)
-    case read: ReadCommand =>
-      val expression = indexExpression(read)
-      val oldValue = expressionValueField.get(expression).asInstanceOf[ByteBuffer]
-      val search = SearchBuilder.fromJson(UTF8Type.instance.compose(oldValue)).paging(this)
-      val newValue = UTF8Type.instance.decompose(search.toJson)
-      expressionValueField.set(expression, newValue)
-    case _ =>
-      throw new IndexException(s"Unsupported query type ${query.getClass}")
+  def rewrite(query: ReadQuery): Unit = {
+    IndexPagingState.rewrite(query, json => SearchBuilder.fromJson(json).paging(this).toJson)
   }
 
   /** Updates this paging state with the results of the specified query.
@@ -131,7 +147,7 @@ class IndexPagingState(var remaining: Int) {
       while (partition.hasNext) {
         val newRowIterator = new SingleRowIterator(partition)
         rowIterators += newRowIterator
-        entries.put((p, key), newRowIterator.row.clustering())
+        put(p, key, newRowIterator.row.clustering())
         if (remaining > 0) remaining -= 1
         count += 1
       }
@@ -150,34 +166,53 @@ class IndexPagingState(var remaining: Int) {
 
     // Collect query bounds
     val rangeMerger = LuceneStorageProxy.rangeMerger(command, consistency)
-    val bounds = rangeMerger.asScala.map(_.range).toList
+    val bounds = rangeMerger.asScala.map(_.range).toIndexedSeq
 
+    // Collect rows
     val rowIterators = mutable.ListBuffer.empty[SingleRowIterator]
-
-    var count = 0
     for (partition <- partitions.asScala) {
-
-      val key = partition.partitionKey
-      val p = partitioner.partition(key)
-      val bound = bounds.find(_ contains key)
-      while (partition.hasNext) {
-        bound.foreach(bound => entries.keys.filter(x => bound.contains(x._2) && p == x._1).foreach(
-          entries.remove))
-        val newRowIterator = new SingleRowIterator(partition)
-        rowIterators += newRowIterator
-        val clustering = newRowIterator.row.clustering
-        entries.put((p, key), clustering)
-        if (remaining > 0) remaining -= 1
-        count += 1
-      }
+      while (partition.hasNext) rowIterators += new SingleRowIterator(partition)
       partition.close()
     }
     partitions.close()
 
-    hasMorePages = remaining > 0 && count >= command.limits.count
+    val rows = rowIterators.map(iterator => (iterator.partitionKey, iterator.row.clustering))
+    update(bounds, rows, partitioner)
+    hasMorePages = remaining > 0 && rows.size >= command.limits.count
     new SimplePartitionIterator(rowIterators)
   }
 
+  /** Updates this paging state with the primary keys of the rows returned by a range query.
+    *
+    * @param bounds      the bounds of the range query, in ring order
+    * @param rows        the primary keys of the returned rows, in the order they were returned
+    * @param partitioner the Lucene partitioner
+    */
+  private[lucene] def update(
+      bounds: IndexedSeq[AbstractBounds[PartitionPosition]],
+      rows: Seq[(DecoratedKey, Clustering)],
+      partitioner: Partitioner): Unit = {
+
+    // Keep only the last seen row for each bound and Lucene partition
+    val positions = mutable.LinkedHashMap.empty[(Int, Int), (DecoratedKey, Clustering)]
+    for ((key, clustering) <- rows) {
+      val p = partitioner.partition(key)
+      boundIndex(bounds, key) match {
+        case Some(b) => positions.put((b, p), (key, clustering))
+        case None => put(p, key, clustering)
+      }
+      if (remaining > 0) remaining -= 1
+    }
+
+    // Replace the previous positions of the bounds and partitions that have returned rows
+    if (positions.nonEmpty) {
+      entries.foreach { case (p, keys) =>
+        keys.keySet.removeIf(key => boundIndex(bounds, key).exists(b => positions.contains((b, p))))
+      }
+      positions.foreach { case ((_, p), (key, clustering)) => put(p, key, clustering) }
+    }
+  }
+
   /** Returns a CQL [[PagingState]] containing this Lucene paging state.
     *
     * @return a CQL paging state
@@ -194,21 +229,25 @@ class IndexPagingState(var remaining: Int) {
   /** Returns a byte buffer representation of this.
     * The returned result can be read with [[fromByteBuffer(ByteBuffer)]].
     *
+    * The entries are grouped by Lucene partition, and all the numbers and lengths are written as
+    * variable length integers, so each row position takes little more than its raw values.
+    *
     * @return a byte buffer representing this
     */
   def toByteBuffer: ByteBuffer = {
-    val entryValues = entries.map { case ((partition, key), clustering) =>
-      val clusteringValues: Array[ByteBuffer] = clustering.getRawValues
-      val values = new Array[ByteBuffer](2 + clusteringValues.length)
-      values(0) = Int32Type.instance.decompose(partition)
-      values(1) = key.getKey
-      System.arraycopy(clusteringValues, 0, values, 2, clusteringValues.length)
-      ByteBufferUtils.compose(values: _*)
+    val out = new DataOutputBuffer
+    out.writeUnsignedVInt(remaining)
+    out.writeUnsignedVInt(entries.size)
+    for ((partition, keys) <- entries) {
+      out.writeUnsignedVInt(partition)
+      out.writeUnsignedVInt(keys.size)
+      for ((key, clustering) <- keys.asScala) {
+        ByteBufferUtil.writeWithVIntLength(key.asInstanceOf[DecoratedKey].getKey, out)
+        out.writeUnsignedVInt(clustering.size)
+        clustering.getRawValues.foreach(ByteBufferUtil.writeWithVIntLength(_, out))
+      }
     }
-    val values = ByteBufferUtils.compose(entryValues.toArray: _*)
-    val out = ByteBuffer.allocate(4 + values.remaining)
-    out.putInt(remaining).put(values).flip
-    out
+    out.buffer
   }
 
 }
@@ -219,6 +258,61 @@ object IndexPagingState {
   private lazy val expressionValueField = classOf[RowFilter.Expression].getDeclaredField("value")
   expressionValueField.setAccessible(true)
 
+  /** Replaces the JSON search of each command of the specified read query.
+    *
+    * @param query a CQL query using the Lucene index
+    * @param f     the function returning the new JSON search for the current one
+    * @throws ReflectiveOperationException if there is any problem with reflection
+    */
+  @throws[ReflectiveOperationException]
+  def rewrite(query: ReadQuery, f: String => String): Unit = query match {
+    case group: SinglePartitionReadCommand.Group =>
+      group.commands.forEach(command => rewrite(command, f))
+    case read: ReadCommand =>
+      val expression = indexExpression(read)
+      val oldValue = expressionValueField.get(expression).asInstanceOf[ByteBuffer]
+      val newValue = UTF8Type.instance.decompose(f(UTF8Type.instance.compose(oldValue)))
+      expressionValueField.set(expression, newValue)
+    case _ =>
+      throw new IndexException(s"Unsupported query type ${query.getClass}")
+  }
+
+  @throws[ReflectiveOperationException]
+  private def indexExpression(command: ReadCommand): RowFilter.Expression = {
+
+    // Try with custom expressions
+    command.rowFilter.getExpressions.asScala.find(_.isCustom).foreach(return _)
+
+    // Try with dummy column
+    val cfs = Keyspace.open(command.metadata.ksName).getColumnFamilyStore(command.metadata.cfName)
+    for (expr <- command.rowFilter.getExpressions.asScala) {
+      for (index <- cfs.indexManager.listIndexes.asScala) {
+        if (index.isInstanceOf[Index] && index.supportsExpression(expr.column, expr.operator))
+          return expr
+      }
+    }
+    throw new IndexException("Not found expression")
+  }
+
+  /** Returns the index of the bound containing the specified partition key, if any.
+    *
+    * @param bounds the bounds of a range query, in ring order
+    * @param key    a partition key
+    * @return the index of the bound containing `key`
+    */
+  private def boundIndex(
+      bounds: IndexedSeq[AbstractBounds[PartitionPosition]],
+      key: PartitionPosition): Option[Int] = {
+    var low = 0
+    var high = bounds.length - 1
+    while (low <= high) {
+      val mid = (low + high) >>> 1
+      if (bounds(mid).left.compareTo(key) <= 0) low = mid + 1 else high = mid - 1
+    }
+    if (high >= 0 && bounds(high).contains(key)) Some(high)
+    else Some(bounds.indexWhere(_ contains key)).filter(_ >= 0)
+  }
+
   /** Returns the paging state represented by the specified byte buffer, which should have been
     * generated with [[IndexPagingState.toByteBuffer]].
     *
@@ -226,16 +320,28 @@ object IndexPagingState {
     * @return the paging state represented by `bb`
     */
   def fromByteBuffer(bb: ByteBuffer): IndexPagingState = {
-    val remaining = bb.getInt
-    val state = new IndexPagingState(remaining)
-    ByteBufferUtils.decompose(bb).map(
-      bbe => {
-        val values = ByteBufferUtils.decompose(bbe)
-        val partition = Int32Type.instance.compose(values(0))
-        val key = DatabaseDescriptor.getPartitioner.decorateKey(values(1))
-        val clustering = new Clustering(values.slice(2, values.length + 1): _*)
-        state.entries.put((partition, key), clustering)
-      })
+    fromByteBuffer(bb, DatabaseDescriptor.getPartitioner)
+  }
+
+  /** Returns the paging state represented by the specified byte buffer, which should have been
+    * generated with [[IndexPagingState.toByteBuffer]].
+    *
+    * @param bb          a byte buffer generated by [[IndexPagingState.toByteBuffer]]
+    * @param partitioner the partitioner to be used to decorate the partition keys
+    * @return the paging state represented by `bb`
+    */
+  def fromByteBuffer(bb: ByteBuffer, partitioner: IPartitioner): IndexPagingState = {
+    val in = new DataInputBuffer(bb, true)
+    val state = new IndexPagingState(in.readUnsignedVInt.toInt)
+    for (_ <- 0 until in.readUnsignedVInt.toInt) {
+      val partition = in.readUnsignedVInt.toInt
+      for (_ <- 0 until in.readUnsignedVInt.toInt) {
+        val key = partitioner.decorateKey(ByteBufferUtil.readWithVIntLength(in))
+        val size = in.readUnsignedVInt.toInt
+        val values = (0 until size).map(_ => ByteBufferUtil.readWithVIntLength(in))
+        state.put(partition, key, new Clustering(values: _*))
+      }
+    }
     state
   }
 
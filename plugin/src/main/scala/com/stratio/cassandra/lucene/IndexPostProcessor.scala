@@ -20,7 +20,10 @@ import java.util.function.BiFunction
 
 import com.stratio.cassandra.lucene.IndexPostProcessor._
 import com.stratio.cassandra.lucene.index.RAMIndex
+import com.stratio.cassandra.lucene.mapping.SortValuesMapper
+import com.stratio.cassandra.lucene.mapping.SortValuesMapper.SortValues
 import com.stratio.cassandra.lucene.search.Search
+import com.stratio.cassandra.lucene.search.aggregation.AggregationResults
 import com.stratio.cassandra.lucene.util._
 import org.apache.cassandra.db.SinglePartitionReadCommand.Group
 import org.apache.cassandra.db.partitions.PartitionIterator
@@ -52,14 +55,52 @@ sealed abstract class IndexPostProcessor[A <: ReadQuery](service: IndexService)
   protected def process(partitions: PartitionIterator, search: Search, limit: Int, now: Int)
   : PartitionIterator = {
     if (search.requiresFullScan) {
+      if (search.usesAggregations) {
+        return aggregate(collect(partitions), search, now)
+      }
+      if (search.requiresPostProcessing) {
+        val mapper = SortValuesMapper(service.schema, service.metadata, search)
+        if (mapper.isDefined) {
+          return new SimplePartitionIterator(merge(partitions, mapper.get, limit, now))
+        }
+      }
       val rows = collect(partitions)
       if (search.requiresPostProcessing && rows.nonEmpty) {
-        return top(rows, search, limit, now)
+        return new SimplePartitionIterator(top(rows, search, limit, now))
       }
     }
     partitions
   }
 
+  /** Merges the partial aggregation results attached by each node to the only row returned for
+    * each token range by aggregation reads, and returns a single row with the final results.
+    *
+    * @param rows   the collected rows, with partial aggregation results
+    * @param search a search defining the aggregations
+    * @param now    the operation time in seconds
+    * @return a single row with the final aggregation results, if any
+    */
+  private def aggregate(
+      rows: List[(DecoratedKey, SingleRowIterator)],
+      search: Search,
+      now: Int): PartitionIterator = {
+
+    val time = TimeCounter.start
+    val mapper = service.expressionMapper
+
+    // Merge partial results
+    val partials = rows.flatMap(row => mapper.undecorate(row._2.row, now)._2)
+    val results = partials.map(AggregationResults.fromJson)
+    val merged = (new AggregationResults /: results) (_ merge _).finish(search.aggregations)
+    tracer.trace(s"Lucene post-process merged ${results.size} partial aggregations")
+    logger.debug(s"Merged ${results.size} partial aggregations in $time")
+
+    // Attach final results to the first row
+    val json = merged.toJson
+    val decorated = rows.take(1).map(_._2.decorated(mapper.decorate(_, json, now)))
+    new SimplePartitionIterator(decorated)
+  }
+
   /** Collects the rows of the specified partition iterator. The iterator gets traversed after this
     * operation so it can't be reused.
     *
@@ -81,19 +122,71 @@ sealed abstract class IndexPostProcessor[A <: ReadQuery](service: IndexService)
     rows.toList
   }
 
+  /** Takes the k best rows of the specified partition iterator according to the sort values given
+    * by the specified mapper. Rows are consumed as they arrive and only the k best ones are kept
+    * in a bounded priority queue, without collecting nor indexing all of them. The iterator gets
+    * traversed after this operation so it can't be reused.
+    *
+    * @param partitions a partition iterator
+    * @param mapper     the mapper to get the sort values of each row
+    * @param limit      the number of results to be returned
+    * @param now        the operation time in seconds
+    * @return the k best rows
+    */
+  private def merge(
+      partitions: PartitionIterator,
+      mapper: SortValuesMapper,
+      limit: Int,
+      now: Int): Seq[SingleRowIterator] = {
+
+    val time = TimeCounter.start
+    val queue = new java.util.PriorityQueue[(SortValues, SingleRowIterator)](
+      mapper.ordering.reverse.on[(SortValues, SingleRowIterator)](_._1))
+    var count = 0
+    for (partition <- partitions.asScala) {
+      try {
+        val key = partition.partitionKey
+        while (partition.hasNext) {
+          val rowIterator = new SingleRowIterator(partition)
+          val row = rowIterator.row
+          val columns = service.columnsMapper.columns(key, row, now)
+          val entry = (mapper.values(key, row.clustering, columns), rowIterator)
+          if (queue.size < limit) {
+            queue.add(entry)
+          } else if (!queue.isEmpty && mapper.ordering.lt(entry._1, queue.peek._1)) {
+            queue.poll()
+            queue.add(entry)
+          }
+          count += 1
+        }
+      } finally partition.close()
+    }
+
+    // Take rows from the worst to the best
+    val merged = mutable.ListBuffer[SingleRowIterator]()
+    while (!queue.isEmpty) {
+      val rowIterator = queue.poll()._2
+      rowIterator.decorated(service.expressionMapper.decorate(_, DEFAULT_SCORE, now)) +=: merged
+    }
+
+    tracer.trace(s"Lucene post-process $count collected rows to ${merged.size} rows")
+    logger.debug(s"Post-processed $count rows to ${merged.size} rows in $time")
+    merged
+  }
+
   /** Takes the k best rows of the specified rows according to the specified search.
     *
     * @param rows   the rows to be sorted
     * @param search a search defining the ordering
     * @param limit  the number of results to be returned
     * @param now    the operation time in seconds
-    * @return
+    * @return the k best rows
     */
   private def top(
       rows: List[(DecoratedKey, SingleRowIterator)],
       search: Search,
       limit: Int,
-      now: Int): PartitionIterator = {
+      now: Int): Seq[SingleRowIterator] = {
 
     val time = TimeCounter.start
     val index = new RAMIndex(service.schema.analyzer)
@@ -122,7 +215,7 @@ sealed abstract class IndexPostProcessor[A <: ReadQuery](service: IndexService)
 
       tracer.trace(s"Lucene post-process ${rows.size} collected rows to ${merged.size} rows")
       logger.debug(s"Post-processed ${rows.size} rows to ${merged.size} rows in $time")
-      new SimplePartitionIterator(merged)
+      merged
 
     } finally index.close()
   }
@@ -151,6 +244,9 @@ object IndexPostProcessor {
   val ID_FIELD = "_id"
   val FIELDS_TO_LOAD: java.util.Set[String] = Collections.singleton(ID_FIELD)
 
+  /** The score of the rows sorted without relevance, which is the one of a match all query. */
+  val DEFAULT_SCORE = "1.0"
+
 }
 
 /** An [[IndexPostProcessor]] for [[ReadCommand]]s.
@@ -163,8 +259,11 @@ class ReadCommandPostProcessor(service: IndexService)
 
   /** @inheritdoc */
   override def apply(partitions: PartitionIterator, command: ReadCommand): PartitionIterator = {
-    if (!partitions.hasNext || command.isInstanceOf[SinglePartitionReadCommand]) return partitions
+    if (!partitions.hasNext) return partitions
     val search = service.expressionMapper.search(command)
+    if (command.isInstanceOf[SinglePartitionReadCommand] && !search.usesAggregations) {
+      return partitions
+    }
     process(partitions, search, command.limits.count, command.nowInSec)
   }
 
@@ -179,8 +278,9 @@ class GroupPostProcessor(service: IndexService) extends IndexPostProcessor[Group
 
   /** @inheritdoc */
   override def apply(partitions: PartitionIterator, group: Group): PartitionIterator = {
-    if (!partitions.hasNext || group.commands.size <= 1) return partitions
+    if (!partitions.hasNext) return partitions
     val search = service.expressionMapper.search(group.commands.get(0))
+    if (group.commands.size <= 1 && !search.usesAggregations) return partitions
     process(partitions, search, group.limits.count, group.nowInSec)
   }
 
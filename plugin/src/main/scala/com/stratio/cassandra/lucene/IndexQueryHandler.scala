@@ -17,16 +17,22 @@ package com.stratio.cassandra.lucene
 
 import java.lang.reflect.{Field, Modifier}
 import java.nio.ByteBuffer
+import java.util.{Collections, Optional}
 
 import com.stratio.cassandra.lucene.IndexQueryHandler._
+import com.stratio.cassandra.lucene.mapping.SortValuesMapper
 import com.stratio.cassandra.lucene.partitioning.Partitioner
-import com.stratio.cassandra.lucene.util.{Logging, TimeCounter}
+import com.stratio.cassandra.lucene.search.Search
+import com.stratio.cassandra.lucene.search.aggregation.AggregationResults
+import com.stratio.cassandra.lucene.util.{Logging, SimplePartitionIterator, SingleRowIterator, TimeCounter}
 import org.apache.cassandra.cql3._
 import org.apache.cassandra.cql3.statements.RequestValidations.checkNotNull
 import org.apache.cassandra.cql3.statements.{BatchStatement, IndexTarget, ParsedStatement, SelectStatement}
 import org.apache.cassandra.db.SinglePartitionReadCommand.Group
+import org.apache.cassandra.db.marshal.{LongType, UTF8Type}
 import org.apache.cassandra.db._
 import org.apache.cassandra.db.filter.RowFilter.{CustomExpression, Expression}
+import org.apache.cassandra.db.filter.{ClusteringIndexNamesFilter, ColumnFilter, DataLimits, RowFilter}
 import org.apache.cassandra.db.partitions.PartitionIterator
 import org.apache.cassandra.exceptions.InvalidRequestException
 import org.apache.cassandra.service.{ClientState, LuceneStorageProxy, QueryState}
@@ -167,6 +173,21 @@ class IndexQueryHandler extends QueryHandler with Logging {
     val (expression, index) = expressions.head
     val search = index.validate(expression)
 
+    // Approximate counts can't be reconciled between replicas
+    if (search.approximate && !SINGLE_REPLICA_CONSISTENCY_LEVELS.contains(options.getConsistency)) {
+      val levels = SINGLE_REPLICA_CONSISTENCY_LEVELS.mkString(" or ")
+      throw new InvalidRequestException(s"Approximate counts require consistency level $levels")
+    }
+
+    // Approximated rows are built from the index, so they can't be returned
+    if (search.approximate && !isCountRows(select)) {
+      throw new InvalidRequestException(
+        "Approximate searches require selecting only count(*) or count(1)")
+    }
+
+    // Aggregations are computed by a separate read using only the index expression
+    if (search.usesAggregations) validateAggregations(select, options, index)
+
     // Get partitioner
     val partitioner = index.service.partitioner
 
@@ -175,18 +196,219 @@ class IndexQueryHandler extends QueryHandler with Logging {
     val page = getPageSize.invoke(select, options).asInstanceOf[Int]
 
     // Take control of paging if there is paging and the query requires post processing
-    if (search.requiresPostProcessing && page > 0 && page < limit) {
-      executeSortedLuceneQuery(select, state, options, partitioner)
+    if (search.approximate) {
+      executeApproximateCount(select, state, options, index, search)
+    } else if (search.usesAggregations) {
+      val pageSize = if (page > 0 && page < limit) page else limit
+      executeAggregatedLuceneQuery(
+        select, state, options, partitioner, index, expression, search, pageSize)
+    } else if (search.requiresPostProcessing && page > 0 && page < limit) {
+      executeSortedLuceneQuery(select, state, options, partitioner, index, search, page)
     } else {
       execute(select, state, options)
     }
   }
 
+  /** Returns if the specified search can be read in two phases, first reading only the columns
+    * required to sort the rows, and then reading the whole best rows.
+    *
+    * @param select  the CQL select statement
+    * @param options the query options
+    * @param search  the Lucene search
+    * @param index   the queried index
+    * @return `true` if the search can be read in two phases, `false` otherwise
+    */
+  def supportsTwoPhases(
+      select: SelectStatement,
+      options: QueryOptions,
+      search: Search,
+      index: Index): Boolean = {
+    search.requiresPostProcessing &&
+      !search.usesAggregations &&
+      select.getRowFilter(options).getExpressions.size == 1 &&
+      SortValuesMapper(index.service.schema, index.service.metadata, search).isDefined
+  }
+
+  /** Returns if the specified statement selects only the number of rows, with `count(*)` or
+    * `count(1)`. Both are parsed as an aggregate function without arguments, so the only selected
+    * value is a bigint not mapped to any column.
+    *
+    * @param select the CQL select statement
+    * @return `true` if `select` only counts rows, `false` otherwise
+    */
+  def isCountRows(select: SelectStatement): Boolean = {
+    val selection = select.getSelection
+    val mapping = selection.getColumnMapping
+    val specs = mapping.getColumnSpecifications.asScala
+    selection.isAggregate &&
+      specs.size == 1 &&
+      specs.head.`type` == LongType.instance &&
+      mapping.getMappings.get(specs.head).isEmpty
+  }
+
+  /** Executes an approximate count search. Each token range is read from a single replica, which
+    * returns only its number of index hits, attached to a single row in the index target column,
+    * without reading the table. The coordinator sums these counts, so the rows are never
+    * reconciled. Searches that can't be answered by the index alone are executed as usual.
+    *
+    * @param select  the CQL select statement
+    * @param state   the query state
+    * @param options the query options
+    * @param index   the queried index
+    * @param search  the Lucene search
+    * @return a single row with the approximate count
+    */
+  def executeApproximateCount(
+      select: SelectStatement,
+      state: QueryState,
+      options: QueryOptions,
+      index: Index,
+      search: Search): ResultMessage = {
+    val now = FBUtilities.nowInSeconds
+    val query = select.getQuery(options, now, Int.MaxValue)
+    query match {
+      case command: PartitionRangeReadCommand if index.service.indexOnly(search, command) =>
+        val mapper = index.service.expressionMapper
+        if (mapper.columnDefinition.isEmpty) {
+          throw new InvalidRequestException(
+            "Approximate counts require an index with a target column")
+        }
+        val time = TimeCounter.start
+        var count = 0L
+        val data = command.execute(options.getConsistency, state.getClientState)
+        try {
+          for (partition <- data.asScala) {
+            try {
+              for (row <- partition.asScala) {
+                mapper.undecorate(row, now)._2.foreach(hits => count += hits.toLong)
+              }
+            } finally partition.close()
+          }
+        } finally data.close()
+        logger.debug(s"Approximated count of $count rows in $time")
+        val rows = new java.util.ArrayList[java.util.List[ByteBuffer]]
+        rows.add(Collections.singletonList(LongType.instance.decompose(count)))
+        new Rows(new ResultSet(select.getResultMetadata, rows))
+      case _ => execute(select, state, options)
+    }
+  }
+
+  /** Validates that the aggregations of a search can be computed and returned. The node-local
+    * results are sent to the coordinator in the index target column, so the index must have one.
+    * The final results are returned in the custom payload of the response, or in the target column
+    * of the first row if the protocol version doesn't support custom payloads.
+    *
+    * @param select  the CQL select statement
+    * @param options the query options
+    * @param index   the queried index
+    */
+  def validateAggregations(select: SelectStatement, options: QueryOptions, index: Index) {
+    if (select.getRowFilter(options).getExpressions.size > 1) {
+      throw new InvalidRequestException(
+        "Aggregations can't be combined with other filtering expressions")
+    }
+    val column = index.service.expressionMapper.columnDefinition
+    if (column.isEmpty) {
+      throw new InvalidRequestException("Aggregations require an index with a target column")
+    }
+    if (options.getProtocolVersion < 4 && !select.getSelection.getColumns.contains(column.get)) {
+      throw new InvalidRequestException(
+        "Aggregations require selecting the index target column with protocol versions before 4")
+    }
+  }
+
+  /** Executes a search with aggregations. The rows are read as if the search had no aggregations,
+    * and the aggregations are computed only for the first page, with a separate read asking each
+    * token range to a single replica for its partial results. The final results are returned in
+    * the custom payload of the response and in the index target column of the first row, if it is
+    * selected.
+    *
+    * @param select      the CQL select statement
+    * @param state       the query state
+    * @param options     the query options
+    * @param partitioner the index partitioner
+    * @param index       the queried index
+    * @param expression  the index expression
+    * @param search      the Lucene search
+    * @param page        the page size
+    * @return the rows of the page, with the aggregation results if it is the first page
+    */
+  def executeAggregatedLuceneQuery(
+      select: SelectStatement,
+      state: QueryState,
+      options: QueryOptions,
+      partitioner: Partitioner,
+      index: Index,
+      expression: Expression,
+      search: Search,
+      page: Int): Rows = {
+    val mapper = index.service.expressionMapper
+    val json = mapper.withoutAggregations(mapper.json(expression))
+    val rowSearch = mapper.search(json)
+    val rows = executeSortedLuceneQuery(
+      select, state, options, partitioner, index, rowSearch, page, Some(json))
+    if (options.getPagingState == null) {
+      val results = aggregate(select, options, index, search, state.getClientState)
+      val value = UTF8Type.instance.decompose(results.toJson)
+      if (options.getProtocolVersion >= 4) {
+        rows.setCustomPayload(Collections.singletonMap(AGGREGATIONS_PAYLOAD, value))
+      }
+      val names = rows.result.metadata.names.asScala
+      val position = names.indexWhere(spec => mapper.column.contains(spec.name.toString))
+      if (position >= 0 && !rows.result.rows.isEmpty) rows.result.rows.get(0).set(position, value)
+    }
+    rows
+  }
+
+  /** Computes the aggregations of the specified search. Each node attaches its partial results to
+    * the first row of each token range, and the coordinator merges them. Each token range is read
+    * from a single replica, so the partial results of the different replicas are never reconciled.
+    *
+    * @param select      the CQL select statement
+    * @param options     the query options
+    * @param index       the queried index
+    * @param search      the Lucene search
+    * @param clientState the client state
+    * @return the final aggregation results
+    */
+  def aggregate(
+      select: SelectStatement,
+      options: QueryOptions,
+      index: Index,
+      search: Search,
+      clientState: ClientState): AggregationResults = {
+    val time = TimeCounter.start
+    val mapper = index.service.expressionMapper
+    val now = FBUtilities.nowInSeconds
+    val query = select.getQuery(options, now, Int.MaxValue)
+    val consistency = if (options.getConsistency.isDatacenterLocal) {
+      ConsistencyLevel.LOCAL_ONE
+    } else ConsistencyLevel.ONE
+    val partials = mutable.ListBuffer.empty[AggregationResults]
+    val data = query.execute(consistency, clientState)
+    try {
+      for (partition <- data.asScala) {
+        try {
+          for (row <- partition.asScala) {
+            mapper.undecorate(row, now)._2.foreach(partials += AggregationResults.fromJson(_))
+          }
+        } finally partition.close()
+      }
+    } finally data.close()
+    val results = (new AggregationResults /: partials) (_ merge _).finish(search.aggregations)
+    logger.debug(s"Computed aggregations from ${partials.size} results in $time")
+    results
+  }
+
   def executeSortedLuceneQuery(
       select: SelectStatement,
       state: QueryState,
       options: QueryOptions,
-      partitioner: Partitioner): Rows = {
+      partitioner: Partitioner,
+      index: Index,
+      search: Search,
+      page: Int,
+      json: Option[String] = None): Rows = {
 
     // Check consistency level
     val consistency = options.getConsistency
@@ -195,16 +417,23 @@ class IndexQueryHandler extends QueryHandler with Logging {
 
     val now = FBUtilities.nowInSeconds
     val limit = select.getLimit(options)
-    val page = options.getPageSize
 
     // Read paging state and write it to query
     val pagingState = IndexPagingState.build(options.getPagingState, limit)
     val query = select.getQuery(options, now, Math.min(page, pagingState.remaining))
+    json.foreach(value => IndexPagingState.rewrite(query, _ => value))
     pagingState.rewrite(query)
 
     // Read data
+    val twoPhases = supportsTwoPhases(select, options, search, index)
     val data = query match {
       case group: Group if group.commands.size > 1 => LuceneStorageProxy.read(group, consistency)
+      case command: PartitionRangeReadCommand if twoPhases =>
+        index.service.sortingColumnFilter(search, command.columnFilter)
+          .map(readInTwoPhases(command, _, index, search, consistency, state.getClientState))
+          .getOrElse(read(command, index, search, consistency, state.getClientState))
+      case command: PartitionRangeReadCommand =>
+        read(command, index, search, consistency, state.getClientState)
       case _ => query.execute(consistency, state.getClientState)
     }
 
@@ -223,11 +452,123 @@ class IndexQueryHandler extends QueryHandler with Logging {
       if (data != null) data.close()
     }
   }
+
+  /** Reads the specified partition range command. Searches requiring a full scan query all the
+    * token ranges concurrently, if enabled by the index options, because they can't stop early.
+    * Sorted searches can also ask each token range for less rows than the limit, according to the
+    * fraction of the ring that it owns.
+    *
+    * @param command     the partition range read command
+    * @param index       the queried index
+    * @param search      the Lucene search
+    * @param consistency the query consistency level
+    * @param clientState the client state
+    * @return the read rows
+    */
+  def read(
+      command: PartitionRangeReadCommand,
+      index: Index,
+      search: Search,
+      consistency: ConsistencyLevel,
+      clientState: ClientState): PartitionIterator = {
+    val options = index.service.options
+    val concurrency = options.rangeReadConcurrency
+    if (concurrency > 0 && search.requiresFullScan && !search.usesAggregations) {
+      val reduceLimits = options.reduceRangeLimits && search.requiresPostProcessing
+      LuceneStorageProxy.readConcurrently(
+        command, consistency, clientState, concurrency, reduceLimits)
+    } else command.execute(consistency, clientState)
+  }
+
+  /** Reads the specified partition range command in two phases. The first phase reads from each
+    * token range only the primary keys and the columns required to sort the rows, so the
+    * coordinator can merge them without receiving the full rows. The second phase reads the full
+    * rows of the globally best primary keys at the same consistency level. This way the amount of
+    * full rows sent through the network depends on the limit instead of the number of ranges.
+    *
+    * @param command      the partition range read command
+    * @param columnFilter the column filter to read the columns required for sorting
+    * @param index        the queried index
+    * @param search       the Lucene search
+    * @param consistency  the query consistency level
+    * @param clientState  the client state
+    * @return the best rows, in the order defined by the search
+    */
+  def readInTwoPhases(
+      command: PartitionRangeReadCommand,
+      columnFilter: ColumnFilter,
+      index: Index,
+      search: Search,
+      consistency: ConsistencyLevel,
+      clientState: ClientState): PartitionIterator = {
+
+    val time = TimeCounter.start
+    val mapper = index.service.expressionMapper
+    val metadata = command.metadata
+    val now = command.nowInSec
+
+    // Read the primary keys of the best rows, with the values of their target column
+    val keysCommand = new PartitionRangeReadCommand(
+      metadata,
+      now,
+      columnFilter,
+      command.rowFilter,
+      command.limits,
+      command.dataRange,
+      Optional.of(index.getIndexMetadata))
+    val keys = mutable.ListBuffer.empty[(DecoratedKey, Clustering, Option[String])]
+    val partitions = read(keysCommand, index, search, consistency, clientState)
+    try {
+      for (partition <- partitions.asScala) {
+        try {
+          val key = partition.partitionKey
+          for (row <- partition.asScala) {
+            keys += ((key, row.clustering, mapper.undecorate(row, now)._2))
+          }
+        } finally partition.close()
+      }
+    } finally partitions.close()
+    if (keys.isEmpty) return EmptyIterators.partition
+
+    // Read the full best rows grouped by partition
+    val commands = keys.groupBy(_._1).map { case (key, entries) =>
+      val clusterings = new java.util.TreeSet[Clustering](metadata.comparator)
+      entries.foreach(entry => clusterings.add(entry._2))
+      val filter = new ClusteringIndexNamesFilter(clusterings, false)
+      SinglePartitionReadCommand.create(
+        metadata, now, command.columnFilter, RowFilter.NONE, DataLimits.NONE, key, filter)
+    }
+    val group = new Group(commands.toList.asJava, DataLimits.NONE)
+    val rows = mutable.HashMap.empty[(DecoratedKey, Clustering), SingleRowIterator]
+    val data = group.execute(consistency, clientState)
+    try {
+      for (partition <- data.asScala) {
+        val key = partition.partitionKey
+        while (partition.hasNext) {
+          val rowIterator = new SingleRowIterator(partition)
+          rows.put((key, rowIterator.row.clustering), rowIterator)
+        }
+      }
+    } finally data.close()
+
+    // Restore the order of the first phase, ignoring the rows deleted between both phases
+    val merged = keys.flatMap { case (key, clustering, value) =>
+      rows.get((key, clustering)).map(rowIterator =>
+        value.map(v => rowIterator.decorated(mapper.decorate(_, v, now))).getOrElse(rowIterator))
+    }
+    logger.debug(s"Read ${keys.size} keys and ${merged.size} rows in two phases in $time")
+    new SimplePartitionIterator(merged)
+  }
 }
 
 /** Companion object for [[IndexQueryHandler]]. */
 object IndexQueryHandler {
 
+  val SINGLE_REPLICA_CONSISTENCY_LEVELS = List(ConsistencyLevel.ONE, ConsistencyLevel.LOCAL_ONE)
+
+  /** The key of the custom payload containing the results of the aggregations. */
+  val AGGREGATIONS_PAYLOAD = "lucene_aggregations"
+
   val getPageSize = classOf[SelectStatement].getDeclaredMethod("getPageSize", classOf[QueryOptions])
   getPageSize.setAccessible(true)
 
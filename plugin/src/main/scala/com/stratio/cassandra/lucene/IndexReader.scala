@@ -15,29 +15,49 @@
  */
 package com.stratio.cassandra.lucene
 
-import com.stratio.cassandra.lucene.index.DocumentIterator
+import com.stratio.cassandra.lucene.IndexReader._
 import org.apache.cassandra.config.CFMetaData
 import org.apache.cassandra.db._
-import org.apache.cassandra.db.filter.ClusteringIndexFilter
-import org.apache.cassandra.db.partitions.UnfilteredPartitionIterator
-import org.apache.cassandra.db.rows.UnfilteredRowIterator
+import org.apache.cassandra.db.filter.{ClusteringIndexFilter, ClusteringIndexNamesFilter}
+import org.apache.cassandra.db.filter.DataLimits
+import org.apache.cassandra.db.partitions._
+import org.apache.cassandra.db.rows.{BTreeRow, UnfilteredRowIterator}
 
-/** [[UnfilteredPartitionIterator]] for retrieving rows from a [[DocumentIterator]].
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/** [[UnfilteredPartitionIterator]] for retrieving the rows identified by a source of partition
+  * keys and clustering filters, such as a Lucene search.
+  *
+  * Partitions are read in batches of keys. The keys of each batch are read in token order to
+  * favour sequential access to memtables and SSTables, and the read partitions are returned in
+  * the order of the documents iterator. Each read is bounded by the part of the command row
+  * limit that has not been already read, so no partition is read or kept in memory beyond what
+  * the command could return.
   *
   * @param command    the read command
   * @param table      the base table
   * @param orderGroup the order group of the read operation
-  * @param documents  the documents iterator
+  * @param indexOnly  if the rows should be built from the index without reading them
+  * @param batched    if the partitions should be read in batches, otherwise they are streamed
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 abstract class IndexReader(
     command: ReadCommand,
     table: ColumnFamilyStore,
     orderGroup: ReadOrderGroup,
-    documents: DocumentIterator)
+    indexOnly: Boolean,
+    batched: Boolean = true)
   extends UnfilteredPartitionIterator {
 
-  protected var nextData: Option[UnfilteredRowIterator] = None
+  private[this] val batchSize = {
+    if (batched) Math.max(1, Math.min(command.limits.count, MAX_BATCH_SIZE)) else 1
+  }
+  private[this] val bounded = !command.isForThrift && !command.limits.isUnlimited &&
+    command.rowFilter.getExpressions.size <= 1
+  private[this] var counted = 0
+  private[this] val batch = new java.util.LinkedList[UnfilteredRowIterator]
+  private[this] var nextData: Option[UnfilteredRowIterator] = None
 
   /** @inheritdoc */
   override def isForThrift: Boolean = {
@@ -69,12 +89,73 @@ abstract class IndexReader(
 
   /** @inheritdoc */
   override def close() = {
-    try nextData.foreach(_.close()) finally documents.close()
+    try {
+      nextData.foreach(_.close())
+      while (!batch.isEmpty) batch.poll.close()
+    } finally release()
+  }
+
+  /** Releases the resources used to find the rows to be read. */
+  protected def release(): Unit
+
+  private[this] def prepareNext(): Boolean = {
+    while (nextData.isEmpty) {
+      if (batch.isEmpty && !readBatch()) return false
+      val data = batch.poll
+      if (data.isEmpty) data.close() else nextData = Some(data)
+    }
+    true
   }
 
-  protected def prepareNext(): Boolean
+  /** Returns the next partition key and clustering filter to be read, if any.
+    *
+    * @return the next partition key and clustering filter, or `None` if there are no more reads
+    */
+  protected def nextRead(): Option[(DecoratedKey, ClusteringIndexFilter)]
+
+  private[this] def readBatch(): Boolean = {
+    val reads = mutable.ArrayBuffer.empty[(DecoratedKey, ClusteringIndexFilter)]
+    var next = nextRead()
+    while (next.isDefined) {
+      reads += next.get
+      next = if (reads.size < batchSize) nextRead() else None
+    }
+    val limits = remainingLimits
+    if (reads.size == 1) {
+      batch.add(read(reads.head._1, reads.head._2, limits))
+    } else if (reads.nonEmpty) {
+      readInOrder(reads, TOKEN_ORDER)(r => materialize(read(r._1, r._2, limits))).foreach(batch.add)
+    }
+    reads.nonEmpty
+  }
+
+  /** Returns the limits for the next reads, that is, the command limits reduced by the number of
+    * rows already read, or `None` if the reads can't be bounded because the command requires
+    * filtering the read rows with other expressions.
+    */
+  private[this] def remainingLimits: Option[DataLimits] = {
+    if (bounded) {
+      val limits = command.limits
+      Some(DataLimits.cqlLimits(Math.max(1, limits.count - counted), limits.perPartitionCount))
+    } else None
+  }
+
+  private[this] def materialize(data: UnfilteredRowIterator): UnfilteredRowIterator = {
+    val partition = try ImmutableBTreePartition.create(data) finally data.close()
+    counted += partition.asScala.count(_.hasLiveData(command.nowInSec))
+    partition.unfilteredIterator()
+  }
 
-  protected def read(key: DecoratedKey, filter: ClusteringIndexFilter): UnfilteredRowIterator = {
+  private[this] def read(
+      key: DecoratedKey,
+      filter: ClusteringIndexFilter,
+      limits: Option[DataLimits]): UnfilteredRowIterator = {
+    val data = if (indexOnly) readIndex(key, filter) else readTable(key, filter)
+    limits.map(_.filter(data, command.nowInSec)).getOrElse(data)
+  }
+
+  private[this] def readTable(key: DecoratedKey, filter: ClusteringIndexFilter)
+  : UnfilteredRowIterator = {
     SinglePartitionReadCommand.create(
       isForThrift,
       table.metadata,
@@ -86,5 +167,54 @@ abstract class IndexReader(
       filter).queryMemtableAndDisk(table, orderGroup.baseReadOpOrderGroup)
   }
 
+  /** Returns the rows identified by the specified key and clustering filter, without columns and
+    * without reading them from the table, so they might have expired or have been deleted.
+    *
+    * @param key    the partition key
+    * @param filter the clustering filter
+    * @return the key-only rows
+    */
+  private[this] def readIndex(key: DecoratedKey, filter: ClusteringIndexFilter)
+  : UnfilteredRowIterator = {
+    val clusterings = filter match {
+      case names: ClusteringIndexNamesFilter => names.requestedRows.asScala.toList
+      case _ => List(Clustering.EMPTY)
+    }
+    val update = new PartitionUpdate(metadata, key, PartitionColumns.NONE, clusterings.size)
+    val liveness = LivenessInfo.create(metadata, INDEX_ONLY_TIMESTAMP, command.nowInSec)
+    clusterings.foreach(clustering => update.add(BTreeRow.noCellLiveRow(clustering, liveness)))
+    update.unfilteredIterator
+  }
+
+}
+
+/** Companion object for [[IndexReader]]. */
+object IndexReader {
 
+  /** The max number of partition keys to be read in the same batch. */
+  val MAX_BATCH_SIZE = 100
+
+  /** The write timestamp of the rows built from the index, the lowest one to never shadow data. */
+  val INDEX_ONLY_TIMESTAMP: Long = Long.MinValue + 1
+
+  /** The token order of partition reads. */
+  val TOKEN_ORDER: Ordering[(DecoratedKey, ClusteringIndexFilter)] = {
+    Ordering.fromLessThan((a, b) => a._1.compareTo(b._1) < 0)
+  }
+
+  /** Applies the specified read function to the specified reads following the specified order,
+    * and returns the results in the original order of the reads.
+    *
+    * @param reads    the reads to be done
+    * @param ordering the order in which the reads should be done
+    * @param read     the read function
+    * @return the results of the reads, in the same order as the reads
+    */
+  def readInOrder[A, B](reads: Seq[A], ordering: Ordering[A])(read: A => B): Seq[B] = {
+    reads.indices
+      .sortBy(reads)(ordering)
+      .map(i => (i, read(reads(i))))
+      .sortBy(_._1)
+      .map(_._2)
+  }
 }
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene
+
+import org.apache.cassandra.db._
+import org.apache.cassandra.db.filter.ClusteringIndexFilter
+
+/** [[IndexReader]] for reading a known list of partitions without searching the index.
+  *
+  * The keys are already in token order, so the partitions are streamed one at a time instead of
+  * being read in batches, and possibly wide partitions are never materialized in memory.
+  *
+  * @param command    the read command
+  * @param table      the base table
+  * @param orderGroup the order group of the read operation
+  * @param keys       the keys of the partitions to be read, in token order
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class IndexReaderKeys(
+    command: ReadCommand,
+    table: ColumnFamilyStore,
+    orderGroup: ReadOrderGroup,
+    keys: List[DecoratedKey])
+  extends IndexReader(command, table, orderGroup, false, false) {
+
+  private[this] val iterator = keys.iterator
+
+  /** @inheritdoc */
+  override protected def nextRead(): Option[(DecoratedKey, ClusteringIndexFilter)] = {
+    if (iterator.hasNext) {
+      val key = iterator.next
+      Some((key, command.clusteringIndexFilter(key)))
+    } else None
+  }
+
+  /** @inheritdoc */
+  override protected def release(): Unit = {}
+
+}
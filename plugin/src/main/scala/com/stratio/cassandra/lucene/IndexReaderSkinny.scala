@@ -17,6 +17,7 @@ package com.stratio.cassandra.lucene
 
 import com.stratio.cassandra.lucene.index.DocumentIterator
 import org.apache.cassandra.db._
+import org.apache.cassandra.db.filter.ClusteringIndexFilter
 
 /** [[IndexReader]] for skinny rows.
   *
@@ -25,6 +26,7 @@ import org.apache.cassandra.db._
   * @param table      the base table
   * @param orderGroup the order group of the read operation
   * @param documents  the documents iterator
+  * @param indexOnly  if the rows should be built from the index without reading them
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 class IndexReaderSkinny(
@@ -32,19 +34,21 @@ class IndexReaderSkinny(
     command: ReadCommand,
     table: ColumnFamilyStore,
     orderGroup: ReadOrderGroup,
-    documents: DocumentIterator)
-  extends IndexReader(command, table, orderGroup, documents) {
+    documents: DocumentIterator,
+    indexOnly: Boolean)
+  extends IndexReader(command, table, orderGroup, indexOnly) {
 
   /** @inheritdoc */
-  override protected def prepareNext(): Boolean = {
-    while (nextData.isEmpty && documents.hasNext) {
-      val nextDoc = documents.next
-      val key = service.decoratedKey(nextDoc._1)
-      val filter = command.clusteringIndexFilter(key)
-      nextData = Some(read(key, filter))
-      nextData.foreach(d => if (d.isEmpty) d.close())
-    }
-    nextData.isDefined
+  override protected def nextRead(): Option[(DecoratedKey, ClusteringIndexFilter)] = {
+    if (documents.hasNext) {
+      val key = service.decoratedKey(documents.next._1)
+      Some((key, command.clusteringIndexFilter(key)))
+    } else None
+  }
+
+  /** @inheritdoc */
+  override protected def release(): Unit = {
+    documents.close()
   }
 
 }
@@ -19,7 +19,7 @@ import java.{util => java}
 
 import com.stratio.cassandra.lucene.index.DocumentIterator
 import org.apache.cassandra.db._
-import org.apache.cassandra.db.filter.ClusteringIndexNamesFilter
+import org.apache.cassandra.db.filter.{ClusteringIndexFilter, ClusteringIndexNamesFilter}
 import org.apache.lucene.document.Document
 
 /** [[IndexReader]] for wide rows.
@@ -29,6 +29,7 @@ import org.apache.lucene.document.Document
   * @param table      the base table
   * @param orderGroup the order group of the read operation
   * @param documents  the documents iterator
+  * @param indexOnly  if the rows should be built from the index without reading them
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 class IndexReaderWide(
@@ -36,8 +37,9 @@ class IndexReaderWide(
     command: ReadCommand,
     table: ColumnFamilyStore,
     orderGroup: ReadOrderGroup,
-    documents: DocumentIterator)
-  extends IndexReader(command, table, orderGroup, documents) {
+    documents: DocumentIterator,
+    indexOnly: Boolean)
+  extends IndexReader(command, table, orderGroup, indexOnly) {
 
   private[this] val comparator = service.metadata.comparator
   private[this] var nextDoc: Document = _
@@ -64,31 +66,21 @@ class IndexReaderWide(
   }
 
   /** @inheritdoc */
-  override protected def prepareNext(): Boolean = {
-
-    if (nextData.isDefined) return true
-
-    if (nextDoc == null) {
-      if (!documents.hasNext) return false
-      nextDoc = documents.next._1
+  override protected def nextRead(): Option[(DecoratedKey, ClusteringIndexFilter)] = {
+    while (nextDoc != null || documents.hasNext) {
+      if (nextDoc == null) nextDoc = documents.next._1
+      val key = service.decoratedKey(nextDoc)
+      val clusterings = readClusterings(key)
+      if (!clusterings.isEmpty) {
+        return Some((key, new ClusteringIndexNamesFilter(clusterings, false)))
+      }
     }
-
-    val key = service.decoratedKey(nextDoc)
-    val clusterings = readClusterings(key)
-
-    if (clusterings.isEmpty) return prepareNext()
-
-    val filter = new ClusteringIndexNamesFilter(clusterings, false)
-    nextData = Some(read(key, filter))
-
-    nextData.foreach(
-      data => if (data.isEmpty) {
-        data.close()
-        return prepareNext()
-      })
-
-    true
+    None
   }
 
+  /** @inheritdoc */
+  override protected def release(): Unit = {
+    documents.close()
+  }
 
 }
@@ -18,9 +18,11 @@ package com.stratio.cassandra.lucene
 import java.lang.management.ManagementFactory
 import javax.management.{JMException, ObjectName}
 
-import com.stratio.cassandra.lucene.index.{DocumentIterator, PartitionedIndex}
+import com.stratio.cassandra.lucene.index._
 import com.stratio.cassandra.lucene.mapping._
 import com.stratio.cassandra.lucene.search.Search
+import com.stratio.cassandra.lucene.search.aggregation.AggregationResults
+import com.stratio.cassandra.lucene.search.condition.AutomatonCache
 import com.stratio.cassandra.lucene.util._
 import org.apache.cassandra.config.{ColumnDefinition, DatabaseDescriptor}
 import org.apache.cassandra.db._
@@ -33,7 +35,7 @@ import org.apache.cassandra.utils.FBUtilities
 import org.apache.cassandra.utils.concurrent.OpOrder
 import org.apache.lucene.document.Document
 import org.apache.lucene.index.{IndexableField, Term}
-import org.apache.lucene.search.{Query, Sort, SortField}
+import org.apache.lucene.search.{MultiCollector, Query, Sort, SortField, TotalHitCountCollector}
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable
@@ -67,12 +69,19 @@ abstract class IndexService(
   // Setup mapping
   val tokenMapper = new TokenMapper
   val partitionMapper = new PartitionMapper(metadata)
+  val sortKeyMapper = if (options.byteComparableKeys) Some(new SortKeyMapper(metadata)) else None
   val columnsMapper = new ColumnsMapper(schema, metadata)
-  val expressionMapper = ExpressionMapper(metadata, indexMetadata)
+  val expressionMapper = ExpressionMapper(metadata, indexMetadata, options.searchTemplates)
 
   // Setup FS index and write queue
   val queue = TaskQueue.build(options.indexingThreads, options.indexingQueuesSize)
   val partitioner = options.partitioner
+  val filterCache = if (options.filterCacheMB > 0) {
+    Some(new FilterCache(options.filterCacheMB, options.filterCachePolicy))
+  } else None
+  val searchCache = if (options.searchCacheSize > 0) {
+    Some(new SearchCache(options.searchCacheSize, options.searchCacheTTLSeconds))
+  } else None
   val lucene = new PartitionedIndex(partitioner.numPartitions,
     idxName,
     partitioner.pathsForEachPartitions,
@@ -81,7 +90,9 @@ abstract class IndexService(
     options.refreshSeconds,
     options.ramBufferMB,
     options.maxMergeMB,
-    options.maxCachedMB)
+    options.maxCachedMB,
+    filterCache,
+    searchCache)
 
   // Delay JMX MBean creation
   var mBean: ObjectName = _
@@ -94,7 +105,7 @@ abstract class IndexService(
     // Initialize index
     try {
       val sort = new Sort(keySortFields.toArray: _*)
-      lucene.init(sort, fieldsToLoad)
+      lucene.init(sort, DocumentLoader(fieldsToLoad))
     } catch {
       case e: Exception =>
         logger.error(s"Initialization of Lucene FS directory for index '$idxName' has failed", e)
@@ -117,11 +128,12 @@ abstract class IndexService(
     */
   def keySortFields: List[SortField]
 
-  /** Returns the names of the Lucene fields to be loaded from index during searches.
+  /** Returns the names of the Lucene fields to be loaded from index during searches, associated to
+    * the number of leading bytes to be skipped when they are read from their sorted doc values.
     *
-    * @return the names of the fields to be loaded
+    * @return the names of the fields to be loaded and their doc values prefix lengths
     */
-  def fieldsToLoad: java.util.Set[String]
+  def fieldsToLoad: Map[String, Int]
 
   def keyIndexableFields(key: DecoratedKey, clustering: Clustering): List[IndexableField]
 
@@ -285,7 +297,17 @@ abstract class IndexService(
     // Parse search
     tracer.trace("Building Lucene search")
     val search = expressionMapper.search(command)
+
+    // Read the partitions directly if the search fully determines their keys
+    val keys = partitionMapper.keys(search, schema)
+    if (keys.isDefined) {
+      val selected = keys.get.filter(command.selectsKey)
+      tracer.trace(s"Lucene index reading ${selected.size} partitions without searching")
+      return new IndexReaderKeys(command, table, orderGroup, selected)
+    }
+
     val query = search.query(schema, this.query(command).orNull)
+    tracer.trace(s"Lucene index optimized query $query")
     val afters = this.after(search.paging, command)
     val sort = this.sort(search)
     val count = command.limits.count
@@ -296,12 +318,74 @@ abstract class IndexService(
       refresh()
     }
 
-    // Search
-    tracer.trace(s"Lucene index searching for $count rows")
+    // Approximate counts return only the node-local number of hits, attached to the first hit
     val partitions = partitioner.partitions(command)
     val readers = afters.filter(a => partitions.contains(a._1))
+    if (indexOnly(search, command)) {
+      val hits = countHits(query, partitions).toString
+      val documents = lucene.search(readers, query, sort, 1)
+      val reader = this.reader(documents, command, orderGroup, indexOnly = true)
+      val decorator = (row: Row) => expressionMapper.decorate(row, hits, command.nowInSec)
+      return new FirstRowPartitionIterator(reader, decorator, command.nowInSec)
+    }
+
+    // Search
+    tracer.trace(s"Lucene index searching for $count rows")
     val documents = lucene.search(readers, query, sort, count)
-    reader(documents, command, orderGroup)
+    val reader = this.reader(documents, command, orderGroup, indexOnly = false)
+
+    // Aggregation reads return only the node-local aggregation results, attached to the first row
+    if (search.usesAggregations) {
+      val json = aggregate(search, query, partitions).toJson
+      val decorator = (row: Row) => expressionMapper.decorate(row, json, command.nowInSec)
+      new FirstRowPartitionIterator(reader, decorator, command.nowInSec)
+    } else reader
+  }
+
+  /** Returns the node-local results of the aggregations of the specified search over all the
+    * documents satisfying the specified query, not only the ones that are going to be read.
+    *
+    * @param search     the search containing the aggregations
+    * @param query      the Lucene query
+    * @param partitions the index partitions to be aggregated
+    * @return the partial aggregation results
+    */
+  def aggregate(search: Search, query: Query, partitions: List[Int]): AggregationResults = {
+    tracer.trace(s"Lucene index aggregating ${search.aggregations.size} aggregations")
+    val aggregations = search.aggregations.asScala
+    val collectors = aggregations.map(_.collector(schema))
+    lucene.collect(partitions, query, MultiCollector.wrap(collectors: _*))
+    val results = new AggregationResults
+    aggregations.zip(collectors).foreach { case (a, c) => results.put(a.name, c.result) }
+    results
+  }
+
+  /** Returns the node-local number of documents satisfying the specified query, including the
+    * ones of rows that have expired or have been deleted but are still in the index.
+    *
+    * @param query      the Lucene query
+    * @param partitions the index partitions to be searched
+    * @return the number of hits
+    */
+  def countHits(query: Query, partitions: List[Int]): Int = {
+    tracer.trace("Lucene index counting hits without reading them")
+    val collector = new TotalHitCountCollector
+    lucene.collect(partitions, query, collector)
+    collector.getTotalHits
+  }
+
+  /** Returns if the search of the specified command is an approximate count that can be answered
+    * using only the index, without reading the rows. This is only allowed for partition ranges
+    * without other filtering expressions.
+    *
+    * @param search  the search
+    * @param command the read command
+    * @return `true` if the rows can be read from the index, `false` otherwise
+    */
+  def indexOnly(search: Search, command: ReadCommand): Boolean = {
+    search.approximate &&
+      command.isInstanceOf[PartitionRangeReadCommand] &&
+      command.rowFilter.getExpressions.size == 1
   }
 
   /** Returns the key range query represented by the specified read command.
@@ -367,17 +451,43 @@ abstract class IndexService(
     new Sort(sortFields.toArray: _*)
   }
 
+  /** Returns a column filter to read only the primary key and the regular columns required to sort
+    * the results of the specified search, if it fetches less columns than the specified filter.
+    * All the columns are still fetched to compute row liveness, as Cassandra does for selections,
+    * so rows without primary key liveness and without values in the sort columns are not lost.
+    *
+    * @param search       the search containing sorting requirements
+    * @param columnFilter the column filter of the query
+    * @return a narrower column filter to sort the results of `search`, if any
+    */
+  def sortingColumnFilter(search: Search, columnFilter: ColumnFilter): Option[ColumnFilter] = {
+    val mappers = search.postProcessingFields.asScala.toList.map(schema.mapper)
+    if (mappers.contains(null)) return None
+    val cells = mappers.flatMap(_.mappedCells.asScala).toSet
+    val keys = metadata.primaryKeyColumns.asScala.map(_.name.toString).toSet
+    val columns = regulars.filter(column => cells.contains(column.name.toString))
+    if (columns.size + cells.count(keys.contains) < cells.size) return None
+    val others = columnFilter.fetchedColumns.asScala.count(column =>
+      !columns.contains(column) && !expressionMapper.columnDefinition.contains(column))
+    if (others == 0) return None
+    val builder = ColumnFilter.allColumnsBuilder(metadata)
+    columns.foreach(builder.add)
+    Some(builder.build)
+  }
+
   /** Reads from the local SSTables the rows identified by the specified search.
     *
     * @param documents  the Lucene documents
     * @param command    the Cassandra command
     * @param orderGroup the Cassandra read order group
+    * @param indexOnly  if the rows should be built from the index without reading them
     * @return the local rows satisfying the search
     */
   def reader(
       documents: DocumentIterator,
       command: ReadCommand,
-      orderGroup: ReadOrderGroup): IndexReader
+      orderGroup: ReadOrderGroup,
+      indexOnly: Boolean): IndexReader
 
   /** Ensures that values present in a partition update are valid according to the schema.
     *
@@ -404,6 +514,66 @@ abstract class IndexService(
     lucene.getNumDeletedDocs
   }
 
+  /** @inheritdoc */
+  override def getFilterCacheHitCount: Long = {
+    filterCache.map(_.hitCount).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getFilterCacheMissCount: Long = {
+    filterCache.map(_.missCount).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getFilterCacheEvictionCount: Long = {
+    filterCache.map(_.evictionCount).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getFilterCacheSize: Long = {
+    filterCache.map(_.size).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getFilterCacheBytes: Long = {
+    filterCache.map(_.ramBytesUsed).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getSearchCacheHitCount: Long = {
+    searchCache.map(_.hitCount).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getSearchCacheMissCount: Long = {
+    searchCache.map(_.missCount).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getSearchCacheSize: Long = {
+    searchCache.map(_.size).getOrElse(0L)
+  }
+
+  /** @inheritdoc */
+  override def getAutomatonCacheHitCount: Long = {
+    AutomatonCache.hitCount
+  }
+
+  /** @inheritdoc */
+  override def getAutomatonCacheMissCount: Long = {
+    AutomatonCache.missCount
+  }
+
+  /** @inheritdoc */
+  override def getAutomatonCacheSize: Long = {
+    AutomatonCache.size
+  }
+
+  /** @inheritdoc */
+  override def getAutomatonCacheSavedMillis: Long = {
+    AutomatonCache.savedMillis
+  }
+
   /** @inheritdoc */
   override def forceMerge(maxNumSegments: Int, doWait: Boolean) {
     queue.submitSynchronous(() => lucene.forceMerge(maxNumSegments, doWait))
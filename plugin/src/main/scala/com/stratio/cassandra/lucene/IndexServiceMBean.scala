@@ -36,6 +36,79 @@ trait IndexServiceMBean {
     */
   def getNumDeletedDocs: Long
 
+  /** Returns the number of filter cache lookups returning a cached entry.
+    *
+    * @return the number of filter cache hits
+    */
+  def getFilterCacheHitCount: Long
+
+  /** Returns the number of filter cache lookups not returning a cached entry.
+    *
+    * @return the number of filter cache misses
+    */
+  def getFilterCacheMissCount: Long
+
+  /** Returns the number of entries evicted from the filter cache.
+    *
+    * @return the number of filter cache evictions
+    */
+  def getFilterCacheEvictionCount: Long
+
+  /** Returns the number of entries in the filter cache.
+    *
+    * @return the number of cached filters
+    */
+  def getFilterCacheSize: Long
+
+  /** Returns the memory used by the filter cache.
+    *
+    * @return the filter cache size in bytes
+    */
+  def getFilterCacheBytes: Long
+
+  /** Returns the number of searches reusing a cached page of results.
+    *
+    * @return the number of search cache hits
+    */
+  def getSearchCacheHitCount: Long
+
+  /** Returns the number of searches not finding a cached page of results.
+    *
+    * @return the number of search cache misses
+    */
+  def getSearchCacheMissCount: Long
+
+  /** Returns the number of pages of results in the search cache.
+    *
+    * @return the number of cached pages
+    */
+  def getSearchCacheSize: Long
+
+  /** Returns the number of fuzzy, regexp and wildcard queries reusing a compiled automaton from
+    * the node-wide automaton cache.
+    *
+    * @return the number of automaton cache hits
+    */
+  def getAutomatonCacheHitCount: Long
+
+  /** Returns the number of fuzzy, regexp and wildcard queries compiling a new automaton.
+    *
+    * @return the number of automaton cache misses
+    */
+  def getAutomatonCacheMissCount: Long
+
+  /** Returns the number of queries in the node-wide automaton cache.
+    *
+    * @return the number of cached automaton queries
+    */
+  def getAutomatonCacheSize: Long
+
+  /** Returns the automaton compilation time saved by the node-wide automaton cache.
+    *
+    * @return the saved compilation time in milliseconds
+    */
+  def getAutomatonCacheSavedMillis: Long
+
   /** Optimizes the index forcing merge segments leaving the specified number of segments. This
     * operation may block until all merging completes.
     *
@@ -15,7 +15,6 @@
  */
 package com.stratio.cassandra.lucene
 
-import com.google.common.collect.Sets
 import com.stratio.cassandra.lucene.index.DocumentIterator
 import com.stratio.cassandra.lucene.mapping.PartitionMapper
 import org.apache.cassandra.db.PartitionPosition.Kind._
@@ -39,13 +38,14 @@ class IndexServiceSkinny(table: ColumnFamilyStore, index: IndexMetadata)
   init()
 
   /** @inheritdoc */
-  override def fieldsToLoad: java.util.Set[String] = {
-    Sets.newHashSet(PartitionMapper.FIELD_NAME)
+  override def fieldsToLoad: Map[String, Int] = {
+    Map(PartitionMapper.FIELD_NAME -> 0)
   }
 
   /** @inheritdoc */
   override def keySortFields: List[SortField] = {
-    List(tokenMapper.sortField, partitionMapper.sortField)
+    sortKeyMapper.map(mapper => List(mapper.sortField))
+      .getOrElse(List(tokenMapper.sortField, partitionMapper.sortField))
   }
 
   /** @inheritdoc */
@@ -60,7 +60,8 @@ class IndexServiceSkinny(table: ColumnFamilyStore, index: IndexMetadata)
   /** @inheritdoc */
   override def keyIndexableFields(key: DecoratedKey, clustering: Clustering)
   : List[IndexableField] = {
-    List(tokenMapper.indexableField(key), partitionMapper.indexableField(key))
+    List(tokenMapper.indexableField(key), partitionMapper.indexableField(key)) ++
+      sortKeyMapper.map(_.indexableField(key, clustering))
   }
 
   /** @inheritdoc */
@@ -97,7 +98,8 @@ class IndexServiceSkinny(table: ColumnFamilyStore, index: IndexMetadata)
   override def reader(
       documents: DocumentIterator,
       command: ReadCommand,
-      orderGroup: ReadOrderGroup): IndexReader = {
-    new IndexReaderSkinny(this, command, table, orderGroup, documents)
+      orderGroup: ReadOrderGroup,
+      indexOnly: Boolean): IndexReader = {
+    new IndexReaderSkinny(this, command, table, orderGroup, documents, indexOnly)
   }
 }
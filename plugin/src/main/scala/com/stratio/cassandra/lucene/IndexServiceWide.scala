@@ -15,7 +15,6 @@
  */
 package com.stratio.cassandra.lucene
 
-import com.google.common.collect.Sets
 import com.stratio.cassandra.lucene.index.DocumentIterator
 import com.stratio.cassandra.lucene.mapping.ClusteringMapper._
 import com.stratio.cassandra.lucene.mapping.{ClusteringMapper, KeyMapper, PartitionMapper}
@@ -48,13 +47,15 @@ class IndexServiceWide(table: ColumnFamilyStore, index: IndexMetadata)
   init()
 
   /** @inheritdoc */
-  override def fieldsToLoad: java.util.Set[String] = {
-    Sets.newHashSet(PartitionMapper.FIELD_NAME, ClusteringMapper.FIELD_NAME)
+  override def fieldsToLoad: Map[String, Int] = {
+    Map(PartitionMapper.FIELD_NAME -> 0,
+      ClusteringMapper.FIELD_NAME -> ClusteringMapper.PREFIX_SIZE)
   }
 
   /** @inheritdoc */
   override def keySortFields: List[SortField] = {
-    List(tokenMapper.sortField, partitionMapper.sortField, clusteringMapper.sortField)
+    sortKeyMapper.map(mapper => List(mapper.sortField))
+      .getOrElse(List(tokenMapper.sortField, partitionMapper.sortField, clusteringMapper.sortField))
   }
 
   /** Returns the clustering key contained in the specified document.
@@ -83,6 +84,7 @@ class IndexServiceWide(table: ColumnFamilyStore, index: IndexMetadata)
     fields += partitionMapper.indexableField(key)
     fields += keyMapper.indexableField(key, clustering)
     fields ++= clusteringMapper.indexableFields(key, clustering)
+    fields ++= sortKeyMapper.map(_.indexableField(key, clustering))
     fields.toList
   }
 
@@ -100,7 +102,8 @@ class IndexServiceWide(table: ColumnFamilyStore, index: IndexMetadata)
   override def query(key: DecoratedKey, filter: ClusteringIndexFilter): Query = filter match {
     case f if f.selectsAllPartition => partitionMapper.query(key)
     case f: ClusteringIndexNamesFilter => keyMapper.query(key, f)
-    case f: ClusteringIndexSliceFilter => clusteringMapper.query(key, f)
+    case f: ClusteringIndexSliceFilter =>
+      sortKeyMapper.map(_.query(key, f)).getOrElse(clusteringMapper.query(key, f))
     case _ => throw new IndexException(s"Unknown filter type $filter")
   }
 
@@ -114,6 +117,10 @@ class IndexServiceWide(table: ColumnFamilyStore, index: IndexMetadata)
       start: Option[ClusteringPrefix],
       stop: Option[ClusteringPrefix]): Query = {
     if (start.isEmpty && stop.isEmpty) return query(position)
+    (position, sortKeyMapper) match {
+      case (key: DecoratedKey, Some(mapper)) => return mapper.query(key, start, stop)
+      case _ =>
+    }
     new BooleanQuery.Builder()
       .add(query(position), FILTER)
       .add(clusteringMapper.query(position, start, stop), FILTER)
@@ -168,14 +175,17 @@ class IndexServiceWide(table: ColumnFamilyStore, index: IndexMetadata)
   override def reader(
       documents: DocumentIterator,
       command: ReadCommand,
-      orderGroup: ReadOrderGroup): IndexReader = {
-    new IndexReaderWide(this, command, table, orderGroup, documents)
+      orderGroup: ReadOrderGroup,
+      indexOnly: Boolean): IndexReader = {
+    new IndexReaderWide(this, command, table, orderGroup, documents, indexOnly)
   }
 
   def delete(key: DecoratedKey, slice: Slice) {
     queue.submitAsynchronous(key, () => {
       val partition = partitioner.partition(key)
-      val query = clusteringMapper.query(key, slice)
+      val query = sortKeyMapper
+        .map(_.query(key, slice))
+        .getOrElse(clusteringMapper.query(key, slice))
       lucene.delete(partition, query)
     })
   }
@@ -27,30 +27,34 @@ import org.apache.lucene.search._
 
 /** [[CloseableIterator]] for retrieving Lucene documents satisfying a query.
   *
-  * @param cursors   the searcher managers and pointers of the involved indexes
+  * @param cursors   the partition numbers, searcher managers and pointers of the involved indexes
   * @param indexSort the sort of the index
   * @param querySort the sort in which the documents are going to be retrieved
   * @param query     the query to be satisfied by the documents
   * @param limit     the iteration page size
-  * @param fields    the names of the document fields to be loaded
+  * @param loader    the loader of the document fields
+  * @param cache     the optional cache of first pages
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 class DocumentIterator(
-    cursors: List[(SearcherManager, Option[Term])],
+    cursors: List[(Int, SearcherManager, Option[Term])],
     indexSort: Sort,
     querySort: Sort,
     query: Query,
     limit: Int,
-    fields: java.util.Set[String])
+    loader: DocumentLoader,
+    cache: Option[SearchCache])
   extends Iterator[(Document, ScoreDoc)] with AutoCloseable with Logging with Tracing {
 
   private[this] val pageSize = Math.min(limit, MAX_PAGE_SIZE) + 1
   private[this] val documents = new java.util.LinkedList[(Document, ScoreDoc)]
   private[this] val indices = cursors.indices
-  private[this] val managers = cursors.map(_._1)
+  private[this] val partitions = cursors.map(_._1)
+  private[this] val managers = cursors.map(_._2)
   private[this] val searchers = managers.map(_.acquire())
-  private[this] val afterTerms = cursors.map(_._2)
+  private[this] val afterTerms = cursors.map(_._3)
   private[this] val offsets = cursors.map(_ => 0).toArray
+  private[this] var fetched = false
   private[this] var finished = false
   private[this] var closed = false
 
@@ -86,39 +90,42 @@ class DocumentIterator(
       throw new IndexException(e, "Error while searching for the last page position")
   }
 
+  /** The key of the first page in the search cache. */
+  private[this] lazy val cacheKey = SearchCache.Key(
+    query,
+    sort,
+    pageSize,
+    afterTerms,
+    indices.map(i => (partitions(i), SearchCache.version(searchers(i)))).toList)
+
   private[this] def fetch() = {
     try {
       val fetchTime = TimeCounter.start
 
-      val fieldDocs = indices.map(i => {
-        val afterTerm = afterTerms(i)
-        if (afterTerm.isEmpty && canEarlyTerminate(sort, indexSort)) {
-          val fieldDoc = afters(i).map(_.asInstanceOf[FieldDoc]).orNull
-          val collect = TopFieldCollector.create(sort, pageSize, fieldDoc, true, false, false)
-          val hits = offsets(i) + pageSize
-          val earlyCollect = new EarlyTerminatingSortingCollector(collect, sort, hits, indexSort)
-          searchers(i).search(query, earlyCollect)
-          val topDocs = collect.topDocs
-          offsets(i) += topDocs.scoreDocs.length
-          topDocs
-        } else searchers(i).searchAfter(afters(i).orNull, query, pageSize, sort, false, false)
-      }).toArray
-
-      // Merge partitions results
-      val scoreDocs = TopDocs.merge(sort, pageSize, fieldDocs).scoreDocs
-
-      val numFetched = scoreDocs.length
+      // Try to reuse the cached first page
+      val cacheable = !fetched && cache.isDefined
+      val cached = if (cacheable) cache.get.get(cacheKey) else None
+      val page = cached.getOrElse(search())
+      if (cacheable && cached.isEmpty) cache.get.put(cacheKey, page)
+      fetched = true
+
+      val numFetched = page.documents.length
       finished = numFetched < pageSize
 
-      for (scoreDoc <- scoreDocs) {
-        val shard = scoreDoc.shardIndex
-        afters(shard) = Some(scoreDoc)
-        val document = searchers(shard).doc(scoreDoc.doc, fields)
-        documents.add((document, scoreDoc))
+      indices.foreach(i => offsets(i) += page.offsets(i))
+      for (document <- page.documents) {
+        val scoreDoc = document._2
+        afters(scoreDoc.shardIndex) = Some(scoreDoc)
+        documents.add(document)
       }
 
-      tracer.trace(s"Lucene index fetches $numFetched documents")
-      logger.debug(s"Page fetched with $numFetched documents in $fetchTime")
+      if (cached.isDefined) {
+        tracer.trace(s"Lucene index reuses $numFetched cached documents")
+        logger.debug(s"Page reused from cache with $numFetched documents in $fetchTime")
+      } else {
+        tracer.trace(s"Lucene index fetches $numFetched documents")
+        logger.debug(s"Page fetched with $numFetched documents in $fetchTime")
+      }
 
     } catch {
       case e: Exception =>
@@ -128,6 +135,36 @@ class DocumentIterator(
     if (finished) close()
   }
 
+  private[this] def search(): SearchCache.Page = {
+
+    val hits = new Array[Int](indices.size)
+    val fieldDocs = indices.map(i => {
+      val afterTerm = afterTerms(i)
+      if (afterTerm.isEmpty && canEarlyTerminate(sort, indexSort)) {
+        val fieldDoc = afters(i).map(_.asInstanceOf[FieldDoc]).orNull
+        val collect = TopFieldCollector.create(sort, pageSize, fieldDoc, true, false, false)
+        val numHits = offsets(i) + pageSize
+        val earlyCollect = new EarlyTerminatingSortingCollector(collect, sort, numHits, indexSort)
+        searchers(i).search(query, earlyCollect)
+        val topDocs = collect.topDocs
+        hits(i) = topDocs.scoreDocs.length
+        topDocs
+      } else searchers(i).searchAfter(afters(i).orNull, query, pageSize, sort, false, false)
+    }).toArray
+
+    // Merge partitions results
+    val scoreDocs = TopDocs.merge(sort, pageSize, fieldDocs).scoreDocs
+
+    // Load documents grouped by partition
+    val loaded = new java.util.IdentityHashMap[ScoreDoc, Document]
+    scoreDocs.groupBy(_.shardIndex).foreach { case (shard, docs) =>
+      val shardDocuments = loader.load(searchers(shard), docs.map(_.doc))
+      docs.indices.foreach(i => loaded.put(docs(i), shardDocuments(i)))
+    }
+
+    SearchCache.Page(scoreDocs.map(scoreDoc => (loaded.get(scoreDoc), scoreDoc)), hits)
+  }
+
   /** Returns if more documents should be fetched from the Lucene index.
     *
     * @return `true` if more documents should be fetched, `false` otherwise
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import org.apache.lucene.document.{Document, StoredField}
+import org.apache.lucene.index.{LeafReaderContext, ReaderUtil, SortedDocValues}
+import org.apache.lucene.search.IndexSearcher
+import org.apache.lucene.util.BytesRef
+
+import scala.collection.JavaConverters._
+
+/** Loader of the fields of the documents found by a search.
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+sealed trait DocumentLoader {
+
+  /** Returns the documents identified by the specified ids, in the same order.
+    *
+    * @param searcher the searcher where the documents have been found
+    * @param docs     the ids of the documents to be loaded
+    * @return the loaded documents
+    */
+  def load(searcher: IndexSearcher, docs: Array[Int]): Array[Document]
+
+}
+
+/** Companion object for [[DocumentLoader]]. */
+object DocumentLoader {
+
+  /** Returns a new [[DocumentLoader]] reading the specified fields from stored fields.
+    *
+    * @param fields the names of the stored fields to be loaded
+    * @return a stored fields loader
+    */
+  def apply(fields: java.util.Set[String]): DocumentLoader = new StoredFieldsLoader(fields)
+
+  /** Returns a new [[DocumentLoader]] reading the specified fields from sorted doc values.
+    *
+    * @param fields the names of the fields to be loaded associated to the number of leading bytes
+    *               to be skipped from their doc values
+    * @return a doc values loader
+    */
+  def apply(fields: Map[String, Int]): DocumentLoader = new DocValuesLoader(fields)
+
+}
+
+/** [[DocumentLoader]] reading stored fields, which requires decompressing the stored fields block
+  * of each document.
+  *
+  * @param fields the names of the stored fields to be loaded
+  */
+class StoredFieldsLoader(fields: java.util.Set[String]) extends DocumentLoader {
+
+  /** @inheritdoc */
+  override def load(searcher: IndexSearcher, docs: Array[Int]): Array[Document] = {
+    docs.map(searcher.doc(_, fields))
+  }
+
+}
+
+/** [[DocumentLoader]] reading the values of the requested fields from their sorted doc values,
+  * which are column-oriented and can be read without decompressing whole documents. Documents are
+  * visited in index order to favour sequential access. Segments or documents without the required
+  * doc values, such as the ones written by older versions, are loaded from stored fields.
+  *
+  * @param fields the names of the fields to be loaded associated to the number of leading bytes to
+  *               be skipped from their doc values
+  */
+class DocValuesLoader(fields: Map[String, Int]) extends DocumentLoader {
+
+  private[this] val storedFields = fields.keySet.asJava
+
+  /** @inheritdoc */
+  override def load(searcher: IndexSearcher, docs: Array[Int]): Array[Document] = {
+    val leaves = searcher.getIndexReader.leaves
+    val docValues = new Array[Option[List[(String, Int, SortedDocValues)]]](leaves.size)
+    val documents = new Array[Document](docs.length)
+    docs.indices.sortBy(docs(_)).foreach(i => {
+      val doc = docs(i)
+      val leafIndex = ReaderUtil.subIndex(doc, leaves)
+      val leaf = leaves.get(leafIndex)
+      if (docValues(leafIndex) == null) docValues(leafIndex) = values(leaf)
+      documents(i) = docValues(leafIndex)
+        .flatMap(document(_, doc - leaf.docBase))
+        .getOrElse(searcher.doc(doc, storedFields))
+    })
+    documents
+  }
+
+  private[this] def values(leaf: LeafReaderContext)
+  : Option[List[(String, Int, SortedDocValues)]] = {
+    val values = fields.toList.map { case (field, skip) =>
+      (field, skip, leaf.reader.getSortedDocValues(field))
+    }
+    if (values.exists(_._3 == null)) None else Some(values)
+  }
+
+  private[this] def document(values: List[(String, Int, SortedDocValues)], doc: Int)
+  : Option[Document] = {
+    val document = new Document
+    for ((field, skip, docValues) <- values) {
+      val ord = docValues.getOrd(doc)
+      if (ord < 0) return None
+      val value = docValues.lookupOrd(ord)
+      val bytes = new Array[Byte](value.length - skip)
+      System.arraycopy(value.bytes, value.offset + skip, bytes, 0, bytes.length)
+      document.add(new StoredField(field, new BytesRef(bytes)))
+    }
+    Some(document)
+  }
+
+}
@@ -33,6 +33,7 @@ import org.apache.lucene.store.{Directory, FSDirectory, NRTCachingDirectory}
   * @param ramBufferMB    the index writer RAM buffer size in MB
   * @param maxMergeMB     the directory max merge size in MB
   * @param maxCachedMB    the directory max cache size in MB
+  * @param filterCache    the optional filter cache to be used by the searchers
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 class FSIndex(
@@ -42,23 +43,21 @@ class FSIndex(
     refreshSeconds: Double,
     ramBufferMB: Int,
     maxMergeMB: Int,
-    maxCachedMB: Int) {
+    maxCachedMB: Int,
+    filterCache: Option[FilterCache]) {
 
   private[this] var mergeSort: Sort = _
-  private[this] var fields: java.util.Set[String] = _
   private[this] var directory: Directory = _
   private[this] var writer: IndexWriter = _
   private[this] var manager: SearcherManager = _
   private[this] var reopener: ControlledRealTimeReopenThread[IndexSearcher] = _
 
-  /** Initializes this index with the specified merge sort and fields to be loaded.
+  /** Initializes this index with the specified merge sort.
     *
     * @param mergeSort the sort to be applied to the index during merges
-    * @param fields    the names of the document fields to be loaded
     */
-  def init(mergeSort: Sort, fields: java.util.Set[String]) {
+  def init(mergeSort: Sort) {
     this.mergeSort = mergeSort
-    this.fields = fields
 
     // Open or create directory
     directory = new NRTCachingDirectory(FSDirectory.open(path), maxMergeMB, maxCachedMB)
@@ -76,6 +75,7 @@ class FSIndex(
       override def newSearcher(reader: IndexReader, previousReader: IndexReader): IndexSearcher = {
         val searcher = new IndexSearcher(reader)
         searcher.setSimilarity(new NoIDFSimilarity)
+        filterCache.foreach(_.configure(searcher))
         searcher
       }
     }
@@ -145,6 +145,15 @@ class FSIndex(
     try close() finally FileUtils.deleteRecursive(path.toFile)
   }
 
+  /** Feeds the specified collector with all the documents satisfying the specified query.
+    *
+    * @param query     the query to search for
+    * @param collector the collector of the matching documents
+    */
+  def collect(query: Query, collector: Collector) {
+    doWithSearcher(searcher => searcher.search(query, collector))
+  }
+
   /** Returns the total number of documents in this index.
     *
     * @return the number of documents
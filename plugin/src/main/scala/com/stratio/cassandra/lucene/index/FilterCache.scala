@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import com.stratio.cassandra.lucene.IndexException
+import com.stratio.cassandra.lucene.index.FilterCache._
+import org.apache.lucene.search._
+
+/** Segment-level cache of the documents matching filtering queries, shared by all the searchers of
+  * an index. Cached entries are bound to the segment core they were computed for, so they are
+  * released as soon as the segment is merged away.
+  *
+  * @param maxSizeMB the max cache size in MB
+  * @param policy    the name of the cache admission policy
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class FilterCache(maxSizeMB: Int, policy: String) {
+
+  private[this] val cache = new LRUQueryCache(MAX_CACHED_QUERIES, maxSizeMB * 1024L * 1024L)
+
+  private[this] val cachingPolicy: QueryCachingPolicy = policy match {
+    case ALWAYS_POLICY => QueryCachingPolicy.ALWAYS_CACHE
+    case FREQUENCY_POLICY => new UsageTrackingQueryCachingPolicy
+    case _ => throw new IndexException(s"Unknown filter cache policy '$policy'")
+  }
+
+  /** Sets this cache as the query cache of the specified searcher.
+    *
+    * @param searcher an index searcher
+    * @return the searcher
+    */
+  def configure(searcher: IndexSearcher): IndexSearcher = {
+    searcher.setQueryCache(cache)
+    searcher.setQueryCachingPolicy(cachingPolicy)
+    searcher
+  }
+
+  /** Returns the number of lookups returning a cached entry.
+    *
+    * @return the number of cache hits
+    */
+  def hitCount: Long = cache.getHitCount
+
+  /** Returns the number of lookups not returning a cached entry.
+    *
+    * @return the number of cache misses
+    */
+  def missCount: Long = cache.getMissCount
+
+  /** Returns the number of entries that have been evicted from the cache.
+    *
+    * @return the number of evicted entries
+    */
+  def evictionCount: Long = cache.getEvictionCount
+
+  /** Returns the number of entries currently in the cache.
+    *
+    * @return the number of cached entries
+    */
+  def size: Long = cache.getCacheSize
+
+  /** Returns the memory currently used by the cache, in bytes.
+    *
+    * @return the cache size in bytes
+    */
+  def ramBytesUsed: Long = cache.ramBytesUsed
+
+}
+
+/** Companion object for [[FilterCache]]. */
+object FilterCache {
+
+  /** The max number of distinct queries to be cached. */
+  val MAX_CACHED_QUERIES = 10000
+
+  /** Policy caching only the filters that are frequently used, as well as the costly ones. */
+  val FREQUENCY_POLICY = "frequency"
+
+  /** Policy caching all the filters. */
+  val ALWAYS_POLICY = "always"
+
+  /** The supported admission policies. */
+  val POLICIES = List(FREQUENCY_POLICY, ALWAYS_POLICY)
+
+}
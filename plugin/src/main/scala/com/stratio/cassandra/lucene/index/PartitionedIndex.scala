@@ -24,7 +24,7 @@ import org.apache.cassandra.io.util.FileUtils.deleteRecursive
 import org.apache.lucene.analysis.Analyzer
 import org.apache.lucene.document.Document
 import org.apache.lucene.index.Term
-import org.apache.lucene.search.{Query, Sort}
+import org.apache.lucene.search.{Collector, Query, Sort}
 
 /** An [[FSIndex]] partitioned by some not specified criterion.
   *
@@ -36,6 +36,8 @@ import org.apache.lucene.search.{Query, Sort}
   * @param ramBufferMB    the index writer RAM buffer size in MB
   * @param maxMergeMB     the directory max merge size in MB
   * @param maxCachedMB    the directory max cache size in MB
+  * @param filterCache    the optional filter cache to be shared by all the partitions
+  * @param searchCache    the optional cache of search results
   * @author Andres de la Pena `adelapena@stratio.com`
   */
 class PartitionedIndex(
@@ -47,7 +49,9 @@ class PartitionedIndex(
     refreshSeconds: Double,
     ramBufferMB: Int,
     maxMergeMB: Int,
-    maxCachedMB: Int) extends Logging {
+    maxCachedMB: Int,
+    filterCache: Option[FilterCache],
+    searchCache: Option[SearchCache]) extends Logging {
 
   private[this] val indexes: List[FSIndex] = {
     var outputList: List[FSIndex] = List()
@@ -61,7 +65,8 @@ class PartitionedIndex(
             refreshSeconds,
             ramBufferMB,
             maxMergeMB,
-            maxCachedMB))
+            maxCachedMB,
+            filterCache))
         } else {
           List(new FSIndex(name,
             Paths.get(globalPath.get.toFile.getAbsolutePath + File.separator + "0"),
@@ -69,7 +74,8 @@ class PartitionedIndex(
             refreshSeconds,
             ramBufferMB,
             maxMergeMB,
-            maxCachedMB))
+            maxCachedMB,
+            filterCache))
         }
       case n if n > 1 =>
         for (index <- 0 until n) {
@@ -84,7 +90,8 @@ class PartitionedIndex(
             refreshSeconds,
             ramBufferMB,
             maxMergeMB,
-            maxCachedMB))
+            maxCachedMB,
+            filterCache))
         }
         outputList
       case _ => throw new IndexException(
@@ -92,17 +99,17 @@ class PartitionedIndex(
     }
   }
   private[this] var mergeSort: Sort = _
-  private[this] var fields: java.util.Set[String] = _
+  private[this] var loader: DocumentLoader = _
 
-  /** Initializes this index with the specified merge sort and fields to be loaded.
+  /** Initializes this index with the specified merge sort and document fields loader.
     *
     * @param mergeSort the sort to be applied to the index during merges
-    * @param fields    the names of the document fields to be loaded
+    * @param loader    the loader of the document fields
     */
-  def init(mergeSort: Sort, fields: java.util.Set[String]) {
+  def init(mergeSort: Sort, loader: DocumentLoader) {
     this.mergeSort = mergeSort
-    this.fields = fields
-    indexes.foreach(_.init(mergeSort, fields))
+    this.loader = loader
+    indexes.foreach(_.init(mergeSort))
   }
 
   /** Deletes all the documents. */
@@ -216,6 +223,18 @@ class PartitionedIndex(
     indexes(partition).delete(query)
   }
 
+  /** Feeds the specified collector with all the documents satisfying the specified query in the
+    * specified partitions.
+    *
+    * @param partitions the index partitions where the operation will be done
+    * @param query      the query to search for
+    * @param collector  the collector of the matching documents
+    */
+  def collect(partitions: List[Int], query: Query, collector: Collector) {
+    logger.debug(s"Collecting $query in $name partitions ${partitions.mkString(", ")}")
+    partitions.foreach(indexes(_).collect(query, collector))
+  }
+
   /** Finds the top hits for a query and sort, starting from an optional position.
     *
     * @param partitions the index partitions where the operation will be done
@@ -234,7 +253,7 @@ class PartitionedIndex(
           |      count : $count
           |       sort : $sort
        """.stripMargin)
-    val cursors = partitions.map { case (p, a) => (indexes(p).searcherManager, a) }
-    new DocumentIterator(cursors, mergeSort, sort, query, count, fields)
+    val cursors = partitions.map { case (p, a) => (p, indexes(p).searcherManager, a) }
+    new DocumentIterator(cursors, mergeSort, sort, query, count, loader, searchCache)
   }
 }
\ No newline at end of file
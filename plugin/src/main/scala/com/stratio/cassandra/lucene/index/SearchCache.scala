@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import java.util.concurrent.TimeUnit
+
+import com.google.common.cache.{Cache, CacheBuilder, Weigher}
+import com.stratio.cassandra.lucene.IndexException
+import com.stratio.cassandra.lucene.index.SearchCache._
+import org.apache.lucene.document.Document
+import org.apache.lucene.index.{DirectoryReader, Term}
+import org.apache.lucene.search.{IndexSearcher, Query, ScoreDoc, Sort}
+
+/** Cache of the first page of documents found by a search. Entries are keyed by the search and by
+  * the version of the index reader of each involved partition, so they are never reused after a
+  * reader reopen exposing new changes. Keys don't hold references to the searchers, so stale
+  * entries don't retain any index resources until they are evicted.
+  *
+  * @param maxSize    the max number of documents to be cached
+  * @param ttlSeconds the time to live of the cached pages, in seconds
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class SearchCache(maxSize: Long, ttlSeconds: Int) {
+
+  private[this] val cache: Cache[Key, Page] = CacheBuilder.newBuilder
+    .maximumWeight(maxSize)
+    .weigher(new Weigher[Key, Page] {
+      override def weigh(key: Key, page: Page): Int = Math.max(1, page.documents.length)
+    })
+    .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+    .recordStats
+    .build[Key, Page]
+
+  /** Returns the cached page for the specified key, if any.
+    *
+    * @param key the search key
+    * @return the cached page
+    */
+  def get(key: Key): Option[Page] = Option(cache.getIfPresent(key))
+
+  /** Caches the specified page.
+    *
+    * @param key  the search key
+    * @param page the page to be cached
+    */
+  def put(key: Key, page: Page): Unit = cache.put(key, page)
+
+  /** Returns the number of lookups returning a cached page.
+    *
+    * @return the number of cache hits
+    */
+  def hitCount: Long = cache.stats.hitCount
+
+  /** Returns the number of lookups not returning a cached page.
+    *
+    * @return the number of cache misses
+    */
+  def missCount: Long = cache.stats.missCount
+
+  /** Returns the number of pages currently in the cache.
+    *
+    * @return the number of cached pages
+    */
+  def size: Long = cache.size
+
+}
+
+/** Companion object for [[SearchCache]]. */
+object SearchCache {
+
+  /** The key of a cached search.
+    *
+    * @param query    the Lucene query
+    * @param sort     the rewritten Lucene sort
+    * @param pageSize the number of documents per page
+    * @param after    the start positions in each partition
+    * @param versions the partition number and reader version of each involved partition
+    */
+  case class Key(
+      query: Query,
+      sort: Sort,
+      pageSize: Int,
+      after: List[Option[Term]],
+      versions: List[(Int, Long)])
+
+  /** A page of found documents.
+    *
+    * @param documents the found documents with their scores
+    * @param offsets   the number of collected hits in each partition
+    */
+  case class Page(documents: Array[(Document, ScoreDoc)], offsets: Array[Int])
+
+  /** Returns the version of the index reader of the specified searcher.
+    *
+    * @param searcher a searcher
+    * @return the version of the `searcher`'s reader
+    */
+  def version(searcher: IndexSearcher): Long = searcher.getIndexReader match {
+    case reader: DirectoryReader => reader.getVersion
+    case reader => throw new IndexException(s"Unversioned reader $reader")
+  }
+
+}
@@ -15,9 +15,10 @@
  */
 package com.stratio.cassandra.lucene.mapping
 
+import com.google.common.cache.{Cache, CacheBuilder, Weigher}
 import com.stratio.cassandra.lucene.IndexException
-import com.stratio.cassandra.lucene.mapping.ExpressionMapper.parse
-import com.stratio.cassandra.lucene.search.{Search, SearchBuilder}
+import com.stratio.cassandra.lucene.mapping.ExpressionMapper._
+import com.stratio.cassandra.lucene.search.{Search, SearchBuilder, SearchTemplate}
 import org.apache.cassandra.config.{CFMetaData, ColumnDefinition}
 import org.apache.cassandra.cql3.Operator
 import org.apache.cassandra.cql3.statements.IndexTarget._
@@ -25,7 +26,7 @@ import org.apache.cassandra.db.ReadCommand
 import org.apache.cassandra.db.filter.RowFilter
 import org.apache.cassandra.db.filter.RowFilter.{CustomExpression, Expression}
 import org.apache.cassandra.db.marshal.UTF8Type
-import org.apache.cassandra.db.rows.{BTreeRow, BufferCell, Row}
+import org.apache.cassandra.db.rows.{BTreeRow, BufferCell, Cell, Row}
 import org.apache.cassandra.schema.IndexMetadata
 import org.apache.commons.lang3.StringUtils
 import org.apache.lucene.search.ScoreDoc
@@ -36,22 +37,29 @@ import scala.collection.JavaConverters._
   *
   * @param tableMetadata the indexed table metadata
   * @param indexMetadata the index metadata
+  * @param templates     the search templates of the index, indexed by name
   * @author Andres de la Pena `adelapena@stratio.com`
   */
-case class ExpressionMapper(tableMetadata: CFMetaData, indexMetadata: IndexMetadata) {
+case class ExpressionMapper(
+    tableMetadata: CFMetaData,
+    indexMetadata: IndexMetadata,
+    templates: Map[String, SearchTemplate] = Map.empty) {
 
   val name = indexMetadata.name
   val column = Option(indexMetadata.options.get(TARGET_OPTION_NAME)).filterNot(StringUtils.isBlank)
   val columns = tableMetadata.allColumns.asScala.toSet
   val columnDefinition = column.flatMap(name => columns.find(_.name.toString == name))
 
+  /** The searches parsed by this mapper, which are index-specific if there are templates */
+  private[this] val parsedSearches = if (templates.isEmpty) sharedParsedSearches else newCache
+
   /** Returns the first [[Search]] contained in the specified read command.
     *
     * @param command a command
     * @return the `string` JSON search represented by `command`
     * @throws IndexException if there is no such search
     */
-  def search(command: ReadCommand): Search = parse(json(command))
+  def search(command: ReadCommand): Search = search(json(command))
 
   /** Returns the [[Search]] represented by the specified CQL expression.
     *
@@ -59,7 +67,25 @@ case class ExpressionMapper(tableMetadata: CFMetaData, indexMetadata: IndexMetad
     * @return the `string` JSON search represented by `expression`
     * @throws IndexException if there is no such search
     */
-  def search(expression: Expression): Search = parse(json(expression))
+  def search(expression: Expression): Search = search(json(expression))
+
+  /** Returns the [[Search]] represented by the specified JSON, resolving its template, if any.
+    *
+    * @param json a JSON search
+    * @return the search represented by `json`
+    * @throws IndexException if the JSON is not a valid search
+    */
+  def search(json: String): Search = parse(json, templates, parsedSearches)
+
+  /** Returns the JSON search represented by the specified JSON search without its aggregations,
+    * resolving its template, if any.
+    *
+    * @param json a JSON search
+    * @return the JSON search without aggregations
+    */
+  def withoutAggregations(json: String): String = {
+    SearchBuilder.fromJson(json).resolve(templates.asJava).withoutAggregations.toJson
+  }
 
   /** Returns the first `string` JSON search contained in the specified read command.
     *
@@ -127,29 +153,96 @@ case class ExpressionMapper(tableMetadata: CFMetaData, indexMetadata: IndexMetad
     * @return a new decorated row
     */
   def decorate(row: Row, score: ScoreDoc, nowInSec: Int): Row = {
+    decorate(row, score.score.toString, nowInSec)
+  }
 
-    // Skip if there is no base column or score
+  /** Returns a new row decorating the specified row with the specified value in the index target
+    * column, replacing any previous value of that column.
+    *
+    * @param row      the row to be decorated
+    * @param value    the value of the target column
+    * @param nowInSec the operation time in seconds
+    * @return a new decorated row
+    */
+  def decorate(row: Row, value: String, nowInSec: Int): Row = {
+
+    // Skip if there is no base column
     if (columnDefinition.isEmpty) return row
 
     // Copy row
-    val builder = BTreeRow.unsortedBuilder(nowInSec)
-    builder.newRow(row.clustering())
-    builder.addRowDeletion(row.deletion)
-    builder.addPrimaryKeyLivenessInfo(row.primaryKeyLivenessInfo)
-    row.cells.forEach(builder addCell _)
+    val builder = copy(row, nowInSec)
 
-    // Add score cell
+    // Add value cell
     val timestamp = row.primaryKeyLivenessInfo.timestamp
-    val scoreCellValue = UTF8Type.instance.decompose(score.score.toString)
-    builder.addCell(BufferCell.live(tableMetadata, columnDefinition.get, timestamp, scoreCellValue))
+    val cellValue = UTF8Type.instance.decompose(value)
+    builder.addCell(BufferCell.live(tableMetadata, columnDefinition.get, timestamp, cellValue))
 
     builder.build
   }
+
+  /** Returns a copy of the specified row without any value in the index target column, together
+    * with that value, if any.
+    *
+    * @param row      the row to be undecorated
+    * @param nowInSec the operation time in seconds
+    * @return the undecorated row and the value of the index target column
+    */
+  def undecorate(row: Row, nowInSec: Int): (Row, Option[String]) = {
+    columnDefinition.flatMap(definition => Option(row.getCell(definition))) match {
+      case Some(cell) => (copy(row, nowInSec).build, Some(value(cell)))
+      case None => (row, None)
+    }
+  }
+
+  private[this] def value(cell: Cell): String = UTF8Type.instance.compose(cell.value)
+
+  private[this] def copy(row: Row, nowInSec: Int): Row.Builder = {
+    val builder = BTreeRow.unsortedBuilder(nowInSec)
+    builder.newRow(row.clustering())
+    builder.addRowDeletion(row.deletion)
+    builder.addPrimaryKeyLivenessInfo(row.primaryKeyLivenessInfo)
+    row.cells.forEach(cell => if (!columnDefinition.contains(cell.column)) builder.addCell(cell))
+    builder
+  }
 }
 
 /** Companion object for [[ExpressionMapper]]. */
 object ExpressionMapper {
 
-  def parse(json: String): Search = SearchBuilder.fromJson(json).build
+  /** The max number of JSON characters in the parsed searches cache. */
+  val PARSED_SEARCHES_CACHE_WEIGHT = 4 * 1024 * 1024
+
+  private def newCache: Cache[String, Search] = CacheBuilder.newBuilder
+    .maximumWeight(PARSED_SEARCHES_CACHE_WEIGHT)
+    .weigher(new Weigher[String, Search] {
+      override def weigh(json: String, search: Search): Int = json.length
+    })
+    .build[String, Search]
+
+  /** Searches already parsed from JSON, so they are not parsed again by each read command of the
+    * same query or by each of the replicas in the same node. Searches are immutable and don't
+    * depend on the index schema, so they can be shared by all the indexes without templates.
+    */
+  private val sharedParsedSearches = newCache
+
+  /** Returns the [[Search]] represented by the specified JSON, parsing it only if it is not
+    * already cached.
+    *
+    * @param json a JSON search
+    * @return the search represented by `json`
+    * @throws IndexException if the JSON is not a valid search
+    */
+  def parse(json: String): Search = parse(json, Map.empty, sharedParsedSearches)
+
+  private def parse(
+      json: String,
+      templates: Map[String, SearchTemplate],
+      cache: Cache[String, Search]): Search = {
+    Option(cache.getIfPresent(json)).getOrElse {
+      val search = SearchBuilder.fromJson(json).resolve(templates.asJava).build
+      cache.put(json, search)
+      search
+    }
+  }
 
 }
\ No newline at end of file
@@ -17,10 +17,17 @@ package com.stratio.cassandra.lucene.mapping
 
 import java.nio.ByteBuffer
 
+import com.stratio.cassandra.lucene.IndexException
 import com.stratio.cassandra.lucene.mapping.PartitionMapper._
+import com.stratio.cassandra.lucene.schema.Schema
+import com.stratio.cassandra.lucene.schema.mapping._
+import com.stratio.cassandra.lucene.search.Search
+import com.stratio.cassandra.lucene.search.condition.{Condition, ContainsCondition, MatchCondition}
 import com.stratio.cassandra.lucene.util.ByteBufferUtils
-import org.apache.cassandra.config.{CFMetaData, DatabaseDescriptor}
+import org.apache.cassandra.config.{CFMetaData, ColumnDefinition, DatabaseDescriptor}
 import org.apache.cassandra.db.DecoratedKey
+import org.apache.cassandra.db.marshal._
+import org.apache.cassandra.serializers.MarshalException
 import org.apache.lucene.document.{Document, Field, FieldType}
 import org.apache.lucene.index.{DocValuesType, IndexOptions, IndexableField, Term}
 import org.apache.lucene.search.FieldComparator.TermValComparator
@@ -28,6 +35,7 @@ import org.apache.lucene.search._
 import org.apache.lucene.util.BytesRef
 
 import scala.collection.JavaConverters._
+import scala.collection.mutable
 
 /** Class for several partition key mappings between Cassandra and Lucene.
   *
@@ -107,6 +115,45 @@ class PartitionMapper(metadata: CFMetaData) {
     new PartitionSort(this)
   }
 
+  /** Returns the partition keys fully determined by the specified search, if it only contains
+    * `match` and `contains` filters on all the partition key columns, so it can be solved by
+    * reading the partitions without searching the index.
+    *
+    * @param search the search
+    * @param schema the index schema
+    * @return the token-sorted partition keys matched by `search`, if they are fully determined
+    */
+  def keys(search: Search, schema: Schema): Option[List[DecoratedKey]] = {
+    if (!search.query.isEmpty || search.filter.isEmpty || search.usesSorting ||
+      search.usesAggregations || search.paging != null) return None
+    val values = mutable.Map.empty[ColumnDefinition, Set[ByteBuffer]]
+    for (condition <- search.filter.asScala) {
+      val (column, buffers) = this.values(condition, schema).getOrElse(return None)
+      values += column -> values.get(column).map(_.intersect(buffers)).getOrElse(buffers)
+    }
+    if (!partitionKeyColumns.forall(values.contains)) return None
+    if (partitionKeyColumns.map(values(_).size.toLong).product > MAX_KEYS) return None
+    val components = partitionKeyColumns.foldLeft(List(List.empty[ByteBuffer]))(
+      (keys, column) => for (key <- keys; value <- values(column).toList) yield key :+ value)
+    val keys = components.map(c => if (c.size == 1) c.head else CompositeType.build(c: _*))
+    Some(keys.map(partitioner.decorateKey).sortWith(_.compareTo(_) < 0))
+  }
+
+  private[this] def values(condition: Condition, schema: Schema)
+  : Option[(ColumnDefinition, Set[ByteBuffer])] = {
+    val (field, values) = condition match {
+      case c: MatchCondition => (c.field, List(c.value))
+      case c: ContainsCondition => (c.field, c.values.toList)
+      case _ => return None
+    }
+    schema.mapper(field) match {
+      case mapper: SingleColumnMapper[_] if mapper.field == field =>
+        partitionKeyColumns.find(_.name.toString == mapper.column).flatMap(column =>
+          decompose(mapper, column.`type`, values).map(buffers => (column, buffers)))
+      case _ => None
+    }
+  }
+
 }
 
 /** Companion object for [[PartitionMapper]]. */
@@ -123,6 +170,47 @@ object PartitionMapper {
   FIELD_TYPE.setStored(true)
   FIELD_TYPE.setDocValuesType(DocValuesType.SORTED)
   FIELD_TYPE.freeze()
+
+  /** The max number of partition keys to be read without searching the index. */
+  val MAX_KEYS = 1000
+
+  /** Returns if the specified mapper matches exactly the values of a column of the specified
+    * type, so each searched value identifies a single column value.
+    *
+    * @param mapper  a mapper
+    * @param cqlType the type of the column mapped by `mapper`
+    * @return `true` if `mapper` is exact for `cqlType`, `false` otherwise
+    */
+  def isExact(mapper: Mapper, cqlType: AbstractType[_]): Boolean = mapper match {
+    case m: StringMapper => m.caseSensitive && (cqlType == UTF8Type.instance ||
+      cqlType == AsciiType.instance)
+    case _: IntegerMapper => cqlType == Int32Type.instance
+    case _: LongMapper => cqlType == LongType.instance
+    case _: UUIDMapper => cqlType == UUIDType.instance || cqlType == TimeUUIDType.instance
+    case _ => false
+  }
+
+  /** Returns the column values identified by the specified searched values, if the mapper is
+    * exact and all the values can be converted to the column type without loss.
+    *
+    * @param mapper  the mapper of the column
+    * @param cqlType the type of the column
+    * @param values  the searched values
+    * @return the serialized column values, if they are fully determined
+    */
+  def decompose(mapper: SingleColumnMapper[_], cqlType: AbstractType[_], values: List[AnyRef])
+  : Option[Set[ByteBuffer]] = {
+    if (!isExact(mapper, cqlType)) return None
+    val buffers = values.map(value => try {
+      val bb = cqlType.fromString(value.toString)
+      val expected = mapper.base(mapper.field, value)
+      val actual = mapper.base(mapper.field, cqlType.compose(bb).asInstanceOf[AnyRef])
+      if (actual == expected) Some(bb) else None
+    } catch {
+      case _: MarshalException | _: IndexException => None
+    })
+    if (buffers.contains(None)) None else Some(buffers.flatten.toSet)
+  }
 }
 
 /** [[SortField]] to sort by partition key.
@@ -0,0 +1,252 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import java.io.ByteArrayOutputStream
+
+import com.google.common.base.MoreObjects
+import com.stratio.cassandra.lucene.mapping.SortKeyMapper._
+import com.stratio.cassandra.lucene.util.ByteComparable
+import org.apache.cassandra.config.CFMetaData
+import org.apache.cassandra.db.ClusteringPrefix.Kind._
+import org.apache.cassandra.db._
+import org.apache.cassandra.db.filter.ClusteringIndexSliceFilter
+import org.apache.cassandra.utils.FastByteOperations.compareUnsigned
+import org.apache.lucene.document.{Field, FieldType}
+import org.apache.lucene.index.FilteredTermsEnum.AcceptStatus
+import org.apache.lucene.index._
+import org.apache.lucene.search.BooleanClause.Occur.SHOULD
+import org.apache.lucene.search.{BooleanQuery, MultiTermQuery, Query, SortField}
+import org.apache.lucene.util.{AttributeSource, BytesRef}
+
+import scala.collection.JavaConverters._
+
+/** Class for mapping primary keys to an order-preserving binary representation composed by the
+  * token collation, the partition key and the clustering key, so documents can be sorted by
+  * primary key with plain byte comparisons, and primary key ranges can be searched by seeking in
+  * the terms dictionary.
+  *
+  * @param metadata the indexed table metadata
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class SortKeyMapper(val metadata: CFMetaData) {
+
+  val keyValidator = metadata.getKeyValidator
+  val clusteringTypes = metadata.comparator.subtypes.asScala.toList
+
+  /** Returns the order-preserving binary representation of the specified primary key.
+    *
+    * @param key        the partition key
+    * @param clustering the clustering key
+    * @return the binary representation of the primary key
+    */
+  def bytesRef(key: DecoratedKey, clustering: Clustering): BytesRef = {
+    new BytesRef(bytes(key) ++ bytes(clustering))
+  }
+
+  /** Returns the order-preserving binary representation of the specified partition key, which is
+    * a prefix of the representation of all the primary keys in the partition.
+    *
+    * @param key the partition key
+    * @return the binary representation of the partition key
+    */
+  def bytes(key: DecoratedKey): Array[Byte] = {
+    val out = new ByteArrayOutputStream
+    out.write(ClusteringMapper.prefix(key.getToken))
+    ByteComparable.write(keyValidator, key.getKey, out)
+    out.toByteArray
+  }
+
+  /** Returns the order-preserving binary representation of the specified clustering prefix.
+    *
+    * @param prefix a clustering key or clustering bound
+    * @return the binary representation of the clustering prefix
+    */
+  def bytes(prefix: ClusteringPrefix): Array[Byte] = {
+    val out = new ByteArrayOutputStream
+    for (i <- 0 until prefix.size) {
+      ByteComparable.write(clusteringTypes(i), prefix.get(i), out)
+    }
+    out.toByteArray
+  }
+
+  /** Returns the Lucene [[IndexableField]] representing the specified primary key.
+    *
+    * @param key        the partition key
+    * @param clustering the clustering key
+    * @return a indexable field
+    */
+  def indexableField(key: DecoratedKey, clustering: Clustering): IndexableField = {
+    new Field(FIELD_NAME, bytesRef(key, clustering), FIELD_TYPE)
+  }
+
+  /** Returns a Lucene [[SortField]] to sort documents by primary key.
+    *
+    * @return the sort field
+    */
+  def sortField: SortField = {
+    new SortField(FIELD_NAME, SortField.Type.STRING)
+  }
+
+  /** Returns a Lucene [[Query]] to retrieve all the rows in the specified partition slice.
+    *
+    * @param key   the partition key
+    * @param start the start clustering prefix
+    * @param stop  the stop clustering prefix
+    * @return the Lucene query
+    */
+  def query(key: DecoratedKey, start: Option[ClusteringPrefix], stop: Option[ClusteringPrefix])
+  : Query = {
+    new SortKeyRangeQuery(this, key, start, stop)
+  }
+
+  /** Returns a Lucene [[Query]] to retrieve all the rows in the specified clustering slice.
+    *
+    * @param key   the partition key
+    * @param slice the slice
+    * @return the Lucene query
+    */
+  def query(key: DecoratedKey, slice: Slice): Query = {
+    query(key, Option(slice.start), Option(slice.end))
+  }
+
+  /** Returns a Lucene [[Query]] to retrieve all the rows in the specified clustering slice filter.
+    *
+    * @param key    the partition key
+    * @param filter the slice filter
+    * @return the Lucene query
+    */
+  def query(key: DecoratedKey, filter: ClusteringIndexSliceFilter): Query = {
+    (new BooleanQuery.Builder /: filter.requestedSlices.asScala) (
+      (builder, slice) => builder.add(query(key, slice), SHOULD)).build()
+  }
+
+}
+
+/** Companion object for [[SortKeyMapper]]. */
+object SortKeyMapper {
+
+  /** The Lucene field name. */
+  val FIELD_NAME = "_sort_key"
+
+  /** The Lucene field type. */
+  val FIELD_TYPE = new FieldType
+  FIELD_TYPE.setOmitNorms(true)
+  FIELD_TYPE.setIndexOptions(IndexOptions.DOCS)
+  FIELD_TYPE.setTokenized(false)
+  FIELD_TYPE.setStored(false)
+  FIELD_TYPE.setDocValuesType(DocValuesType.SORTED)
+  FIELD_TYPE.freeze()
+
+  /** Returns the smallest byte array that is greater than all the byte arrays starting with the
+    * specified prefix, if any.
+    *
+    * @param prefix a byte array prefix
+    * @return the successor of all the byte arrays starting with `prefix`
+    */
+  def successor(prefix: Array[Byte]): Option[Array[Byte]] = {
+    val length = prefix.lastIndexWhere(_ != 0xFF.toByte) + 1
+    if (length == 0) None else {
+      val bytes = prefix.take(length)
+      bytes(length - 1) = (bytes(length - 1) + 1).toByte
+      Some(bytes)
+    }
+  }
+
+  /** Returns if the primary key of the specified table can be mapped.
+    *
+    * @param metadata the table metadata
+    * @return `true` if the primary key can be mapped, `false` otherwise
+    */
+  def supports(metadata: CFMetaData): Boolean = {
+    ByteComparable.supports(metadata.getKeyValidator) &&
+      metadata.comparator.subtypes.asScala.forall(ByteComparable.supports(_))
+  }
+
+}
+
+/** [[MultiTermQuery]] to get a range of primary keys inside a partition. It seeks directly to the
+  * start of the range and stops at its end, without decoding any term.
+  *
+  * @param mapper the sort key mapper to be used
+  * @param key    the partition key
+  * @param start  the start clustering
+  * @param stop   the stop clustering
+  */
+class SortKeyRangeQuery(
+    val mapper: SortKeyMapper,
+    val key: DecoratedKey,
+    val start: Option[ClusteringPrefix],
+    val stop: Option[ClusteringPrefix]) extends MultiTermQuery(FIELD_NAME) {
+
+  private[this] val partition = mapper.bytes(key)
+  private[this] val lower = partition ++ start.map(mapper.bytes).getOrElse(Array.empty[Byte])
+  private[this] val upper = partition ++ stop.map(mapper.bytes).getOrElse(Array.empty[Byte])
+  private[this] val lowerExclusive = start.exists(prefix =>
+    prefix.kind == EXCL_START_BOUND || prefix.kind == INCL_END_EXCL_START_BOUNDARY)
+  private[this] val upperExclusive = stop.exists(prefix =>
+    prefix.kind == EXCL_END_BOUND || prefix.kind == EXCL_END_INCL_START_BOUNDARY)
+
+  /** @inheritdoc */
+  override def getTermsEnum(terms: Terms, attributes: AttributeSource): TermsEnum = {
+    new SortKeyRangeTermsEnum(terms.iterator)
+  }
+
+  /** Important to avoid collisions in Lucene's query cache. */
+  override def equals(o: Any): Boolean = o match {
+    case q: SortKeyRangeQuery =>
+      super.equals(q) && key == q.key && start == q.start && stop == q.stop
+    case _ => false
+  }
+
+  /** Important to avoid collisions in Lucene's query cache. */
+  override def hashCode: Int = {
+    var result = super.hashCode
+    result = 31 * result + key.hashCode
+    result = 31 * result + start.map(_.hashCode).getOrElse(0)
+    result = 31 * result + stop.map(_.hashCode).getOrElse(0)
+    result
+  }
+
+  /** @inheritdoc */
+  override def toString(field: String): String = {
+    val fieldName = if (field.isEmpty) FIELD_NAME else field
+    MoreObjects.toStringHelper(this)
+      .add("field", fieldName)
+      .add("key", key)
+      .add("start", start.map(_.toString(mapper.metadata)).orNull)
+      .add("stop", stop.map(_.toString(mapper.metadata)).orNull)
+      .toString
+  }
+
+  class SortKeyRangeTermsEnum(tenum: TermsEnum) extends FilteredTermsEnum(tenum) {
+
+    /** @inheritdoc */
+    override def nextSeekTerm(currentTerm: BytesRef): BytesRef = {
+      if (currentTerm != null) null
+      else if (lowerExclusive) successor(lower).map(new BytesRef(_)).orNull
+      else new BytesRef(lower)
+    }
+
+    /** @inheritdoc */
+    override def accept(term: BytesRef): AcceptStatus = {
+      val length = Math.min(term.length, upper.length)
+      val comp = compareUnsigned(term.bytes, term.offset, length, upper, 0, upper.length)
+      if (comp < 0 || (comp == 0 && !upperExclusive)) AcceptStatus.YES else AcceptStatus.END
+    }
+  }
+
+}
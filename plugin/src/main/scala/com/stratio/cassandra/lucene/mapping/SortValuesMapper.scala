@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import com.stratio.cassandra.lucene.column.Columns
+import com.stratio.cassandra.lucene.mapping.SortValuesMapper._
+import com.stratio.cassandra.lucene.schema.Schema
+import com.stratio.cassandra.lucene.search.Search
+import org.apache.cassandra.config.CFMetaData
+import org.apache.cassandra.db.{Clustering, ClusteringComparator, DecoratedKey}
+import org.apache.lucene.index.{DocValuesType, IndexableField}
+import org.apache.lucene.search._
+import org.apache.lucene.util.BytesRef
+
+import scala.collection.JavaConverters._
+
+/** Class for getting the values of the Lucene sort fields of a search directly from the columns of
+  * a row, so rows can be sorted without indexing them. Values are taken from the same doc values
+  * fields that the schema mappers generate during indexing, so the resulting order is the same as
+  * the one given by Lucene, followed by the Cassandra's natural order of primary keys.
+  *
+  * @param schema     the indexing schema
+  * @param comparator the clustering key comparator of the indexed table
+  * @param sortFields the Lucene sort fields, which should be supported
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class SortValuesMapper(
+    schema: Schema,
+    comparator: ClusteringComparator,
+    sortFields: List[SortField]) {
+
+  private[this] val comparators = sortFields.map(valuesComparator).toArray
+
+  /** The ordering of the sort values, from the best to the worst. */
+  val ordering: Ordering[SortValues] = new Ordering[SortValues] {
+    override def compare(x: SortValues, y: SortValues): Int = {
+      for (i <- comparators.indices) {
+        val comp = comparators(i)(x.values(i), y.values(i))
+        if (comp != 0) return comp
+      }
+      val comp = x.key.compareTo(y.key)
+      if (comp != 0) comp else comparator.compare(x.clustering, y.clustering)
+    }
+  }
+
+  /** Returns the sort values of the specified row.
+    *
+    * @param key        the partition key
+    * @param clustering the clustering key
+    * @param columns    the mapped columns of the row
+    * @return the sort values of the row
+    */
+  def values(key: DecoratedKey, clustering: Clustering, columns: Columns): SortValues = {
+    SortValues(key, clustering, sortFields.map(value(_, columns)).toArray)
+  }
+
+  private[this] def value(sortField: SortField, columns: Columns): Any = {
+    val fields = docValues(sortField.getField, columns)
+    sortField match {
+      case _: SortedSetSortField =>
+        fields.map(_.binaryValue).reduceOption((a, b) => if (a.compareTo(b) <= 0) a else b)
+      case _ =>
+        fields.map(_.numericValue.longValue).reduceOption(Math.min).getOrElse(0L)
+    }
+  }
+
+  private[this] def docValues(field: String, columns: Columns): Seq[IndexableField] = {
+    Option(schema.mapper(field)).toSeq
+      .flatMap(_.bestEffortIndexableFields(columns).asScala)
+      .filter(f => f.name == field && f.fieldType.docValuesType != DocValuesType.NONE)
+  }
+
+}
+
+/** Companion object for [[SortValuesMapper]]. */
+object SortValuesMapper {
+
+  /** The sort values of a row.
+    *
+    * @param key        the partition key
+    * @param clustering the clustering key
+    * @param values     the values of each sort field
+    */
+  case class SortValues(key: DecoratedKey, clustering: Clustering, values: Array[Any])
+
+  /** Returns a [[SortValuesMapper]] for the specified search, if its sorting can be done without
+    * indexing the rows. Relevance requires term statistics, and sort fields computed from value
+    * sources, such as the geo distance ones, can't be taken from doc values.
+    *
+    * @param schema   the indexing schema
+    * @param metadata the indexed table metadata
+    * @param search   the search defining the ordering
+    * @return a sort values mapper for `search`, if it is supported
+    */
+  def apply(schema: Schema, metadata: CFMetaData, search: Search): Option[SortValuesMapper] = {
+    if (search.usesRelevance) return None
+    val sortFields = search.sortFields(schema).asScala.toList
+    if (!sortFields.forall(supports)) None
+    else Some(new SortValuesMapper(schema, metadata.comparator, sortFields))
+  }
+
+  /** Returns if the values of the specified Lucene sort field can be taken from its doc values.
+    *
+    * @param sortField a Lucene sort field
+    * @return `true` if `sortField` is supported, `false` otherwise
+    */
+  def supports(sortField: SortField): Boolean = sortField match {
+    case f: SortedSetSortField => f.getSelector == SortedSetSelector.Type.MIN
+    case f: SortedNumericSortField =>
+      f.getSelector == SortedNumericSelector.Type.MIN && f.getMissingValue == null
+    case _ => false
+  }
+
+  private def valuesComparator(sortField: SortField): (Any, Any) => Int = {
+    val reverse = if (sortField.getReverse) -1 else 1
+    sortField match {
+      case _: SortedSetSortField =>
+        val missing = if (sortField.getMissingValue == SortField.STRING_LAST) 1 else -1
+        (a, b) => reverse * ((a, b) match {
+          case (Some(x: BytesRef), Some(y: BytesRef)) => x.compareTo(y)
+          case (None, None) => 0
+          case (None, _) => missing
+          case (_, None) => -missing
+        })
+      case _ =>
+        (a, b) => reverse * java.lang.Long.compare(a.asInstanceOf[Long], b.asInstanceOf[Long])
+    }
+  }
+
+}
@@ -15,13 +15,15 @@
  */
 package com.stratio.cassandra.lucene.mapping
 
+import com.google.common.base.MoreObjects
 import com.stratio.cassandra.lucene.IndexException
 import com.stratio.cassandra.lucene.mapping.TokenMapper._
+import com.stratio.cassandra.lucene.util.Tracing
 import org.apache.cassandra.config.DatabaseDescriptor
 import org.apache.cassandra.db.DecoratedKey
 import org.apache.cassandra.dht.{Murmur3Partitioner, Token}
 import org.apache.lucene.document.{FieldType, LongField}
-import org.apache.lucene.index.{DocValuesType, IndexOptions, IndexableField, Term}
+import org.apache.lucene.index._
 import org.apache.lucene.search._
 import org.apache.lucene.util.{BytesRef, BytesRefBuilder, NumericUtils}
 
@@ -75,12 +77,8 @@ class TokenMapper {
     val min: java.lang.Long = if (lower.isMinimum) Long.MinValue else longValue(lower)
     val max: java.lang.Long = if (upper.isMinimum) Long.MaxValue else longValue(upper)
 
-    // Do query using doc values or inverted index depending on empirical heuristic
-    if (max / 10 - min / 10 > 1222337203685480000L) {
-      Some(DocValuesRangeQuery.newLongRange(FIELD_NAME, min, max, includeLower, includeUpper))
-    } else {
-      Some(NumericRangeQuery.newLongRange(FIELD_NAME, min, max, includeLower, includeUpper))
-    }
+    // Do query using doc values or inverted index depending on each segment statistics
+    Some(new TokenRangeQuery(min, max, includeLower, includeUpper))
   }
 
   /** Returns a Lucene query to find the documents containing the specified token.
@@ -109,6 +107,30 @@ object TokenMapper {
   FIELD_TYPE.setDocValuesType(DocValuesType.NUMERIC)
   FIELD_TYPE.freeze()
 
+  /** The minimum fraction of the token range of a segment that must be covered by a token range
+    * query to be solved with doc values instead of with the inverted index.
+    */
+  val DOC_VALUES_MIN_COVERAGE = 0.66
+
+  /** Returns the estimated fraction of the documents of a segment containing tokens in the
+    * specified range, assuming that tokens are uniformly distributed along the segment token range.
+    *
+    * @param min        the lower token of the range
+    * @param max        the upper token of the range
+    * @param segmentMin the minimum token in the segment
+    * @param segmentMax the maximum token in the segment
+    * @return the covered fraction of the segment, between `0` and `1`
+    */
+  def coverage(min: Long, max: Long, segmentMin: Long, segmentMax: Long): Double = {
+    if (max < segmentMin || min > segmentMax) 0
+    else if (min <= segmentMin && max >= segmentMax) 1
+    else {
+      val overlap = Math.min(max, segmentMax).toDouble - Math.max(min, segmentMin).toDouble
+      val span = segmentMax.toDouble - segmentMin.toDouble
+      Math.min(1, (overlap + 1) / (span + 1))
+    }
+  }
+
   /** Returns the `Long` value of the specified Murmur3 partitioning [[Token]].
     *
     * @param token a Murmur3 token
@@ -130,3 +152,102 @@ object TokenMapper {
     bytesRefBuilder.get
   }
 }
+
+/** [[Query]] to find the documents containing a token inside a token range. The range is solved
+  * with doc values or with the inverted index depending on the estimated number of documents of
+  * each segment matching the range, according to the segment's min and max indexed tokens.
+  *
+  * @param min          the lower token
+  * @param max          the upper token
+  * @param includeLower if the lower token should be included
+  * @param includeUpper if the upper token should be included
+  */
+class TokenRangeQuery(
+    val min: Long,
+    val max: Long,
+    val includeLower: Boolean,
+    val includeUpper: Boolean) extends Query with Tracing {
+
+  private[this] val docValuesQuery =
+    DocValuesRangeQuery.newLongRange(FIELD_NAME, min, max, includeLower, includeUpper)
+
+  private[this] val invertedIndexQuery =
+    NumericRangeQuery.newLongRange(FIELD_NAME, min, max, includeLower, includeUpper)
+
+  /** @inheritdoc */
+  override def createWeight(searcher: IndexSearcher, needsScores: Boolean): Weight = {
+    lazy val docValuesWeight = searcher.createNormalizedWeight(docValuesQuery, false)
+    lazy val invertedIndexWeight = searcher.createNormalizedWeight(invertedIndexQuery, false)
+    new ConstantScoreWeight(this) {
+
+      /** @inheritdoc */
+      override def scorer(context: LeafReaderContext): Scorer = {
+        val terms = context.reader.terms(FIELD_NAME)
+        if (terms == null) return null
+        val segmentMin = NumericUtils.getMinLong(terms)
+        val segmentMax = NumericUtils.getMaxLong(terms)
+        val segmentCoverage = coverage(min, max, segmentMin, segmentMax)
+        val maxDoc = context.reader.maxDoc
+        if (segmentCoverage == 0) {
+          tracer.trace(s"Lucene token range skipping segment ${context.ord}")
+          null
+        } else if (contains(segmentMin, segmentMax)) {
+          tracer.trace(s"Lucene token range matching all $maxDoc docs of segment ${context.ord}")
+          new ConstantScoreScorer(this, score, DocIdSetIterator.all(maxDoc))
+        } else if (segmentCoverage >= DOC_VALUES_MIN_COVERAGE) {
+          tracer.trace(s"Lucene token range using doc values in segment ${context.ord} " +
+            f"with $maxDoc docs and ${segmentCoverage * 100}%.1f%% estimated coverage")
+          constantScore(docValuesWeight.scorer(context))
+        } else {
+          tracer.trace(s"Lucene token range using inverted index in segment ${context.ord} " +
+            f"with $maxDoc docs and ${segmentCoverage * 100}%.1f%% estimated coverage")
+          constantScore(invertedIndexWeight.scorer(context))
+        }
+      }
+
+      private[this] def constantScore(scorer: Scorer): Scorer = {
+        if (scorer == null) return null
+        val twoPhase = scorer.asTwoPhaseIterator
+        if (twoPhase == null) new ConstantScoreScorer(this, score, scorer)
+        else new ConstantScoreScorer(this, score, twoPhase)
+      }
+    }
+  }
+
+  private[this] def contains(segmentMin: Long, segmentMax: Long): Boolean = {
+    (if (includeLower) segmentMin >= min else segmentMin > min) &&
+      (if (includeUpper) segmentMax <= max else segmentMax < max)
+  }
+
+  /** Important to avoid collisions in Lucene's query cache. */
+  override def equals(o: Any): Boolean = o match {
+    case q: TokenRangeQuery =>
+      super.equals(q) &&
+        min == q.min &&
+        max == q.max &&
+        includeLower == q.includeLower &&
+        includeUpper == q.includeUpper
+    case _ => false
+  }
+
+  /** Important to avoid collisions in Lucene's query cache. */
+  override def hashCode: Int = {
+    var result = super.hashCode
+    result = 31 * result + min.hashCode
+    result = 31 * result + max.hashCode
+    result = 31 * result + includeLower.hashCode
+    result = 31 * result + includeUpper.hashCode
+    result
+  }
+
+  /** @inheritdoc */
+  override def toString(field: String): String = {
+    MoreObjects.toStringHelper(this)
+      .add("min", min)
+      .add("max", max)
+      .add("includeLower", includeLower)
+      .add("includeUpper", includeUpper)
+      .toString
+  }
+
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util
+
+import java.io.ByteArrayOutputStream
+import java.nio.ByteBuffer
+
+import org.apache.cassandra.db.marshal._
+
+import scala.collection.JavaConverters._
+
+/** Order-preserving binary encoding of Cassandra values, so that the unsigned lexicographical
+  * order of the encoded bytes is the same as the order defined by the Cassandra type.
+  *
+  * Each value is preceded by a byte indicating if it is empty, so empty values always come first,
+  * even for reversed types. Variable length values are escaped and terminated, so the encodings
+  * are prefix-free and can be concatenated to build composite values.
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+object ByteComparable {
+
+  private[this] val EMPTY: Byte = 0x00
+  private[this] val NOT_EMPTY: Byte = 0x01
+  private[this] val ESCAPE: Byte = 0x00
+  private[this] val ESCAPED: Byte = 0xFF.toByte
+  private[this] val TERMINATOR: Byte = 0x00
+
+  private[this] val SIGNED_TYPES: Set[AbstractType[_]] = Set(
+    ByteType.instance,
+    ShortType.instance,
+    Int32Type.instance,
+    LongType.instance,
+    TimestampType.instance)
+
+  private[this] val FLOATING_POINT_TYPES: Set[AbstractType[_]] = Set(
+    FloatType.instance,
+    DoubleType.instance)
+
+  /** Returns if the specified type can be encoded.
+    *
+    * @param t a Cassandra type
+    * @return `true` if `t` can be encoded, `false` otherwise
+    */
+  def supports(t: AbstractType[_]): Boolean = t match {
+    case r: ReversedType[_] => supports(r.baseType)
+    case c: CompositeType => c.types.asScala.forall(supports)
+    case _ => t.isByteOrderComparable || SIGNED_TYPES(t) || FLOATING_POINT_TYPES(t)
+  }
+
+  /** Returns the encoding of the specified value of the specified type.
+    *
+    * @param t     the type of the value
+    * @param value the value to be encoded
+    * @return the encoded value
+    */
+  def encode(t: AbstractType[_], value: ByteBuffer): Array[Byte] = {
+    val out = new ByteArrayOutputStream
+    write(t, value, out)
+    out.toByteArray
+  }
+
+  /** Writes the encoding of the specified value of the specified type.
+    *
+    * @param t     the type of the value
+    * @param value the value to be encoded
+    * @param out   the output stream where the encoded value will be written
+    */
+  def write(t: AbstractType[_], value: ByteBuffer, out: ByteArrayOutputStream): Unit = t match {
+    case c: CompositeType =>
+      val components = c.split(value)
+      c.types.asScala.indices.foreach(i =>
+        write(c.types.get(i), if (i < components.length) components(i) else null, out))
+    case _ if value == null || !value.hasRemaining =>
+      out.write(EMPTY)
+    case r: ReversedType[_] =>
+      encode(r.baseType, value).foreach(b => out.write(~b))
+    case _ if SIGNED_TYPES(t) =>
+      out.write(NOT_EMPTY)
+      writeSigned(value, out)
+    case _ if FLOATING_POINT_TYPES(t) =>
+      out.write(NOT_EMPTY)
+      writeFloatingPoint(t, value, out)
+    case _ =>
+      out.write(NOT_EMPTY)
+      writeEscaped(value, out)
+  }
+
+  private[this] def writeSigned(value: ByteBuffer, out: ByteArrayOutputStream) {
+    val position = value.position
+    out.write(value.get(position) ^ 0x80)
+    for (i <- position + 1 until value.limit) out.write(value.get(i))
+  }
+
+  private[this] def writeFloatingPoint(
+      t: AbstractType[_],
+      value: ByteBuffer,
+      out: ByteArrayOutputStream) {
+    val (bits, size) = t match {
+      case _: FloatType =>
+        val floatBits = java.lang.Float.floatToIntBits(FloatType.instance.compose(value))
+        (floatBits.toLong << 32, 4)
+      case _ => (java.lang.Double.doubleToLongBits(DoubleType.instance.compose(value)), 8)
+    }
+    val collated = if (bits < 0) ~bits else bits ^ Long.MinValue
+    (0 until size).foreach(i => out.write((collated >>> (56 - 8 * i)).toInt))
+  }
+
+  private[this] def writeEscaped(value: ByteBuffer, out: ByteArrayOutputStream) {
+    for (i <- value.position until value.limit) {
+      val b = value.get(i)
+      out.write(b)
+      if (b == ESCAPE) out.write(ESCAPED)
+    }
+    out.write(TERMINATOR)
+    out.write(TERMINATOR)
+  }
+
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util
+
+import java.util.concurrent._
+import java.util.{ArrayList, Collections, List => JList}
+
+import scala.collection.mutable
+
+/** Utilities to run tasks concurrently.
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+object ConcurrentTasks {
+
+  /** Runs the specified tasks in the specified executor, keeping at most the specified number of
+    * them in flight, and returns their results in the same order as the tasks, no matter the
+    * order in which they finish. If a task fails or no task finishes within the timeout, the
+    * running tasks are interrupted and the queued ones are cancelled.
+    *
+    * @param executor    the executor running the tasks
+    * @param tasks       the tasks to be run
+    * @param concurrency the max number of tasks in flight
+    * @param timeout     the max time to wait for the next task to finish, in milliseconds
+    * @return the results of the tasks, in the same order as `tasks`
+    */
+  @throws[ExecutionException]
+  @throws[InterruptedException]
+  @throws[TimeoutException]
+  def execute[A](
+      executor: ExecutorService,
+      tasks: JList[Callable[A]],
+      concurrency: Int,
+      timeout: Long): JList[A] = {
+    val service = new ExecutorCompletionService[(Int, A)](executor)
+    val futures = mutable.ListBuffer.empty[Future[(Int, A)]]
+    val results = new ArrayList[A](Collections.nCopies(tasks.size, null.asInstanceOf[A]))
+    var next = 0
+    var pending = 0
+    try {
+      while (next < tasks.size || pending > 0) {
+
+        // Keep the max number of tasks in flight
+        while (next < tasks.size && pending < concurrency) {
+          val i = next
+          futures += service.submit(() => (i, tasks.get(i).call()))
+          next += 1
+          pending += 1
+        }
+
+        // Collect the first finished task
+        val future = service.poll(timeout, TimeUnit.MILLISECONDS)
+        if (future == null) {
+          throw new TimeoutException(s"No task finished in $timeout ms, $pending pending")
+        }
+        val (i, result) = future.get
+        results.set(i, result)
+        pending -= 1
+      }
+    } finally futures.foreach(_.cancel(true))
+    results
+  }
+
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util
+
+import org.apache.cassandra.config.CFMetaData
+import org.apache.cassandra.db.partitions.{PartitionUpdate, UnfilteredPartitionIterator}
+import org.apache.cassandra.db.rows.{Row, UnfilteredRowIterator}
+
+import scala.collection.JavaConverters._
+
+/** [[UnfilteredPartitionIterator]] returning only the first row with live data of another
+  * iterator, decorated with the specified function. The rest of rows are not read.
+  *
+  * @param iterator  the iterator to be decorated
+  * @param decorator a function to decorate the first live row
+  * @param nowInSec  the operation time in seconds
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+class FirstRowPartitionIterator(
+    iterator: UnfilteredPartitionIterator,
+    decorator: Row => Row,
+    nowInSec: Int)
+  extends UnfilteredPartitionIterator {
+
+  private[this] var nextData: Option[UnfilteredRowIterator] = None
+  private[this] var found = false
+
+  /** @inheritdoc */
+  override def isForThrift: Boolean = iterator.isForThrift
+
+  /** @inheritdoc */
+  override def metadata: CFMetaData = iterator.metadata
+
+  /** @inheritdoc */
+  override def hasNext: Boolean = {
+    while (nextData.isEmpty && !found && iterator.hasNext) {
+      val partition = iterator.next()
+      try {
+        val key = partition.partitionKey
+        partition.asScala.collectFirst { case row: Row if row.hasLiveData(nowInSec) => row }
+          .foreach(row => {
+            nextData = Some(PartitionUpdate.singleRowUpdate(metadata, key, decorator(row))
+              .unfilteredIterator)
+            found = true
+          })
+      } finally partition.close()
+    }
+    nextData.isDefined
+  }
+
+  /** @inheritdoc */
+  override def next(): UnfilteredRowIterator = {
+    if (!hasNext) throw new NoSuchElementException
+    val result = nextData.get
+    nextData = None
+    result
+  }
+
+  /** @inheritdoc */
+  override def remove() = {
+    throw new UnsupportedOperationException
+  }
+
+  /** @inheritdoc */
+  override def close() = {
+    iterator.close()
+  }
+}
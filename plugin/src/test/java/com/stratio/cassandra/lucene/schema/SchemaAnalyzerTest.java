@@ -17,14 +17,23 @@ package com.stratio.cassandra.lucene.schema;
 
 import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.mapping.Mapper;
+import com.stratio.cassandra.lucene.schema.mapping.PrefixIndex;
+import com.stratio.cassandra.lucene.schema.mapping.ReverseIndex;
 import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
 import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.stratio.cassandra.lucene.schema.SchemaBuilders.stringMapper;
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.textMapper;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
@@ -60,6 +69,56 @@ public class SchemaAnalyzerTest {
         schemaAnalyzer.getAnalyzer("failing");
     }
 
+    @Test
+    public void testGetDerivedAnalyzer() throws IOException {
+        Analyzer defaultAnalyzer = new EnglishAnalyzer();
+        Map<String, Mapper> mappers = new HashMap<>();
+        mappers.put("keyword", stringMapper().prefixIndex(true).prefixMaxLength(3).build("keyword"));
+        mappers.put("text", textMapper().prefixIndex(true).prefixMaxLength(3).build("text"));
+        Map<String, Analyzer> analyzers = new HashMap<>();
+        SchemaAnalyzer schemaAnalyzer = new SchemaAnalyzer(defaultAnalyzer, analyzers, mappers);
+        assertEquals("Derived analyzer is wrong",
+                     Arrays.asList("H", "Ho", "Hou"),
+                     tokens(schemaAnalyzer, "keyword" + PrefixIndex.SUFFIX, "Houses"));
+        assertEquals("Derived analyzer is wrong",
+                     Arrays.asList("H", "Ho", "Hou"),
+                     tokens(schemaAnalyzer, "keyword$key" + PrefixIndex.SUFFIX, "Houses"));
+        assertEquals("Derived analyzer is wrong",
+                     Arrays.asList("h", "ho", "hou", "c", "ca", "cat"),
+                     tokens(schemaAnalyzer, "text" + PrefixIndex.SUFFIX, "Houses Cats"));
+        assertEquals("Analyzer is wrong",
+                     Arrays.asList("hous", "cat"),
+                     tokens(schemaAnalyzer, "text", "Houses Cats"));
+    }
+
+    @Test
+    public void testGetReverseAnalyzer() throws IOException {
+        Analyzer defaultAnalyzer = new EnglishAnalyzer();
+        Map<String, Mapper> mappers = new HashMap<>();
+        mappers.put("keyword", stringMapper().prefixIndex(true).reverseIndex(true).build("keyword"));
+        mappers.put("text", textMapper().reverseIndex(true).build("text"));
+        SchemaAnalyzer schemaAnalyzer = new SchemaAnalyzer(defaultAnalyzer, new HashMap<>(), mappers);
+        assertEquals("Derived analyzer is wrong",
+                     Arrays.asList("sesuoH"),
+                     tokens(schemaAnalyzer, "keyword" + ReverseIndex.SUFFIX, "Houses"));
+        assertEquals("Derived analyzer is wrong",
+                     Arrays.asList("suoh", "tac"),
+                     tokens(schemaAnalyzer, "text" + ReverseIndex.SUFFIX, "Houses Cats"));
+    }
+
+    private static List<String> tokens(Analyzer analyzer, String field, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
     @Test
     public void testStaticGetAnalyzer() {
         Analyzer expectedAnalyzer = new EnglishAnalyzer();
@@ -315,7 +315,15 @@ public class GeoPointMapperTest extends AbstractMapperTest {
         GeoPointMapper mapper = geoPointMapper("lat", "lon").maxLevels(10).build("field");
         Columns columns = Columns.empty().add("lat", 20).add("lon", "30");
         List<IndexableField> fields = mapper.indexableFields(columns);
-        assertEquals("Fields are not properly created", 2, fields.size());
+        assertEquals("Fields are not properly created", 4, fields.size());
+        assertEquals("Latitude field name is wrong", "field#latitude", fields.get(2).name());
+        assertEquals("Latitude field value is wrong", 20D, decode(fields.get(2)), 0);
+        assertEquals("Longitude field name is wrong", "field#longitude", fields.get(3).name());
+        assertEquals("Longitude field value is wrong", 30D, decode(fields.get(3)), 0);
+    }
+
+    private static double decode(IndexableField field) {
+        return Double.longBitsToDouble(field.numericValue().longValue());
     }
 
     @Test
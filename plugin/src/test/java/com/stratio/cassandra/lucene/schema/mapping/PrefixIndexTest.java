@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import com.stratio.cassandra.lucene.IndexException;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class PrefixIndexTest {
+
+    static List<String> tokens(Analyzer analyzer, String field, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(field, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+
+    @Test
+    public void testBuildDefaults() {
+        PrefixIndex prefixIndex = new PrefixIndex(null, null);
+        assertEquals("Min length is wrong", PrefixIndex.DEFAULT_MIN_LENGTH, prefixIndex.minLength);
+        assertEquals("Max length is wrong", PrefixIndex.DEFAULT_MAX_LENGTH, prefixIndex.maxLength);
+    }
+
+    @Test
+    public void testBuildDisabled() {
+        assertNull("Prefix index should not be built", PrefixIndex.build(null, 1, 2));
+        assertNull("Prefix index should not be built", PrefixIndex.build(false, 1, 2));
+        assertNotNull("Prefix index should be built", PrefixIndex.build(true, 1, 2));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithZeroMinLength() {
+        new PrefixIndex(0, 2);
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithMaxLengthLowerThanMinLength() {
+        new PrefixIndex(3, 2);
+    }
+
+    @Test
+    public void testSupports() {
+        PrefixIndex prefixIndex = new PrefixIndex(2, 3);
+        assertFalse("Prefix should not be supported", prefixIndex.supports("a"));
+        assertTrue("Prefix should be supported", prefixIndex.supports("ab"));
+        assertTrue("Prefix should be supported", prefixIndex.supports("abc"));
+        assertFalse("Prefix should not be supported", prefixIndex.supports("abcd"));
+    }
+
+    @Test
+    public void testIndexableField() {
+        Field field = new PrefixIndex(1, 3).indexableField("name", "value");
+        assertEquals("Field name is wrong", "name" + PrefixIndex.SUFFIX, field.name());
+        assertEquals("Field value is wrong", "value", field.stringValue());
+        assertFalse("Field should not be stored", field.fieldType().stored());
+    }
+
+    @Test
+    public void testAnalyzerWithKeywords() throws IOException {
+        Analyzer analyzer = new PrefixIndex(1, 3).analyzer(new KeywordAnalyzer());
+        assertEquals("Prefixes are wrong", Arrays.asList("h", "ho", "hou"), tokens(analyzer, "f", "house"));
+        assertEquals("Prefixes are wrong", Arrays.asList("h", "ho"), tokens(analyzer, "f", "ho"));
+    }
+
+    @Test
+    public void testAnalyzerWithTokens() throws IOException {
+        Analyzer analyzer = new PrefixIndex(2, 3).analyzer(new WhitespaceAnalyzer());
+        assertEquals("Prefixes are wrong", Arrays.asList("ho", "hou", "ca", "cat"), tokens(analyzer, "f", "house cat"));
+    }
+
+    @Test
+    public void testQuery() {
+        Query query = new PrefixIndex(1, 3).query("name", "ho");
+        assertEquals("Query is wrong",
+                     new ConstantScoreQuery(new TermQuery(new Term("name" + PrefixIndex.SUFFIX, "ho"))),
+                     query);
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("Method #toString is wrong",
+                     "PrefixIndex{minLength=1, maxLength=3}",
+                     new PrefixIndex(1, 3).toString());
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.WildcardQuery;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.*;
+import static com.stratio.cassandra.lucene.schema.mapping.PrefixIndexTest.tokens;
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class ReverseIndexTest {
+
+    @Test
+    public void testIsEnabled() {
+        assertTrue("Reverse index should be enabled",
+                   ReverseIndex.isEnabled(stringMapper().reverseIndex(true).build("field")));
+        assertTrue("Reverse index should be enabled",
+                   ReverseIndex.isEnabled(textMapper().reverseIndex(true).build("field")));
+        assertFalse("Reverse index should not be enabled", ReverseIndex.isEnabled(stringMapper().build("field")));
+        assertFalse("Reverse index should not be enabled", ReverseIndex.isEnabled(textMapper().build("field")));
+        assertFalse("Reverse index should not be enabled", ReverseIndex.isEnabled(integerMapper().build("field")));
+    }
+
+    @Test
+    public void testReverse() {
+        assertEquals("Reversed string is wrong", "cba", ReverseIndex.reverse("abc"));
+        assertEquals("Reversed string is wrong", "", ReverseIndex.reverse(""));
+        assertEquals("Reversed string is wrong", "b\uD801\uDC00a", ReverseIndex.reverse("a\uD801\uDC00b"));
+    }
+
+    @Test
+    public void testIndexableField() {
+        Field field = ReverseIndex.indexableField("name", "value");
+        assertEquals("Field name is wrong", "name" + ReverseIndex.SUFFIX, field.name());
+        assertEquals("Field value is wrong", "value", field.stringValue());
+        assertFalse("Field should not be stored", field.fieldType().stored());
+    }
+
+    @Test
+    public void testAnalyzerWithKeywords() throws IOException {
+        Analyzer analyzer = ReverseIndex.analyzer(new KeywordAnalyzer());
+        assertEquals("Reversed tokens are wrong", Arrays.asList("esuoh"), tokens(analyzer, "f", "house"));
+    }
+
+    @Test
+    public void testAnalyzerWithTokens() throws IOException {
+        Analyzer analyzer = ReverseIndex.analyzer(new WhitespaceAnalyzer());
+        assertEquals("Reversed tokens are wrong", Arrays.asList("esuoh", "tac"), tokens(analyzer, "f", "house cat"));
+    }
+
+    @Test
+    public void testWildcardQueryWithLeadingStar() {
+        assertEquals("Query is wrong",
+                     new PrefixQuery(new Term("name" + ReverseIndex.SUFFIX, "cba")),
+                     ReverseIndex.wildcardQuery("name", "*abc"));
+    }
+
+    @Test
+    public void testWildcardQueryWithInnerWildcards() {
+        assertEquals("Query is wrong",
+                     new WildcardQuery(new Term("name" + ReverseIndex.SUFFIX, "c?a*")),
+                     ReverseIndex.wildcardQuery("name", "*a?c"));
+        assertEquals("Query is wrong",
+                     new WildcardQuery(new Term("name" + ReverseIndex.SUFFIX, "cba?")),
+                     ReverseIndex.wildcardQuery("name", "?abc"));
+    }
+
+    @Test
+    public void testWildcardQueryNotReversible() {
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", ""));
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", "abc"));
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", "ab*"));
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", "*ab*"));
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", "*"));
+        assertNull("Query should not be reversed", ReverseIndex.wildcardQuery("name", "*a\\*b"));
+    }
+
+    @Test
+    public void testRegexpQuery() {
+        assertEquals("Query is wrong",
+                     new PrefixQuery(new Term("name" + ReverseIndex.SUFFIX, "cba")),
+                     ReverseIndex.regexpQuery("name", ".*abc"));
+    }
+
+    @Test
+    public void testRegexpQueryNotReversible() {
+        assertNull("Query should not be reversed", ReverseIndex.regexpQuery("name", "abc"));
+        assertNull("Query should not be reversed", ReverseIndex.regexpQuery("name", ".*"));
+        assertNull("Query should not be reversed", ReverseIndex.regexpQuery("name", ".*a.c"));
+        assertNull("Query should not be reversed", ReverseIndex.regexpQuery("name", ".*(ab|cd)"));
+        assertNull("Query should not be reversed", ReverseIndex.regexpQuery("name", ".*ab+"));
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.schema.mapping;
+
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.index.NoIDFSimilarity;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceAnalyzer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.synonym.SynonymFilter;
+import org.apache.lucene.analysis.synonym.SynonymMap;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.CharsRef;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.stratio.cassandra.lucene.schema.mapping.PrefixIndexTest.tokens;
+import static org.apache.lucene.search.BooleanClause.Occur.FILTER;
+import static org.apache.lucene.search.BooleanClause.Occur.MUST;
+import static org.apache.lucene.search.BooleanClause.Occur.SHOULD;
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class ShingleIndexTest {
+
+    @Test
+    public void testBuild() {
+        assertNull("Shingle index should not be built", ShingleIndex.build(null));
+        assertEquals("Max size is wrong", 3, ShingleIndex.build(3).maxSize);
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithTooSmallSize() {
+        new ShingleIndex(1);
+    }
+
+    @Test
+    public void testIndexableField() {
+        Field field = new ShingleIndex(2).indexableField("name", "big house");
+        assertEquals("Field name is wrong", "name" + ShingleIndex.SUFFIX, field.name());
+        assertEquals("Field value is wrong", "big house", field.stringValue());
+        assertFalse("Field should not be stored", field.fieldType().stored());
+    }
+
+    @Test
+    public void testAnalyzer() throws IOException {
+        Analyzer analyzer = new ShingleIndex(3).analyzer(new WhitespaceAnalyzer());
+        assertEquals("Shingles are wrong",
+                     Arrays.asList("the big", "the big house", "big house"),
+                     tokens(analyzer, "f", "the big house"));
+        assertEquals("Shingles are wrong", Collections.emptyList(), tokens(analyzer, "f", "house"));
+    }
+
+    @Test
+    public void testAnalyzerWithStackedTokens() throws IOException {
+        Analyzer analyzer = new ShingleIndex(3).analyzer(synonymAnalyzer());
+        assertEquals("Shingles are wrong",
+                     Arrays.asList("the big", "the big house", "big house", ShingleIndex.STACKED_MARKER),
+                     tokens(analyzer, "f", "the big house"));
+        assertEquals("Shingles are wrong",
+                     Arrays.asList("the small", "the small house", "small house"),
+                     tokens(analyzer, "f", "the small house"));
+    }
+
+    /** Returns an analyzer stacking the synonym "large" over the word "big". */
+    private static Analyzer synonymAnalyzer() {
+        SynonymMap synonyms;
+        try {
+            SynonymMap.Builder builder = new SynonymMap.Builder(true);
+            builder.add(new CharsRef("big"), new CharsRef("large"), true);
+            synonyms = builder.build();
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer tokenizer = new WhitespaceTokenizer();
+                return new TokenStreamComponents(tokenizer, new SynonymFilter(tokenizer, synonyms, true));
+            }
+        };
+    }
+
+    private static Query expected(Query shingles, PhraseQuery phrase) {
+        Query stacked = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term("name" + ShingleIndex.SUFFIX, ShingleIndex.STACKED_MARKER)), FILTER)
+                .add(phrase, MUST)
+                .build();
+        return new BooleanQuery.Builder().add(shingles, SHOULD).add(stacked, SHOULD).build();
+    }
+
+    @Test
+    public void testQueryWithShortPhrase() {
+        PhraseQuery phrase = new PhraseQuery("name", "big", "house");
+        Query query = new ShingleIndex(3).query("name", phrase);
+        Query shingles = new TermQuery(new Term("name" + ShingleIndex.SUFFIX, "big house"));
+        assertEquals("Query is wrong", expected(shingles, phrase), query);
+    }
+
+    @Test
+    public void testQueryWithLongPhrase() {
+        PhraseQuery phrase = new PhraseQuery("name", "the", "big", "white", "house", "cat");
+        Query query = new ShingleIndex(2).query("name", phrase);
+        BooleanQuery shingles = new BooleanQuery.Builder()
+                .add(new TermQuery(new Term("name" + ShingleIndex.SUFFIX, "the big")), MUST)
+                .add(new TermQuery(new Term("name" + ShingleIndex.SUFFIX, "white house")), MUST)
+                .add(new TermQuery(new Term("name" + ShingleIndex.SUFFIX, "house cat")), MUST)
+                .add(phrase, FILTER)
+                .build();
+        assertEquals("Query is wrong", expected(shingles, phrase), query);
+    }
+
+    @Test
+    public void testSearchWithStackedTokens() throws IOException {
+        ShingleIndex shingleIndex = new ShingleIndex(2);
+        Analyzer analyzer = synonymAnalyzer();
+        Analyzer perField = new PerFieldAnalyzerWrapper(analyzer, Collections.singletonMap(
+                ShingleIndex.field("name"), shingleIndex.analyzer(analyzer)));
+        List<String> values = Arrays.asList("the big white house", "a large house", "the small white house");
+        Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(perField))) {
+            for (String value : values) {
+                Document document = new Document();
+                document.add(new TextField("name", value, Field.Store.NO));
+                document.add(shingleIndex.indexableField("name", value));
+                writer.addDocument(document);
+            }
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            String[][] phrases = {{"large", "white"},
+                                  {"big", "white"},
+                                  {"the", "large", "white", "house"},
+                                  {"large", "house"},
+                                  {"small", "white"},
+                                  {"big", "large"}};
+            for (String[] words : phrases) {
+                PhraseQuery phrase = new PhraseQuery("name", words);
+                assertEquals("Number of hits is wrong for " + phrase,
+                             searcher.count(phrase),
+                             searcher.count(shingleIndex.query("name", phrase)));
+            }
+        }
+    }
+
+    @Test
+    public void testScoresWithShingles() throws IOException {
+        ShingleIndex shingleIndex = new ShingleIndex(2);
+        Analyzer analyzer = new WhitespaceAnalyzer();
+        Analyzer perField = new PerFieldAnalyzerWrapper(analyzer, Collections.singletonMap(
+                ShingleIndex.field("name"), shingleIndex.analyzer(analyzer)));
+        List<String> values = Arrays.asList("big house",
+                                            "a big house and a big house and a small cat",
+                                            "a big house near the lake by the old mill");
+        Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(perField))) {
+            for (String value : values) {
+                Document document = new Document();
+                document.add(new TextField("name", value, Field.Store.NO));
+                document.add(shingleIndex.indexableField("name", value));
+                writer.addDocument(document);
+            }
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            searcher.setSimilarity(new NoIDFSimilarity());
+            PhraseQuery phrase = new PhraseQuery("name", "big", "house");
+
+            // Phrase scores are normalized by the field length
+            float[] phraseScores = scores(searcher, phrase, values.size());
+            assertTrue("Shorter rows should score higher", phraseScores[0] > phraseScores[1]);
+            assertTrue("Shorter rows should score higher", phraseScores[0] > phraseScores[2]);
+
+            // Shingles don't index norms, so scores depend only on the number of occurrences of the phrase
+            float[] shingleScores = scores(searcher, shingleIndex.query("name", phrase), values.size());
+            assertTrue("More occurrences should score higher", shingleScores[1] > shingleScores[0]);
+            assertEquals("Field length should not affect scores", shingleScores[0], shingleScores[2], 0);
+        }
+    }
+
+    private static float[] scores(IndexSearcher searcher, Query query, int numDocs) throws IOException {
+        TopDocs topDocs = searcher.search(query, numDocs);
+        assertEquals("Number of hits is wrong for " + query, numDocs, topDocs.totalHits);
+        float[] scores = new float[numDocs];
+        for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+            scores[scoreDoc.doc] = scoreDoc.score;
+        }
+        return scores;
+    }
+
+    @Test
+    public void testQueryNotRewritable() {
+        ShingleIndex shingleIndex = new ShingleIndex(2);
+        assertNull("Query should not be rewritten", shingleIndex.query("name", new PhraseQuery("name", "house")));
+        assertNull("Query should not be rewritten", shingleIndex.query("name", new PhraseQuery(1, "name", "a", "b")));
+        PhraseQuery withGaps = new PhraseQuery.Builder().add(new Term("name", "big"), 0)
+                                                        .add(new Term("name", "house"), 2)
+                                                        .build();
+        assertNull("Query should not be rewritten", shingleIndex.query("name", withGaps));
+    }
+
+    @Test
+    public void testToString() {
+        assertEquals("Method #toString is wrong", "ShingleIndex{maxSize=3}", new ShingleIndex(3).toString());
+    }
+}
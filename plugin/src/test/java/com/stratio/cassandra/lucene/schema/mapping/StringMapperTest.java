@@ -65,6 +65,33 @@ public class StringMapperTest extends AbstractMapperTest {
         testJson(builder, "{type:\"string\",validated:true,column:\"column\",case_sensitive:false}");
     }
 
+    @Test
+    public void testJsonSerializationWithPrefixIndex() {
+        StringMapperBuilder builder = stringMapper().prefixIndex(true).prefixMinLength(2).prefixMaxLength(4);
+        testJson(builder, "{type:\"string\",prefix_index:true,prefix_min_length:2,prefix_max_length:4}");
+    }
+
+    @Test
+    public void testBuildWithPrefixIndex() {
+        StringMapper mapper = stringMapper().prefixIndex(true).prefixMinLength(2).prefixMaxLength(4).build("field");
+        assertNotNull("Prefix index is not set", mapper.prefixIndex);
+        assertEquals("Prefix min length is wrong", 2, mapper.prefixIndex.minLength);
+        assertEquals("Prefix max length is wrong", 4, mapper.prefixIndex.maxLength);
+        assertNull("Prefix index should not be set", stringMapper().build("field").prefixIndex);
+    }
+
+    @Test
+    public void testJsonSerializationWithReverseIndex() {
+        StringMapperBuilder builder = stringMapper().reverseIndex(true);
+        testJson(builder, "{type:\"string\",reverse_index:true}");
+    }
+
+    @Test
+    public void testBuildWithReverseIndex() {
+        assertTrue("Reverse index is not set", stringMapper().reverseIndex(true).build("field").reverseIndex);
+        assertFalse("Reverse index should not be set", stringMapper().build("field").reverseIndex);
+    }
+
     @Test
     public void testJsonSerializationDefaults() {
         StringMapperBuilder builder = stringMapper();
@@ -229,6 +256,26 @@ public class StringMapperTest extends AbstractMapperTest {
         assertTrue("Sorted field is not properly created", fields.get(1) instanceof SortedSetDocValuesField);
     }
 
+    @Test
+    public void testAddFieldsWithPrefixIndex() {
+        StringMapper mapper = stringMapper().prefixIndex(true).build("field");
+        Columns columns = Columns.empty().add("field", "value");
+        List<IndexableField> fields = mapper.indexableFields(columns);
+        assertEquals("Number of created fields is wrong", 3, fields.size());
+        assertEquals("Prefix field name is wrong", "field" + PrefixIndex.SUFFIX, fields.get(2).name());
+        assertEquals("Prefix field value is wrong", "value", fields.get(2).stringValue());
+    }
+
+    @Test
+    public void testAddFieldsWithReverseIndex() {
+        StringMapper mapper = stringMapper().caseSensitive(false).reverseIndex(true).build("field");
+        Columns columns = Columns.empty().add("field", "Value");
+        List<IndexableField> fields = mapper.indexableFields(columns);
+        assertEquals("Number of created fields is wrong", 3, fields.size());
+        assertEquals("Reverse field name is wrong", "field" + ReverseIndex.SUFFIX, fields.get(2).name());
+        assertEquals("Reverse field value is wrong", "value", fields.get(2).stringValue());
+    }
+
     @Test
     public void testExtractAnalyzers() {
         StringMapper mapper = stringMapper().caseSensitive(true).build("field");
@@ -18,8 +18,10 @@ package com.stratio.cassandra.lucene.schema.mapping;
 import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.mapping.builder.TextMapperBuilder;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexableField;
 import org.junit.Test;
 
+import java.util.List;
 import java.util.UUID;
 
 import static com.stratio.cassandra.lucene.schema.SchemaBuilders.textMapper;
@@ -56,6 +58,58 @@ public class TextMapperTest extends AbstractMapperTest {
         testJson(builder, "{type:\"text\",column:\"column\",analyzer:\"spanish\"}");
     }
 
+    @Test
+    public void testJsonSerializationWithPrefixIndex() {
+        TextMapperBuilder builder = textMapper().prefixIndex(true).prefixMinLength(2).prefixMaxLength(4);
+        testJson(builder, "{type:\"text\",prefix_index:true,prefix_min_length:2,prefix_max_length:4}");
+    }
+
+    @Test
+    public void testBuildWithPrefixIndex() {
+        TextMapper mapper = textMapper().prefixIndex(true).build("field");
+        assertNotNull("Prefix index is not set", mapper.prefixIndex);
+        assertEquals("Prefix fields are wrong", 2, mapper.indexableFields("field", "value").size());
+        assertNull("Prefix index should not be set", textMapper().build("field").prefixIndex);
+    }
+
+    @Test
+    public void testJsonSerializationWithReverseIndex() {
+        TextMapperBuilder builder = textMapper().reverseIndex(true);
+        testJson(builder, "{type:\"text\",reverse_index:true}");
+    }
+
+    @Test
+    public void testBuildWithReverseIndex() {
+        TextMapper mapper = textMapper().reverseIndex(true).build("field");
+        assertTrue("Reverse index is not set", mapper.reverseIndex);
+        List<IndexableField> fields = mapper.indexableFields("field", "value");
+        assertEquals("Reverse fields are wrong", 2, fields.size());
+        assertEquals("Reverse field name is wrong", "field" + ReverseIndex.SUFFIX, fields.get(1).name());
+        assertFalse("Reverse index should not be set", textMapper().build("field").reverseIndex);
+    }
+
+    @Test
+    public void testJsonSerializationWithShingles() {
+        TextMapperBuilder builder = textMapper().shingles(3);
+        testJson(builder, "{type:\"text\",shingles:3}");
+    }
+
+    @Test
+    public void testBuildWithShingles() {
+        TextMapper mapper = textMapper().shingles(3).build("field");
+        assertNotNull("Shingle index is not set", mapper.shingleIndex);
+        assertEquals("Shingle size is wrong", 3, mapper.shingleIndex.maxSize);
+        List<IndexableField> fields = mapper.indexableFields("field", "value");
+        assertEquals("Shingle fields are wrong", 2, fields.size());
+        assertEquals("Shingle field name is wrong", "field" + ShingleIndex.SUFFIX, fields.get(1).name());
+        assertNull("Shingle index should not be set", textMapper().build("field").shingleIndex);
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithInvalidShingles() {
+        textMapper().shingles(1).build("field");
+    }
+
     @Test
     public void testJsonSerializationDefaults() {
         TextMapperBuilder builder = textMapper();
@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search;
+
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.junit.Test;
+
+import static org.apache.lucene.search.BooleanClause.Occur.*;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Class for testing {@link QueryOptimizer}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class QueryOptimizerTest {
+
+    private static final Query A = new TermQuery(new Term("f", "a"));
+    private static final Query B = new TermQuery(new Term("f", "b"));
+    private static final Query C = new TermQuery(new Term("f", "c"));
+
+    private static BooleanQuery.Builder bool() {
+        return new BooleanQuery.Builder();
+    }
+
+    @Test
+    public void testFlattenFilters() {
+        Query query = bool().add(bool().add(A, MUST).add(B, FILTER).build(), FILTER).add(C, MUST_NOT).build();
+        Query expected = bool().add(A, FILTER).add(B, FILTER).add(C, MUST_NOT).build();
+        assertEquals("Nested filters are not flattened", expected, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testFlattenScoringConjunction() {
+        Query query = bool().add(bool().add(A, MUST).add(B, FILTER).build(), MUST).add(C, MUST).build();
+        Query expected = bool().add(A, MUST).add(C, MUST).add(B, FILTER).build();
+        assertEquals("Nested conjunction is not flattened", expected, QueryOptimizer.optimize(query, true));
+    }
+
+    @Test
+    public void testNotFlattenWithShould() {
+        Query query = bool().add(bool().add(A, MUST).add(B, MUST).build(), MUST).add(C, SHOULD).build();
+        assertEquals("Scoring query with optional clauses is modified", query, QueryOptimizer.optimize(query, true));
+    }
+
+    @Test
+    public void testRemoveDuplicates() {
+        Query query = bool().add(A, FILTER).add(A, FILTER).add(B, MUST_NOT).add(B, MUST_NOT).build();
+        Query expected = bool().add(A, FILTER).add(B, MUST_NOT).build();
+        assertEquals("Duplicates are not removed", expected, QueryOptimizer.optimize(query, true));
+    }
+
+    @Test
+    public void testRemoveFilterDuplicatingMust() {
+        Query query = bool().add(A, MUST).add(A, FILTER).build();
+        Query expected = bool().add(A, MUST).build();
+        assertEquals("Redundant filter is not removed", expected, QueryOptimizer.optimize(query, true));
+    }
+
+    @Test
+    public void testZeroBoostToFilter() {
+        Query query = bool().add(new BoostQuery(A, 0), MUST).add(B, MUST).build();
+        Query expected = bool().add(B, MUST).add(A, FILTER).build();
+        assertEquals("Zero boosted clause is not a filter", expected, QueryOptimizer.optimize(query, true));
+    }
+
+    @Test
+    public void testNonScoring() {
+        Query query = bool().add(new BoostQuery(A, 2), MUST)
+                            .add(B, SHOULD)
+                            .add(new ConstantScoreQuery(C), FILTER)
+                            .build();
+        Query expected = bool().add(A, FILTER).add(C, FILTER).build();
+        assertEquals("Non scoring query is not simplified", expected, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testRemoveMatchAll() {
+        Query query = bool().add(new MatchAllDocsQuery(), FILTER).add(A, FILTER).build();
+        Query expected = bool().add(A, FILTER).build();
+        assertEquals("Match all filter is not removed", expected, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testKeepMatchAllWithOnlyNegations() {
+        Query query = bool().add(new MatchAllDocsQuery(), FILTER).add(A, MUST_NOT).build();
+        assertEquals("Pure negation is broken", query, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testNotFlattenPureNegation() {
+        Query negation = bool().add(A, MUST_NOT).build();
+        Query query = bool().add(negation, FILTER).add(B, FILTER).build();
+        assertEquals("Pure negation is flattened", query, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testMergeNumericRanges() {
+        Query query = bool().add(NumericRangeQuery.newIntRange("i", 1, 10, true, true), FILTER)
+                            .add(NumericRangeQuery.newIntRange("i", 5, null, false, false), FILTER)
+                            .add(NumericRangeQuery.newIntRange("j", 5, null, false, false), FILTER)
+                            .build();
+        Query expected = bool().add(NumericRangeQuery.newIntRange("i", 5, 10, false, true), FILTER)
+                               .add(NumericRangeQuery.newIntRange("j", 5, null, false, false), FILTER)
+                               .build();
+        assertEquals("Numeric ranges are not merged", expected, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testNotMergeNumericRangesOfDifferentTypes() {
+        Query query = bool().add(NumericRangeQuery.newIntRange("i", 1, 10, true, true), FILTER)
+                            .add(NumericRangeQuery.newLongRange("i", 5L, null, false, false), FILTER)
+                            .build();
+        assertEquals("Numeric ranges are merged", query, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testMergeTermRanges() {
+        Query query = bool().add(TermRangeQuery.newStringRange("s", "a", "m", true, false), FILTER)
+                            .add(TermRangeQuery.newStringRange("s", "a", "z", false, true), FILTER)
+                            .build();
+        Query expected = bool().add(TermRangeQuery.newStringRange("s", "a", "m", false, false), FILTER).build();
+        assertEquals("Term ranges are not merged", expected, QueryOptimizer.optimize(query, false));
+    }
+
+    @Test
+    public void testNotMergeScoringRanges() {
+        Query query = bool().add(TermRangeQuery.newStringRange("s", "a", "m", true, false), MUST)
+                            .add(TermRangeQuery.newStringRange("s", "a", "z", false, true), MUST)
+                            .build();
+        assertEquals("Scoring ranges are merged", query, QueryOptimizer.optimize(query, true));
+    }
+}
@@ -16,6 +16,7 @@
 package com.stratio.cassandra.lucene.search;
 
 import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.search.aggregation.builder.RangeAggregationBuilder;
 import com.stratio.cassandra.lucene.search.condition.builder.ConditionBuilder;
 import com.stratio.cassandra.lucene.search.sort.builder.SimpleSortFieldBuilder;
 import com.stratio.cassandra.lucene.common.JsonSerializer;
@@ -55,6 +56,28 @@ public class SearchBuilderTest {
         assertEquals("JSON serialization is wrong", json, SearchBuilder.fromJson(json).toJson());
     }
 
+    @Test
+    public void testJsonWithAggregations() {
+        SearchBuilder searchBuilder = search().filter(match("field1", "value1"))
+                                              .aggregations(termsAggregation("a", "field2").size(5),
+                                                            histogramAggregation("b", "field3", 10),
+                                                            rangeAggregation("c", "field3").ranges(
+                                                                    new RangeAggregationBuilder.Range(null, 1.0),
+                                                                    new RangeAggregationBuilder.Range(1.0, null)),
+                                                            statsAggregation("d", "field3"));
+        String json = searchBuilder.toJson();
+        assertEquals("JSON serialization is wrong", json, SearchBuilder.fromJson(json).toJson());
+    }
+
+    @Test
+    public void testWithoutAggregations() {
+        SearchBuilder searchBuilder = search().filter(match("field1", "value1"))
+                                              .aggregations(termsAggregation("a", "field2"));
+        assertEquals("Aggregations removal is wrong",
+                     search().filter(match("field1", "value1")).toJson(),
+                     searchBuilder.withoutAggregations().toJson());
+    }
+
     @Test(expected = IndexException.class)
     public void testFromJsonInvalid() {
         SearchBuilder.fromJson("error");
@@ -67,7 +90,9 @@ public class SearchBuilderTest {
                      "filter=[], " +
                      "query=[MatchCondition{boost=null, field=f, value=1, docValues=false}], sort=[], " +
                      "refresh=false, " +
-                     "paging=null}",
+                     "paging=null, " +
+                     "count=false, " +
+                     "approximate=false, aggregations=[]}",
                      SearchBuilder.fromJson("{query:{type: \"match\", field: \"f\", value:1}}").build().toString());
     }
 
@@ -79,7 +104,9 @@ public class SearchBuilderTest {
                      "query=[], " +
                      "sort=[SimpleSortField{field=f, reverse=false}], " +
                      "refresh=false, " +
-                     "paging=null}",
+                     "paging=null, " +
+                     "count=false, " +
+                     "approximate=false, aggregations=[]}",
                      SearchBuilder.fromJson("{sort:{fields:[{field:\"f\"}]}}").build().toString());
     }
 
@@ -91,7 +118,9 @@ public class SearchBuilderTest {
                      "query=[MatchCondition{boost=null, field=f2, value=2, docValues=false}], " +
                      "sort=[SimpleSortField{field=f, reverse=false}], " +
                      "refresh=true, " +
-                     "paging=null}",
+                     "paging=null, " +
+                     "count=false, " +
+                     "approximate=false, aggregations=[]}",
                      SearchBuilder.fromJson("{filter:{type: \"match\", field: \"f1\", value:1}, " +
                                             "query:{type: \"match\", field: \"f2\", value:2}, " +
                                             "sort:{fields:[{field:\"f\"}]}, " +
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.IndexPagingState;
+import com.stratio.cassandra.lucene.search.condition.RangeCondition;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Map;
+
+import static com.stratio.cassandra.lucene.search.SearchBuilders.field;
+import static com.stratio.cassandra.lucene.search.SearchBuilders.match;
+import static com.stratio.cassandra.lucene.search.SearchBuilders.termsAggregation;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Class for testing {@link SearchTemplate}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class SearchTemplateTest {
+
+    private static final String TEMPLATES = "{by_user: {" +
+                                            "filter: [{type: \"match\", field: \"user\", value: \"${user}\"}," +
+                                            "{type: \"range\", field: \"time\", lower: \"${from}\"}]}}";
+
+    private static SearchTemplate template() {
+        return SearchTemplate.fromJson(TEMPLATES).get("by_user");
+    }
+
+    @Test
+    public void testFromJson() {
+        Map<String, SearchTemplate> templates = SearchTemplate.fromJson(TEMPLATES);
+        assertEquals("Template names are wrong", Collections.singleton("by_user"), templates.keySet());
+        assertEquals("Template parameters are wrong", Sets.newHashSet("user", "from"), template().parameters());
+    }
+
+    @Test(expected = IndexException.class)
+    public void testFromJsonWithoutObject() {
+        SearchTemplate.fromJson("[]");
+    }
+
+    @Test(expected = IndexException.class)
+    public void testFromJsonWithNestedTemplate() {
+        SearchTemplate.fromJson("{a: {template: \"b\"}}");
+    }
+
+    @Test
+    public void testBuilder() {
+        Search search = template().builder(ImmutableMap.of("user", "jsmith", "from", 10)).build();
+        assertEquals("Template parameters are not replaced",
+                     "MatchCondition{boost=null, field=user, value=jsmith, docValues=false}",
+                     search.filter.get(0).toString());
+        assertEquals("Template parameters are not replaced", 10, ((RangeCondition) search.filter.get(1)).lower);
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuilderWithMissingParameter() {
+        template().builder(ImmutableMap.of("user", "jsmith"));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuilderWithUnknownParameter() {
+        template().builder(ImmutableMap.of("user", "jsmith", "from", 10, "to", 20));
+    }
+
+    @Test
+    public void testResolve() {
+        SearchBuilder builder = new SearchBuilder().template("by_user", ImmutableMap.of("user", "jsmith", "from", 1));
+        Search search = builder.resolve(SearchTemplate.fromJson(TEMPLATES)).build();
+        assertEquals("Template is not resolved", 2, search.filter.size());
+    }
+
+    @Test(expected = IndexException.class)
+    public void testResolveWithUnknownTemplate() {
+        new SearchBuilder().template("unknown", Collections.emptyMap()).resolve(SearchTemplate.fromJson(TEMPLATES));
+    }
+
+    @Test
+    public void testResolveWithPaging() {
+        IndexPagingState paging = new IndexPagingState(3);
+        SearchBuilder builder = new SearchBuilder().template("by_user", ImmutableMap.of("user", "jsmith", "from", 1))
+                                                   .paging(paging);
+        Search search = builder.resolve(SearchTemplate.fromJson(TEMPLATES)).build();
+        assertEquals("Paging state is not kept", 3, search.paging().remaining());
+    }
+
+    private static void assertResolveFails(SearchBuilder builder) {
+        builder.template("by_user", ImmutableMap.of("user", "jsmith", "from", 1));
+        try {
+            builder.resolve(SearchTemplate.fromJson(TEMPLATES));
+            fail("Template combined with other search options should be rejected");
+        } catch (IndexException e) {
+            assertEquals("Exception message is wrong",
+                         "Search template 'by_user' can't be combined with other search options",
+                         e.getMessage());
+        }
+    }
+
+    @Test
+    public void testResolveWithOtherOptions() {
+        assertResolveFails(new SearchBuilder().filter(match("user", "jsmith")));
+        assertResolveFails(new SearchBuilder().query(match("user", "jsmith")));
+        assertResolveFails(new SearchBuilder().sort(field("time")));
+        assertResolveFails(new SearchBuilder().refresh(true));
+        assertResolveFails(new SearchBuilder().count(true));
+        assertResolveFails(new SearchBuilder().approximate(true));
+        assertResolveFails(new SearchBuilder().aggregations(termsAggregation("users", "user")));
+    }
+
+    @Test
+    public void testResolveJsonWithOtherOptions() {
+        assertResolveFails(SearchBuilder.fromJson("{query: {type: \"match\", field: \"user\", value: \"a\"}}"));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithoutResolving() {
+        new SearchBuilder().template("by_user", Collections.emptyMap()).build();
+    }
+}
@@ -16,6 +16,7 @@
 package com.stratio.cassandra.lucene.search;
 
 import com.google.common.collect.Sets;
+import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.search.condition.builder.MatchConditionBuilder;
 import com.stratio.cassandra.lucene.search.sort.builder.SortFieldBuilder;
@@ -103,6 +104,43 @@ public class SearchTest {
                    search().filter(MATCH).query(MATCH).sort(FIELD).build().requiresPostProcessing());
     }
 
+    @Test
+    public void testCount() {
+        Search search = search().query(MATCH).sort(FIELD).count(true).build();
+        assertTrue("Count is not set", search.count());
+        assertFalse("Approximate count is wrong", search.approximate());
+        assertFalse("Use relevance is wrong", search.usesRelevance());
+        assertFalse("Use sorting is wrong", search.usesSorting());
+        assertFalse("Requires post processing is wrong", search.requiresPostProcessing());
+        assertFalse("Requires full scan is wrong", search.requiresFullScan());
+        assertTrue("Approximate count is not set", count(true).approximate(true).build().approximate());
+    }
+
+    @Test(expected = IndexException.class)
+    public void testApproximateWithoutCount() {
+        search().approximate(true).build();
+    }
+
+    @Test
+    public void testAggregations() {
+        Search search = filter(MATCH).aggregations(termsAggregation("a", "f")).build();
+        assertTrue("Use aggregations is wrong", search.usesAggregations());
+        assertTrue("Requires full scan is wrong", search.requiresFullScan());
+        assertFalse("Requires post processing is wrong", search.requiresPostProcessing());
+        assertFalse("Use aggregations is wrong", filter(MATCH).build().usesAggregations());
+    }
+
+    @Test(expected = IndexException.class)
+    public void testAggregationsWithDuplicatedNames() {
+        search().aggregations(termsAggregation("a", "f"), statsAggregation("a", "g")).build();
+    }
+
+    @Test(expected = IndexException.class)
+    public void testValidateAggregations() {
+        Schema schema = schema().mapper("f", stringMapper()).build();
+        search().aggregations(statsAggregation("a", "f")).build().validate(schema);
+    }
+
     @Test
     public void testSort() {
         Schema schema = schema().mapper("f", stringMapper()).build();
@@ -152,7 +190,8 @@ public class SearchTest {
                      "MatchCondition{boost=null, field=f2, value=v2, docValues=false}], " +
                      "query=[MatchCondition{boost=null, field=f3, value=v3, docValues=false}, " +
                      "MatchCondition{boost=0.3, field=f4, value=v4, docValues=false}], " +
-                     "sort=[SimpleSortField{field=f5, reverse=true}], refresh=true, paging=null}",
+                     "sort=[SimpleSortField{field=f5, reverse=true}], refresh=true, paging=null, " +
+                     "count=false, approximate=false, aggregations=[]}",
                      search.toString());
     }
 
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.collect.ImmutableMap;
+import com.stratio.cassandra.lucene.IndexException;
+import com.stratio.cassandra.lucene.schema.Schema;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.store.RAMDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.NumericUtils;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link AggregationCollector}s.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class AggregationCollectorTest {
+
+    private static final Schema SCHEMA = schema().mapper("s", stringMapper())
+                                                 .mapper("i", integerMapper())
+                                                 .mapper("d", doubleMapper())
+                                                 .mapper("l", longMapper())
+                                                 .build();
+
+    private static final long BIG = 1L << 60;
+
+    private static Document document(String s, int i, double d) {
+        Document document = new Document();
+        document.add(new SortedSetDocValuesField("s", new BytesRef(s)));
+        document.add(new SortedNumericDocValuesField("i", i));
+        document.add(new SortedNumericDocValuesField("d", NumericUtils.doubleToSortableLong(d)));
+        document.add(new SortedNumericDocValuesField("l", BIG + i));
+        return document;
+    }
+
+    private static AggregationResult aggregate(Aggregation aggregation) throws IOException {
+        return aggregate(aggregation, Arrays.asList(Arrays.asList(document("a", 1, -1.5), document("b", 7, 2.5)),
+                                                    Arrays.asList(document("a", 12, 0.5), document("c", 15, 10))));
+    }
+
+    private static AggregationResult aggregate(Aggregation aggregation, List<List<Document>> segments)
+    throws IOException {
+        RAMDirectory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+            for (List<Document> segment : segments) {
+                writer.addDocuments(segment);
+                writer.commit(); // Force several segments
+            }
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                AggregationCollector collector = aggregation.collector(SCHEMA);
+                new IndexSearcher(reader).search(new MatchAllDocsQuery(), collector);
+                return collector.result();
+            }
+        } finally {
+            directory.close();
+        }
+    }
+
+    @Test
+    public void testTerms() throws IOException {
+        assertEquals("Terms aggregation is wrong",
+                     new BucketsResult(ImmutableMap.of("a", 2L, "b", 1L, "c", 1L)),
+                     aggregate(new TermsAggregation("t", "s", null)));
+    }
+
+    @Test
+    public void testTermsShardSize() throws IOException {
+        TermsAggregation aggregation = new TermsAggregation("t", "s", 2);
+        List<Document> documents = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            for (int j = 0; j <= i; j++) {
+                documents.add(document(String.valueOf(i), j, j));
+            }
+        }
+        BucketsResult result = (BucketsResult) aggregate(aggregation, Collections.singletonList(documents));
+        assertEquals("Terms shard size is wrong", 13, aggregation.shardSize());
+        assertEquals("Terms partial size is wrong", aggregation.shardSize(), result.buckets.size());
+        assertTrue("Terms partial misses top terms", result.buckets.keySet().containsAll(Arrays.asList("99", "98")));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testTermsWithNumericField() {
+        new TermsAggregation("t", "i", null).collector(SCHEMA);
+    }
+
+    @Test
+    public void testHistogram() throws IOException {
+        assertEquals("Histogram aggregation is wrong",
+                     new BucketsResult(ImmutableMap.of("0", 2L, "10", 2L)),
+                     aggregate(new HistogramAggregation("h", "i", 10.0)));
+        assertEquals("Histogram aggregation is wrong",
+                     new BucketsResult(ImmutableMap.of("-2", 1L, "0", 1L, "2", 1L, "10", 1L)),
+                     aggregate(new HistogramAggregation("h", "d", 2.0)));
+    }
+
+    @Test
+    public void testHistogramWithLongValues() throws IOException {
+        assertEquals("Histogram aggregation is wrong",
+                     new BucketsResult(ImmutableMap.of(String.valueOf(BIG + 1), 1L,
+                                                       String.valueOf(BIG + 7), 1L,
+                                                       String.valueOf(BIG + 12), 1L,
+                                                       String.valueOf(BIG + 15), 1L)),
+                     aggregate(new HistogramAggregation("h", "l", 1.0)));
+    }
+
+    @Test
+    public void testRange() throws IOException {
+        RangeAggregation aggregation = new RangeAggregation("r", "i", Arrays.asList(
+                new RangeAggregation.Range(null, 7.0, null),
+                new RangeAggregation.Range(7.0, 15.0, "medium"),
+                new RangeAggregation.Range(100.0, null, null)));
+        assertEquals("Range aggregation is wrong",
+                     new BucketsResult(ImmutableMap.of("*:7", 1L, "medium", 2L, "100:*", 0L)),
+                     aggregate(aggregation));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testRangeWithDuplicatedKeys() {
+        new RangeAggregation("r", "i", Arrays.asList(new RangeAggregation.Range(0.0, 1.0, "k"),
+                                                     new RangeAggregation.Range(1.0, 2.0, "k")));
+    }
+
+    @Test
+    public void testStats() throws IOException {
+        assertEquals("Stats aggregation is wrong",
+                     new StatsResult(4, -1.5, 10.0, 11.5),
+                     aggregate(new StatsAggregation("s", "d")));
+        assertEquals("Stats aggregation is wrong",
+                     new StatsResult(4, 1L, 15L, 35L),
+                     aggregate(new StatsAggregation("s", "i")));
+    }
+
+    @Test
+    public void testStatsWithLongValues() throws IOException {
+        assertEquals("Stats aggregation is wrong",
+                     new StatsResult(4, BIG + 1, BIG + 15, 4 * BIG + 35),
+                     aggregate(new StatsAggregation("s", "l")));
+    }
+
+    @Test
+    public void testStatsWithLongOverflow() throws IOException {
+        List<Document> documents = Arrays.asList(document("a", 0, 0), document("a", 0, 0), document("a", 0, 0),
+                                                 document("a", 0, 0), document("a", 0, 0), document("a", 0, 0),
+                                                 document("a", 0, 0), document("a", 0, 0));
+        assertEquals("Stats aggregation is wrong",
+                     new StatsResult(8, BIG, BIG, 8.0 * BIG),
+                     aggregate(new StatsAggregation("s", "l"), Collections.singletonList(documents)));
+    }
+
+    @Test(expected = IndexException.class)
+    public void testStatsWithoutMapper() {
+        new StatsAggregation("s", "unknown").collector(SCHEMA);
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.aggregation;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests for {@link AggregationResults}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class AggregationResultsTest {
+
+    private static AggregationResults results(String name, AggregationResult result) {
+        AggregationResults results = new AggregationResults();
+        results.put(name, result);
+        return results;
+    }
+
+    @Test
+    public void testMergeBuckets() {
+        AggregationResults merged = results("a", new BucketsResult(ImmutableMap.of("x", 1L, "y", 2L)))
+                .merge(results("a", new BucketsResult(ImmutableMap.of("y", 3L, "z", 4L))));
+        assertEquals("Merged buckets are wrong",
+                     new BucketsResult(ImmutableMap.of("x", 1L, "y", 5L, "z", 4L)),
+                     merged.result("a"));
+    }
+
+    @Test
+    public void testMergeStats() {
+        AggregationResults merged = results("a", new StatsResult(2, 1.0, 5.0, 6.0))
+                .merge(results("a", new StatsResult(0, null, null, 0)))
+                .merge(results("a", new StatsResult(1, -1.0, -1.0, -1.0)));
+        assertEquals("Merged stats are wrong", new StatsResult(3, -1.0, 5.0, 5.0), merged.result("a"));
+    }
+
+    @Test
+    public void testMergeMissing() {
+        AggregationResults merged = new AggregationResults().merge(results("a", new StatsResult(1, 2.0, 2.0, 2.0)));
+        assertEquals("Merged stats are wrong", new StatsResult(1, 2.0, 2.0, 2.0), merged.result("a"));
+    }
+
+    @Test
+    public void testFinishTerms() {
+        AggregationResults results = results("a", new BucketsResult(ImmutableMap.of("x", 1L, "y", 3L, "z", 3L)));
+        AggregationResults finished = results.finish(Collections.singletonList(new TermsAggregation("a", "f", 2)));
+        assertEquals("Finished terms are wrong",
+                     Arrays.asList("y", "z"),
+                     Arrays.asList(((BucketsResult) finished.result("a")).buckets.keySet().toArray()));
+    }
+
+    @Test
+    public void testFinishHistogram() {
+        AggregationResults results = results("a", new BucketsResult(ImmutableMap.of("10", 1L, "-5", 2L, "0", 3L)));
+        AggregationResults finished = results.finish(Collections.singletonList(new HistogramAggregation("a", "f", 5.0)));
+        assertEquals("Finished histogram is wrong",
+                     Arrays.asList("-5", "0", "10"),
+                     Arrays.asList(((BucketsResult) finished.result("a")).buckets.keySet().toArray()));
+    }
+
+    @Test
+    public void testJson() {
+        AggregationResults results = results("a", new BucketsResult(ImmutableMap.of("x y", 1L)));
+        results.put("b", new StatsResult(1, 2.0, 2.0, 2.0));
+        String json = results.toJson();
+        assertEquals("JSON serialization is wrong",
+                     "{\"a\":{\"type\":\"buckets\",\"buckets\":{\"x y\":1}}," +
+                     "\"b\":{\"type\":\"stats\",\"count\":1,\"min\":2.0,\"max\":2.0,\"sum\":2.0}}",
+                     json);
+        assertEquals("JSON parsing is wrong", json, AggregationResults.fromJson(json).toJson());
+    }
+
+    @Test
+    public void testJsonWithLongStats() {
+        long big = 1L << 60;
+        AggregationResults results = results("a", new StatsResult(2, big + 1, big + 3, 2 * big + 4));
+        String json = results.toJson();
+        assertEquals("JSON serialization is wrong",
+                     "{\"a\":{\"type\":\"stats\",\"count\":2,\"min\":1152921504606846977," +
+                     "\"max\":1152921504606846979,\"sum\":2305843009213693956}}",
+                     json);
+        assertEquals("JSON parsing is wrong", results.result("a"), AggregationResults.fromJson(json).result("a"));
+    }
+
+    @Test
+    public void testMergeLongStats() {
+        long big = 1L << 60;
+        AggregationResults merged = results("a", new StatsResult(1, big + 1, big + 1, big + 1))
+                .merge(results("a", new StatsResult(1, big + 2, big + 2, big + 2)));
+        assertEquals("Merged stats are wrong", new StatsResult(2, big + 1, big + 2, 2 * big + 3), merged.result("a"));
+    }
+}
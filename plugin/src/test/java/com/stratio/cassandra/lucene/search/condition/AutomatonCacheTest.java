@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.condition;
+
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.FuzzyQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.RegexpQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.WildcardQuery;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class AutomatonCacheTest {
+
+    @Before
+    public void before() {
+        AutomatonCache.clear();
+    }
+
+    @Test
+    public void testWildcard() {
+        long hits = AutomatonCache.hitCount();
+        long misses = AutomatonCache.missCount();
+        Query query = AutomatonCache.wildcard("field", "*ouse");
+        assertEquals("Query is wrong", new WildcardQuery(new Term("field", "*ouse")), query);
+        assertSame("Query should be cached", query, AutomatonCache.wildcard("field", "*ouse"));
+        assertNotSame("Query should not be cached", query, AutomatonCache.wildcard("other", "*ouse"));
+        assertEquals("Hit count is wrong", hits + 1, AutomatonCache.hitCount());
+        assertEquals("Miss count is wrong", misses + 2, AutomatonCache.missCount());
+        assertEquals("Size is wrong", 2, AutomatonCache.size());
+    }
+
+    @Test
+    public void testRegexp() {
+        Query query = AutomatonCache.regexp("field", "[J][aeiou]{2}.*");
+        assertEquals("Query is wrong", new RegexpQuery(new Term("field", "[J][aeiou]{2}.*")), query);
+        assertSame("Query should be cached", query, AutomatonCache.regexp("field", "[J][aeiou]{2}.*"));
+        assertNotSame("Query should not be cached", query, AutomatonCache.wildcard("field", "[J][aeiou]{2}.*"));
+    }
+
+    @Test
+    public void testFuzzy() {
+        Query query = AutomatonCache.fuzzy("field", "house", 2, 0, 50, true);
+        assertTrue("Query type is wrong", query instanceof FuzzyQuery);
+        assertSame("Query should be cached", query, AutomatonCache.fuzzy("field", "house", 2, 0, 50, true));
+        assertNotSame("Query should not be cached", query, AutomatonCache.fuzzy("field", "house", 2, 0, 50, false));
+        assertNotSame("Query should not be cached", query, AutomatonCache.fuzzy("field", "house", 1, 0, 50, true));
+        assertEquals("Query should not be compiled",
+                     FuzzyQuery.class,
+                     AutomatonCache.fuzzy("field", "house", 0, 0, 50, true).getClass());
+    }
+
+    @Test
+    public void testFuzzyResults() throws IOException {
+        Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (String value : Arrays.asList("house", "hose", "mouse", "houses", "huose", "horse", "cat", "hou")) {
+                Document document = new Document();
+                document.add(new StringField("field", value, Field.Store.YES));
+                writer.addDocument(document);
+            }
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            for (int maxEdits = 1; maxEdits <= 2; maxEdits++) {
+                for (int prefixLength = 0; prefixLength <= 2; prefixLength++) {
+                    for (boolean transpositions : new boolean[]{true, false}) {
+                        Query expected = new FuzzyQuery(new Term("field", "house"),
+                                                        maxEdits,
+                                                        prefixLength,
+                                                        50,
+                                                        transpositions);
+                        Query actual = AutomatonCache.fuzzy("field",
+                                                            "house",
+                                                            maxEdits,
+                                                            prefixLength,
+                                                            50,
+                                                            transpositions);
+                        ScoreDoc[] expectedDocs = searcher.search(expected, 10).scoreDocs;
+                        ScoreDoc[] actualDocs = searcher.search(actual, 10).scoreDocs;
+                        assertEquals("Number of hits is wrong", expectedDocs.length, actualDocs.length);
+                        for (int i = 0; i < expectedDocs.length; i++) {
+                            assertEquals("Hit is wrong", expectedDocs[i].doc, actualDocs[i].doc);
+                            assertEquals("Score is wrong", expectedDocs[i].score, actualDocs[i].score, 0);
+                        }
+                    }
+                }
+            }
+        }
+    }
+}
@@ -19,13 +19,12 @@ import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.search.condition.builder.ContainsConditionBuilder;
 import com.stratio.cassandra.lucene.util.ByteBufferUtils;
-import org.apache.lucene.search.BooleanClause;
-import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.Query;
-import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.queries.TermsQuery;
+import org.apache.lucene.search.*;
 import org.junit.Test;
 
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static com.stratio.cassandra.lucene.schema.SchemaBuilders.*;
 import static com.stratio.cassandra.lucene.search.SearchBuilders.contains;
@@ -45,6 +44,9 @@ public class ContainsConditionTest extends AbstractConditionTest {
         assertEquals("Field is not set", "field", condition.field);
         assertArrayEquals("Values is not set", values, condition.values);
         assertEquals("Doc values is not set", MatchCondition.DEFAULT_DOC_VALUES, condition.docValues);
+        assertEquals("Terms threshold is not set to default",
+                     ContainsCondition.DEFAULT_TERMS_THRESHOLD,
+                     condition.termsThreshold);
     }
 
     @Test
@@ -84,6 +86,41 @@ public class ContainsConditionTest extends AbstractConditionTest {
         contains("values").build();
     }
 
+    @Test(expected = IndexException.class)
+    public void testBuildWithNullValue() {
+        contains("values", 1, null, 3).build();
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildWithNullValueAboveTermsThreshold() {
+        contains("values", 1, null, 3).termsThreshold(0).build();
+    }
+
+    @Test
+    public void testBuildTermsThreshold() {
+        ContainsCondition condition = contains("field", 1, 2, 3).termsThreshold(2).build();
+        assertEquals("Terms threshold is not set", 2, condition.termsThreshold);
+    }
+
+    @Test(expected = IndexException.class)
+    public void testBuildNegativeTermsThreshold() {
+        contains("field", 1, 2, 3).termsThreshold(-1).build();
+    }
+
+    @Test
+    public void testBuildZeroTermsThreshold() {
+        ContainsCondition condition = contains("field", 1, 2, 3).termsThreshold(0).build();
+        assertEquals("Terms threshold is not set", 0, condition.termsThreshold);
+        Schema schema = schema().mapper("field", integerMapper()).build();
+        assertEquals("Query type is wrong", TermsQuery.class, condition.doQuery(schema).getClass());
+    }
+
+    @Test
+    public void testJsonSerializationTermsThreshold() {
+        ContainsConditionBuilder builder = contains("field", 1, 2).termsThreshold(1);
+        testJsonSerialization(builder, "{type:\"contains\",field:\"field\",values:[1,2],terms_threshold:1}");
+    }
+
     @Test
     public void testJsonSerializationStrings() {
         ContainsConditionBuilder builder = contains("field", "a", "b").boost(0.7).docValues(true);
@@ -160,6 +197,56 @@ public class ContainsConditionTest extends AbstractConditionTest {
         assertEquals("Query is wrong", "cat", termQuery2.getTerm().bytes().utf8ToString());
     }
 
+    @Test
+    public void testQueryManyStrings() {
+        Object[] values = IntStream.range(0, 100).mapToObj(i -> "v" + i).toArray();
+        Schema schema = schema().mapper("name", stringMapper()).build();
+        Query query = contains("name", values).build().doQuery(schema);
+        assertEquals("Query type is wrong", TermsQuery.class, query.getClass());
+    }
+
+    @Test
+    public void testQueryManyStringsWithDocValues() {
+        Object[] values = IntStream.range(0, 100).mapToObj(i -> "v" + i).toArray();
+        Schema schema = schema().mapper("name", stringMapper()).build();
+        Query query = contains("name", values).docValues(true).build().doQuery(schema);
+        assertEquals("Query type is wrong", DocValuesTermsQuery.class, query.getClass());
+    }
+
+    @Test
+    public void testQueryManyIntegers() {
+        Object[] values = IntStream.range(0, 100).boxed().toArray();
+        Schema schema = schema().mapper("name", integerMapper()).build();
+        Query query = contains("name", values).build().doQuery(schema);
+        assertEquals("Query type is wrong", TermsQuery.class, query.getClass());
+        Query expected = contains("name", values).termsThreshold(values.length).build().doQuery(schema);
+        assertEquals("Query type is wrong", BooleanQuery.class, expected.getClass());
+    }
+
+    @Test
+    public void testQueryManyIntegersWithDocValues() {
+        Object[] values = IntStream.range(0, 100).boxed().toArray();
+        Schema schema = schema().mapper("name", integerMapper()).build();
+        Query query = contains("name", values).docValues(true).build().doQuery(schema);
+        assertEquals("Query type is wrong", DocValuesNumbersQuery.class, query.getClass());
+    }
+
+    @Test
+    public void testQueryManyFloats() {
+        Object[] values = IntStream.range(0, 100).mapToObj(i -> i + 0.5f).toArray();
+        Schema schema = schema().mapper("name", floatMapper()).build();
+        Query query = contains("name", values).build().doQuery(schema);
+        assertEquals("Query type is wrong", BooleanQuery.class, query.getClass());
+    }
+
+    @Test
+    public void testQueryManyTexts() {
+        Object[] values = IntStream.range(0, 100).mapToObj(i -> "v" + i).toArray();
+        Schema schema = schema().mapper("name", textMapper()).defaultAnalyzer("english").build();
+        Query query = contains("name", values).build().doQuery(schema);
+        assertEquals("Query type is wrong", BooleanQuery.class, query.getClass());
+    }
+
     @Test
     public void testToString() {
         ContainsCondition condition = contains("field", "value1", "value2").boost(0.7f).docValues(true).build();
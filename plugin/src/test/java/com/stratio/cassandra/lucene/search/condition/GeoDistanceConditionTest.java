@@ -121,7 +121,7 @@ public class GeoDistanceConditionTest extends AbstractConditionTest {
     }
 
     @Test
-    public void testQueryMax() {
+    public void testQueryMaxWithPointMapper() {
         Schema schema = schema().mapper("name", geoPointMapper("lat", "lon").maxLevels(8)).build();
         GeoDistanceCondition condition = new GeoDistanceCondition(0.5f,
                                                                   "name",
@@ -131,6 +131,23 @@ public class GeoDistanceConditionTest extends AbstractConditionTest {
                                                                   GeoDistance.parse("10hm"));
         Query query = condition.doQuery(schema);
         assertNotNull("Query is not built", query);
+        assertEquals("Query type is wrong", GeoDistanceQuery.class, query.getClass());
+        assertEquals("Query is wrong",
+                     "GeoDistanceQuery{field=name, latitude=90.0, longitude=-180.0, minKms=null, maxKms=1.0}",
+                     query.toString());
+    }
+
+    @Test
+    public void testQueryMax() {
+        Schema schema = schema().mapper("name", geoShapeMapper().maxLevels(8)).build();
+        GeoDistanceCondition condition = new GeoDistanceCondition(0.5f,
+                                                                  "name",
+                                                                  90D,
+                                                                  -180D,
+                                                                  null,
+                                                                  GeoDistance.parse("10hm"));
+        Query query = condition.doQuery(schema);
+        assertNotNull("Query is not built", query);
         BooleanQuery booleanQuery = (BooleanQuery) query;
         assertEquals("Query num clauses is wrong", 1, booleanQuery.clauses().size());
         BooleanClause maxClause = booleanQuery.clauses().get(0);
@@ -148,7 +165,18 @@ public class GeoDistanceConditionTest extends AbstractConditionTest {
     @Test
     public void testQueryMinMaxWithPointMapper() {
         Schema schema = schema().mapper("name", geoPointMapper("lat", "lon").maxLevels(8)).build();
-        testQueryMinMaxWithValidSchema(schema);
+        GeoDistanceCondition condition = new GeoDistanceCondition(0.5f,
+                                                                  "name",
+                                                                  90D,
+                                                                  -180D,
+                                                                  GeoDistance.parse("1km"),
+                                                                  GeoDistance.parse("3km"));
+        Query query = condition.doQuery(schema);
+        assertNotNull("Query is not built", query);
+        assertEquals("Query type is wrong", GeoDistanceQuery.class, query.getClass());
+        assertEquals("Query is wrong",
+                     "GeoDistanceQuery{field=name, latitude=90.0, longitude=-180.0, minKms=1.0, maxKms=3.0}",
+                     query.toString());
     }
 
     @Test
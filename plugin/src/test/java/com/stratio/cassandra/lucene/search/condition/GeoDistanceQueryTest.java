@@ -0,0 +1,115 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.condition;
+
+import com.stratio.cassandra.lucene.column.Columns;
+import com.stratio.cassandra.lucene.common.GeoDistance;
+import com.stratio.cassandra.lucene.schema.mapping.GeoPointMapper;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.geoPointMapper;
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class GeoDistanceQueryTest {
+
+    private static final GeoPointMapper MAPPER = geoPointMapper("lat", "lon").maxLevels(8).build("field");
+
+    private static GeoDistanceCondition condition(double lat, double lon, String min, String max) {
+        return new GeoDistanceCondition(null,
+                                        "field",
+                                        lat,
+                                        lon,
+                                        min == null ? null : GeoDistance.parse(min),
+                                        GeoDistance.parse(max));
+    }
+
+    @Test
+    public void testMatches() {
+        GeoDistanceQuery query = (GeoDistanceQuery) condition(40.4, -3.7, "10km", "100km").doQuery(MAPPER);
+        assertFalse("Point should not match", query.matches(40.4, -3.7));
+        assertTrue("Point should match", query.matches(40.8, -3.7));
+        assertFalse("Point should not match", query.matches(42.4, -3.7));
+        assertFalse("Point should not match", query.matches(40.4, 176.3));
+    }
+
+    @Test
+    public void testMatchesCrossingDateLine() {
+        GeoDistanceQuery query = (GeoDistanceQuery) condition(0, 179.9, null, "100km").doQuery(MAPPER);
+        assertTrue("Point should match", query.matches(0, -179.9));
+        assertTrue("Point should match", query.matches(0, 179.5));
+        assertFalse("Point should not match", query.matches(0, 0));
+    }
+
+    @Test
+    public void testEquals() {
+        Query query = condition(40.4, -3.7, "10km", "100km").doQuery(MAPPER);
+        assertEquals("Query equals is wrong", query, condition(40.4, -3.7, "10km", "100km").doQuery(MAPPER));
+        assertEquals("Query hashCode is wrong",
+                     query.hashCode(),
+                     condition(40.4, -3.7, "10km", "100km").doQuery(MAPPER).hashCode());
+        assertNotEquals("Query equals is wrong", query, condition(40.4, -3.7, null, "100km").doQuery(MAPPER));
+        assertNotEquals("Query equals is wrong", query, condition(40.4, -3.6, "10km", "100km").doQuery(MAPPER));
+    }
+
+    @Test
+    public void testSearch() throws IOException {
+        Random random = new Random(0);
+        Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < 2000; i++) {
+                double lat = 38 + random.nextDouble() * 5;
+                double lon = -6 + random.nextDouble() * 5;
+                Document document = new Document();
+                for (IndexableField field : MAPPER.indexableFields(Columns.empty().add("lat", lat).add("lon", lon))) {
+                    // Simulate documents indexed without coordinates doc values
+                    if (i % 4 != 0 || field.fieldType().docValuesType() != DocValuesType.NUMERIC) {
+                        document.add(field);
+                    }
+                }
+                writer.addDocument(document);
+                if (i % 500 == 0) {
+                    writer.commit();
+                }
+            }
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            for (String[] distances : new String[][]{{null, "50km"}, {"30km", "120km"}, {null, "1000km"}}) {
+                GeoDistanceCondition condition = condition(40.4, -3.7, distances[0], distances[1]);
+                Query twoPhase = condition.doQuery(MAPPER);
+                Query exact = condition.doQuery(MAPPER.strategy);
+                assertEquals("Number of hits is wrong", searcher.count(exact), searcher.count(twoPhase));
+            }
+        }
+    }
+}
@@ -17,9 +17,13 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.ShingleIndex;
 import com.stratio.cassandra.lucene.search.condition.builder.PhraseConditionBuilder;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.PhraseQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.junit.Test;
 
 import static com.stratio.cassandra.lucene.schema.SchemaBuilders.schema;
@@ -92,6 +96,33 @@ public class PhraseConditionTest extends AbstractConditionTest {
         assertEquals("Query slop is wrong", 2, luceneQuery.getSlop());
     }
 
+    private static Query shingles(Query query) {
+        return ((BooleanQuery) query).clauses().get(0).getQuery();
+    }
+
+    @Test
+    public void testPhraseQueryWithShingles() {
+
+        Schema schema = schema().mapper("name", textMapper().analyzer("whitespace").shingles(2)).build();
+
+        Query query = new PhraseCondition(0.5f, "name", "big house", 0).doQuery(schema);
+        assertEquals("Query type is wrong", BooleanQuery.class, query.getClass());
+        assertEquals("Query clauses are wrong", 2, ((BooleanQuery) query).clauses().size());
+        assertEquals("Query is wrong",
+                     new TermQuery(new Term("name#shingle", "big house")),
+                     shingles(query));
+        assertEquals("Query is wrong",
+                     new TermQuery(new Term("name#shingle", ShingleIndex.STACKED_MARKER)),
+                     ((BooleanQuery) ((BooleanQuery) query).clauses().get(1).getQuery()).clauses().get(0).getQuery());
+
+        query = new PhraseCondition(0.5f, "name", "the big white house", 0).doQuery(schema);
+        assertEquals("Query type is wrong", BooleanQuery.class, shingles(query).getClass());
+        assertEquals("Query clauses are wrong", 3, ((BooleanQuery) shingles(query)).clauses().size());
+
+        query = new PhraseCondition(0.5f, "name", "big house", 1).doQuery(schema);
+        assertEquals("Query type is wrong", PhraseQuery.class, query.getClass());
+    }
+
     @Test
     public void testToString() {
         PhraseCondition condition = new PhraseCondition(0.5f, "name", "hola adios", 2);
@@ -17,8 +17,12 @@ package com.stratio.cassandra.lucene.search.condition;
 
 import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.search.condition.builder.PrefixConditionBuilder;
+import com.stratio.cassandra.lucene.schema.mapping.PrefixIndex;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ConstantScoreQuery;
 import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
 import org.junit.Test;
 
 import static com.stratio.cassandra.lucene.schema.SchemaBuilders.*;
@@ -77,6 +81,29 @@ public class PrefixConditionTest extends AbstractConditionTest {
         assertEquals("Query prefix is wrong", "tr", luceneQuery.getPrefix().text());
     }
 
+    @Test
+    public void testStringValueWithPrefixIndex() {
+        Schema schema = schema().mapper("name", stringMapper().prefixIndex(true).prefixMaxLength(2)).build();
+        Query query = new PrefixCondition(0.5f, "name", "tr").doQuery(schema);
+        assertEquals("Query is wrong",
+                     new ConstantScoreQuery(new TermQuery(new Term("name" + PrefixIndex.SUFFIX, "tr"))),
+                     query);
+    }
+
+    @Test
+    public void testStringValueLongerThanPrefixIndex() {
+        Schema schema = schema().mapper("name", stringMapper().prefixIndex(true).prefixMaxLength(2)).build();
+        Query query = new PrefixCondition(0.5f, "name", "tre").doQuery(schema);
+        assertEquals("Query type is wrong", PrefixQuery.class, query.getClass());
+    }
+
+    @Test
+    public void testTextValueWithPrefixIndex() {
+        Schema schema = schema().mapper("name", textMapper().prefixIndex(true)).build();
+        Query query = new PrefixCondition(0.5f, "name", "tr").doQuery(schema);
+        assertEquals("Query type is wrong", ConstantScoreQuery.class, query.getClass());
+    }
+
     @Test
     public void testInetV4Value() {
 
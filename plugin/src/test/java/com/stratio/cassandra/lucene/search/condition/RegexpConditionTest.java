@@ -18,6 +18,8 @@ package com.stratio.cassandra.lucene.search.condition;
 import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.search.condition.builder.RegexpConditionBuilder;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.RegexpQuery;
 import org.junit.Test;
@@ -95,6 +97,19 @@ public class RegexpConditionTest extends AbstractConditionTest {
         assertEquals("Query field is wrong", "name", regexQuery.getField());
     }
 
+    @Test
+    public void testStringWithReverseIndex() {
+
+        Schema schema = schema().mapper("name", stringMapper().reverseIndex(true)).build();
+
+        Query query = new RegexpCondition(0.5f, "name", ".*son").doQuery(schema);
+        assertEquals("Query is wrong", new PrefixQuery(new Term("name#reverse", "nos")), query);
+
+        query = new RegexpCondition(0.5f, "name", ".*s.n").doQuery(schema);
+        assertEquals("Query type is wrong", RegexpQuery.class, query.getClass());
+        assertEquals("Query field is wrong", "name", ((RegexpQuery) query).getField());
+    }
+
     @Test(expected = IndexException.class)
     public void testInteger() {
 
@@ -19,6 +19,8 @@ import com.stratio.cassandra.lucene.IndexException;
 import com.stratio.cassandra.lucene.schema.Schema;
 import com.stratio.cassandra.lucene.search.SearchBuilders;
 import com.stratio.cassandra.lucene.search.condition.builder.WildcardConditionBuilder;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.PrefixQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.WildcardQuery;
 import org.junit.Test;
@@ -98,6 +100,28 @@ public class WildcardConditionTest extends AbstractConditionTest {
         assertEquals("Term text is not properly set", "tr*", wildcardQuery.getTerm().text());
     }
 
+    @Test
+    public void testStringValueWithReverseIndex() {
+
+        Schema schema = schema().mapper("name", stringMapper().reverseIndex(true)).build();
+
+        Query query = new WildcardCondition(0.5f, "name", "*son").doQuery(schema);
+        assertEquals("Query is wrong", new PrefixQuery(new Term("name#reverse", "nos")), query);
+
+        query = new WildcardCondition(0.5f, "name", "*s?n").doQuery(schema);
+        assertEquals("Query is wrong", new WildcardQuery(new Term("name#reverse", "n?s*")), query);
+
+        query = new WildcardCondition(0.5f, "name", "ja*").doQuery(schema);
+        assertEquals("Query is wrong", new WildcardQuery(new Term("name", "ja*")), query);
+    }
+
+    @Test
+    public void testTextValueWithReverseIndex() {
+        Schema schema = schema().mapper("name", textMapper().reverseIndex(true)).build();
+        Query query = new WildcardCondition(0.5f, "name", "*son").doQuery(schema);
+        assertEquals("Query is wrong", new PrefixQuery(new Term("name#reverse", "nos")), query);
+    }
+
     @Test(expected = IndexException.class)
     public void testIntegerValue() {
 
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.search.sort;
+
+import com.spatial4j.core.distance.DistanceUtils;
+import com.spatial4j.core.shape.Rectangle;
+import com.stratio.cassandra.lucene.column.Columns;
+import com.stratio.cassandra.lucene.schema.Schema;
+import com.stratio.cassandra.lucene.schema.mapping.GeoPointMapper;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.queries.function.ValueSource;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.RAMDirectory;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Random;
+
+import static com.stratio.cassandra.lucene.common.GeospatialUtils.CONTEXT;
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.geoPointMapper;
+import static com.stratio.cassandra.lucene.schema.SchemaBuilders.schema;
+import static org.junit.Assert.*;
+
+/**
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class GeoDistanceComparatorSourceTest {
+
+    private static final Schema SCHEMA = schema().mapper("field", geoPointMapper("lat", "lon").maxLevels(8)).build();
+    private static final GeoPointMapper MAPPER = (GeoPointMapper) SCHEMA.mapper("field");
+
+    private static GeoDistanceComparatorSource source(double latitude, double longitude) {
+        ValueSource fallback = MAPPER.strategy.getGeometryStrategy()
+                                              .makeDistanceValueSource(CONTEXT.makePoint(longitude, latitude),
+                                                                       DistanceUtils.DEG_TO_KM);
+        return new GeoDistanceComparatorSource(MAPPER.latitudeField,
+                                               MAPPER.longitudeField,
+                                               latitude,
+                                               longitude,
+                                               fallback);
+    }
+
+    @Test
+    public void testDistance() {
+        GeoDistanceComparatorSource source = source(40.4, -3.7);
+        assertEquals("Distance is wrong", 0, source.distance(40.4, -3.7), 1e-9);
+        assertEquals("Distance is wrong", 508, source.distance(41.4, 2.2), 1);
+    }
+
+    @Test
+    public void testCutoff() {
+        GeoDistanceComparatorSource source = source(40.4, -3.7);
+        Rectangle box = source.cutoff(100);
+        assertFalse("Point should be inside", GeoDistanceComparatorSource.outside(box, 40.4, -3.7));
+        assertFalse("Point should be inside", GeoDistanceComparatorSource.outside(box, 41.2, -3.7));
+        assertTrue("Point should be outside", GeoDistanceComparatorSource.outside(box, 41.4, -3.7));
+        assertTrue("Point should be outside", GeoDistanceComparatorSource.outside(box, 40.4, -1.0));
+    }
+
+    @Test
+    public void testCutoffCrossingDateLine() {
+        Rectangle box = source(0, 179.9).cutoff(100);
+        assertTrue("Box should cross the date line", box.getCrossesDateLine());
+        assertFalse("Point should be inside", GeoDistanceComparatorSource.outside(box, 0, -179.9));
+        assertTrue("Point should be outside", GeoDistanceComparatorSource.outside(box, 0, 0));
+    }
+
+    @Test
+    public void testEquals() {
+        GeoDistanceComparatorSource source = source(40.4, -3.7);
+        assertEquals("Equals is wrong", source, source(40.4, -3.7));
+        assertEquals("Hash code is wrong", source.hashCode(), source(40.4, -3.7).hashCode());
+        assertNotEquals("Equals is wrong", source, source(40.4, -3.6));
+    }
+
+    @Test
+    public void testSort() throws IOException {
+        Random random = new Random(0);
+        Directory directory = new RAMDirectory();
+        try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer()))) {
+            for (int i = 0; i < 2000; i++) {
+                double lat = 38 + random.nextDouble() * 5;
+                double lon = -6 + random.nextDouble() * 5;
+                Document document = new Document();
+                for (IndexableField field : MAPPER.indexableFields(Columns.empty().add("lat", lat).add("lon", lon))) {
+                    // Simulate documents indexed without coordinates doc values
+                    if (i % 4 != 0 || field.fieldType().docValuesType() != DocValuesType.NUMERIC) {
+                        document.add(field);
+                    }
+                }
+                writer.addDocument(document);
+                if (i % 500 == 0) {
+                    writer.commit();
+                }
+            }
+        }
+        try (DirectoryReader reader = DirectoryReader.open(directory)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            for (boolean reverse : new boolean[]{false, true}) {
+                GeoDistanceSortField sortField = new GeoDistanceSortField("field", reverse, 40.4, -3.7);
+                Sort sort = new Sort(sortField.sortField(SCHEMA));
+                Sort expectedSort = new Sort(MAPPER.strategy.getGeometryStrategy()
+                                                            .makeDistanceValueSource(CONTEXT.makePoint(-3.7, 40.4),
+                                                                                     DistanceUtils.DEG_TO_KM)
+                                                            .getSortField(reverse));
+                ScoreDoc after = null;
+                ScoreDoc expectedAfter = null;
+                for (int page = 0; page < 3; page++) {
+                    TopDocs topDocs = searcher.searchAfter(after, new MatchAllDocsQuery(), 20, sort);
+                    TopDocs expected = searcher.searchAfter(expectedAfter, new MatchAllDocsQuery(), 20, expectedSort);
+                    assertEquals("Number of hits is wrong", expected.scoreDocs.length, topDocs.scoreDocs.length);
+                    for (int i = 0; i < topDocs.scoreDocs.length; i++) {
+                        assertEquals("Distance is wrong",
+                                     (Double) ((FieldDoc) expected.scoreDocs[i]).fields[0],
+                                     (Double) ((FieldDoc) topDocs.scoreDocs[i]).fields[0],
+                                     1e-6);
+                    }
+                    after = topDocs.scoreDocs[topDocs.scoreDocs.length - 1];
+                    expectedAfter = expected.scoreDocs[expected.scoreDocs.length - 1];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.cassandra.service;
+
+import org.apache.cassandra.db.PartitionPosition;
+import org.apache.cassandra.db.filter.DataLimits;
+import org.apache.cassandra.dht.AbstractBounds;
+import org.apache.cassandra.dht.Bounds;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken;
+import org.apache.cassandra.dht.Range;
+import org.apache.cassandra.dht.Token;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests for {@link LuceneRangeLimits}.
+ *
+ * @author Andres de la Pena {@literal <adelapena@stratio.com>}
+ */
+public class LuceneRangeLimitsTest {
+
+    private static final Token MIN = Murmur3Partitioner.MINIMUM;
+
+    private static Token token(long value) {
+        return new LongToken(value);
+    }
+
+    private static AbstractBounds<PartitionPosition> range(Token left, Token right) {
+        return new Range<>(left.maxKeyBound(), right.maxKeyBound());
+    }
+
+    private static int reduce(int limit, AbstractBounds<PartitionPosition> range) {
+        return LuceneRangeLimits.reduce(DataLimits.cqlLimits(limit), range).count();
+    }
+
+    @Test
+    public void testReduceHalfRing() {
+        assertEquals("Reduced limit is wrong", 83, reduce(100, range(MIN, token(0))));
+        assertEquals("Reduced limit is wrong", 83, reduce(100, range(token(0), MIN)));
+        assertEquals("Reduced limit is wrong", 83, reduce(100, range(token(-1000), token(Long.MAX_VALUE - 1000))));
+    }
+
+    @Test
+    public void testReduceWrapAround() {
+        assertEquals("Reduced limit is wrong", 83, reduce(100, range(token(1L << 62), token(-(1L << 62)))));
+    }
+
+    @Test
+    public void testReduceFullRing() {
+        assertEquals("Reduced limit is wrong", 100, reduce(100, range(MIN, MIN)));
+        assertEquals("Reduced limit is wrong", 100, reduce(100, range(token(5), token(5))));
+    }
+
+    @Test
+    public void testReduceTinyShare() {
+        assertEquals("Reduced limit is wrong", 5, reduce(100, range(token(0), token(1))));
+        assertEquals("Reduced limit is wrong", 4, reduce(100, new Bounds<>(token(7).minKeyBound(),
+                                                                          token(7).maxKeyBound())));
+    }
+
+    @Test
+    public void testReduceSmallLimit() {
+        assertEquals("Reduced limit is wrong", 10, reduce(10, range(MIN, token(0))));
+    }
+
+    @Test
+    public void testReduceWithoutLimit() {
+        assertSame("Reduced limits are wrong",
+                   DataLimits.NONE,
+                   LuceneRangeLimits.reduce(DataLimits.NONE, range(MIN, token(0))));
+    }
+
+    @Test
+    public void testReduceKeepsPerPartitionLimit() {
+        DataLimits limits = LuceneRangeLimits.reduce(DataLimits.cqlLimits(100, 3), range(MIN, token(0)));
+        assertEquals("Reduced limit is wrong", 83, limits.count());
+        assertEquals("Reduced per partition limit is wrong", 3, limits.perPartitionCount());
+    }
+
+    @Test
+    public void testRequiresRetry() {
+        assertTrue("Truncated range with selected last row should be retried",
+                   LuceneRangeLimits.requiresRetry(100, 83, 83, true));
+        assertFalse("Range returning less rows than its limit shouldn't be retried",
+                    LuceneRangeLimits.requiresRetry(100, 83, 82, true));
+        assertFalse("Range whose last row is not selected shouldn't be retried",
+                    LuceneRangeLimits.requiresRetry(100, 83, 83, false));
+        assertFalse("Range with full limit shouldn't be retried",
+                    LuceneRangeLimits.requiresRetry(100, 100, 100, true));
+    }
+}
@@ -23,6 +23,8 @@ import org.apache.cassandra.config.Config
 import org.junit.runner.RunWith
 import org.scalatest.junit.JUnitRunner
 
+import scala.collection.JavaConverters._
+
 /** Tests for [[IndexOptions]].
   *
   * @author Andres de la Pena `adelapena@stratio.com`
@@ -161,6 +163,115 @@ class IndexOptionsTest extends BaseScalaTest {
     }.getMessage shouldBe s"'$MAX_CACHED_MB_OPTION' must be strictly positive, found: -1"
   }
 
+  // Filter cache MB option tests
+  test("parse filter cache MB option with default") {
+    parseFilterCacheMB(Map()) shouldBe DEFAULT_FILTER_CACHE_MB
+  }
+
+  test("parse filter cache MB option with integer") {
+    parseFilterCacheMB(Map(FILTER_CACHE_MB_OPTION -> "64")) shouldBe 64
+  }
+
+  test("parse filter cache MB option with zero value") {
+    parseFilterCacheMB(Map(FILTER_CACHE_MB_OPTION -> "0")) shouldBe 0
+  }
+
+  test("parse filter cache MB option with failing non numeric value") {
+    intercept[IndexException] {
+      parseFilterCacheMB(Map(FILTER_CACHE_MB_OPTION -> "a"))
+    }.getMessage shouldBe s"'$FILTER_CACHE_MB_OPTION' must be a non-negative integer, found: a"
+  }
+
+  test("parse filter cache MB option with failing negative value") {
+    intercept[IndexException] {
+      parseFilterCacheMB(Map(FILTER_CACHE_MB_OPTION -> "-1"))
+    }.getMessage shouldBe s"'$FILTER_CACHE_MB_OPTION' must not be negative, found: -1"
+  }
+
+  // Filter cache policy option tests
+  test("parse filter cache policy option with default") {
+    parseFilterCachePolicy(Map()) shouldBe DEFAULT_FILTER_CACHE_POLICY
+  }
+
+  test("parse filter cache policy option with always") {
+    parseFilterCachePolicy(Map(FILTER_CACHE_POLICY_OPTION -> "ALWAYS")) shouldBe "always"
+  }
+
+  test("parse filter cache policy option with failing unknown value") {
+    intercept[IndexException] {
+      parseFilterCachePolicy(Map(FILTER_CACHE_POLICY_OPTION -> "lfu"))
+    }.getMessage shouldBe s"'$FILTER_CACHE_POLICY_OPTION' must be one of frequency, always, found: lfu"
+  }
+
+  // Search cache size option tests
+  test("parse search cache size option with default") {
+    parseSearchCacheSize(Map()) shouldBe DEFAULT_SEARCH_CACHE_SIZE
+  }
+
+  test("parse search cache size option with integer") {
+    parseSearchCacheSize(Map(SEARCH_CACHE_SIZE_OPTION -> "1000")) shouldBe 1000
+  }
+
+  test("parse search cache size option with zero") {
+    parseSearchCacheSize(Map(SEARCH_CACHE_SIZE_OPTION -> "0")) shouldBe 0
+  }
+
+  test("parse search cache size option with failing negative value") {
+    intercept[IndexException] {
+      parseSearchCacheSize(Map(SEARCH_CACHE_SIZE_OPTION -> "-1"))
+    }.getMessage shouldBe s"'$SEARCH_CACHE_SIZE_OPTION' must not be negative, found: -1"
+  }
+
+  // Search cache TTL option tests
+  test("parse search cache TTL option with default") {
+    parseSearchCacheTTLSeconds(Map()) shouldBe DEFAULT_SEARCH_CACHE_TTL_SECONDS
+  }
+
+  test("parse search cache TTL option with integer") {
+    parseSearchCacheTTLSeconds(Map(SEARCH_CACHE_TTL_SECONDS_OPTION -> "5")) shouldBe 5
+  }
+
+  test("parse search cache TTL option with failing zero value") {
+    intercept[IndexException] {
+      parseSearchCacheTTLSeconds(Map(SEARCH_CACHE_TTL_SECONDS_OPTION -> "0"))
+    }.getMessage shouldBe s"'$SEARCH_CACHE_TTL_SECONDS_OPTION' must be strictly positive, found: 0"
+  }
+
+  // Range read concurrency option tests
+  test("parse range read concurrency option with default") {
+    parseRangeReadConcurrency(Map()) shouldBe DEFAULT_RANGE_READ_CONCURRENCY
+  }
+
+  test("parse range read concurrency option with integer") {
+    parseRangeReadConcurrency(Map(RANGE_READ_CONCURRENCY_OPTION -> "4")) shouldBe 4
+  }
+
+  test("parse range read concurrency option with zero") {
+    parseRangeReadConcurrency(Map(RANGE_READ_CONCURRENCY_OPTION -> "0")) shouldBe 0
+  }
+
+  test("parse range read concurrency option with failing negative value") {
+    intercept[IndexException] {
+      parseRangeReadConcurrency(Map(RANGE_READ_CONCURRENCY_OPTION -> "-1"))
+    }.getMessage shouldBe s"'$RANGE_READ_CONCURRENCY_OPTION' must not be negative, found: -1"
+  }
+
+  // Reduce range limits option tests
+  test("parse reduce range limits option with default") {
+    parseReduceRangeLimits(Map()) shouldBe DEFAULT_REDUCE_RANGE_LIMITS
+  }
+
+  test("parse reduce range limits option with boolean") {
+    parseReduceRangeLimits(Map(REDUCE_RANGE_LIMITS_OPTION -> "true")) shouldBe true
+    parseReduceRangeLimits(Map(REDUCE_RANGE_LIMITS_OPTION -> "false")) shouldBe false
+  }
+
+  test("parse reduce range limits option with failing non boolean value") {
+    intercept[IndexException] {
+      parseReduceRangeLimits(Map(REDUCE_RANGE_LIMITS_OPTION -> "yes"))
+    }.getMessage should startWith(s"'$REDUCE_RANGE_LIMITS_OPTION' is invalid")
+  }
+
   // Indexing threads option tests
   test("parse indexing threads option with default") {
     parseIndexingThreads(Map()) shouldBe DEFAULT_INDEXING_THREADS
@@ -381,4 +492,37 @@ class IndexOptionsTest extends BaseScalaTest {
       parsePathAndPartitioner(Map(), null, paths, baseTablePath)
     }.getMessage shouldBe "When cassandra is configured with more than one 'data_file_directory', 'directory_path' required"
   }
-}
\ No newline at end of file
+
+  // Byte comparable keys option tests
+  test("parse byte comparable keys option with default") {
+    parseByteComparableKeys(Map(), null) shouldBe DEFAULT_BYTE_COMPARABLE_KEYS
+  }
+
+  test("parse byte comparable keys option with false") {
+    parseByteComparableKeys(Map(BYTE_COMPARABLE_KEYS_OPTION -> "false"), null) shouldBe false
+  }
+
+  test("parse byte comparable keys option with failing non boolean value") {
+    intercept[IndexException] {
+      parseByteComparableKeys(Map(BYTE_COMPARABLE_KEYS_OPTION -> "a"), null)
+    }.getMessage should startWith(s"'$BYTE_COMPARABLE_KEYS_OPTION' is invalid")
+  }
+
+  // Search templates option tests
+  test("parse search templates option with default") {
+    parseSearchTemplates(Map()) shouldBe DEFAULT_SEARCH_TEMPLATES
+  }
+
+  test("parse search templates option with templates") {
+    val json = "{by_user: {filter: {type: \"match\", field: \"user\", value: \"${user}\"}}}"
+    val templates = parseSearchTemplates(Map(SEARCH_TEMPLATES_OPTION -> json))
+    templates.keySet shouldBe Set("by_user")
+    templates("by_user").parameters.asScala shouldBe Set("user")
+  }
+
+  test("parse search templates option with failing non object value") {
+    intercept[IndexException] {
+      parseSearchTemplates(Map(SEARCH_TEMPLATES_OPTION -> "[]"))
+    }.getMessage should startWith(s"'$SEARCH_TEMPLATES_OPTION' is invalid")
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene
+
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import com.stratio.cassandra.lucene.partitioning.{PartitionerOnNone, PartitionerOnToken}
+import org.apache.cassandra.db.{Clustering, DecoratedKey, PartitionPosition}
+import org.apache.cassandra.dht.Murmur3Partitioner.LongToken
+import org.apache.cassandra.dht.{AbstractBounds, Murmur3Partitioner, Range, Token}
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[IndexPagingState]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class IndexPagingStateTest extends BaseScalaTest {
+
+  def key(n: Int): DecoratedKey = Murmur3Partitioner.instance.decorateKey(int32.decompose(n))
+
+  def clustering(s: String): Clustering = new Clustering(utf8.decompose(s))
+
+  def roundTrip(state: IndexPagingState): IndexPagingState = {
+    IndexPagingState.fromByteBuffer(state.toByteBuffer, Murmur3Partitioner.instance)
+  }
+
+  test("serialize empty state") {
+    val state = roundTrip(new IndexPagingState(100))
+    state.remaining shouldBe 100
+    state.toByteBuffer shouldBe new IndexPagingState(100).toByteBuffer
+    state.toByteBuffer.remaining shouldBe 2
+  }
+
+  test("serialize state with entries") {
+    val state = new IndexPagingState(1000)
+    state.put(0, key(1), clustering("a"))
+    state.put(0, key(2), clustering("b"))
+    state.put(3, key(3), clustering("c"))
+    val copy = roundTrip(state)
+    copy.remaining shouldBe 1000
+    copy.toByteBuffer shouldBe state.toByteBuffer
+  }
+
+  test("serialize state compactly") {
+    val state = new IndexPagingState(10)
+    state.put(0, key(1), clustering("a"))
+    state.put(0, key(2), clustering("b"))
+    // remaining, partitions, partition, keys and two times key, clustering size and value
+    state.toByteBuffer.remaining shouldBe 4 + 2 * (5 + 1 + 2)
+  }
+
+  test("replace entry for the same partition key") {
+    val state = new IndexPagingState(10)
+    state.put(0, key(1), clustering("a"))
+    state.put(0, key(1), clustering("b"))
+    roundTrip(state).toByteBuffer shouldBe state.toByteBuffer
+    state.toByteBuffer.remaining shouldBe 4 + 5 + 1 + 2
+  }
+
+  def token(value: Long): Token = new LongToken(value)
+
+  def range(left: Token, right: Token): AbstractBounds[PartitionPosition] = {
+    new Range[PartitionPosition](left.maxKeyBound, right.maxKeyBound)
+  }
+
+  val min: Token = Murmur3Partitioner.MINIMUM
+  val splits: Seq[Token] = Seq(min, token(-3L << 60), token(0), token(3L << 60))
+  val bounds: IndexedSeq[AbstractBounds[PartitionPosition]] = {
+    splits.zip(splits.drop(1) :+ min).map { case (left, right) => range(left, right) }.toIndexedSeq
+  }
+
+  /** 40 partition keys in ring order */
+  val keys: Seq[DecoratedKey] = (0 until 40).map(key).sortWith(_.compareTo(_) < 0)
+
+  /** Rows with two clusterings for each partition key, in ring order */
+  val rows: Seq[(DecoratedKey, Clustering)] = for {
+    k <- keys
+    c <- Seq("a", "b")
+  } yield (k, clustering(c))
+
+  /** Returns the last of the specified rows contained in the specified range, if any. */
+  def last(rows: Seq[(DecoratedKey, Clustering)], range: AbstractBounds[PartitionPosition])
+  : Option[((Int, DecoratedKey), Clustering)] = {
+    rows.filter(row => range.contains(row._1)).lastOption.map { case (k, c) => ((0, k), c) }
+  }
+
+  test("for key") {
+    val state = new IndexPagingState(10)
+    state.put(0, key(1), clustering("a"))
+    state.put(1, key(2), clustering("b"))
+    val partitioner = PartitionerOnToken(2, None)
+    state.forKey(key(1), partitioner) shouldBe List(Some(((0, key(1)), clustering("a"))), None)
+    state.forKey(key(2), partitioner) shouldBe List(None, Some(((1, key(2)), clustering("b"))))
+    state.forKey(key(3), partitioner) shouldBe List(None, None)
+  }
+
+  test("for range without positions") {
+    val state = new IndexPagingState(10)
+    bounds.foreach(bound => state.forRange(bound, PartitionerOnNone()) shouldBe List(None))
+  }
+
+  test("update and for range with several ranges and pages") {
+    val partitioner = PartitionerOnNone()
+    val state = new IndexPagingState(1000)
+    val pages = rows.grouped(7).toList
+    pages.indices.foreach { page =>
+      state.update(bounds, pages(page), partitioner)
+      val seen = pages.take(page + 1).flatten
+      bounds.foreach(bound => state.forRange(bound, partitioner) shouldBe List(last(seen, bound)))
+      val copy = roundTrip(state)
+      bounds.foreach(bound => copy.forRange(bound, partitioner) shouldBe List(last(seen, bound)))
+    }
+    state.remaining shouldBe 1000 - rows.size
+  }
+
+  test("update keeps one position per range") {
+    val state = new IndexPagingState(1000)
+    state.update(bounds, rows, PartitionerOnNone())
+    bounds.flatMap(bound => state.forRange(bound, PartitionerOnNone()).flatten) should have size 4
+  }
+
+  test("for range with Lucene partitions") {
+    val partitioner = PartitionerOnToken(3, None)
+    val state = new IndexPagingState(1000)
+    state.update(bounds, rows, partitioner)
+    bounds.foreach { bound =>
+      val expected = (0 until 3).map { p =>
+        val partitionRows = rows.filter(row => partitioner.partition(row._1) == p)
+        last(partitionRows, bound).map { case ((_, k), c) => ((p, k), c) }
+      }.toList
+      state.forRange(bound, partitioner) shouldBe expected
+    }
+  }
+
+  test("for range wrapping around the ring") {
+    val state = new IndexPagingState(1000)
+    state.update(bounds, rows, PartitionerOnNone())
+    val wrapping = range(splits(3), splits(1))
+    val position = state.forRange(wrapping, PartitionerOnNone()).head
+    position shouldBe last(rows, bounds(3))
+  }
+
+  test("for range with exclusive left bound") {
+    val state = new IndexPagingState(1000)
+    state.put(0, keys(10), clustering("a"))
+    state.put(0, keys(11), clustering("b"))
+    val range = new Range[PartitionPosition](keys(10), keys(20))
+    state.forRange(range, PartitionerOnNone()) shouldBe List(Some(((0, keys(11)), clustering("b"))))
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene
+
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import com.stratio.cassandra.lucene.IndexReader._
+import org.apache.cassandra.db.filter.{ClusteringIndexFilter, ClusteringIndexSliceFilter}
+import org.apache.cassandra.db.{DecoratedKey, Slices}
+import org.apache.cassandra.dht.Murmur3Partitioner
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+import scala.collection.mutable
+
+/** Tests for [[IndexReader]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class IndexReaderTest extends BaseScalaTest {
+
+  def read(n: Int): (DecoratedKey, ClusteringIndexFilter) = {
+    val key = Murmur3Partitioner.instance.decorateKey(int32.decompose(n))
+    (key, new ClusteringIndexSliceFilter(Slices.ALL, false))
+  }
+
+  test("read in order with empty reads") {
+    readInOrder(Seq.empty[Int], Ordering.Int)(_.toString) shouldBe Seq.empty[String]
+  }
+
+  test("read in order with a single read") {
+    readInOrder(Seq(1), Ordering.Int)(_.toString) shouldBe Seq("1")
+  }
+
+  test("read in order keeps the order of the reads") {
+    val done = mutable.ArrayBuffer.empty[Int]
+    val results = readInOrder(Seq(3, 1, 4, 2), Ordering.Int)(i => {done += i; i * 10})
+    done shouldBe Seq(1, 2, 3, 4)
+    results shouldBe Seq(30, 10, 40, 20)
+  }
+
+  test("read in token order keeps the order of the hits") {
+    val hits = (1 to 10).map(read)
+    val tokens = hits.map(_._1.getToken)
+    tokens.sorted should not be tokens
+    val done = mutable.ArrayBuffer.empty[(DecoratedKey, ClusteringIndexFilter)]
+    val results = readInOrder(hits, TOKEN_ORDER)(r => {done += r; r._1})
+    done.map(_._1.getToken) shouldBe tokens.sorted
+    results shouldBe hits.map(_._1)
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import org.apache.lucene.analysis.standard.StandardAnalyzer
+import org.apache.lucene.document.{Document, SortedDocValuesField, StoredField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig}
+import org.apache.lucene.search.IndexSearcher
+import org.apache.lucene.store.RAMDirectory
+import org.apache.lucene.util.BytesRef
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[DocumentLoader]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class DocumentLoaderTest extends BaseScalaTest {
+
+  def doWithSearcher(documents: List[Document], f: IndexSearcher => Unit): Unit = {
+    val directory = new RAMDirectory
+    val writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer))
+    documents.foreach(writer.addDocument(_))
+    writer.commit()
+    val reader = DirectoryReader.open(directory)
+    try f.apply(new IndexSearcher(reader)) finally {
+      reader.close()
+      writer.close()
+      directory.close()
+    }
+  }
+
+  def document(stored: String, docValue: Option[String]): Document = {
+    val document = new Document
+    document.add(new StoredField("field", new BytesRef(stored)))
+    docValue.foreach(v => document.add(new SortedDocValuesField("field", new BytesRef(v))))
+    document
+  }
+
+  def value(document: Document): String = document.getBinaryValue("field").utf8ToString
+
+  test("load stored fields") {
+    val documents = List(document("a", None), document("b", None))
+    doWithSearcher(documents, searcher => {
+      val loader = DocumentLoader(java.util.Collections.singleton("field"))
+      val loaded = loader.load(searcher, Array(1, 0))
+      loaded.map(value) shouldBe Array("b", "a")
+    })
+  }
+
+  test("load doc values skipping prefix") {
+    val documents = List(document("a", Some("xxa")), document("b", Some("xxb")))
+    doWithSearcher(documents, searcher => {
+      val loaded = DocumentLoader(Map("field" -> 2)).load(searcher, Array(1, 0))
+      loaded.map(value) shouldBe Array("b", "a")
+    })
+  }
+
+  test("load doc values falling back to stored fields") {
+    val documents = List(document("a", None), document("b", None))
+    doWithSearcher(documents, searcher => {
+      val loaded = DocumentLoader(Map("field" -> 2)).load(searcher, Array(0, 1))
+      loaded.map(value) shouldBe Array("a", "b")
+    })
+  }
+
+}
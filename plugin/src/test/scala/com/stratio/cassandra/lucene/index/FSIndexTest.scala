@@ -16,7 +16,7 @@
 package com.stratio.cassandra.lucene.index
 
 import java.nio.file.Paths
-import java.util.{Collections, UUID}
+import java.util.UUID
 
 import com.stratio.cassandra.lucene.BaseScalaTest
 import com.stratio.cassandra.lucene.IndexOptions._
@@ -58,7 +58,8 @@ class FSIndexTest extends BaseScalaTest {
         REFRESH_SECONDS,
         DEFAULT_RAM_BUFFER_MB,
         DEFAULT_MAX_MERGE_MB,
-        DEFAULT_MAX_CACHED_MB)
+        DEFAULT_MAX_CACHED_MB,
+        None)
       f.apply(index)
     } finally temporaryFolder.delete()
   }
@@ -67,8 +68,7 @@ class FSIndexTest extends BaseScalaTest {
     doWithIndex(
       index => {
         val sort = new Sort(new SortedSetSortField("field", false))
-        val fields = Collections.singleton("field")
-        index.init(sort, fields)
+        index.init(sort)
 
         assertEquals("Index must be empty", 0, index.getNumDocs)
 
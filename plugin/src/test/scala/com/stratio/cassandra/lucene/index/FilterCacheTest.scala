@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import com.stratio.cassandra.lucene.index.FilterCache._
+import com.stratio.cassandra.lucene.{BaseScalaTest, IndexException}
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, Field, StringField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search.{IndexSearcher, TermQuery, TotalHitCountCollector}
+import org.apache.lucene.store.{Directory, RAMDirectory}
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[FilterCache]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class FilterCacheTest extends BaseScalaTest {
+
+  val query = new TermQuery(new Term("field", "a"))
+
+  def add(writer: IndexWriter, values: String*): Unit = {
+    values.foreach { value =>
+      val document = new Document
+      document.add(new StringField("field", value, Field.Store.NO))
+      writer.addDocument(document)
+    }
+    writer.commit()
+  }
+
+  def doWithWriter(f: (Directory, IndexWriter) => Unit): Unit = {
+    val directory = new RAMDirectory
+    val writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer))
+    try f(directory, writer) finally writer.close()
+  }
+
+  /** Counts the hits of the query without scores, which is when the filter cache is used. */
+  def count(searcher: IndexSearcher): Int = {
+    val collector = new TotalHitCountCollector
+    searcher.search(query, collector)
+    collector.getTotalHits
+  }
+
+  test("build with unknown policy") {
+    intercept[IndexException] {
+      new FilterCache(10, "lfu")
+    }.getMessage shouldBe "Unknown filter cache policy 'lfu'"
+  }
+
+  test("reuse cached filter") {
+    val cache = new FilterCache(10, ALWAYS_POLICY)
+    doWithWriter { (directory, writer) =>
+      add(writer, "a", "b", "a", "c")
+      val reader = DirectoryReader.open(directory)
+      try {
+        val searcher = cache.configure(new IndexSearcher(reader))
+        count(searcher) shouldBe 2
+        cache.hitCount shouldBe 0
+        cache.missCount shouldBe 1
+        cache.size shouldBe 1
+        count(searcher) shouldBe 2
+        count(cache.configure(new IndexSearcher(reader))) shouldBe 2
+        cache.hitCount shouldBe 2
+        cache.missCount shouldBe 1
+        cache.size shouldBe 1
+        cache.ramBytesUsed should be > 0L
+      } finally reader.close()
+    }
+  }
+
+  test("invalidate cached filter after reader reopen") {
+    val cache = new FilterCache(10, ALWAYS_POLICY)
+    doWithWriter { (directory, writer) =>
+      add(writer, "a", "b")
+      val reader = DirectoryReader.open(directory)
+      count(cache.configure(new IndexSearcher(reader))) shouldBe 1
+      cache.size shouldBe 1
+
+      // New segments are searched without the stale entries of the previous segments
+      add(writer, "a", "a")
+      writer.forceMerge(1)
+      writer.commit()
+      val newReader = DirectoryReader.openIfChanged(reader)
+      try {
+        reader.close()
+        cache.size shouldBe 0
+        val searcher = cache.configure(new IndexSearcher(newReader))
+        count(searcher) shouldBe 3
+        cache.missCount shouldBe 2
+        count(searcher) shouldBe 3
+        cache.hitCount shouldBe 1
+        cache.size shouldBe 1
+      } finally newReader.close()
+      cache.size shouldBe 0
+    }
+  }
+
+  test("skip caching of filters on small segments with frequency policy") {
+    val cache = new FilterCache(10, FREQUENCY_POLICY)
+    doWithWriter { (directory, writer) =>
+      add(writer, "a", "b", "a")
+      val reader = DirectoryReader.open(directory)
+      try {
+        val searcher = cache.configure(new IndexSearcher(reader))
+        for (_ <- 1 to 10) count(searcher) shouldBe 2
+        cache.size shouldBe 0
+        cache.hitCount shouldBe 0
+      } finally reader.close()
+    }
+  }
+}
@@ -60,7 +60,9 @@ class PartitionedIndexTest extends BaseScalaTest {
         REFRESH_SECONDS,
         DEFAULT_RAM_BUFFER_MB,
         DEFAULT_MAX_MERGE_MB,
-        DEFAULT_MAX_CACHED_MB)
+        DEFAULT_MAX_CACHED_MB,
+        None,
+        None)
       f.apply(index)
     } finally temporaryFolder.delete()
   }
@@ -69,7 +71,7 @@ class PartitionedIndexTest extends BaseScalaTest {
     doWithIndex(1, index => {
       val sort = new Sort(new SortedSetSortField("field", false))
       val fields = Collections.singleton("field")
-      index.init(sort, fields)
+      index.init(sort, DocumentLoader(fields))
 
       assertEquals("Index must be empty", 0, index.getNumDocs)
 
@@ -122,7 +124,7 @@ class PartitionedIndexTest extends BaseScalaTest {
     doWithIndex(2, index => {
       val sort = new Sort(new SortedSetSortField("field", false))
       val fields = Collections.singleton("field")
-      index.init(sort, fields)
+      index.init(sort, DocumentLoader(fields))
 
       assertEquals("Index must be empty", 0, index.getNumDocs)
 
@@ -177,7 +179,7 @@ class PartitionedIndexTest extends BaseScalaTest {
     doWithIndex(1, index => {
       val sort = new Sort(new SortedNumericSortField("field", SortField.Type.INT, false))
       val fields = Collections.singleton("field")
-      index.init(sort, fields)
+      index.init(sort, DocumentLoader(fields))
 
       assertEquals("Index must be empty", 0, index.getNumDocs)
 
@@ -203,7 +205,7 @@ class PartitionedIndexTest extends BaseScalaTest {
     doWithIndex(2, index => {
       val sort = new Sort(new SortedNumericSortField("field", SortField.Type.INT, false))
       val fields = Collections.singleton("field")
-      index.init(sort, fields)
+      index.init(sort, DocumentLoader(fields))
 
       assertEquals("Index must be empty", 0, index.getNumDocs)
 
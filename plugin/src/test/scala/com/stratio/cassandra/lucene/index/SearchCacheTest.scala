@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.index
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, Field, SortedDocValuesField, StringField}
+import org.apache.lucene.index.{IndexWriter, IndexWriterConfig, Term}
+import org.apache.lucene.search._
+import org.apache.lucene.store.RAMDirectory
+import org.apache.lucene.util.BytesRef
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[SearchCache]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class SearchCacheTest extends BaseScalaTest {
+
+  val query = new MatchAllDocsQuery
+  val sort = new Sort(new SortField("id", SortField.Type.STRING))
+  val loader = DocumentLoader(java.util.Collections.singleton("id"))
+
+  def add(writer: IndexWriter, ids: String*): Unit = {
+    ids.foreach { id =>
+      val document = new Document
+      document.add(new StringField("id", id, Field.Store.YES))
+      document.add(new SortedDocValuesField("id", new BytesRef(id)))
+      writer.addDocument(document)
+    }
+    writer.commit()
+  }
+
+  def doWithManager(f: (IndexWriter, SearcherManager) => Unit): Unit = {
+    val writer = new IndexWriter(new RAMDirectory, new IndexWriterConfig(new KeywordAnalyzer))
+    try {
+      add(writer, "1", "2", "3")
+      val manager = new SearcherManager(writer, true, null)
+      try f(writer, manager) finally manager.close()
+    } finally writer.close()
+  }
+
+  /** Returns the ids of the first page of documents found with the specified arguments. */
+  def search(
+      cache: SearchCache,
+      manager: SearcherManager,
+      limit: Int = 10,
+      after: Option[Term] = None): List[String] = {
+    val cursors = List((0, manager, after))
+    val iterator =
+      new DocumentIterator(cursors, Sort.INDEXORDER, sort, query, limit, loader, Some(cache))
+    try iterator.map(_._1.get("id")).toList finally iterator.close()
+  }
+
+  test("reuse cached first page") {
+    val cache = new SearchCache(100, 60)
+    doWithManager { (writer, manager) =>
+      search(cache, manager) shouldBe List("1", "2", "3")
+      cache.missCount shouldBe 1
+      cache.size shouldBe 1
+      search(cache, manager) shouldBe List("1", "2", "3")
+      cache.hitCount shouldBe 1
+      cache.missCount shouldBe 1
+      cache.size shouldBe 1
+    }
+  }
+
+  test("don't reuse cached first page after reader version change") {
+    val cache = new SearchCache(100, 60)
+    doWithManager { (writer, manager) =>
+      search(cache, manager) shouldBe List("1", "2", "3")
+      add(writer, "0")
+      manager.maybeRefreshBlocking()
+      search(cache, manager) shouldBe List("0", "1", "2", "3")
+      cache.hitCount shouldBe 0
+      cache.missCount shouldBe 2
+      search(cache, manager) shouldBe List("0", "1", "2", "3")
+      cache.hitCount shouldBe 1
+    }
+  }
+
+  test("keep keys with different page size or start position apart") {
+    val cache = new SearchCache(100, 60)
+    doWithManager { (writer, manager) =>
+      search(cache, manager, limit = 10) shouldBe List("1", "2", "3")
+      search(cache, manager, limit = 20) shouldBe List("1", "2", "3")
+      search(cache, manager, after = Some(new Term("id", "1"))) shouldBe List("2", "3")
+      search(cache, manager, after = Some(new Term("id", "2"))) shouldBe List("3")
+      cache.hitCount shouldBe 0
+      cache.missCount shouldBe 4
+      cache.size shouldBe 4
+      search(cache, manager, after = Some(new Term("id", "2"))) shouldBe List("3")
+      cache.hitCount shouldBe 1
+    }
+  }
+
+  test("key by partition and reader version") {
+    val key = SearchCache.Key(query, sort, 11, List(None), List((0, 5L)))
+    key shouldBe SearchCache.Key(query, sort, 11, List(None), List((0, 5L)))
+    key should not be SearchCache.Key(query, sort, 11, List(None), List((0, 6L)))
+    key should not be SearchCache.Key(query, sort, 11, List(None), List((1, 5L)))
+  }
+}
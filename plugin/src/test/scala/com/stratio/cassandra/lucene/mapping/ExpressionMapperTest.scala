@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import com.stratio.cassandra.lucene.{BaseScalaTest, IndexException}
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[ExpressionMapper]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class ExpressionMapperTest extends BaseScalaTest {
+
+  test("parse reuses cached searches") {
+    val json = "{query:{type: \"match\", field: \"f\", value:1}}"
+    val search = ExpressionMapper.parse(json)
+    ExpressionMapper.parse(new String(json)) should be theSameInstanceAs search
+    ExpressionMapper.parse("{query:{type: \"match\", field: \"f\", value:2}}") should not be
+      theSameInstanceAs(search)
+  }
+
+  test("parse doesn't cache failures") {
+    intercept[IndexException] {ExpressionMapper.parse("error")}
+    intercept[IndexException] {ExpressionMapper.parse("error")}
+  }
+
+}
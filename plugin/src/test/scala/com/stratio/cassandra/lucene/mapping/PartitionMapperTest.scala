@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import java.util.UUID
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import com.stratio.cassandra.lucene.schema.SchemaBuilders._
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[PartitionMapper]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class PartitionMapperTest extends BaseScalaTest {
+
+  test("is exact") {
+    PartitionMapper.isExact(stringMapper.build("f"), utf8) shouldBe true
+    PartitionMapper.isExact(stringMapper.build("f"), ascii) shouldBe true
+    PartitionMapper.isExact(stringMapper.caseSensitive(false).build("f"), utf8) shouldBe false
+    PartitionMapper.isExact(stringMapper.build("f"), int32) shouldBe false
+    PartitionMapper.isExact(integerMapper.build("f"), int32) shouldBe true
+    PartitionMapper.isExact(integerMapper.build("f"), long) shouldBe false
+    PartitionMapper.isExact(longMapper.build("f"), long) shouldBe true
+    PartitionMapper.isExact(uuidMapper.build("f"), uuid) shouldBe true
+    PartitionMapper.isExact(uuidMapper.build("f"), timeUuid) shouldBe true
+    PartitionMapper.isExact(textMapper.build("f"), utf8) shouldBe false
+    PartitionMapper.isExact(doubleMapper.build("f"), double) shouldBe false
+  }
+
+  test("decompose strings") {
+    val values = List[AnyRef]("a", "b", Integer.valueOf(1))
+    PartitionMapper.decompose(stringMapper.build("f"), utf8, values) shouldBe
+      Some(Set("a", "b", "1").map(utf8.decompose(_)))
+  }
+
+  test("decompose integers") {
+    val values = List[AnyRef](Integer.valueOf(1), "2")
+    PartitionMapper.decompose(integerMapper.build("f"), int32, values) shouldBe
+      Some(Set(1, 2).map(i => int32.decompose(i)))
+  }
+
+  test("decompose lossy integers") {
+    val values = List[AnyRef](Integer.valueOf(1), "2.5")
+    PartitionMapper.decompose(integerMapper.build("f"), int32, values) shouldBe None
+  }
+
+  test("decompose uuids") {
+    val value = UUID.randomUUID
+    val values = List[AnyRef](value, value.toString)
+    PartitionMapper.decompose(uuidMapper.build("f"), uuid, values) shouldBe
+      Some(Set(uuid.decompose(value)))
+  }
+
+  test("decompose with not exact mapper") {
+    val mapper = stringMapper.caseSensitive(false).build("f")
+    PartitionMapper.decompose(mapper, utf8, List[AnyRef]("a")) shouldBe None
+  }
+}
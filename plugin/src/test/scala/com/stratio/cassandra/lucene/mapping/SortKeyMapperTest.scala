@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import java.util.UUID
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import org.apache.cassandra.config.CFMetaData
+import org.apache.cassandra.db.{Clustering, DecoratedKey, Slice}
+import org.apache.cassandra.dht.Murmur3Partitioner
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.Document
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig}
+import org.apache.lucene.search.{IndexSearcher, Query}
+import org.apache.lucene.store.RAMDirectory
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[SortKeyMapper]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class SortKeyMapperTest extends BaseScalaTest {
+
+  def bytes(values: Int*): Array[Byte] = values.map(_.toByte).toArray
+
+  test("successor") {
+    SortKeyMapper.successor(bytes(1, 2, 3)).map(_.toList) shouldBe Some(List[Byte](1, 2, 4))
+    SortKeyMapper.successor(bytes(1, 0xFF)).map(_.toList) shouldBe Some(List[Byte](2))
+    SortKeyMapper.successor(bytes(0xFF, 0xFF)) shouldBe None
+    SortKeyMapper.successor(bytes()) shouldBe None
+  }
+
+  val metadata = CFMetaData.Builder.create("ks", "t")
+    .addPartitionKey("pk", int32)
+    .addClusteringColumn("ck", int32)
+    .withPartitioner(Murmur3Partitioner.instance)
+    .withId(UUID.randomUUID)
+    .build
+  val mapper = new SortKeyMapper(metadata)
+
+  def key(pk: Int): DecoratedKey = Murmur3Partitioner.instance.decorateKey(int32.decompose(pk))
+
+  def clustering(ck: Int): Clustering = new Clustering(int32.decompose(ck))
+
+  /** Returns the primary keys matched by the specified query in an index with partitions 1 to 3,
+    * each one containing the clustering keys -2 to 2.
+    */
+  def search(query: Query): List[(Int, Int)] = {
+    val rows = for (pk <- 1 to 3; ck <- -2 to 2) yield (pk, ck)
+    val directory = new RAMDirectory
+    val writer = new IndexWriter(directory, new IndexWriterConfig(new KeywordAnalyzer))
+    try rows.foreach { case (pk, ck) =>
+      val document = new Document
+      document.add(mapper.indexableField(key(pk), clustering(ck)))
+      writer.addDocument(document)
+    } finally writer.close()
+    val reader = DirectoryReader.open(directory)
+    try {
+      val searcher = new IndexSearcher(reader)
+      searcher.search(query, rows.size).scoreDocs.map(_.doc).sorted.map(rows(_)).toList
+    } finally reader.close()
+  }
+
+  test("query without bounds") {
+    search(mapper.query(key(2), None, None)) shouldBe (-2 to 2).map((2, _)).toList
+  }
+
+  test("query with inclusive bounds") {
+    val start = Slice.Bound.inclusiveStartOf(int32.decompose(-1))
+    val stop = Slice.Bound.inclusiveEndOf(int32.decompose(1))
+    search(mapper.query(key(2), Some(start), Some(stop))) shouldBe List((2, -1), (2, 0), (2, 1))
+  }
+
+  test("query with exclusive bounds") {
+    val start = Slice.Bound.exclusiveStartOf(int32.decompose(-1))
+    val stop = Slice.Bound.exclusiveEndOf(int32.decompose(1))
+    search(mapper.query(key(2), Some(start), Some(stop))) shouldBe List((2, 0))
+  }
+
+  test("query with open bounds") {
+    val start = Slice.Bound.exclusiveStartOf(int32.decompose(0))
+    val stop = Slice.Bound.exclusiveEndOf(int32.decompose(0))
+    search(mapper.query(key(3), Some(start), None)) shouldBe List((3, 1), (3, 2))
+    search(mapper.query(key(1), None, Some(stop))) shouldBe List((1, -2), (1, -1))
+  }
+
+  test("query with slice") {
+    val slice = Slice.make(clustering(0), clustering(2))
+    search(mapper.query(key(1), slice)) shouldBe List((1, 0), (1, 1), (1, 2))
+  }
+
+  test("query with empty range") {
+    val start = Slice.Bound.inclusiveStartOf(int32.decompose(1))
+    val stop = Slice.Bound.exclusiveEndOf(int32.decompose(1))
+    search(mapper.query(key(2), Some(start), Some(stop))) shouldBe Nil
+    val reversed = Slice.Bound.inclusiveEndOf(int32.decompose(0))
+    search(mapper.query(key(2), Some(start), Some(reversed))) shouldBe Nil
+    search(mapper.query(key(4), None, None)) shouldBe Nil
+  }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.mapping
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import com.stratio.cassandra.lucene.column.Columns
+import com.stratio.cassandra.lucene.schema.SchemaBuilders
+import com.stratio.cassandra.lucene.schema.SchemaBuilders._
+import com.stratio.cassandra.lucene.search.SearchBuilders._
+import org.apache.cassandra.db.{Clustering, ClusteringComparator}
+import org.apache.cassandra.dht.Murmur3Partitioner
+import org.apache.lucene.search.SortField
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[SortValuesMapper]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class SortValuesMapperTest extends BaseScalaTest {
+
+  val schema = SchemaBuilders.schema()
+    .mapper("s", stringMapper())
+    .mapper("i", integerMapper())
+    .mapper("d", doubleMapper())
+    .build
+
+  def mapper(sortFields: SortField*): SortValuesMapper = {
+    new SortValuesMapper(schema, new ClusteringComparator(), sortFields.toList)
+  }
+
+  def sorted(mapper: SortValuesMapper, rows: List[(Int, Columns)]): List[Int] = {
+    rows.map { case (n, columns) =>
+      val key = Murmur3Partitioner.instance.decorateKey(int32.decompose(n))
+      (n, mapper.values(key, Clustering.EMPTY, columns))
+    }.sortBy(_._2)(mapper.ordering).map(_._1)
+  }
+
+  test("supports") {
+    SortValuesMapper.supports(schema.mapper("s").sortField("s", false)) shouldBe true
+    SortValuesMapper.supports(schema.mapper("i").sortField("i", true)) shouldBe true
+    SortValuesMapper.supports(schema.mapper("d").sortField("d", false)) shouldBe true
+    SortValuesMapper.supports(SortField.FIELD_SCORE) shouldBe false
+  }
+
+  test("apply with relevance") {
+    val search = query(`match`("s", "a")).sort(field("s")).build
+    SortValuesMapper(schema, null, search) shouldBe None
+  }
+
+  test("sort by string") {
+    val rows = List(
+      1 -> Columns.empty.add("s", "b"),
+      2 -> Columns.empty.add("s", "a"),
+      3 -> Columns.empty,
+      4 -> Columns.empty.add("s", "c").add("s", "0"))
+    val field = schema.mapper("s").sortField("s", false)
+    sorted(mapper(field), rows) shouldBe List(3, 4, 2, 1)
+    val reversed = schema.mapper("s").sortField("s", true)
+    sorted(mapper(reversed), rows) shouldBe List(1, 2, 4, 3)
+  }
+
+  test("sort by numbers") {
+    val rows = List(
+      1 -> Columns.empty.add("i", 2).add("d", -1.5),
+      2 -> Columns.empty.add("i", -3).add("d", 2.5),
+      3 -> Columns.empty.add("i", 2).add("d", -2.5))
+    val integer = schema.mapper("i").sortField("i", false)
+    val double = schema.mapper("d").sortField("d", true)
+    sorted(mapper(double), rows) shouldBe List(2, 1, 3)
+    sorted(mapper(integer, double), rows) shouldBe List(2, 1, 3)
+    sorted(mapper(integer), rows).head shouldBe 2
+  }
+
+}
@@ -18,6 +18,11 @@ package com.stratio.cassandra.lucene.mapping
 import com.stratio.cassandra.lucene.BaseScalaTest
 import com.stratio.cassandra.lucene.util.ByteBufferUtils.toHex
 import org.apache.cassandra.dht.Murmur3Partitioner
+import org.apache.lucene.analysis.core.KeywordAnalyzer
+import org.apache.lucene.document.{Document, LongField, StoredField}
+import org.apache.lucene.index.{DirectoryReader, IndexWriter, IndexWriterConfig, NoMergePolicy}
+import org.apache.lucene.search.IndexSearcher
+import org.apache.lucene.store.RAMDirectory
 import org.junit.runner.RunWith
 import org.scalatest.junit.JUnitRunner
 
@@ -42,4 +47,100 @@ class TokenMapperTest extends BaseScalaTest {
     hex(0) shouldBe "2001000000000000000000"
     hex(1) shouldBe "2001000000000000000001"
   }
+
+  test("coverage") {
+    TokenMapper.coverage(0, 10, 20, 30) shouldBe 0
+    TokenMapper.coverage(40, 50, 20, 30) shouldBe 0
+    TokenMapper.coverage(0, 40, 20, 30) shouldBe 1
+    TokenMapper.coverage(Long.MinValue, Long.MaxValue, -5, 5) shouldBe 1
+    TokenMapper.coverage(0, 9, 0, 99) shouldBe 0.1
+    TokenMapper.coverage(Long.MinValue, 0, Long.MinValue, Long.MaxValue) shouldBe 0.5 +- 0.001
+    TokenMapper.coverage(5, 5, 5, 5) shouldBe 1
+  }
+
+  /** The indexed tokens, split in segments with narrow, dense and wide token ranges. */
+  val segments = List(
+    Long.MinValue :: (-100L until 0L).toList,
+    (0L until 100L).toList,
+    (1000L until 1100L).toList :+ Long.MaxValue)
+
+  /** Returns the tokens matched by the specified query, which are searched in the indexed
+    * segments and verified against a plain scan of the tokens.
+    */
+  def search(min: Long, max: Long, includeLower: Boolean, includeUpper: Boolean): List[Long] = {
+    val directory = new RAMDirectory
+    val config = new IndexWriterConfig(new KeywordAnalyzer).setMergePolicy(NoMergePolicy.INSTANCE)
+    val writer = new IndexWriter(directory, config)
+    try segments.foreach { tokens =>
+      tokens.foreach { token =>
+        val document = new Document
+        document.add(new LongField(TokenMapper.FIELD_NAME, token, TokenMapper.FIELD_TYPE))
+        document.add(new StoredField("token", token))
+        writer.addDocument(document)
+      }
+      writer.commit()
+    } finally writer.close()
+    val reader = DirectoryReader.open(directory)
+    try {
+      reader.leaves.size shouldBe segments.size
+      val searcher = new IndexSearcher(reader)
+      val query = new TokenRangeQuery(min, max, includeLower, includeUpper)
+      val found = searcher.search(query, reader.maxDoc).scoreDocs
+        .map(scoreDoc => searcher.doc(scoreDoc.doc).getField("token").numericValue.longValue)
+        .toList.sorted
+      val expected = segments.flatten.filter(token =>
+        (if (includeLower) token >= min else token > min) &&
+          (if (includeUpper) token <= max else token < max)).sorted
+      found shouldBe expected
+      found
+    } finally reader.close()
+  }
+
+  def searchAll(min: Long, max: Long): Unit = {
+    for (includeLower <- List(true, false); includeUpper <- List(true, false)) {
+      search(min, max, includeLower, includeUpper)
+    }
+  }
+
+  test("range query with inverted index") {
+    searchAll(-60, 20)
+    search(-60, 20, includeLower = true, includeUpper = true).size shouldBe 81
+  }
+
+  test("range query with doc values") {
+    searchAll(10, 95)
+    search(10, 95, includeLower = false, includeUpper = false).size shouldBe 84
+  }
+
+  test("range query covering whole segments") {
+    searchAll(0, 99)
+    searchAll(-100, 1099)
+    search(0, 99, includeLower = true, includeUpper = true).size shouldBe 100
+  }
+
+  test("range query without matches") {
+    searchAll(200, 900)
+    search(200, 900, includeLower = true, includeUpper = true) shouldBe Nil
+    search(5, 6, includeLower = false, includeUpper = false) shouldBe Nil
+  }
+
+  test("range query with single token") {
+    search(5, 5, includeLower = true, includeUpper = true) shouldBe List(5L)
+    search(5, 5, includeLower = false, includeUpper = true) shouldBe Nil
+  }
+
+  test("range query wrapping around the ring") {
+    // Ranges ending at the minimum token are searched up to the maximum token value
+    searchAll(1050, Long.MaxValue)
+    val found = search(1050, Long.MaxValue, includeLower = false, includeUpper = true)
+    found.last shouldBe Long.MaxValue
+    searchAll(Long.MinValue, -90)
+    search(Long.MinValue, -90, includeLower = true, includeUpper = true).head shouldBe Long.MinValue
+  }
+
+  test("range query with full ring") {
+    search(Long.MinValue, Long.MaxValue, includeLower = true, includeUpper = true) shouldBe
+      segments.flatten.sorted
+    searchAll(Long.MinValue, Long.MaxValue)
+  }
 }
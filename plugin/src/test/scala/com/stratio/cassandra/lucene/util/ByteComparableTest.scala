@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util
+
+import java.nio.ByteBuffer
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import com.stratio.cassandra.lucene.BaseScalaTest._
+import org.apache.cassandra.db.marshal._
+import org.apache.cassandra.utils.ByteBufferUtil
+import org.apache.lucene.util.BytesRef
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+/** Tests for [[ByteComparable]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class ByteComparableTest extends BaseScalaTest {
+
+  def assertOrder(t: AbstractType[_], values: List[ByteBuffer]) {
+    val expected = values.sortWith(t.compare(_, _) < 0).map(ByteComparable.encode(t, _))
+    val actual = values.map(ByteComparable.encode(t, _)).sortBy(new BytesRef(_))
+    actual.map(new BytesRef(_)) shouldBe expected.map(new BytesRef(_))
+  }
+
+  test("supports") {
+    ByteComparable.supports(utf8) shouldBe true
+    ByteComparable.supports(int32) shouldBe true
+    ByteComparable.supports(double) shouldBe true
+    ByteComparable.supports(reversed(long)) shouldBe true
+    ByteComparable.supports(CompositeType.getInstance(utf8, int32)) shouldBe true
+    ByteComparable.supports(ascii) shouldBe true
+    ByteComparable.supports(BytesType.instance) shouldBe true
+    ByteComparable.supports(InetAddressType.instance) shouldBe true
+    ByteComparable.supports(date) shouldBe true
+    ByteComparable.supports(TimeType.instance) shouldBe true
+    ByteComparable.supports(byte) shouldBe true
+    ByteComparable.supports(short) shouldBe true
+    ByteComparable.supports(timestamp) shouldBe true
+    ByteComparable.supports(float) shouldBe true
+    ByteComparable.supports(decimal) shouldBe false
+    ByteComparable.supports(integer) shouldBe false
+    ByteComparable.supports(uuid) shouldBe false
+    ByteComparable.supports(timeUuid) shouldBe false
+  }
+
+  test("text") {
+    val values = List("", "a", "a\u0000", "a\u0000b", "ab", "b", "ba", "ÿ")
+    assertOrder(utf8, values.map(utf8.decompose(_)))
+  }
+
+  test("signed integers") {
+    val values = List(Int.MinValue, -10, -1, 0, 1, 10, Int.MaxValue).map(Integer.valueOf)
+    assertOrder(int32, values.map(int32.decompose(_)) :+ ByteBufferUtil.EMPTY_BYTE_BUFFER)
+  }
+
+  test("dates") {
+    val values = List(0, 1, Int.MaxValue, Int.MinValue, -1).map(Integer.valueOf)
+    assertOrder(date, values.map(date.decompose(_)))
+  }
+
+  test("longs") {
+    val values = List(Long.MinValue, -10L, -1L, 0L, 1L, 10L, Long.MaxValue)
+    assertOrder(long, values.map(java.lang.Long.valueOf).map(long.decompose(_)))
+  }
+
+  test("doubles") {
+    val values = List(Double.NegativeInfinity, -10.5, -0.0, 0.0, 1e-10, 10.5, Double.MaxValue)
+    assertOrder(double, values.map(java.lang.Double.valueOf).map(double.decompose(_)))
+  }
+
+  test("floats") {
+    val values = List(Float.NegativeInfinity, -10.5f, -1e-10f, 0.0f, 1e-10f, 10.5f)
+    assertOrder(float, values.map(java.lang.Float.valueOf).map(float.decompose(_)))
+  }
+
+  test("reversed") {
+    val values = List(-10L, -1L, 0L, 1L, 10L).map(java.lang.Long.valueOf)
+    assertOrder(reversed(long), values.map(long.decompose(_)))
+    assertOrder(reversed(utf8), List("", "a", "ab", "b").map(utf8.decompose(_)))
+  }
+
+  test("composite") {
+    val t = CompositeType.getInstance(utf8, int32)
+    val values = for (s <- List("", "a", "ab", "b"); i <- List(-1, 0, 1)) yield {
+      t.builder.add(utf8.decompose(s)).add(int32.decompose(i)).build
+    }
+    assertOrder(t, values)
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.util
+
+import java.util.concurrent._
+import java.util.concurrent.atomic.AtomicInteger
+
+import com.stratio.cassandra.lucene.BaseScalaTest
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+
+import scala.collection.JavaConverters._
+
+/** Class for testing [[ConcurrentTasks]].
+  *
+  * @author Andres de la Pena `adelapena@stratio.com`
+  */
+@RunWith(classOf[JUnitRunner])
+class ConcurrentTasksTest extends BaseScalaTest {
+
+  def withExecutor[A](executor: ExecutorService)(f: ExecutorService => A): A = {
+    try f(executor) finally executor.shutdownNow()
+  }
+
+  def task[A](f: => A): Callable[A] = () => f
+
+  test("execute without tasks") {
+    withExecutor(Executors.newFixedThreadPool(2)) { executor =>
+      val tasks = List.empty[Callable[Int]]
+      ConcurrentTasks.execute(executor, tasks.asJava, 2, 1000).asScala shouldBe empty
+    }
+  }
+
+  test("execute keeps the order of the tasks") {
+    withExecutor(Executors.newFixedThreadPool(4)) { executor =>
+      val tasks = (0 until 8).map(i => task {Thread.sleep(10 * (8 - i)); i})
+      ConcurrentTasks.execute(executor, tasks.asJava, 4, 1000).asScala shouldBe (0 until 8)
+    }
+  }
+
+  test("execute with limited concurrency") {
+    withExecutor(Executors.newFixedThreadPool(8)) { executor =>
+      val running = new AtomicInteger
+      val maxRunning = new AtomicInteger
+      val tasks = (0 until 20).map(i => task {
+        maxRunning.accumulateAndGet(running.incrementAndGet, Math.max)
+        Thread.sleep(5)
+        running.decrementAndGet
+        i
+      })
+      ConcurrentTasks.execute(executor, tasks.asJava, 3, 1000).asScala shouldBe (0 until 20)
+      maxRunning.get should be <= 3
+    }
+  }
+
+  test("execute with saturated executor running tasks in caller thread") {
+    val queue = new ArrayBlockingQueue[Runnable](1)
+    val policy = new ThreadPoolExecutor.CallerRunsPolicy
+    val executor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS, queue, policy)
+    withExecutor(executor) { executor =>
+      val caller = Thread.currentThread
+      val inCaller = new AtomicInteger
+      val tasks = (0 until 10).map(i => task {
+        if (Thread.currentThread == caller) inCaller.incrementAndGet
+        Thread.sleep(5)
+        i
+      })
+      ConcurrentTasks.execute(executor, tasks.asJava, 10, 1000).asScala shouldBe (0 until 10)
+      inCaller.get should be > 0
+    }
+  }
+
+  test("execute with failure cancels pending tasks") {
+    withExecutor(Executors.newFixedThreadPool(2)) { executor =>
+      val started = new AtomicInteger
+      val running = new CountDownLatch(1)
+      val interrupted = new CountDownLatch(1)
+      val slow = task {
+        started.incrementAndGet
+        running.countDown()
+        try Thread.sleep(10000) catch {case _: InterruptedException => interrupted.countDown()}
+        0
+      }
+      val failing = task[Int] {
+        started.incrementAndGet
+        running.await()
+        throw new IllegalStateException("failed")
+      }
+      val queued = (0 until 5).map(_ => task {started.incrementAndGet; 0})
+      val tasks = Seq(slow, failing) ++ queued
+      val e = intercept[ExecutionException] {
+        ConcurrentTasks.execute(executor, tasks.asJava, 2, 10000)
+      }
+      e.getCause shouldBe an[IllegalStateException]
+      interrupted.await(1, TimeUnit.SECONDS) shouldBe true
+      started.get shouldBe 2
+    }
+  }
+
+  test("execute with timeout cancels pending tasks") {
+    withExecutor(Executors.newFixedThreadPool(2)) { executor =>
+      val interrupted = new CountDownLatch(2)
+      val tasks = (0 until 4).map(_ => task {
+        try Thread.sleep(10000) catch {case _: InterruptedException => interrupted.countDown()}
+        0
+      })
+      intercept[TimeoutException] {
+        ConcurrentTasks.execute(executor, tasks.asJava, 2, 200)
+      }
+      interrupted.await(1, TimeUnit.SECONDS) shouldBe true
+    }
+  }
+}
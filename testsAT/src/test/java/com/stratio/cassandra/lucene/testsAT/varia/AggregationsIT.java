@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.testsAT.varia;
+
+import com.datastax.driver.core.*;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.stratio.cassandra.lucene.builder.search.Search;
+import com.stratio.cassandra.lucene.testsAT.BaseIT;
+import com.stratio.cassandra.lucene.testsAT.util.CassandraUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static com.stratio.cassandra.lucene.builder.Builder.*;
+import static org.junit.Assert.*;
+
+/**
+ * Tests searches with aggregations, which are computed in the first page with a separate read of each token range.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@RunWith(JUnit4.class)
+public class AggregationsIT extends BaseIT {
+
+    private static final int NUM_PARTITIONS = 10;
+    private static final int PARTITION_SIZE = 10;
+    private static final int NUM_ROWS = NUM_PARTITIONS * PARTITION_SIZE;
+    private static final long BIG = 1L << 60;
+    private static final String PAYLOAD = "lucene_aggregations";
+    private static CassandraUtils utils;
+
+    @BeforeClass
+    public static void before() {
+        utils = CassandraUtils.builder("aggregations")
+                              .withPartitionKey("pk")
+                              .withClusteringKey("ck")
+                              .withColumn("pk", "int", integerMapper())
+                              .withColumn("ck", "int", integerMapper())
+                              .withColumn("rc", "int", integerMapper())
+                              .withColumn("label", "text", stringMapper())
+                              .withColumn("big", "bigint", longMapper())
+                              .build()
+                              .createKeyspace()
+                              .createTable()
+                              .createIndex();
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            for (int j = 0; j < PARTITION_SIZE; j++) {
+                int rc = i * PARTITION_SIZE + j;
+                utils.insert(new String[]{"pk", "ck", "rc", "label", "big"},
+                             new Object[]{i, j, rc, "l" + rc % 3, BIG + rc});
+            }
+        }
+        utils.refresh();
+    }
+
+    @AfterClass
+    public static void after() {
+        CassandraUtils.dropKeyspaceIfNotNull(utils);
+    }
+
+    private static Search aggregatedSearch() {
+        return search().filter(all())
+                       .aggregations(termsAggregation("labels", "label"),
+                                     statsAggregation("stats", "rc"),
+                                     histogramAggregation("bigs", "big", 1));
+    }
+
+    private static Statement statement(Search search, String restriction, int fetchSize) {
+        String query = String.format("SELECT * FROM %s WHERE %s = '%s' %s",
+                                     utils.getQualifiedTable(),
+                                     utils.getIndexColumn(),
+                                     search.build(),
+                                     restriction);
+        return new SimpleStatement(query).setFetchSize(fetchSize).setConsistencyLevel(ConsistencyLevel.QUORUM);
+    }
+
+    private static JsonNode json(ByteBuffer value) throws IOException {
+        assertNotNull("Aggregation results are missing", value);
+        return new ObjectMapper().readTree(StandardCharsets.UTF_8.decode(value.duplicate()).toString());
+    }
+
+    private static void checkResults(JsonNode results, int expectedRows) {
+        JsonNode stats = results.get("stats");
+        assertEquals("Stats count is wrong", expectedRows, stats.get("count").asLong());
+        long labels = 0;
+        for (JsonNode count : results.get("labels").get("buckets")) {
+            labels += count.asLong();
+        }
+        assertEquals("Terms counts are wrong", expectedRows, labels);
+        assertEquals("Histogram buckets are wrong", expectedRows, results.get("bigs").get("buckets").size());
+    }
+
+    @Test
+    public void testAggregationsWithPaging() throws IOException {
+        ResultSet rs = utils.execute(statement(aggregatedSearch(), "", 7));
+        List<Row> rows = rs.all();
+        assertEquals("Rows are wrong", NUM_ROWS, rows.size());
+
+        List<ExecutionInfo> pages = rs.getAllExecutionInfo();
+        assertTrue("Expected several pages", pages.size() > 1);
+        Map<String, ByteBuffer> payload = pages.get(0).getIncomingPayload();
+        JsonNode results = json(payload == null ? null : payload.get(PAYLOAD));
+        checkResults(results, NUM_ROWS);
+        JsonNode stats = results.get("stats");
+        assertEquals("Stats min is wrong", 0, stats.get("min").asLong());
+        assertEquals("Stats max is wrong", NUM_ROWS - 1, stats.get("max").asLong());
+        assertEquals("Stats sum is wrong", NUM_ROWS * (NUM_ROWS - 1) / 2, stats.get("sum").asLong());
+        assertEquals("First row results are wrong",
+                     results,
+                     json(rows.get(0).getBytesUnsafe(utils.getIndexColumn())));
+
+        for (ExecutionInfo page : pages.subList(1, pages.size())) {
+            Map<String, ByteBuffer> pagePayload = page.getIncomingPayload();
+            assertTrue("Only the first page should have aggregations",
+                       pagePayload == null || !pagePayload.containsKey(PAYLOAD));
+        }
+    }
+
+    @Test
+    public void testAggregationsWithSmallLimit() throws IOException {
+        ResultSet rs = utils.execute(statement(aggregatedSearch(), "LIMIT 3", 100));
+        assertEquals("Rows are wrong", 3, rs.all().size());
+        checkResults(json(rs.getExecutionInfo().getIncomingPayload().get(PAYLOAD)), NUM_ROWS);
+    }
+
+    @Test
+    public void testAggregationsWithPartitionKeys() throws IOException {
+        ResultSet rs = utils.execute(statement(aggregatedSearch(), "AND pk IN (1, 5)", 100));
+        assertEquals("Rows are wrong", 2 * PARTITION_SIZE, rs.all().size());
+        checkResults(json(rs.getExecutionInfo().getIncomingPayload().get(PAYLOAD)), 2 * PARTITION_SIZE);
+    }
+
+    @Test
+    public void testHistogramWithLongValues() throws IOException {
+        ResultSet rs = utils.execute(statement(aggregatedSearch(), "", 100));
+        JsonNode buckets = json(rs.getExecutionInfo().getIncomingPayload().get(PAYLOAD)).get("bigs").get("buckets");
+        for (int i = 0; i < NUM_ROWS; i++) {
+            JsonNode bucket = buckets.get(String.valueOf(BIG + i));
+            assertNotNull("Histogram bucket is missing", bucket);
+            assertEquals("Histogram bucket count is wrong", 1, bucket.asLong());
+        }
+    }
+
+    @Test
+    public void testAggregationsWithOtherExpressions() {
+        try {
+            utils.execute(statement(aggregatedSearch(), "AND rc > 3 ALLOW FILTERING", 100));
+            fail("Aggregations with other filtering expressions should be rejected");
+        } catch (InvalidQueryException e) {
+            assertEquals("Aggregations error message is wrong",
+                         "Aggregations can't be combined with other filtering expressions",
+                         e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.testsAT.varia;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.exceptions.InvalidQueryException;
+import com.stratio.cassandra.lucene.testsAT.BaseIT;
+import com.stratio.cassandra.lucene.testsAT.util.CassandraUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.stratio.cassandra.lucene.builder.Builder.integerMapper;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests approximate count searches.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@RunWith(JUnit4.class)
+public class ApproximateCountIT extends BaseIT {
+
+    private static final String SEARCH = "{filter: {type: \"range\", field: \"rc\", lower: 3}, " +
+                                         "count: true, approximate: true}";
+
+    private static CassandraUtils utils;
+
+    @BeforeClass
+    public static void before() {
+        utils = CassandraUtils.builder("approximate_count")
+                              .withPartitionKey("pk")
+                              .withColumn("pk", "int", integerMapper())
+                              .withColumn("rc", "int", integerMapper())
+                              .build()
+                              .createKeyspace()
+                              .createTable()
+                              .createIndex();
+        for (int i = 0; i < 10; i++) {
+            utils.insert(new String[]{"pk", "rc"}, new Object[]{i, i});
+        }
+        utils.refresh();
+    }
+
+    @AfterClass
+    public static void after() {
+        CassandraUtils.dropKeyspaceIfNotNull(utils);
+    }
+
+    private static Statement statement(String selection) {
+        String query = String.format("SELECT %s FROM %s WHERE expr(%s, '%s')",
+                                     selection,
+                                     utils.getQualifiedTable(),
+                                     utils.getIndexName(),
+                                     SEARCH);
+        return new SimpleStatement(query).setConsistencyLevel(ConsistencyLevel.ONE);
+    }
+
+    @Test
+    public void testCountAll() {
+        assertEquals("Approximate count is wrong", 6L, utils.execute(statement("count(*)")).one().getLong(0));
+    }
+
+    @Test
+    public void testCountOne() {
+        assertEquals("Approximate count is wrong", 6L, utils.execute(statement("count(1)")).one().getLong(0));
+    }
+
+    @Test
+    public void testSelectAll() {
+        testRejected("*");
+    }
+
+    @Test
+    public void testCountColumn() {
+        testRejected("count(rc)");
+    }
+
+    @Test
+    public void testCountWithDeletionsAndExpirations() throws InterruptedException {
+        CassandraUtils deletions = CassandraUtils.builder("approximate_count_deletions")
+                                                 .withPartitionKey("pk")
+                                                 .withClusteringKey("ck")
+                                                 .withColumn("pk", "int", integerMapper())
+                                                 .withColumn("ck", "int", integerMapper())
+                                                 .withColumn("rc", "int", integerMapper())
+                                                 .build()
+                                                 .createKeyspace()
+                                                 .createTable()
+                                                 .createIndex();
+        try {
+            String table = deletions.getQualifiedTable();
+            for (int pk = 0; pk < 10; pk++) {
+                for (int ck = 0; ck < 10; ck++) {
+                    write(deletions, "INSERT INTO %s (pk, ck, rc) VALUES (%d, %d, %d)", table, pk, ck, pk * 10 + ck);
+                }
+            }
+            write(deletions, "DELETE FROM %s WHERE pk = 0", table);
+            write(deletions, "DELETE FROM %s WHERE pk = 1 AND ck < 5", table);
+            write(deletions, "DELETE FROM %s WHERE pk = 2 AND ck = 0", table);
+            write(deletions, "INSERT INTO %s (pk, ck, rc) VALUES (10, 0, 0) USING TTL 1", table);
+            Thread.sleep(2000);
+            deletions.refresh();
+
+            String query = String.format("SELECT count(*) FROM %s WHERE expr(%s, '%%s')",
+                                         table,
+                                         deletions.getIndexName());
+            String search = "{filter: {type: \"all\"}, count: true%s}";
+            Statement exact = new SimpleStatement(String.format(query, String.format(search, "")));
+            exact.setConsistencyLevel(ConsistencyLevel.ALL);
+            assertEquals("Exact count is wrong", 84L, deletions.execute(exact).one().getLong(0));
+
+            // The expired row is still in the index
+            for (ConsistencyLevel consistency : new ConsistencyLevel[]{ConsistencyLevel.ONE,
+                                                                       ConsistencyLevel.LOCAL_ONE}) {
+                Statement approximate = new SimpleStatement(String.format(query,
+                                                                          String.format(search,
+                                                                                        ", approximate: true")));
+                approximate.setConsistencyLevel(consistency);
+                assertEquals("Approximate count is wrong", 85L, deletions.execute(approximate).one().getLong(0));
+            }
+        } finally {
+            CassandraUtils.dropKeyspaceIfNotNull(deletions);
+        }
+    }
+
+    private static void write(CassandraUtils utils, String query, Object... args) {
+        Statement statement = new SimpleStatement(String.format(query, args));
+        utils.execute(statement.setConsistencyLevel(ConsistencyLevel.ALL));
+    }
+
+    private void testRejected(String selection) {
+        try {
+            utils.execute(statement(selection)).all();
+            fail("Approximate search selecting " + selection + " should be rejected");
+        } catch (InvalidQueryException e) {
+            assertEquals("Approximate search exception message is wrong",
+                         "Approximate searches require selecting only count(*) or count(1)",
+                         e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.testsAT.varia;
+
+import com.stratio.cassandra.lucene.testsAT.BaseIT;
+import com.stratio.cassandra.lucene.testsAT.util.CassandraUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.stratio.cassandra.lucene.builder.Builder.*;
+
+/**
+ * Tests searches determined by partition key conditions, which read wide partitions without searching the index.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@RunWith(JUnit4.class)
+public class KeySearchWithWideRowsIT extends BaseIT {
+
+    private static final int NUM_PARTITIONS = 3;
+    private static final int PARTITION_SIZE = 2000;
+    private static CassandraUtils utils;
+
+    @BeforeClass
+    public static void before() {
+        utils = CassandraUtils.builder("key_search_with_wide_rows")
+                              .withPartitionKey("pk")
+                              .withClusteringKey("ck")
+                              .withColumn("pk", "int", integerMapper())
+                              .withColumn("ck", "int", integerMapper())
+                              .withColumn("rc", "int", integerMapper())
+                              .build()
+                              .createKeyspace()
+                              .createTable()
+                              .createIndex();
+        for (int i = 0; i < NUM_PARTITIONS; i++) {
+            for (int j = 0; j < PARTITION_SIZE; j++) {
+                utils.insert(new String[]{"pk", "ck", "rc"}, new Object[]{i, j, i * PARTITION_SIZE + j});
+            }
+        }
+        utils.refresh();
+    }
+
+    @AfterClass
+    public static void after() {
+        CassandraUtils.dropKeyspaceIfNotNull(utils);
+    }
+
+    @Test
+    public void testMatchWithSmallLimit() {
+        utils.filter(match("pk", 1)).limit(5).checkOrderedColumns("ck", 0, 1, 2, 3, 4);
+    }
+
+    @Test
+    public void testMatchWithLimitOne() {
+        utils.filter(match("pk", 2)).limit(1).checkOrderedColumns("rc", 2 * PARTITION_SIZE);
+    }
+
+    @Test
+    public void testContainsWithSmallLimit() {
+        utils.filter(contains("pk", 0, 1, 2)).limit(10).check(10);
+    }
+
+    @Test
+    public void testContainsWithLimitAcrossPartitions() {
+        utils.filter(contains("pk", 0, 2)).limit(PARTITION_SIZE + 5).check(PARTITION_SIZE + 5);
+    }
+
+    @Test
+    public void testMatchWithSmallLimitAndPaging() {
+        utils.filter(match("pk", 1)).fetchSize(3).limit(10).checkOrderedColumns("ck", 0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    }
+}
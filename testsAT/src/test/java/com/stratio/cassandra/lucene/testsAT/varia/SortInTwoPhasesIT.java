@@ -0,0 +1,98 @@
+/*
+ * Copyright (C) 2014 Stratio (http://stratio.com)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.stratio.cassandra.lucene.testsAT.varia;
+
+import com.stratio.cassandra.lucene.testsAT.BaseIT;
+import com.stratio.cassandra.lucene.testsAT.util.CassandraUtils;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static com.stratio.cassandra.lucene.builder.Builder.field;
+import static com.stratio.cassandra.lucene.builder.Builder.integerMapper;
+
+/**
+ * Tests sorted searches selecting more columns than the sorting ones, which are read in two phases.
+ *
+ * @author Andres de la Pena <adelapena@stratio.com>
+ */
+@RunWith(JUnit4.class)
+public class SortInTwoPhasesIT extends BaseIT {
+
+    private static CassandraUtils utils;
+
+    @BeforeClass
+    public static void before() {
+        utils = CassandraUtils.builder("sort_in_two_phases")
+                              .withPartitionKey("pk")
+                              .withColumn("pk", "int", integerMapper())
+                              .withColumn("rc", "int", integerMapper())
+                              .withColumn("txt", "text")
+                              .build()
+                              .createKeyspace()
+                              .createTable()
+                              .createIndex();
+        for (int i = 0; i < 5; i++) {
+            utils.insert(new String[]{"pk", "rc", "txt"}, new Object[]{i, i, "inserted"});
+        }
+
+        // Rows without primary key liveness nor sort column value
+        for (int i = 5; i < 7; i++) {
+            utils.update().set("txt", "updated").where("pk", i).refresh();
+        }
+        utils.refresh();
+    }
+
+    @AfterClass
+    public static void after() {
+        CassandraUtils.dropKeyspaceIfNotNull(utils);
+    }
+
+    @Test
+    public void testSortAscWithUpdatedRows() {
+        utils.sort(field("rc").reverse(false))
+             .limit(10)
+             .checkUnorderedColumns("txt",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "updated",
+                                    "updated");
+    }
+
+    @Test
+    public void testSortDescWithUpdatedRows() {
+        utils.sort(field("rc").reverse(true))
+             .limit(10)
+             .checkUnorderedColumns("txt",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "inserted",
+                                    "updated",
+                                    "updated");
+    }
+
+    @Test
+    public void testSortWithUpdatedRowsCount() {
+        utils.sort(field("rc").reverse(false)).limit(10).check(7);
+    }
+}